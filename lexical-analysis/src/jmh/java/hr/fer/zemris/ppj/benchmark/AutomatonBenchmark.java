@@ -0,0 +1,131 @@
+package hr.fer.zemris.ppj.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hr.fer.zemris.ppj.finite.automaton.DFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.ENFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.generator.ENFAutomatonGenerator;
+import hr.fer.zemris.ppj.finite.automaton.transforms.DFAConverter;
+import hr.fer.zemris.ppj.finite.automaton.transforms.EquivalentRemover;
+import hr.fer.zemris.ppj.finite.automaton.transforms.HopcroftMinimizer;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpression;
+
+/**
+ * <code>AutomatonBenchmark</code> measures the stages of the automaton generation for all rules of a example language:
+ * Thompson's construction, the subset construction and the removal of the equivalent states. Each stage gets the
+ * output of the previous stage, prepared in the setup. <br>
+ * The table filling of the {@link EquivalentRemover} is quadratic in the number of states and takes seconds on the
+ * larger automatons, so it's measured in single shots, next to the {@link HopcroftMinimizer}.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutomatonBenchmark {
+
+    @Param({ "ppjC", "ppjLang_tezi", "minusLang_tezi", "regex_tezi" })
+    private String example;
+
+    private List<RegularExpression> expressions;
+    private final List<ENFAutomaton> enfAutomatons = new ArrayList<>();
+    private final List<DFAutomaton> dfAutomatons = new ArrayList<>();
+
+    /**
+     * Parses the rules of the example and generates the inputs of the stages.
+     *
+     * @throws IOException
+     *             if the example can't be read.
+     * @since 1.0
+     */
+    @Setup
+    public void setup() throws IOException {
+        expressions = new ExampleLanguage(example).getExpressions();
+        for (final RegularExpression expression : expressions) {
+            final ENFAutomaton enfAutomaton = new ENFAutomatonGenerator().fromRegularExpression(expression);
+            enfAutomatons.add(enfAutomaton);
+            dfAutomatons.add(new DFAConverter().transform(enfAutomaton));
+        }
+    }
+
+    /**
+     * Generates the automatons with e-moves from the syntax trees of the expressions.
+     *
+     * @param blackhole
+     *            consumer of the automatons.
+     * @since 1.0
+     */
+    @Benchmark
+    public void generateENFAutomatons(final Blackhole blackhole) {
+        for (final RegularExpression expression : expressions) {
+            blackhole.consume(new ENFAutomatonGenerator().fromRegularExpression(expression));
+        }
+    }
+
+    /**
+     * Converts the automatons with e-moves to the deterministic automatons.
+     *
+     * @param blackhole
+     *            consumer of the automatons.
+     * @since 1.0
+     */
+    @Benchmark
+    public void convertToDFAutomatons(final Blackhole blackhole) {
+        for (final ENFAutomaton automaton : enfAutomatons) {
+            blackhole.consume(new DFAConverter().transform(automaton));
+        }
+    }
+
+    /**
+     * Removes the equivalent states from the deterministic automatons.
+     *
+     * @param blackhole
+     *            consumer of the automatons.
+     * @since 1.0
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public void removeEquivalentStates(final Blackhole blackhole) {
+        for (final DFAutomaton automaton : dfAutomatons) {
+            blackhole.consume(new EquivalentRemover().transform(automaton));
+        }
+    }
+
+    /**
+     * Minimizes the deterministic automatons with the Hopcroft's algorithm.
+     *
+     * @param blackhole
+     *            consumer of the automatons.
+     * @since 1.0
+     */
+    @Benchmark
+    public void minimizeDFAutomatons(final Blackhole blackhole) {
+        for (final DFAutomaton automaton : dfAutomatons) {
+            blackhole.consume(new HopcroftMinimizer().transform(automaton));
+        }
+    }
+}
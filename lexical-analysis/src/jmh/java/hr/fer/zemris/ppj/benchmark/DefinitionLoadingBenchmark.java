@@ -0,0 +1,103 @@
+package hr.fer.zemris.ppj.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.ppj.lexical.analyzer.AnalyzerDefinition;
+import hr.fer.zemris.ppj.lexical.analyzer.CompiledLexer;
+
+/**
+ * <code>DefinitionLoadingBenchmark</code> measures the start of the analyzer: reading the binary definition written by
+ * the generator and creating the lexer from it, from memory and from a memory mapped file.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefinitionLoadingBenchmark {
+
+    @Param({ "ppjC", "ppjLang_tezi", "minusLang_tezi" })
+    private String example;
+
+    private byte[] definition;
+    private Path definitionFile;
+
+    /**
+     * Compiles the example and writes its binary definition to memory and to a temporary file.
+     *
+     * @throws IOException
+     *             if the example can't be read or the file can't be written.
+     * @since 1.0
+     */
+    @Setup
+    public void setup() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ExampleLanguage(example).compile().write(bytes);
+        definition = bytes.toByteArray();
+
+        definitionFile = Files.createTempFile("definition", ".bin");
+        try (OutputStream output = Files.newOutputStream(definitionFile)) {
+            output.write(definition);
+        }
+    }
+
+    /**
+     * Deletes the temporary file.
+     *
+     * @throws IOException
+     *             if the file can't be deleted.
+     * @since 1.0
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(definitionFile);
+    }
+
+    /**
+     * Reads the definition from memory and creates the lexer.
+     *
+     * @return the lexer.
+     * @since 1.0
+     */
+    @Benchmark
+    public CompiledLexer readDefinition() {
+        return ExampleLanguage.newLexer(AnalyzerDefinition.read(ByteBuffer.wrap(definition)));
+    }
+
+    /**
+     * Maps the definition file and creates the lexer, like the analyzer does at its start.
+     *
+     * @return the lexer.
+     * @throws IOException
+     *             if the file can't be mapped.
+     * @since 1.0
+     */
+    @Benchmark
+    public CompiledLexer loadDefinitionFile() throws IOException {
+        return ExampleLanguage.newLexer(AnalyzerDefinition.fromFile(definitionFile));
+    }
+}
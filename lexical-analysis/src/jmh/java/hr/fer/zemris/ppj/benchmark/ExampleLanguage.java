@@ -0,0 +1,159 @@
+package hr.fer.zemris.ppj.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import hr.fer.zemris.ppj.finite.automaton.generator.AutomatonCache;
+import hr.fer.zemris.ppj.lexical.analyzer.AnalyzerDefinition;
+import hr.fer.zemris.ppj.lexical.analyzer.CompiledLexer;
+import hr.fer.zemris.ppj.lexical.analyzer.LexerDefinitionReader;
+import hr.fer.zemris.ppj.lexical.analyzer.LexerState;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpression;
+
+/**
+ * <code>ExampleLanguage</code> is a language used as the input of the benchmarks, the ppjC language of the later
+ * phases or a language from the system test examples. The definition is read with the
+ * {@link LexerDefinitionReader} of the generator, and the source can be repeated to the size the benchmark needs. <br>
+ * The definition of the ppjC is <code>ppjC.lan</code> and its source are the <code>.c</code> programs of the semantic
+ * analysis system tests, looked up in the directory from the system property <code>ppj.ppjC</code>, by default
+ * <code>../semantic-analysis</code> of the working directory. The definition of a example is <code>test.lan</code>
+ * and its source is <code>analizator/test.in</code>, the examples are looked up in the directory from the system
+ * property <code>ppj.examples</code>, by default <code>system-test/examples</code> of the working directory.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+public class ExampleLanguage {
+
+    /**
+     * Name of the system property with the directory of the examples.
+     */
+    public static final String EXAMPLES_PROPERTY = "ppj.examples";
+
+    /**
+     * Name of the system property with the directory of the ppjC.
+     */
+    public static final String PPJC_PROPERTY = "ppj.ppjC";
+
+    /**
+     * Name of the ppjC language.
+     */
+    public static final String PPJC = "ppjC";
+
+    private final Path definitionFile;
+    private final List<Path> sourceFiles = new ArrayList<>();
+
+    private final LexerDefinitionReader definition;
+    private final List<RegularExpression> expressions = new ArrayList<>();
+
+    /**
+     * Class constructor, reads the definition of the language.
+     *
+     * @param name
+     *            {@link #PPJC}, or name of the example directory.
+     * @throws IOException
+     *             if the definition can't be read.
+     * @since 1.0
+     */
+    public ExampleLanguage(final String name) throws IOException {
+        if (PPJC.equals(name)) {
+            final Path directory = Paths.get(System.getProperty(PPJC_PROPERTY, "../semantic-analysis"));
+            definitionFile = directory.resolve("ppjC.lan");
+            try (Stream<Path> files = Files.walk(directory.resolve("system-test"))) {
+                files.filter(file -> file.toString().endsWith(".c")).sorted().forEach(sourceFiles::add);
+            }
+        }
+        else {
+            final Path directory = Paths.get(System.getProperty(EXAMPLES_PROPERTY, "system-test/examples"), name);
+            definitionFile = directory.resolve("test.lan");
+            sourceFiles.add(directory.resolve("analizator").resolve("test.in"));
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(definitionFile, StandardCharsets.UTF_8)) {
+            definition = new LexerDefinitionReader(reader);
+        }
+        for (final LexerDefinitionReader.RuleDefinition rule : definition.getRules()) {
+            expressions.add(rule.getExpression().factorPrefixes());
+        }
+    }
+
+    /**
+     * Returns the expressions of the rules, with the regular definitions replaced and the common prefixes factored,
+     * as they're given to the automaton generators.
+     *
+     * @return the expressions, in the order of the rules.
+     * @since 1.0
+     */
+    public List<RegularExpression> getExpressions() {
+        return expressions;
+    }
+
+    /**
+     * Generates the automatons of the rules and compiles the lexer states.
+     *
+     * @return the definition of the analyzer.
+     * @since 1.0
+     */
+    public AnalyzerDefinition compile() {
+        return new AnalyzerDefinition(definition.getAnalyzerStates(), definition.getLexemeNames(),
+                definition.compileStates(new AutomatonCache()::get));
+    }
+
+    /**
+     * Creates the lexer from the definition, like the analyzer does after reading it.
+     *
+     * @param definition
+     *            the definition.
+     * @return the compiled lexer.
+     * @since 1.0
+     */
+    public static CompiledLexer newLexer(final AnalyzerDefinition definition) {
+        final Map<String, LexerState> states = new HashMap<>();
+        for (final String stateName : definition.getAnalyzerStates()) {
+            states.put(stateName, new LexerState(stateName));
+        }
+        for (final LexerState state : definition.getLexerStates()) {
+            states.put(state.getName(), state);
+        }
+        return new CompiledLexer(states, states.get(definition.getAnalyzerStates().get(0)),
+                definition.getLexemeNames());
+    }
+
+    /**
+     * Returns the source of the language repeated until it has at least the specified number of characters. Each
+     * source file ends with a new line, so the repetitions are analyzed like the original.
+     *
+     * @param length
+     *            the minimal length.
+     * @return the source.
+     * @throws IOException
+     *             if the source can't be read.
+     * @since 1.0
+     */
+    public String source(final int length) throws IOException {
+        final StringBuilder files = new StringBuilder();
+        for (final Path sourceFile : sourceFiles) {
+            files.append(new String(Files.readAllBytes(sourceFile), StandardCharsets.UTF_8).replace("\r\n", "\n"));
+            if ((files.length() > 0) && (files.charAt(files.length() - 1) != '\n')) {
+                files.append('\n');
+            }
+        }
+        final String source = files.toString();
+
+        final StringBuilder builder = new StringBuilder(length + source.length());
+        do {
+            builder.append(source);
+        } while (builder.length() < length);
+        return builder.toString();
+    }
+}
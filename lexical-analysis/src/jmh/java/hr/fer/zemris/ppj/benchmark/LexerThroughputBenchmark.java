@@ -0,0 +1,179 @@
+package hr.fer.zemris.ppj.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.ppj.lexical.analyzer.CompiledLexer;
+import hr.fer.zemris.ppj.lexical.analyzer.LexerSession;
+import hr.fer.zemris.ppj.lexical.analyzer.SourceBuffer;
+import hr.fer.zemris.ppj.lexical.analyzer.TextTokenSink;
+import hr.fer.zemris.ppj.lexical.analyzer.TokenSink;
+
+/**
+ * <code>LexerThroughputBenchmark</code> measures the analysis of the source of a example language, repeated to the
+ * specified size. Each invocation analyzes the whole source in a new session of the compiled lexer. <br>
+ * The analyzed characters and the found tokens are reported as auxiliary counters, in the characters and tokens per
+ * second. The allocations per character are the <code>gc.alloc.rate.norm</code> of the <code>gc</code> profiler
+ * divided by the length of the source, <code>megabytes * 2^20</code> characters rounded up to whole repetitions.
+ * The <code>prozdiranje</code> example is the adversarial input of the maximal munch: lines of 20000 characters which
+ * are all prefixes of a longer rule. Without the memoization each scan runs to the end of the line, so the analysis
+ * is quadratic in the length of the line, hundreds of times slower than with it. It guards the linear time of the
+ * memoizing mode; without the memoization a megabyte takes about half a minute, so it's best run with
+ * <code>-p megabytes=1</code>.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LexerThroughputBenchmark {
+
+    /**
+     * <code>Counters</code> are the auxiliary counters of a benchmark thread.
+     *
+     * @author Jan Kelemen
+     *
+     * @version 1.0
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+
+        /**
+         * Number of the analyzed characters.
+         */
+        public long characters;
+
+        /**
+         * Number of the found tokens.
+         */
+        public long tokens;
+
+        /**
+         * Resets the counters before each iteration.
+         *
+         * @since 1.0
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            characters = 0;
+            tokens = 0;
+        }
+    }
+
+    /*
+     * Token sink which only counts the tokens, so the benchmark measures the lexer alone.
+     */
+    private static class CountingTokenSink implements TokenSink {
+
+        public long count;
+
+        @Override
+        public void accept(final int type, final int line, final SourceBuffer source, final int start, final int end) {
+            count++;
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+
+    /*
+     * Writer which discards the output.
+     */
+    private static class NullWriter extends Writer {
+
+        @Override
+        public void write(final char[] cbuf, final int off, final int len) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Param({ "ppjC", "ppjLang_tezi", "prozdiranje" })
+    private String example;
+
+    @Param({ "1", "10", "100" })
+    private int megabytes;
+
+    @Param({ "true", "false" })
+    private boolean memoizing;
+
+    private CompiledLexer lexer;
+    private String source;
+
+    /**
+     * Compiles the example and repeats its source to the specified size.
+     *
+     * @throws IOException
+     *             if the example can't be read.
+     * @since 1.0
+     */
+    @Setup
+    public void setup() throws IOException {
+        final ExampleLanguage language = new ExampleLanguage(example);
+        lexer = ExampleLanguage.newLexer(language.compile());
+        source = language.source(megabytes << 20);
+    }
+
+    /**
+     * Analyzes the source and counts the tokens.
+     *
+     * @param counters
+     *            the counters.
+     * @since 1.0
+     */
+    @Benchmark
+    public void analyze(final Counters counters) {
+        final CountingTokenSink tokenSink = new CountingTokenSink();
+        newSession().analyze(new SourceBuffer(source), tokenSink);
+        counters.characters += source.length();
+        counters.tokens += tokenSink.count;
+    }
+
+    /**
+     * Analyzes the source and writes the tokens in the text format of the analyzer to a discarding writer.
+     *
+     * @param counters
+     *            the counters.
+     * @since 1.0
+     */
+    @Benchmark
+    public void analyzeToText(final Counters counters) {
+        final LexerSession session = newSession();
+        session.analyze(new SourceBuffer(source), new TextTokenSink(new NullWriter(), session.getTokenTypes()));
+        counters.characters += source.length();
+    }
+
+    private LexerSession newSession() {
+        final LexerSession session = lexer.newSession();
+        session.setMemoizing(memoizing);
+        return session;
+    }
+}
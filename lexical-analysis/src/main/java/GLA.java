@@ -1,97 +1,94 @@
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
+import hr.fer.zemris.ppj.finite.automaton.generator.AutomatonCache;
+import hr.fer.zemris.ppj.finite.automaton.generator.DirectDFAGenerator;
 import hr.fer.zemris.ppj.lexical.analyzer.AnalyzerDefinition;
-import hr.fer.zemris.ppj.lexical.analyzer.LexerRule;
-import hr.fer.zemris.ppj.lexical.analyzer.actions.ActionFactory;
-import hr.fer.zemris.ppj.lexical.analyzer.actions.LexerAction;
-import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpressionManipulator;
+import hr.fer.zemris.ppj.lexical.analyzer.LexerDefinitionReader;
+import hr.fer.zemris.ppj.lexical.analyzer.LexerState;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpression;
 
 /**
  * <code>GLA</code> class is required by the evaluator, to contain a entry point for the lexical analyzer generator.
+ * The definition is read by the {@link LexerDefinitionReader}. Expressions of the regular definitions and the rules
+ * are parsed, their common prefixes are factored, and their automatons are generated through a
+ * {@link AutomatonCache}, so each distinct expression is generated once. Rules whose expression is a plain literal
+ * are marked, so keywords can be matched with a trie, see {@link LexerState#compile()}. <br>
+ * Usage: <code>GLA [-d] [-c cacheFile]</code>, with <code>-d</code> the automatons are generated directly as
+ * deterministic automatons by the {@link DirectDFAGenerator}, otherwise with Thompson's construction. The cache is
+ * loaded from the cache file if it exists and saved to it after the definition is written, a cache saved with the
+ * other generator isn't loaded and is replaced.
  *
  * @author Jan Kelemen
  *
- * @version 1.0.0
+ * @version 1.5.0
  */
 public class GLA {
 
-    private static final List<String> analyzerStates = new ArrayList<>();
-    private static final List<String> lexemeNames = new ArrayList<>();
-    private static final List<LexerRule> rules = new ArrayList<>();
+    private static AutomatonCache cache = new AutomatonCache();
 
     /**
      * Entry point for lexical analyzer generator program.
      *
      * @param args
-     *            command line arguments aren't used.
+     *            options of the generator, see the class description.
      * @since 1.0.0
      */
     public static void main(String[] args) {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
-            readInputData(reader);
+        Path cacheFile = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-d")) {
+                cache = new AutomatonCache(DirectDFAGenerator::new);
+            }
+            else if (args[i].equals("-c") && ((i + 1) < args.length)) {
+                cacheFile = Paths.get(args[++i]);
+            }
         }
-        catch (final IOException e) {
-            System.err.println(e.getMessage());
+
+        if ((cacheFile != null) && Files.exists(cacheFile)) {
+            try {
+                cache.load(cacheFile);
+            }
+            catch (final IOException | IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+            }
         }
 
-        try (OutputStreamWriter writer = new FileWriter(new File("analizator/definition.txt"))) {
-            writeAnalyzerDefinition(writer, new AnalyzerDefinition(analyzerStates, lexemeNames, rules));
+        LexerDefinitionReader definition = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
+            definition = new LexerDefinitionReader(reader);
         }
         catch (final IOException e) {
             System.err.println(e.getMessage());
+            return;
         }
-    }
 
-    private static void readInputData(final BufferedReader reader) throws IOException {
-        String line = reader.readLine();
-
-        final List<String> regularDefinitions = new ArrayList<>();
-        while ((line != null) && line.startsWith("{")) {
-            regularDefinitions.add(line);
-            line = reader.readLine();
+        for (final RegularExpression expression : definition.getRegularDefinitions()) {
+            cache.get(expression.factorPrefixes());
         }
 
-        if ((line != null) && line.startsWith("%X")) {
-            for (final String state : line.substring(3).split(" ")) {
-                analyzerStates.add(state);
-            }
-            line = reader.readLine();
+        try (OutputStream output = new FileOutputStream(new File("analizator/definition.bin"))) {
+            new AnalyzerDefinition(definition.getAnalyzerStates(), definition.getLexemeNames(),
+                    definition.compileStates(cache::get)).write(output);
         }
-
-        if ((line != null) && line.startsWith("%L")) {
-            for (final String name : line.substring(3).split(" ")) {
-                lexemeNames.add(name);
-            }
-            line = reader.readLine();
+        catch (final IOException e) {
+            System.err.println(e.getMessage());
         }
 
-        final RegularExpressionManipulator manipulator = new RegularExpressionManipulator(regularDefinitions);
-        while ((line != null) && !line.isEmpty()) {
-            final String analyzerState = line.substring(1, line.indexOf('>'));
-            final String regularExpression =
-                    manipulator.removeRegularDefinitions(line.substring(line.indexOf('>') + 1));
-            final List<LexerAction> actions = new ArrayList<>();
-            line = reader.readLine(); // Ignore opening bracket
-            line = reader.readLine();
-            while (!line.startsWith("}") && !line.isEmpty()) {
-                actions.add(ActionFactory.fromString(line));
-                line = reader.readLine();
+        if (cacheFile != null) {
+            try {
+                cache.save(cacheFile);
+            }
+            catch (final IOException e) {
+                System.err.println(e.getMessage());
             }
-            line = reader.readLine();
-
-            rules.add(new LexerRule(analyzerState, regularExpression, actions));
         }
     }
-
-    private static void writeAnalyzerDefinition(final OutputStreamWriter writer,
-            final AnalyzerDefinition definition) throws IOException {
-        writer.write(definition.toString());
-    }
 }
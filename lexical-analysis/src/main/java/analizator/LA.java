@@ -1,143 +1,345 @@
-import java.io.BufferedReader;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.PrintStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
-import hr.fer.zemris.ppj.finite.automaton.generator.ENFAutomatonGenerator;
-import hr.fer.zemris.ppj.finite.automaton.interfaces.Automaton;
-import hr.fer.zemris.ppj.lexical.analyzer.LexerRule;
+import hr.fer.zemris.ppj.lexical.analyzer.AnalyzerDefinition;
+import hr.fer.zemris.ppj.lexical.analyzer.CompiledLexer;
 import hr.fer.zemris.ppj.lexical.analyzer.LexerState;
-import hr.fer.zemris.ppj.lexical.analyzer.LexicalAnalyzer;
-import hr.fer.zemris.ppj.lexical.analyzer.actions.ActionFactory;
-import hr.fer.zemris.ppj.lexical.analyzer.actions.LexerAction;
+import hr.fer.zemris.ppj.lexical.analyzer.LexerSession;
+import hr.fer.zemris.ppj.lexical.analyzer.LexerStatistics;
+import hr.fer.zemris.ppj.lexical.analyzer.SourceBuffer;
+import hr.fer.zemris.ppj.lexical.analyzer.TextTokenSink;
+import hr.fer.zemris.ppj.lexical.analyzer.TokenSink;
 
 /**
- * <code>LA</code> class is required by the evaluator, to contain a entry point for the lexical analyzer generator.
+ * <code>LA</code> class is required by the evaluator, to contain a entry point for the lexical analyzer generator. The
+ * analyzer is loaded from the binary definition <code>definition.bin</code> written by the generator. <br>
+ * Without arguments the source is read from the standard input. In the batch mode the definition is loaded once and
+ * the files from the arguments are analyzed concurrently, each in its own session of the shared compiled lexer:
+ * <br>
+ * <code>LA [-s statistics file] [-t threads] [-p chunk size] [-o output directory] file|directory...</code> <br>
+ * Directories are analyzed non recursively. The tokens of each file are written to a file with the same name and the
+ * extension <code>.out</code>, next to the source file or in the output directory. <br>
+ * With <code>-p</code>, in both modes, each source is read to the memory and its chunks of the specified number of
+ * characters are analyzed in parallel on <code>-t</code> threads, see
+ * {@link LexerSession#analyzeParallel(String, TokenSink, ForkJoinPool, int)}. The tokens are the same as the tokens of
+ * the sequential analysis. <br>
+ * With <code>-s</code>, in both modes, the activity of the rules and the lexer states is counted by the
+ * {@link LexerStatistics} and written as JSON to the statistics file after the analysis. The sources are then analyzed
+ * sequentially, since the speculative runs of the parallel analysis would be counted too.
  *
  * @author Filip Gulan
  * @author Jan Kelemen
  *
- * @version 1.0.0
+ * @version 1.3.0
  */
 public class LA {
 
+    private static final String OUTPUT_EXTENSION = ".out";
+    private static final int BUFFER_SIZE = 8192;
+
     private static final Map<String, LexerState> states = new HashMap<>();
     private static LexerState startState;
-    private static String source;
+    private static final List<String> tokenTypes = new ArrayList<>();
+    private static CompiledLexer lexer;
+
+    private static Path statisticsFile;
+    private static LexerStatistics statistics;
+
+    private static int threads = Runtime.getRuntime().availableProcessors();
+    private static Path outputDirectory;
+    private static int chunkSize;
+    private static ForkJoinPool chunkPool;
 
     /**
      * Entry point for lexical analyzer generator program.
      *
      * @param args
-     *            command line arguments aren't used.
+     *            options and source files of the batch mode, the standard input is analyzed if there are no source
+     *            files.
      * @since 1.0.0
      */
     public static void main(String[] args) {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
-            readSourceCode(reader);
+        final List<Path> sources = new ArrayList<>();
+        try {
+            readOptions(args, sources);
+        }
+        catch (final IOException | RuntimeException e) {
+            System.err.println("Usage: LA [-s statistics file] [-t threads] [-p chunk size] [-o output directory] "
+                    + "[file|directory...] Message: " + e.getMessage());
+            return;
         }
-        catch (final Exception e) {
-            System.err.println("Unable to read from system input. Message: " + e.getMessage());
+
+        try {
+            readBinaryDefinition(AnalyzerDefinition.fromFile(Paths.get("definition.bin")));
+        }
+        catch (final IOException | RuntimeException e) {
+            System.err.println("Unable to read the analyzer definition. Message: " + e.getMessage());
+            System.exit(1);
+        }
+
+        lexer = new CompiledLexer(states, startState, tokenTypes);
+        if ((chunkSize > 0) && (statistics == null)) {
+            chunkPool = new ForkJoinPool(Math.max(1, threads));
         }
 
-        try (BufferedReader inputReader = new BufferedReader(
-                new InputStreamReader(new FileInputStream("definition.txt"), StandardCharsets.UTF_8));) {
-            readInputData(inputReader);
+        if (!sources.isEmpty()) {
+            analyzeBatch(sources);
         }
-        catch (final Exception e) {
-            System.err.println("Unable to read from file input. Message: " + e.getMessage());
+        else {
+            // Source code is read while it's analyzed, unless it's analyzed in chunks
+            try (Reader reader = new LineReader(new InputStreamReader(System.in))) {
+                analyze(reader, new OutputStreamWriter(System.out));
+            }
+            catch (final IOException | UncheckedIOException e) {
+                System.err.println("Unable to read from system input. Message: " + e.getMessage());
+            }
+        }
+
+        if (chunkPool != null) {
+            chunkPool.shutdown();
         }
 
-        new LexicalAnalyzer(states, startState).analyze(source, new PrintStream(System.out));
+        if (statistics != null) {
+            try {
+                Files.write(statisticsFile, statistics.snapshot().toJson().getBytes(StandardCharsets.UTF_8));
+            }
+            catch (final IOException e) {
+                System.err.println("Unable to write the statistics. Message: " + e.getMessage());
+            }
+        }
     }
 
-    private static void readSourceCode(final BufferedReader reader) throws IOException {
-        String line = reader.readLine();
-        final StringBuilder builder = new StringBuilder();
-        while (line != null) {
-            builder.append(line);
-            builder.append("\n");
-            line = reader.readLine();
+    /*
+     * Reads the options of the statistics, the batch and the parallel analysis, other arguments are the source files.
+     */
+    private static void readOptions(final String[] args, final List<Path> sources) throws IOException {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-s")) {
+                statisticsFile = Paths.get(args[++i]);
+                statistics = new LexerStatistics();
+            }
+            else if (args[i].equals("-t")) {
+                threads = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("-p")) {
+                chunkSize = Integer.parseInt(args[++i]);
+                if (chunkSize <= 0) {
+                    throw new IllegalArgumentException("Chunk size must be positive.");
+                }
+            }
+            else if (args[i].equals("-o")) {
+                outputDirectory = Paths.get(args[++i]);
+                Files.createDirectories(outputDirectory);
+            }
+            else {
+                addSources(Paths.get(args[i]), sources);
+            }
         }
-        source = builder.toString();
     }
 
-    private static void readInputData(final BufferedReader reader) throws IOException {
-        // Read states
-        String line = reader.readLine();
+    /*
+     * Creates a memoizing session of the lexer, which counts its activity if the statistics are collected.
+     */
+    private static LexerSession newSession() {
+        final LexerSession session = lexer.newSession();
+        session.setMemoizing(true);
+        if (statistics != null) {
+            session.setStatistics(new LexerStatistics());
+        }
+        return session;
+    }
 
-        // Parse states
-        for (final String stateString : line.split(" ")) {
-            final LexerState state = new LexerState(stateString);
-            if (startState == null) {
-                startState = state;
+    /*
+     * Adds the statistics of the finished session, the sessions of the batch mode finish concurrently.
+     */
+    private static void addStatistics(final LexerSession session) {
+        if (statistics != null) {
+            synchronized (statistics) {
+                statistics.merge(session.getStatistics());
             }
-            states.put(stateString, state);
         }
+    }
 
-        // Read empty line
-        line = reader.readLine();
-
-        // Read tokens
-        line = reader.readLine();
+    /*
+     * Analyzes the source and writes the tokens. With a chunk size the whole source is read to the memory and its
+     * chunks are analyzed in parallel, otherwise the source is read while it's analyzed.
+     */
+    private static void analyze(final Reader reader, final Writer writer) throws IOException {
+        final LexerSession analyzer = newSession();
+        final TokenSink tokenSink = new TextTokenSink(writer, analyzer.getTokenTypes());
+        if (chunkPool == null) {
+            analyzer.analyze(new SourceBuffer(reader), tokenSink);
+        }
+        else {
+            analyzer.analyzeParallel(readAll(reader), tokenSink, chunkPool, chunkSize);
+        }
+        addStatistics(analyzer);
+    }
 
-        // Parse tokens
-        // TODO for now - do we need them? No. @Jan
+    private static String readAll(final Reader reader) throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        final char[] buffer = new char[BUFFER_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) >= 0) {
+            builder.append(buffer, 0, read);
+        }
+        return builder.toString();
+    }
 
-        // Read empty line
-        line = reader.readLine();
+    /*
+     * Analyzes the source files on a thread pool, errors are reported for each file.
+     */
+    private static void analyzeBatch(final List<Path> sources) {
+        final ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        final List<Future<?>> results = new ArrayList<>();
+        for (final Path source : sources) {
+            final Path output = getOutput(source, outputDirectory);
+            results.add(pool.submit(() -> {
+                analyzeFile(source, output);
+                return null;
+            }));
+        }
+        pool.shutdown();
 
-        while (!line.equals("END")) {
-            readRuleDefinition(reader);
-            line = reader.readLine();
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                results.get(i).get();
+            }
+            catch (final ExecutionException e) {
+                System.err.println("Unable to analyze " + sources.get(i) + ". Message: " + e.getCause().getMessage());
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
         }
     }
 
-    private static void readRuleDefinition(final BufferedReader reader) throws IOException {
-        final Automaton automaton = readAutomatonDefinition(reader);
+    private static void addSources(final Path path, final List<Path> sources) throws IOException {
+        if (!Files.isDirectory(path)) {
+            sources.add(path);
+            return;
+        }
 
-        // Read state and actions
-        final String lexerStateString = reader.readLine();
-        final List<LexerAction> actions = readRuleActions(reader);
-        final LexerRule rule = new LexerRule(lexerStateString, automaton, actions);
+        try (Stream<Path> files = Files.list(path)) {
+            files.filter(Files::isRegularFile).filter(file -> !file.toString().endsWith(OUTPUT_EXTENSION)).sorted()
+                    .forEach(sources::add);
+        }
+    }
 
-        states.get(lexerStateString).addRule(rule);
+    /*
+     * Returns the path of the output file, the extension of the source file is replaced with .out.
+     */
+    private static Path getOutput(final Path source, final Path outputDirectory) {
+        final String name = source.getFileName().toString();
+        final int dot = name.lastIndexOf('.');
+        final String outputName = (dot > 0 ? name.substring(0, dot) : name) + OUTPUT_EXTENSION;
+        return outputDirectory == null ? source.resolveSibling(outputName) : outputDirectory.resolve(outputName);
     }
 
-    private static Automaton readAutomatonDefinition(final BufferedReader reader) throws IOException {
-        final String states = reader.readLine();
-        final String acceptStates = reader.readLine();
-        final String startState = reader.readLine();
-        final String alphabet = reader.readLine();
-        final List<String> transitions = new ArrayList<String>();
+    private static void analyzeFile(final Path source, final Path output) throws IOException {
+        try (Reader reader = new LineReader(Files.newBufferedReader(source, StandardCharsets.UTF_8));
+                Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            analyze(reader, writer);
+        }
+    }
 
-        String line = reader.readLine();
-        while (!line.isEmpty()) {
-            transitions.add(line);
-            line = reader.readLine();
+    /*
+     * Uses the compiled lexer states of the binary definition, states without rules are created empty.
+     */
+    private static void readBinaryDefinition(final AnalyzerDefinition definition) {
+        for (final String stateName : definition.getAnalyzerStates()) {
+            final LexerState state = new LexerState(stateName);
+            if (startState == null) {
+                startState = state;
+            }
+            states.put(stateName, state);
         }
 
-        return new ENFAutomatonGenerator().fromTextDefinition(states, acceptStates, alphabet, transitions, startState);
+        for (final LexerState state : definition.getLexerStates()) {
+            if (state.getName().equals(startState.getName())) {
+                startState = state;
+            }
+            states.put(state.getName(), state);
+        }
+        tokenTypes.addAll(definition.getLexemeNames());
     }
 
-    private static List<LexerAction> readRuleActions(final BufferedReader reader) throws IOException {
-        final List<LexerAction> actions = new ArrayList<LexerAction>();
+    /*
+     * Reader of the source code which ends each line with a '\n', like the lines read with BufferedReader.readLine.
+     * Line endings "\r\n" and "\r" are replaced with '\n', a '\n' is added to the last line if it's missing.
+     */
+    private static class LineReader extends Reader {
+
+        private final Reader in;
+        private boolean skipLineFeed;
+        private boolean lineEnded = true;
+        private boolean ended;
+
+        public LineReader(final Reader in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read(final char[] cbuf, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+
+            while (!ended) {
+                final int read = in.read(cbuf, off, len);
+                if (read < 0) {
+                    ended = true;
+                    if (!lineEnded) {
+                        cbuf[off] = '\n';
+                        return 1;
+                    }
+                    break;
+                }
 
-        reader.readLine(); // Ignore opening bracket.
+                int count = 0;
+                for (int i = off; i < (off + read); i++) {
+                    char c = cbuf[i];
+                    if (skipLineFeed && (c == '\n')) {
+                        skipLineFeed = false;
+                        continue;
+                    }
 
-        // Parse actions
-        String line = reader.readLine();
-        while (!line.equals("}")) {
-            actions.add(ActionFactory.fromString(line));
-            line = reader.readLine();
+                    skipLineFeed = c == '\r';
+                    if (skipLineFeed) {
+                        c = '\n';
+                    }
+                    cbuf[off + count++] = c;
+                    lineEnded = c == '\n';
+                }
+                if (count > 0) {
+                    return count;
+                }
+            }
+            return -1;
         }
 
-        return actions;
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
     }
 }
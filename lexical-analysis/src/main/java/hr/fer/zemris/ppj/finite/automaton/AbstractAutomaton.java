@@ -17,7 +17,7 @@ import hr.fer.zemris.ppj.finite.automaton.transfer.FAutomatonTransition;
  *
  * @author Domagoj Polancec
  *
- * @version 1.0
+ * @version 1.1
  */
 public abstract class AbstractAutomaton implements Automaton {
 
@@ -166,4 +166,30 @@ public abstract class AbstractAutomaton implements Automaton {
         currentStates = getTransferFunction().getNewStates(getCurrentStates(), input);
         lastInput = input;
     }
+
+    /**
+     * {@inheritDoc} <br>
+     * Adapter to the {@link #apply(Input)}, the character is wrapped to a input.
+     *
+     * @since 1.1
+     */
+    @Override
+    public void apply(final int codePoint) {
+        apply(toInput(codePoint));
+    }
+
+    /**
+     * Creates the input of the character.
+     *
+     * @param codePoint
+     *            the character.
+     * @return the input.
+     * @since 1.1
+     */
+    protected static Input toInput(final int codePoint) {
+        if (Character.isBmpCodePoint(codePoint)) {
+            return new BasicInput((char) codePoint);
+        }
+        return new BasicInput(new String(Character.toChars(codePoint)));
+    }
 }
@@ -1,13 +1,21 @@
 package hr.fer.zemris.ppj.finite.automaton;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import hr.fer.zemris.ppj.finite.automaton.interfaces.Automaton;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.Transition;
+import hr.fer.zemris.ppj.finite.automaton.transfer.ENFAutomatonTransferFunction;
+import hr.fer.zemris.ppj.finite.automaton.transfer.FAutomatonTransition;
 import hr.fer.zemris.ppj.finite.automaton.transforms.DFAConverter;
 import hr.fer.zemris.ppj.finite.automaton.transforms.EquivalentRemover;
+import hr.fer.zemris.ppj.finite.automaton.transforms.HopcroftMinimizer;
+import hr.fer.zemris.ppj.finite.automaton.transforms.InputClassifier;
+import hr.fer.zemris.ppj.finite.automaton.transforms.TaggedDFAConverter;
+import hr.fer.zemris.ppj.finite.automaton.transforms.TaggedEquivalentRemover;
 import hr.fer.zemris.ppj.finite.automaton.transforms.UnreachableRemover;
 
 /**
@@ -15,7 +23,7 @@ import hr.fer.zemris.ppj.finite.automaton.transforms.UnreachableRemover;
  *
  * @author Domagoj Polancec
  *
- * @version 1.0
+ * @version 1.3
  */
 public class Automatons {
 
@@ -73,7 +81,7 @@ public class Automatons {
      * @since 1.0
      */
     public static void apply(final Automaton automaton, final char input) {
-        automaton.apply(new BasicInput(input));
+        automaton.apply((int) input);
     }
 
     /**
@@ -105,7 +113,7 @@ public class Automatons {
     }
 
     /**
-     * Minimizes the automaton to a minimal DFA.
+     * Minimizes the automaton to a minimal DFA with the {@link HopcroftMinimizer}.
      *
      * @param source
      *            the automaton.
@@ -113,9 +121,56 @@ public class Automatons {
      * @since 1.0
      */
     public static DFAutomaton minimize(final Automaton source) {
-        final DFAutomaton converted = convertToDFA(source);
-        final DFAutomaton minimized = new EquivalentRemover().transform(new UnreachableRemover().transform(converted));
-        return minimized;
+        return minimize(source, true);
     }
 
+    /**
+     * Minimizes the automaton to a minimal DFA.
+     *
+     * @param source
+     *            the automaton.
+     * @param hopcroft
+     *            flag which marks if the {@link HopcroftMinimizer} is used, the {@link EquivalentRemover} is used
+     *            otherwise.
+     * @return minimized automaton.
+     * @since 1.2
+     */
+    public static DFAutomaton minimize(final Automaton source, final boolean hopcroft) {
+        final DFAutomaton reachable = new UnreachableRemover().transform(convertToDFA(source));
+        if (hopcroft) {
+            return new HopcroftMinimizer().transform(reachable);
+        }
+        return new EquivalentRemover().transform(reachable);
+    }
+
+    /**
+     * Combines the automatons to a minimal DFA which accepts the union of their languages. Accept states of the
+     * combined automaton are tagged with the index of the first automaton which accepts in that state. Characters with
+     * the same transitions are merged to input classes.
+     *
+     * @param sources
+     *            the automatons, order of the automatons defines their priority.
+     * @return combined automaton.
+     * @since 1.1
+     */
+    public static TaggedDFAutomaton combine(final List<? extends Automaton> sources) {
+        final TaggedDFAutomaton minimized =
+                new TaggedEquivalentRemover().transform(new TaggedDFAConverter().transform(sources));
+        return new InputClassifier().transform(minimized);
+    }
+
+    /**
+     * Creates a automaton which doesn't accept any input. Used in place of a automaton in a list of automatons whose
+     * indexes are significant, like the list of the {@link #combine(List)}.
+     *
+     * @return the automaton.
+     * @since 1.3
+     */
+    public static Automaton empty() {
+        final State start = new BasicState("0");
+        final Set<State> states = new HashSet<>();
+        states.add(start);
+        return new ENFAutomaton(states, new HashSet<State>(), new HashSet<Input>(),
+                new ENFAutomatonTransferFunction(new HashSet<FAutomatonTransition>()), start);
+    }
 }
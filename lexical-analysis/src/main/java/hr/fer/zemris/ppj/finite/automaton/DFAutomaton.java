@@ -1,21 +1,34 @@
 package hr.fer.zemris.ppj.finite.automaton;
 
+import java.util.HashSet;
 import java.util.Set;
 
 import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.Transition;
 import hr.fer.zemris.ppj.finite.automaton.transfer.DFAutomatonTransferFunction;
+import hr.fer.zemris.ppj.finite.automaton.transfer.DeterministicTransition;
 
 /**
- * <code>DFAutomaton</code> is a deterministic finite automaton.
+ * <code>DFAutomaton</code> is a deterministic finite automaton. The current state is kept as a index of the state in
+ * the compiled automaton, so applying a input is a single table lookup.
  *
  * @author Domagoj Polancec
  *
- * @version 1.0
+ * @version 1.2
  */
 public class DFAutomaton extends AbstractAutomaton {
 
+    private static final int NO_CODE_POINT = -1;
+
+    private DFAutomatonTable table;
+
+    // The automaton is compiled lazily, so the start state is marked with a flag until the first input.
+    private boolean atStart = true;
+    private int currentState;
+    private Input lastInput;
+    private int lastCodePoint = NO_CODE_POINT;
+
     /**
      * Class constructor, specifies formal definition of automaton.
      *
@@ -43,13 +56,68 @@ public class DFAutomaton extends AbstractAutomaton {
      * @since 1.0
      */
     public State getCurrentState() {
-        final Set<State> currentStates = getCurrentStates();
-        if (currentStates.isEmpty()) {
-            return null;
+        return getTable().getState(currentIndex());
+    }
+
+    @Override
+    public void apply(final Input input) {
+        final DFAutomatonTable table = getTable();
+        currentState = table.step(currentIndex(), table.getInputClass(input));
+        atStart = false;
+        lastInput = input;
+        lastCodePoint = NO_CODE_POINT;
+    }
+
+    /**
+     * {@inheritDoc} <br>
+     * The character is mapped to the input class by the compiled automaton, the input object is created only if the
+     * last input is requested.
+     *
+     * @since 1.2
+     */
+    @Override
+    public void apply(final int codePoint) {
+        final DFAutomatonTable table = getTable();
+        currentState = table.step(currentIndex(), table.getInputClass(codePoint));
+        atStart = false;
+        lastInput = null;
+        lastCodePoint = codePoint;
+    }
+
+    @Override
+    public void reset() {
+        atStart = true;
+        lastInput = null;
+        lastCodePoint = NO_CODE_POINT;
+    }
+
+    @Override
+    public Set<State> getCurrentStates() {
+        final Set<State> currentStates = new HashSet<>();
+        final State state = getCurrentState();
+        if (state != null) {
+            currentStates.add(state);
         }
-        else {
-            return currentStates.iterator().next();
+        return currentStates;
+    }
+
+    @Override
+    public boolean isCurrentState(final State state) {
+        final int index = currentIndex();
+        return (index != DFAutomatonTable.DEAD_STATE) && (getTable().getStateIndex(state) == index);
+    }
+
+    @Override
+    public boolean isAccepting() {
+        return getTable().isAcceptState(currentIndex());
+    }
+
+    @Override
+    public Input getLastInput() {
+        if ((lastInput == null) && (lastCodePoint != NO_CODE_POINT)) {
+            lastInput = toInput(lastCodePoint);
         }
+        return lastInput;
     }
 
     /**
@@ -63,12 +131,40 @@ public class DFAutomaton extends AbstractAutomaton {
      * @since 1.0
      */
     public Transition getTransition(final State state, final Input input) {
-        final Set<Transition> transitions = getTransferFunction().getTransitions(state, null, input);
-        if (transitions.isEmpty()) {
+        final DFAutomatonTable table = getTable();
+        final int newState = table.step(table.getStateIndex(state), table.getInputClass(input));
+        if (newState == DFAutomatonTable.DEAD_STATE) {
             return null;
         }
         else {
-            return transitions.iterator().next();
+            return new DeterministicTransition(state, table.getState(newState), input);
         }
     }
+
+    /**
+     * Returns the compiled form of the automaton, the automaton is compiled on the first call.
+     *
+     * @return the compiled automaton.
+     * @since 1.1
+     */
+    public DFAutomatonTable getTable() {
+        if (table == null) {
+            table = createTable();
+        }
+        return table;
+    }
+
+    /**
+     * Compiles the automaton.
+     *
+     * @return the compiled automaton.
+     * @since 1.1
+     */
+    protected DFAutomatonTable createTable() {
+        return new DFAutomatonTable(this);
+    }
+
+    private int currentIndex() {
+        return atStart ? getTable().getStartState() : currentState;
+    }
 }
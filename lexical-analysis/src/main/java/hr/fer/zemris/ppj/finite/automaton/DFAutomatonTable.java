@@ -0,0 +1,438 @@
+package hr.fer.zemris.ppj.finite.automaton;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Transition;
+
+/**
+ * <code>DFAutomatonTable</code> is a compiled form of the deterministic finite automaton. States are numbered from
+ * <code>0</code> to <code>n - 1</code>, inputs are mapped to input classes from <code>0</code> to <code>k - 1</code>
+ * and the transitions are stored in a flat next state table, so a step of the automaton is a single array lookup.
+ * Characters are mapped to input classes with a lookup table. <br>
+ * Missing transitions lead to the {@link #DEAD_STATE}. <br>
+ * The table can be written in a binary form and read back without creating the objects of the states and the inputs,
+ * they're created only if they're requested. The objects and their indexes are kept in a immutable holder which is
+ * published through a volatile field, so a table can be shared between threads even when they request the objects.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.4
+ */
+public class DFAutomatonTable {
+
+    /**
+     * Index of the state which can't accept any input.
+     */
+    public static final int DEAD_STATE = -1;
+
+    /**
+     * Input class of the inputs which aren't in the alphabet of the automaton.
+     */
+    public static final int UNKNOWN_INPUT = -1;
+
+    /*
+     * States and inputs of the table with their indexes, never modified after they're created.
+     */
+    private static final class TableObjects {
+
+        private final State[] states;
+        private final Input[] inputs;
+        private final Map<State, Integer> stateIndexes;
+        private final Map<Input, Integer> inputIndexes;
+
+        private TableObjects(final State[] states, final Input[] inputs) {
+            this.states = states;
+            this.inputs = inputs;
+            stateIndexes = new HashMap<>();
+            for (int i = 0; i < states.length; i++) {
+                stateIndexes.put(states[i], i);
+            }
+            inputIndexes = new HashMap<>();
+            for (int i = 0; i < inputs.length; i++) {
+                inputIndexes.put(inputs[i], i);
+            }
+        }
+    }
+
+    private volatile TableObjects objects;
+    private final InputClasses inputClasses;
+    private final int[] charClasses;
+
+    private final int inputCount;
+    private final int[] next;
+    private final BitSet acceptStates = new BitSet();
+    private final int[] tags;
+    private final int startState;
+
+    /**
+     * Class constructor, compiles the automaton.
+     *
+     * @param source
+     *            the automaton.
+     * @since 1.0
+     */
+    public DFAutomatonTable(final DFAutomaton source) {
+        this(source, Collections.<State, Integer> emptyMap(), null);
+    }
+
+    /**
+     * Class constructor, compiles the automaton with tagged states. If the inputs of the automaton are character
+     * classes, characters are mapped to the inputs of their classes.
+     *
+     * @param source
+     *            the automaton.
+     * @param tags
+     *            the tags of the states.
+     * @param inputClasses
+     *            the character classes, or <code>null</code> if the inputs are characters.
+     * @since 1.1
+     */
+    public DFAutomatonTable(final DFAutomaton source, final Map<State, Integer> tags,
+            final InputClasses inputClasses) {
+        this.inputClasses = inputClasses;
+
+        final List<State> orderedStates = new ArrayList<>(source.getStates());
+        Collections.sort(orderedStates);
+        final State[] states = orderedStates.toArray(new State[orderedStates.size()]);
+
+        final List<Input> orderedInputs = new ArrayList<>(source.getAlphabet());
+        Collections.sort(orderedInputs);
+        final Input[] inputs = orderedInputs.toArray(new Input[orderedInputs.size()]);
+
+        objects = new TableObjects(states, inputs);
+        final Map<State, Integer> stateIndexes = objects.stateIndexes;
+        final Map<Input, Integer> inputIndexes = objects.inputIndexes;
+
+        this.tags = new int[states.length];
+        for (int i = 0; i < states.length; i++) {
+            if (source.isAcceptState(states[i])) {
+                acceptStates.set(i);
+            }
+
+            final Integer tag = tags.get(states[i]);
+            this.tags[i] = tag == null ? TaggedDFAutomaton.NO_TAG : tag;
+        }
+
+        inputCount = inputs.length;
+        charClasses = inputClasses == null ? characterInputs(inputs) : classInputs(inputIndexes);
+
+        next = new int[states.length * inputs.length];
+        Arrays.fill(next, DEAD_STATE);
+        for (final Transition transition : source.getTransferFunction().getTransitions()) {
+            final Integer oldState = stateIndexes.get(transition.getOldState());
+            final Integer input = inputIndexes.get(transition.getInput());
+            if ((oldState != null) && (input != null)) {
+                next[(oldState * inputs.length) + input] = stateIndexes.get(transition.getNewState());
+            }
+        }
+
+        final Integer start = stateIndexes.get(source.getStartState());
+        startState = start == null ? DEAD_STATE : start;
+    }
+
+    /*
+     * Class constructor, specifies the read table. States and inputs are created when they're requested.
+     */
+    private DFAutomatonTable(final int inputCount, final int startState, final int[] next, final BitSet acceptStates,
+            final int[] tags, final int[] charClasses) {
+        inputClasses = null;
+        this.inputCount = inputCount;
+        this.startState = startState;
+        this.next = next;
+        this.acceptStates.or(acceptStates);
+        this.tags = tags;
+        this.charClasses = charClasses;
+    }
+
+    /**
+     * Reads the table written by the {@link #write(DataOutput)} from the buffer.
+     *
+     * @param buffer
+     *            the buffer, positioned at the start of the table.
+     * @return the table.
+     * @since 1.3
+     */
+    public static DFAutomatonTable read(final ByteBuffer buffer) {
+        final int stateCount = buffer.getInt();
+        final int inputCount = buffer.getInt();
+        final int startState = buffer.getInt();
+        final int[] charClasses = readInts(buffer, buffer.getInt());
+        final int[] next = readInts(buffer, stateCount * inputCount);
+        final int[] tags = readInts(buffer, stateCount);
+
+        final long[] words = new long[buffer.getInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = buffer.getLong();
+        }
+
+        return new DFAutomatonTable(inputCount, startState, next, BitSet.valueOf(words), tags, charClasses);
+    }
+
+    /**
+     * Writes the table in the binary form: number of states, number of input classes, start state, the character
+     * lookup table, the next state table, tags of the states and the accept states. Only the character inputs are
+     * kept.
+     *
+     * @param output
+     *            the output.
+     * @throws IOException
+     *             if the table can't be written.
+     * @since 1.3
+     */
+    public void write(final DataOutput output) throws IOException {
+        output.writeInt(getStateCount());
+        output.writeInt(inputCount);
+        output.writeInt(startState);
+        output.writeInt(charClasses.length);
+        writeInts(output, charClasses);
+        writeInts(output, next);
+        writeInts(output, tags);
+
+        final long[] words = acceptStates.toLongArray();
+        output.writeInt(words.length);
+        for (final long word : words) {
+            output.writeLong(word);
+        }
+    }
+
+    /**
+     * Returns the state in which the automaton is after the input is applied in the specified state.
+     *
+     * @param state
+     *            index of the state.
+     * @param inputClass
+     *            class of the input.
+     * @return index of the next state, or {@link #DEAD_STATE} if there is no transition.
+     * @since 1.0
+     */
+    public int step(final int state, final int inputClass) {
+        if ((state == DEAD_STATE) || (inputClass == UNKNOWN_INPUT)) {
+            return DEAD_STATE;
+        }
+        return next[(state * inputCount) + inputClass];
+    }
+
+    /**
+     * Returns the class of the input.
+     *
+     * @param input
+     *            the input.
+     * @return class of the input, or {@link #UNKNOWN_INPUT} if the input isn't in the alphabet.
+     * @since 1.0
+     */
+    public int getInputClass(final Input input) {
+        if (input.toString().length() == 1) {
+            return getInputClass(input.toString().charAt(0));
+        }
+
+        final Integer inputClass = objects().inputIndexes.get(input);
+        return inputClass == null ? UNKNOWN_INPUT : inputClass;
+    }
+
+    /**
+     * Returns the class of the character input.
+     *
+     * @param input
+     *            the input.
+     * @return class of the input, or {@link #UNKNOWN_INPUT} if the input isn't in the alphabet.
+     * @since 1.0
+     */
+    public int getInputClass(final char input) {
+        return input < charClasses.length ? charClasses[input] : UNKNOWN_INPUT;
+    }
+
+    /**
+     * Returns the class of the character input.
+     *
+     * @param codePoint
+     *            the character.
+     * @return class of the input, or {@link #UNKNOWN_INPUT} if the input isn't in the alphabet.
+     * @since 1.2
+     */
+    public int getInputClass(final int codePoint) {
+        return (codePoint >= 0) && (codePoint < charClasses.length) ? charClasses[codePoint] : UNKNOWN_INPUT;
+    }
+
+    /**
+     * Checks if the state is a accept state.
+     *
+     * @param state
+     *            index of the state.
+     * @return <code>true</code> if the state is a accept state, <code>false</code> otherwise.
+     * @since 1.0
+     */
+    public boolean isAcceptState(final int state) {
+        return (state != DEAD_STATE) && acceptStates.get(state);
+    }
+
+    /**
+     * Returns the tag of the state.
+     *
+     * @param state
+     *            index of the state.
+     * @return the tag, or {@link TaggedDFAutomaton#NO_TAG} if the state isn't tagged.
+     * @since 1.0
+     */
+    public int getTag(final int state) {
+        return state == DEAD_STATE ? TaggedDFAutomaton.NO_TAG : tags[state];
+    }
+
+    /**
+     * Returns index of the start state.
+     *
+     * @return the start state.
+     * @since 1.0
+     */
+    public int getStartState() {
+        return startState;
+    }
+
+    /**
+     * Returns index of the state.
+     *
+     * @param state
+     *            the state.
+     * @return index of the state, or {@link #DEAD_STATE} if the state isn't a state of the automaton.
+     * @since 1.0
+     */
+    public int getStateIndex(final State state) {
+        final Integer index = objects().stateIndexes.get(state);
+        return index == null ? DEAD_STATE : index;
+    }
+
+    /**
+     * Returns the state with the index.
+     *
+     * @param state
+     *            index of the state.
+     * @return the state, or <code>null</code> for the {@link #DEAD_STATE}.
+     * @since 1.0
+     */
+    public State getState(final int state) {
+        return state == DEAD_STATE ? null : objects().states[state];
+    }
+
+    /**
+     * Returns the input of the input class.
+     *
+     * @param inputClass
+     *            the input class.
+     * @return the input.
+     * @since 1.0
+     */
+    public Input getInput(final int inputClass) {
+        return objects().inputs[inputClass];
+    }
+
+    /**
+     * Returns the number of states.
+     *
+     * @return the number of states.
+     * @since 1.0
+     */
+    public int getStateCount() {
+        return tags.length;
+    }
+
+    /**
+     * Returns the number of input classes.
+     *
+     * @return the number of input classes.
+     * @since 1.0
+     */
+    public int getInputCount() {
+        return inputCount;
+    }
+
+    /*
+     * Returns the states and the inputs, creates them for the read table. States are named with their indexes, each
+     * input class is represented with its smallest character. Threads which request them at the same time can create
+     * them twice, the objects are equal and each thread sees a complete holder.
+     */
+    private TableObjects objects() {
+        TableObjects result = objects;
+        if (result != null) {
+            return result;
+        }
+
+        final State[] states = new State[tags.length];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new BasicState(String.valueOf(i));
+        }
+
+        final Input[] inputs = new Input[inputCount];
+        for (int character = charClasses.length - 1; character >= 0; character--) {
+            if (charClasses[character] != UNKNOWN_INPUT) {
+                inputs[charClasses[character]] = new BasicInput((char) character);
+            }
+        }
+
+        result = new TableObjects(states, inputs);
+        objects = result;
+        return result;
+    }
+
+    private static int[] readInts(final ByteBuffer buffer, final int count) {
+        final int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + (count * 4));
+        return values;
+    }
+
+    private static void writeInts(final DataOutput output, final int[] values) throws IOException {
+        for (final int value : values) {
+            output.writeInt(value);
+        }
+    }
+
+    /*
+     * Maps the characters to the inputs which are single characters.
+     */
+    private static int[] characterInputs(final Input[] inputs) {
+        int maxChar = -1;
+        for (final Input input : inputs) {
+            if (input.toString().length() == 1) {
+                maxChar = Math.max(maxChar, input.toString().charAt(0));
+            }
+        }
+
+        final int[] characters = new int[maxChar + 1];
+        Arrays.fill(characters, UNKNOWN_INPUT);
+        for (int i = 0; i < inputs.length; i++) {
+            if (inputs[i].toString().length() == 1) {
+                characters[inputs[i].toString().charAt(0)] = i;
+            }
+        }
+        return characters;
+    }
+
+    /*
+     * Maps the characters to the inputs of their classes.
+     */
+    private int[] classInputs(final Map<Input, Integer> inputIndexes) {
+        final Map<Character, Integer> classes = inputClasses.getClasses();
+        int maxChar = -1;
+        for (final char character : classes.keySet()) {
+            maxChar = Math.max(maxChar, character);
+        }
+
+        final int[] characters = new int[maxChar + 1];
+        Arrays.fill(characters, UNKNOWN_INPUT);
+        for (final Map.Entry<Character, Integer> entry : classes.entrySet()) {
+            final Integer input = inputIndexes.get(inputClasses.getClassInput(entry.getValue()));
+            characters[entry.getKey()] = input == null ? UNKNOWN_INPUT : input;
+        }
+        return characters;
+    }
+}
@@ -1,5 +1,9 @@
 package hr.fer.zemris.ppj.finite.automaton;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
@@ -7,14 +11,27 @@ import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
 import hr.fer.zemris.ppj.finite.automaton.transfer.ENFAutomatonTransferFunction;
 
 /**
- * <code>ENFAutomaton</code> is a nondeterministic finite automaton with e-moves.
+ * <code>ENFAutomaton</code> is a nondeterministic finite automaton with e-moves. Current states of the automaton are
+ * kept in a bit set of state indexes of the transfer function, which is reused between the inputs.
  *
  * @author Domagoj Polancec
  *
- * @version 1.0
+ * @version 1.2
  */
 public class ENFAutomaton extends AbstractAutomaton {
 
+    private static final int NO_CODE_POINT = -1;
+
+    private final ENFAutomatonTransferFunction function;
+    private final List<State> unindexedStates = new ArrayList<>();
+    private final BitSet acceptIndexes = new BitSet();
+    private final int startIndex;
+
+    private BitSet currentIndexes = new BitSet();
+    private BitSet nextIndexes = new BitSet();
+    private Input lastInput;
+    private int lastCodePoint = NO_CODE_POINT;
+
     /**
      * Class constructor, specifies formal definition of automaton.
      *
@@ -33,6 +50,118 @@ public class ENFAutomaton extends AbstractAutomaton {
     public ENFAutomaton(final Set<State> states, final Set<State> acceptStates, final Set<Input> alphabet,
             final ENFAutomatonTransferFunction transferFunction, final State startState) {
         super(states, acceptStates, alphabet, transferFunction, startState);
+        function = transferFunction;
+
+        for (final State state : states) {
+            if (function.getStateIndex(state) == ENFAutomatonTransferFunction.UNKNOWN) {
+                unindexedStates.add(state);
+            }
+        }
+        for (final State state : acceptStates) {
+            acceptIndexes.set(indexOf(state));
+        }
+        startIndex = indexOf(startState);
+
+        reset();
+    }
+
+    @Override
+    public void apply(final Input input) {
+        applyIndex(function.getInputIndex(input));
+        lastInput = input;
+        lastCodePoint = NO_CODE_POINT;
+    }
+
+    /**
+     * {@inheritDoc} <br>
+     * The character is mapped to the input index by the transfer function, the input object is created only if the
+     * last input is requested.
+     *
+     * @since 1.2
+     */
+    @Override
+    public void apply(final int codePoint) {
+        applyIndex(function.getInputIndex(codePoint));
+        lastInput = null;
+        lastCodePoint = codePoint;
+    }
+
+    @Override
+    public void reset() {
+        currentIndexes.clear();
+        currentIndexes.set(startIndex);
+        function.applyEpsilonTransitions(currentIndexes);
+        lastInput = null;
+        lastCodePoint = NO_CODE_POINT;
+    }
+
+    @Override
+    public Set<State> getCurrentStates() {
+        final Set<State> currentStates = new HashSet<>();
+        for (int state = currentIndexes.nextSetBit(0); state >= 0; state = currentIndexes.nextSetBit(state + 1)) {
+            currentStates.add(stateOf(state));
+        }
+        return currentStates;
+    }
+
+    @Override
+    public boolean isCurrentState(final State state) {
+        return hasState(state) && currentIndexes.get(indexOf(state));
+    }
+
+    @Override
+    public boolean isAccepting() {
+        return currentIndexes.intersects(acceptIndexes);
+    }
+
+    @Override
+    public Input getLastInput() {
+        if ((lastInput == null) && (lastCodePoint != NO_CODE_POINT)) {
+            lastInput = toInput(lastCodePoint);
+        }
+        return lastInput;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 1.1
+     */
+    @Override
+    public ENFAutomatonTransferFunction getTransferFunction() {
+        return function;
+    }
+
+    private void applyIndex(final int input) {
+        function.applyTransitions(currentIndexes, input, nextIndexes);
+
+        final BitSet swap = currentIndexes;
+        currentIndexes = nextIndexes;
+        nextIndexes = swap;
+    }
+
+    /*
+     * States without transitions aren't indexed by the transfer function, so they're numbered after the indexed ones.
+     */
+    private int indexOf(final State state) {
+        final int index = function.getStateIndex(state);
+        if (index != ENFAutomatonTransferFunction.UNKNOWN) {
+            return index;
+        }
+
+        int unindexed = unindexedStates.indexOf(state);
+        if (unindexed < 0) {
+            unindexed = unindexedStates.size();
+            unindexedStates.add(state);
+        }
+        return function.getStateCount() + unindexed;
+    }
+
+    private State stateOf(final int index) {
+        if (index < function.getStateCount()) {
+            return function.getState(index);
+        }
+        return unindexedStates.get(index - function.getStateCount());
     }
 
 }
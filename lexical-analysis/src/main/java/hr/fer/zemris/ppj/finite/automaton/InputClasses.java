@@ -0,0 +1,203 @@
+package hr.fer.zemris.ppj.finite.automaton;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Transition;
+
+/**
+ * <code>InputClasses</code> is a partition of the character inputs to equivalence classes. Characters are in the same
+ * class if they label exactly the same transitions, so a automaton can use a single input for the whole class. Each
+ * class is represented with the input of its smallest character.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+public class InputClasses {
+
+    /**
+     * Class of the characters which aren't in any class.
+     */
+    public static final int NO_CLASS = -1;
+
+    private final Map<Character, Integer> classes = new TreeMap<>();
+    private final List<Input> classInputs = new ArrayList<>();
+
+    /**
+     * Class constructor, specifies the classes of the characters.
+     *
+     * @param classes
+     *            the classes, numbered from <code>0</code>.
+     * @since 1.0
+     */
+    public InputClasses(final Map<Character, Integer> classes) {
+        this.classes.putAll(classes);
+
+        final int classCount = classes.isEmpty() ? 0 : Collections.max(classes.values()) + 1;
+        for (int i = 0; i < classCount; i++) {
+            classInputs.add(null);
+        }
+        for (final Map.Entry<Character, Integer> entry : this.classes.entrySet()) {
+            if (classInputs.get(entry.getValue()) == null) {
+                classInputs.set(entry.getValue(), new BasicInput(entry.getKey()));
+            }
+        }
+    }
+
+    /**
+     * Partitions the inputs of the transitions. Characters with the same set of (old state, new state) pairs are
+     * placed in the same class, classes are numbered in the order of their smallest character.
+     *
+     * @param transitions
+     *            the transitions, e-moves are ignored.
+     * @return the classes, or <code>null</code> if some input isn't a single character.
+     * @since 1.0
+     */
+    public static InputClasses fromTransitions(final Iterable<? extends Transition> transitions) {
+        final Map<Character, List<String>> signatures = new TreeMap<>();
+        for (final Transition transition : transitions) {
+            if (transition.getInput() == null) {
+                continue;
+            }
+
+            final String symbol = transition.getInput().toString();
+            if (symbol.length() != 1) {
+                return null;
+            }
+
+            List<String> signature = signatures.get(symbol.charAt(0));
+            if (signature == null) {
+                signature = new ArrayList<>();
+                signatures.put(symbol.charAt(0), signature);
+            }
+            signature.add(transition.getOldState().getId() + " " + transition.getNewState().getId());
+        }
+
+        final Map<List<String>, Integer> signatureClasses = new HashMap<>();
+        final Map<Character, Integer> classes = new HashMap<>();
+        for (final Map.Entry<Character, List<String>> entry : signatures.entrySet()) {
+            final List<String> signature = entry.getValue();
+            Collections.sort(signature);
+
+            Integer inputClass = signatureClasses.get(signature);
+            if (inputClass == null) {
+                inputClass = signatureClasses.size();
+                signatureClasses.put(signature, inputClass);
+            }
+            classes.put(entry.getKey(), inputClass);
+        }
+        return new InputClasses(classes);
+    }
+
+    /**
+     * Returns the class of the character.
+     *
+     * @param input
+     *            the character.
+     * @return the class, or {@link #NO_CLASS} if the character isn't in any class.
+     * @since 1.0
+     */
+    public int getClass(final char input) {
+        final Integer inputClass = classes.get(input);
+        return inputClass == null ? NO_CLASS : inputClass;
+    }
+
+    /**
+     * Returns the class of the input.
+     *
+     * @param input
+     *            the input.
+     * @return the class, or {@link #NO_CLASS} if the input isn't a character in any class.
+     * @since 1.0
+     */
+    public int getClass(final Input input) {
+        final String symbol = input.toString();
+        return symbol.length() == 1 ? getClass(symbol.charAt(0)) : NO_CLASS;
+    }
+
+    /**
+     * Returns the input which represents the class.
+     *
+     * @param inputClass
+     *            the class.
+     * @return the input.
+     * @since 1.0
+     */
+    public Input getClassInput(final int inputClass) {
+        return classInputs.get(inputClass);
+    }
+
+    /**
+     * Returns the number of classes.
+     *
+     * @return the number of classes.
+     * @since 1.0
+     */
+    public int getClassCount() {
+        return classInputs.size();
+    }
+
+    /**
+     * Returns the classes of the characters.
+     *
+     * @return the classes.
+     * @since 1.0
+     */
+    public Map<Character, Integer> getClasses() {
+        return new TreeMap<>(classes);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Format: space delimited list of character ranges with the same class, <code>first-last:class</code> or
+     * <code>character:class</code> for a single character. Characters are written as their integer codes.
+     *
+     * @see java.lang.Object#toString()
+     * @since 1.0
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        int first = -1;
+        int last = -1;
+        int rangeClass = NO_CLASS;
+        for (final Map.Entry<Character, Integer> entry : classes.entrySet()) {
+            final int character = entry.getKey();
+            if ((character == (last + 1)) && (entry.getValue() == rangeClass)) {
+                last = character;
+                continue;
+            }
+
+            appendRange(builder, first, last, rangeClass);
+            first = character;
+            last = character;
+            rangeClass = entry.getValue();
+        }
+        appendRange(builder, first, last, rangeClass);
+
+        return builder.toString();
+    }
+
+    private static void appendRange(final StringBuilder builder, final int first, final int last,
+            final int rangeClass) {
+        if (rangeClass == NO_CLASS) {
+            return;
+        }
+
+        if (builder.length() > 0) {
+            builder.append(' ');
+        }
+        builder.append(first);
+        if (last != first) {
+            builder.append('-').append(last);
+        }
+        builder.append(':').append(rangeClass);
+    }
+}
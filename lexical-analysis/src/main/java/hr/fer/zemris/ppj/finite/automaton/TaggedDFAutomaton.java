@@ -0,0 +1,202 @@
+package hr.fer.zemris.ppj.finite.automaton;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Automaton;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Transition;
+import hr.fer.zemris.ppj.finite.automaton.transfer.DFAutomatonTransferFunction;
+import hr.fer.zemris.ppj.finite.automaton.transfer.DeterministicTransition;
+
+/**
+ * <code>TaggedDFAutomaton</code> is a deterministic finite automaton whose accept states are tagged with a integer. The
+ * tag is used to mark which of the combined automatons is accepting in the state, e.g. the index of the winning rule
+ * of the lexical analyzer.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.1
+ */
+public class TaggedDFAutomaton extends DFAutomaton {
+
+    /**
+     * Tag of the states which aren't tagged.
+     */
+    public static final int NO_TAG = -1;
+
+    private final Map<State, Integer> tags = new HashMap<>();
+    private final InputClasses inputClasses;
+
+    /**
+     * Class constructor, specifies formal definition of automaton.
+     *
+     * @param states
+     *            the states of the automaton
+     * @param acceptStates
+     *            the accepting states of the automaton.
+     * @param alphabet
+     *            the alphabet of the automaton.
+     * @param transferFunction
+     *            the transfer function of the automaton.
+     * @param startState
+     *            the initial state of the automaton.
+     * @param tags
+     *            the tags of the accept states.
+     * @since 1.0
+     */
+    public TaggedDFAutomaton(final Set<State> states, final Set<State> acceptStates, final Set<Input> alphabet,
+            final DFAutomatonTransferFunction transferFunction, final State startState,
+            final Map<State, Integer> tags) {
+        this(states, acceptStates, alphabet, transferFunction, startState, tags, null);
+    }
+
+    /**
+     * Class constructor, specifies formal definition of automaton whose inputs are classes of characters.
+     *
+     * @param states
+     *            the states of the automaton
+     * @param acceptStates
+     *            the accepting states of the automaton.
+     * @param alphabet
+     *            the alphabet of the automaton, inputs of the character classes.
+     * @param transferFunction
+     *            the transfer function of the automaton.
+     * @param startState
+     *            the initial state of the automaton.
+     * @param tags
+     *            the tags of the accept states.
+     * @param inputClasses
+     *            the character classes, or <code>null</code> if the inputs are characters.
+     * @since 1.1
+     */
+    public TaggedDFAutomaton(final Set<State> states, final Set<State> acceptStates, final Set<Input> alphabet,
+            final DFAutomatonTransferFunction transferFunction, final State startState, final Map<State, Integer> tags,
+            final InputClasses inputClasses) {
+        super(states, acceptStates, alphabet, transferFunction, startState);
+        this.tags.putAll(tags);
+        this.inputClasses = inputClasses;
+    }
+
+    /**
+     * Class constructor, creates a tagged automaton from a automaton which is deterministic, but isn't represented
+     * with a <code>DFAutomaton</code>, e.g. a automaton read from a textual definition.
+     *
+     * @param source
+     *            the automaton, mustn't contain e-moves or more than one transition for a state and input.
+     * @param tags
+     *            the tags of the accept states.
+     * @since 1.0
+     */
+    public TaggedDFAutomaton(final Automaton source, final Map<State, Integer> tags) {
+        this(source, tags, null);
+    }
+
+    /**
+     * Class constructor, creates a tagged automaton over character classes from a automaton which is deterministic,
+     * but isn't represented with a <code>DFAutomaton</code>, e.g. a automaton read from a textual definition.
+     *
+     * @param source
+     *            the automaton, mustn't contain e-moves or more than one transition for a state and input.
+     * @param tags
+     *            the tags of the accept states.
+     * @param inputClasses
+     *            the character classes, or <code>null</code> if the inputs are characters.
+     * @since 1.1
+     */
+    public TaggedDFAutomaton(final Automaton source, final Map<State, Integer> tags,
+            final InputClasses inputClasses) {
+        this(source.getStates(), source.getAcceptStates(), source.getAlphabet(), deterministicFunction(source),
+                source.getStartState(), tags, inputClasses);
+    }
+
+    /**
+     * Returns the tag of the state.
+     *
+     * @param state
+     *            the state.
+     * @return the tag, or {@link #NO_TAG} if the state isn't tagged.
+     * @since 1.0
+     */
+    public int getTag(final State state) {
+        final Integer tag = tags.get(state);
+        return tag == null ? NO_TAG : tag;
+    }
+
+    /**
+     * Returns the tag of the current state of the automaton.
+     *
+     * @return the tag, or {@link #NO_TAG} if the current state isn't tagged.
+     * @since 1.0
+     */
+    public int getCurrentTag() {
+        final State currentState = getCurrentState();
+        return currentState == null ? NO_TAG : getTag(currentState);
+    }
+
+    /**
+     * Returns the tags of the automaton.
+     *
+     * @return the tags.
+     * @since 1.0
+     */
+    public Map<State, Integer> getTags() {
+        return new HashMap<>(tags);
+    }
+
+    /**
+     * Returns the character classes which are the inputs of the automaton.
+     *
+     * @return the character classes, or <code>null</code> if the inputs are characters.
+     * @since 1.1
+     */
+    public InputClasses getInputClasses() {
+        return inputClasses;
+    }
+
+    @Override
+    protected DFAutomatonTable createTable() {
+        return new DFAutomatonTable(this, tags, inputClasses);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Format: space delimited list of tagged states <code>stateId:tag</code>, character classes in the next line
+     * (empty if the inputs are characters), followed by the format of the automaton.
+     *
+     * @see hr.fer.zemris.ppj.finite.automaton.InputClasses#toString()
+     * @see hr.fer.zemris.ppj.finite.automaton.AbstractAutomaton#toString()
+     * @since 1.0
+     */
+    @Override
+    public String toString() {
+        String result = "";
+        for (final State state : new TreeSet<>(tags.keySet())) {
+            result += state.getId() + ":" + tags.get(state) + " ";
+        }
+        if (!result.isEmpty()) {
+            result = result.substring(0, result.length() - 1);
+        }
+
+        result += "\n" + (inputClasses == null ? "" : inputClasses.toString());
+
+        return result + "\n" + super.toString();
+    }
+
+    /*
+     * Creates a deterministic transfer function from the transitions of the automaton.
+     */
+    private static DFAutomatonTransferFunction deterministicFunction(final Automaton source) {
+        final Set<DeterministicTransition> transitions = new HashSet<>();
+        for (final Transition transition : source.getTransferFunction().getTransitions()) {
+            transitions.add(new DeterministicTransition(transition.getOldState(), transition.getNewState(),
+                    transition.getInput()));
+        }
+        return new DFAutomatonTransferFunction(transitions);
+    }
+}
@@ -0,0 +1,299 @@
+package hr.fer.zemris.ppj.finite.automaton.generator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import hr.fer.zemris.ppj.finite.automaton.BasicInput;
+import hr.fer.zemris.ppj.finite.automaton.BasicState;
+import hr.fer.zemris.ppj.finite.automaton.ENFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.generator.interfaces.AutomatonGenerator;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Automaton;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Transition;
+import hr.fer.zemris.ppj.finite.automaton.transfer.ENFAutomatonTransferFunction;
+import hr.fer.zemris.ppj.finite.automaton.transfer.EpsilonTransition;
+import hr.fer.zemris.ppj.finite.automaton.transfer.FAutomatonTransition;
+import hr.fer.zemris.ppj.finite.automaton.transfer.NormalTransition;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpression;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpressionManipulator;
+
+/**
+ * <code>AutomatonCache</code> is a content addressed cache of the automatons generated from regular expressions. The
+ * automatons are mapped by the canonical text of the syntax tree, so a regular definition and every rule which uses it
+ * get the same automaton. By default the automatons are generated by the {@link ENFAutomatonGenerator}, whose
+ * generators copy the cached automatons of the subexpressions instead of generating them again. <br>
+ * The cached automatons are only read by the transforms, so they can be shared between the rules. The cache can be
+ * saved to a file and loaded in a later run, loaded automatons have e-moves only if the saved ones had them. The file
+ * records the generator of the automatons, a cache saved with a different generator isn't loaded.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.3
+ */
+public class AutomatonCache {
+
+    /**
+     * Magic number at the start of the saved cache.
+     */
+    public static final int BINARY_MAGIC = 0x50504A43;
+
+    /**
+     * Version of the saved cache format.
+     */
+    public static final int BINARY_VERSION = 3;
+
+    private final Map<String, Automaton> automatons = new LinkedHashMap<>();
+    private final Supplier<AutomatonGenerator> generators;
+
+    /**
+     * Class constructor, creates a empty cache which generates automatons with e-moves.
+     *
+     * @since 1.0
+     */
+    public AutomatonCache() {
+        generators = () -> new ENFAutomatonGenerator(this);
+    }
+
+    /**
+     * Class constructor, creates a empty cache which generates automatons with the generators from the supplier.
+     *
+     * @param generators
+     *            supplier of the generators, a generator is used for one automaton.
+     * @since 1.1
+     */
+    public AutomatonCache(final Supplier<AutomatonGenerator> generators) {
+        this.generators = generators;
+    }
+
+    /**
+     * Returns the automaton of the expression, the automaton is generated and cached if it isn't in the cache.
+     *
+     * @param expression
+     *            the regular expression, without regular definitions.
+     * @return the automaton.
+     * @since 1.0
+     */
+    public Automaton get(final String expression) {
+        return get(RegularExpressionManipulator.parse(expression));
+    }
+
+    /**
+     * Returns the automaton of the syntax tree, the automaton is generated and cached if it isn't in the cache.
+     *
+     * @param expression
+     *            the syntax tree of the regular expression.
+     * @return the automaton.
+     * @since 1.2
+     */
+    public Automaton get(final RegularExpression expression) {
+        final String key = expression.toString();
+        Automaton automaton = automatons.get(key);
+        if (automaton == null) {
+            automaton = generators.get().fromRegularExpression(expression);
+            automatons.put(key, automaton);
+        }
+        return automaton;
+    }
+
+    /**
+     * Returns the cached automaton of the expression.
+     *
+     * @param expression
+     *            the regular expression, without regular definitions.
+     * @return the automaton, or <code>null</code> if the expression isn't in the cache.
+     * @since 1.0
+     */
+    public Automaton getCached(final String expression) {
+        return automatons.get(normalize(expression));
+    }
+
+    /**
+     * Returns the cached automaton of the syntax tree.
+     *
+     * @param expression
+     *            the syntax tree of the regular expression.
+     * @return the automaton, or <code>null</code> if the expression isn't in the cache.
+     * @since 1.2
+     */
+    public Automaton getCached(final RegularExpression expression) {
+        return automatons.get(expression.toString());
+    }
+
+    /**
+     * @return the number of cached automatons.
+     * @since 1.0
+     */
+    public int size() {
+        return automatons.size();
+    }
+
+    /**
+     * Normalizes the expression to the canonical text of its syntax tree, so expressions which differ only in
+     * redundant brackets or escapes have the same key.
+     *
+     * @param expression
+     *            the regular expression.
+     * @return the normalized expression.
+     * @since 1.0
+     */
+    public static String normalize(final String expression) {
+        return RegularExpressionManipulator.parse(expression).toString();
+    }
+
+    /**
+     * Loads the automatons saved by the {@link #save(Path)} to the cache.
+     *
+     * @param path
+     *            path to the file.
+     * @throws IOException
+     *             if the file can't be read.
+     * @throws IllegalArgumentException
+     *             if the file isn't a saved cache of a supported version, or its automatons were generated by a
+     *             different generator.
+     * @since 1.0
+     */
+    public void load(final Path path) throws IOException {
+        try (InputStream input = Files.newInputStream(path)) {
+            final DataInputStream data = new DataInputStream(new BufferedInputStream(input));
+            if ((data.readInt() != BINARY_MAGIC) || (data.readInt() != BINARY_VERSION)) {
+                throw new IllegalArgumentException("File " + path + " isn't a supported automaton cache.");
+            }
+            final String generator = readString(data);
+            if (!generator.equals(generatorName())) {
+                throw new IllegalArgumentException(
+                        "File " + path + " contains automatons of a different generator: " + generator + ".");
+            }
+
+            final int count = data.readInt();
+            for (int i = 0; i < count; i++) {
+                final String expression = readString(data);
+                automatons.put(expression, readAutomaton(data));
+            }
+        }
+    }
+
+    /**
+     * Saves the cached automatons to the file, after the name of the generator. States of the automatons are written as
+     * indexes, the start state first.
+     *
+     * @param path
+     *            path to the file.
+     * @throws IOException
+     *             if the file can't be written.
+     * @since 1.0
+     */
+    public void save(final Path path) throws IOException {
+        try (OutputStream output = Files.newOutputStream(path)) {
+            final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+            data.writeInt(BINARY_MAGIC);
+            data.writeInt(BINARY_VERSION);
+            writeString(data, generatorName());
+            data.writeInt(automatons.size());
+            for (final Map.Entry<String, Automaton> entry : automatons.entrySet()) {
+                writeString(data, entry.getKey());
+                writeAutomaton(data, entry.getValue());
+            }
+            data.flush();
+        }
+    }
+
+    /*
+     * Returns the name of the class of the generators, which identifies the construction of the automatons.
+     */
+    private String generatorName() {
+        return generators.get().getClass().getName();
+    }
+
+    /*
+     * Format: state count, accept state indexes, transitions as (old state, e-move flag, symbol unless it's a e-move,
+     * new state).
+     */
+    private static void writeAutomaton(final DataOutputStream data, final Automaton automaton) throws IOException {
+        final Map<State, Integer> indexes = new HashMap<>();
+        indexes.put(automaton.getStartState(), 0);
+        for (final State state : automaton.getStates()) {
+            if (!indexes.containsKey(state)) {
+                indexes.put(state, indexes.size());
+            }
+        }
+        data.writeInt(indexes.size());
+
+        data.writeInt(automaton.getAcceptStates().size());
+        for (final State state : automaton.getAcceptStates()) {
+            data.writeInt(indexes.get(state));
+        }
+
+        final Set<Transition> transitions = automaton.getTransferFunction().getTransitions();
+        data.writeInt(transitions.size());
+        for (final Transition transition : transitions) {
+            data.writeInt(indexes.get(transition.getOldState()));
+            data.writeBoolean(transition.getInput() == null);
+            if (transition.getInput() != null) {
+                data.writeChar(transition.getInput().toString().charAt(0));
+            }
+            data.writeInt(indexes.get(transition.getNewState()));
+        }
+    }
+
+    private static ENFAutomaton readAutomaton(final DataInputStream data) throws IOException {
+        final List<State> states = new ArrayList<>();
+        final int stateCount = data.readInt();
+        for (int i = 0; i < stateCount; i++) {
+            states.add(new BasicState(String.valueOf(i)));
+        }
+
+        final Set<State> acceptStates = new HashSet<>();
+        final int acceptCount = data.readInt();
+        for (int i = 0; i < acceptCount; i++) {
+            acceptStates.add(states.get(data.readInt()));
+        }
+
+        final Set<Input> alphabet = new HashSet<>();
+        final Set<FAutomatonTransition> transitions = new HashSet<>();
+        final int transitionCount = data.readInt();
+        for (int i = 0; i < transitionCount; i++) {
+            final State oldState = states.get(data.readInt());
+            final Input input = data.readBoolean() ? null : new BasicInput(data.readChar());
+            final State newState = states.get(data.readInt());
+            if (input == null) {
+                transitions.add(new EpsilonTransition(oldState, newState));
+            }
+            else {
+                alphabet.add(input);
+                transitions.add(new NormalTransition(oldState, newState, input));
+            }
+        }
+
+        return new ENFAutomaton(new HashSet<>(states), acceptStates, alphabet,
+                new ENFAutomatonTransferFunction(transitions), states.get(0));
+    }
+
+    private static String readString(final DataInputStream data) throws IOException {
+        final byte[] bytes = new byte[data.readInt()];
+        data.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(final DataOutputStream data, final String string) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+}
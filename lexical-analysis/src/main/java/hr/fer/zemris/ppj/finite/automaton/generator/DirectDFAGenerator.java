@@ -0,0 +1,214 @@
+package hr.fer.zemris.ppj.finite.automaton.generator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+
+import hr.fer.zemris.ppj.finite.automaton.BasicInput;
+import hr.fer.zemris.ppj.finite.automaton.BasicState;
+import hr.fer.zemris.ppj.finite.automaton.DFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.ENFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.generator.interfaces.AutomatonGenerator;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
+import hr.fer.zemris.ppj.finite.automaton.transfer.DFAutomatonTransferFunction;
+import hr.fer.zemris.ppj.finite.automaton.transfer.DeterministicTransition;
+import hr.fer.zemris.ppj.finite.automaton.transforms.DFAConverter;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpression;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpressionManipulator;
+
+/**
+ * <code>DirectDFAGenerator</code> generates a deterministic automaton directly from the regular expression, with the
+ * followpos construction of Aho, Sethi and Ullman. Each symbol of the expression is a position, the expression is
+ * extended with a end marker position, and each state of the automaton is the set of positions which can be matched
+ * next. <br>
+ * The nullable, firstpos and lastpos functions are computed in a single walk over the syntax tree of the expression,
+ * and no e-moves are generated.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.1
+ */
+public class DirectDFAGenerator implements AutomatonGenerator {
+
+    /**
+     * <code>Node</code> is a parsed subexpression, described by its nullable, firstpos and lastpos functions.
+     */
+    private static class Node {
+
+        public final boolean nullable;
+        public final BitSet first;
+        public final BitSet last;
+
+        public Node(final boolean nullable, final BitSet first, final BitSet last) {
+            this.nullable = nullable;
+            this.first = first;
+            this.last = last;
+        }
+    }
+
+    private final List<Character> symbols = new ArrayList<>();
+    private final List<BitSet> followpos = new ArrayList<>();
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 1.0
+     */
+    @Override
+    public DFAutomaton fromRegularExpression(final String regularExpression) {
+        return fromRegularExpression(RegularExpressionManipulator.parse(regularExpression));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 1.1
+     */
+    @Override
+    public DFAutomaton fromRegularExpression(final RegularExpression regularExpression) {
+        symbols.clear();
+        followpos.clear();
+
+        final Node root = node(regularExpression);
+        final int end = newPosition(null);
+        return build(concatenate(root, leaf(end)).first, end);
+    }
+
+    /**
+     * Generates the automaton from the textual definition through a automaton with e-moves.
+     *
+     * @since 1.0
+     */
+    @Override
+    public DFAutomaton fromTextDefinition(final String states, final String acceptStates, final String alphabet,
+            final List<String> transitions, final String startState) {
+        return new DFAConverter().transform((ENFAutomaton) new ENFAutomatonGenerator().fromTextDefinition(states,
+                acceptStates, alphabet, transitions, startState));
+    }
+
+    /*
+     * Computes the functions of the node and the followpos of its positions.
+     */
+    private Node node(final RegularExpression expression) {
+        switch (expression.getType()) {
+            case SYMBOL:
+                return leaf(newPosition(expression.getSymbol()));
+            case KLEENE_STAR:
+                return star(node(expression.getChildren().get(0)));
+            case CONCATENATION: {
+                Node node = new Node(true, new BitSet(), new BitSet());
+                for (final RegularExpression child : expression.getChildren()) {
+                    node = concatenate(node, node(child));
+                }
+                return node;
+            }
+            case ALTERNATION: {
+                Node node = null;
+                for (final RegularExpression child : expression.getChildren()) {
+                    final Node right = node(child);
+                    node = node == null ? right
+                            : new Node(node.nullable || right.nullable, union(node.first, right.first),
+                                    union(node.last, right.last));
+                }
+                return node;
+            }
+            default:
+                return new Node(true, new BitSet(), new BitSet());
+        }
+    }
+
+    private Node concatenate(final Node left, final Node right) {
+        for (int p = left.last.nextSetBit(0); p >= 0; p = left.last.nextSetBit(p + 1)) {
+            followpos.get(p).or(right.first);
+        }
+        return new Node(left.nullable && right.nullable, left.nullable ? union(left.first, right.first) : left.first,
+                right.nullable ? union(left.last, right.last) : right.last);
+    }
+
+    private Node star(final Node node) {
+        for (int p = node.last.nextSetBit(0); p >= 0; p = node.last.nextSetBit(p + 1)) {
+            followpos.get(p).or(node.first);
+        }
+        return new Node(true, node.first, node.last);
+    }
+
+    private static Node leaf(final int position) {
+        final BitSet positions = new BitSet();
+        positions.set(position);
+        return new Node(false, positions, positions);
+    }
+
+    private int newPosition(final Character symbol) {
+        symbols.add(symbol);
+        followpos.add(new BitSet());
+        return symbols.size() - 1;
+    }
+
+    private static BitSet union(final BitSet first, final BitSet second) {
+        final BitSet union = (BitSet) first.clone();
+        union.or(second);
+        return union;
+    }
+
+    /*
+     * Builds the automaton from the sets of positions, a set is accepting if it contains the end marker.
+     */
+    private DFAutomaton build(final BitSet start, final int end) {
+        final Map<Character, Input> inputs = new HashMap<>();
+        final Map<BitSet, State> states = new HashMap<>();
+        final Set<State> acceptStates = new HashSet<>();
+        final Set<DeterministicTransition> transitions = new HashSet<>();
+        final Queue<BitSet> unprocessed = new ArrayDeque<>();
+
+        states.put(start, new BasicState("0"));
+        unprocessed.add(start);
+        while (!unprocessed.isEmpty()) {
+            final BitSet current = unprocessed.poll();
+            final State currentState = states.get(current);
+            if (current.get(end)) {
+                acceptStates.add(currentState);
+            }
+
+            // Positions of the set grouped by their symbols, the next set for a symbol is the union of their followpos.
+            final Map<Character, BitSet> nextSets = new TreeMap<>();
+            for (int p = current.nextSetBit(0); p >= 0; p = current.nextSetBit(p + 1)) {
+                final Character symbol = symbols.get(p);
+                if (symbol != null) {
+                    BitSet next = nextSets.get(symbol);
+                    if (next == null) {
+                        next = new BitSet();
+                        nextSets.put(symbol, next);
+                    }
+                    next.or(followpos.get(p));
+                }
+            }
+
+            for (final Map.Entry<Character, BitSet> entry : nextSets.entrySet()) {
+                State nextState = states.get(entry.getValue());
+                if (nextState == null) {
+                    nextState = new BasicState(String.valueOf(states.size()));
+                    states.put(entry.getValue(), nextState);
+                    unprocessed.add(entry.getValue());
+                }
+
+                Input input = inputs.get(entry.getKey());
+                if (input == null) {
+                    input = new BasicInput(entry.getKey());
+                    inputs.put(entry.getKey(), input);
+                }
+                transitions.add(new DeterministicTransition(currentState, nextState, input));
+            }
+        }
+
+        return new DFAutomaton(new HashSet<>(states.values()), acceptStates, new HashSet<>(inputs.values()),
+                new DFAutomatonTransferFunction(transitions), states.get(start));
+    }
+}
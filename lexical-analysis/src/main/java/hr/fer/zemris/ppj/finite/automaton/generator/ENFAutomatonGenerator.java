@@ -15,7 +15,9 @@ import hr.fer.zemris.ppj.finite.automaton.generator.interfaces.StateBuilder;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.Automaton;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Transition;
 import hr.fer.zemris.ppj.finite.automaton.transfer.ENFAutomatonTransferFunction;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpression;
 import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpressionManipulator;
 
 /**
@@ -24,7 +26,7 @@ import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpressionManipulator;
  *
  * @author Jan Kelemen
  *
- * @version 1.1
+ * @version 1.3
  */
 public class ENFAutomatonGenerator implements AutomatonGenerator {
 
@@ -55,6 +57,8 @@ public class ENFAutomatonGenerator implements AutomatonGenerator {
 
     private final AlphabetBuilder alphabetBuilder;
 
+    private final AutomatonCache cache;
+
     private String initial;
 
     /**
@@ -63,9 +67,21 @@ public class ENFAutomatonGenerator implements AutomatonGenerator {
      * @since 1.0
      */
     public ENFAutomatonGenerator() {
+        this(null);
+    }
+
+    /**
+     * Class constructor, specifies the cache from which the automatons of the subexpressions are copied.
+     *
+     * @param cache
+     *            the cache, or <code>null</code> if the subexpressions are always generated.
+     * @since 1.2
+     */
+    public ENFAutomatonGenerator(final AutomatonCache cache) {
         stateBuilders = new HashMap<>();
         transferFunctionBuilder = new ENFATransferFunctionBuilder();
         alphabetBuilder = new AlphabetBuilder();
+        this.cache = cache;
     }
 
     /**
@@ -75,14 +91,19 @@ public class ENFAutomatonGenerator implements AutomatonGenerator {
      */
     @Override
     public ENFAutomaton fromRegularExpression(final String expression) {
-        final StateBuilderPair pair = fromRegularExpressionImpl(expression);
+        return fromRegularExpression(RegularExpressionManipulator.parse(expression));
+    }
 
-        for (final StateBuilder builder : stateBuilders.values()) {
-            if (pair.initial.getId().equals(builder.getId())) {
-                initial = builder.getId();
-                break;
-            }
-        }
+    /**
+     * {@inheritDoc}
+     *
+     * @since 1.3
+     */
+    @Override
+    public ENFAutomaton fromRegularExpression(final RegularExpression expression) {
+        final StateBuilderPair pair = fromRegularExpressionImpl(expression);
+        pair.accepting.changeAcceptance(true);
+        initial = pair.initial.getId();
 
         return build();
     }
@@ -119,73 +140,86 @@ public class ENFAutomatonGenerator implements AutomatonGenerator {
     }
 
     /*
-     * Implements Thompson's construction algorithm:
+     * Implements Thompson's construction algorithm over the syntax tree, all states of the pair are non accepting.
      */
-    private StateBuilderPair fromRegularExpressionImpl(final String expression) {
-        final List<String> subexpressions = RegularExpressionManipulator.splitOnOperator(expression, '|');
-        final StateBuilderPair pair = new StateBuilderPair(newStateBuilder(false), newStateBuilder(true));
-
-        if (subexpressions.size() > 1) {
-            for (final String subexpression : subexpressions) {
-                final StateBuilderPair subpair = fromRegularExpressionImpl(subexpression);
-                addTransition(pair.initial, subpair.initial);
-                addTransition(subpair.accepting, pair.accepting);
-                subpair.accepting.changeAcceptance(false);
+    private StateBuilderPair fromRegularExpressionImpl(final RegularExpression expression) {
+        switch (expression.getType()) {
+            case SYMBOL: {
+                final StateBuilderPair pair = new StateBuilderPair(newStateBuilder(false), newStateBuilder(false));
+                addTransition(pair.initial, pair.accepting, expression.getSymbol());
+                return pair;
+            }
+            case EMPTY_SEQUENCE: {
+                final StateBuilderPair pair = new StateBuilderPair(newStateBuilder(false), newStateBuilder(false));
+                addTransition(pair.initial, pair.accepting);
+                return pair;
             }
+            default:
+                break;
         }
-        else {
-            boolean prefixed = false;
-            StateBuilder lastState = pair.initial;
 
-            for (int i = 0; i < expression.length(); i++) {
-                StateBuilderPair subpair = new StateBuilderPair(null, null);
+        final StateBuilderPair cached = fromCache(expression);
+        if (cached != null) {
+            return cached;
+        }
 
-                if (prefixed) { // Slucaj 1
-                    prefixed = false;
-                    subpair = new StateBuilderPair(newStateBuilder(false), newStateBuilder(false));
-                    addTransition(subpair.initial, subpair.accepting, unprefixedSymbol(expression.charAt(i)));
+        final StateBuilderPair pair = new StateBuilderPair(newStateBuilder(false), newStateBuilder(false));
+        switch (expression.getType()) {
+            case KLEENE_STAR: {
+                final StateBuilderPair subpair = fromRegularExpressionImpl(expression.getChildren().get(0));
+                addTransition(pair.initial, subpair.initial);
+                addTransition(pair.initial, pair.accepting);
+                addTransition(subpair.accepting, pair.accepting);
+                addTransition(subpair.accepting, subpair.initial);
+                break;
+            }
+            case CONCATENATION: {
+                StateBuilder lastState = pair.initial;
+                for (final RegularExpression child : expression.getChildren()) {
+                    final StateBuilderPair subpair = fromRegularExpressionImpl(child);
+                    addTransition(lastState, subpair.initial);
+                    lastState = subpair.accepting;
                 }
-                else { // Slucaj 2
-                    if (expression.charAt(i) == '\\') {
-                        prefixed = true;
-                        continue;
-                    }
-
-                    if (expression.charAt(i) == '(') {
-                        final int j = RegularExpressionManipulator.findClosingBracket(expression, i, '(', ')');
-
-                        subpair = fromRegularExpressionImpl(expression.substring(i + 1, j));
-                        subpair.accepting.changeAcceptance(false);
-
-                        i = j;
-                    }
-                    else {
-                        subpair = new StateBuilderPair(newStateBuilder(false), newStateBuilder(false));
-                        addTransition(subpair.initial, subpair.accepting,
-                                expression.charAt(i) == '$' ? EMPTY_SEQUENCE : expression.charAt(i));
-                    }
+                addTransition(lastState, pair.accepting);
+                break;
+            }
+            default: {
+                for (final RegularExpression child : expression.getChildren()) {
+                    final StateBuilderPair subpair = fromRegularExpressionImpl(child);
+                    addTransition(pair.initial, subpair.initial);
+                    addTransition(subpair.accepting, pair.accepting);
                 }
+                break;
+            }
+        }
+        return pair;
+    }
 
-                // Kleene operator check
-                if (((i + 1) < expression.length()) && (expression.charAt(i + 1) == '*')) {
-                    final StateBuilderPair oldPair = subpair;
-                    subpair = new StateBuilderPair(newStateBuilder(false), newStateBuilder(false));
-
-                    addTransition(subpair.initial, oldPair.initial);
-                    addTransition(subpair.initial, subpair.accepting);
-                    addTransition(oldPair.accepting, subpair.accepting);
-                    addTransition(oldPair.accepting, oldPair.initial);
-
-                    i++;
-                }
+    /*
+     * Copies the cached automaton of the subexpression, returns null if it isn't cached.
+     */
+    private StateBuilderPair fromCache(final RegularExpression subexpression) {
+        final Automaton cached = cache == null ? null : cache.getCached(subexpression);
+        if ((cached == null) || (cached.getAcceptStates().size() != 1)) {
+            return null;
+        }
 
-                // Merge with last subexpression
-                addTransition(lastState, subpair.initial);
-                lastState = subpair.accepting;
+        final Map<State, StateBuilder> copies = new HashMap<>();
+        for (final State state : cached.getStates()) {
+            copies.put(state, newStateBuilder(false));
+        }
+        for (final Transition transition : cached.getTransferFunction().getTransitions()) {
+            final StateBuilder oldState = copies.get(transition.getOldState());
+            final StateBuilder newState = copies.get(transition.getNewState());
+            if (transition.getInput() == null) {
+                addTransition(oldState, newState);
+            }
+            else {
+                addTransition(oldState, newState, transition.getInput().toString().charAt(0));
             }
-            addTransition(lastState, pair.accepting);
         }
-        return pair;
+        return new StateBuilderPair(copies.get(cached.getStartState()),
+                copies.get(cached.getAcceptStates().iterator().next()));
     }
 
     /*
@@ -237,22 +271,6 @@ public class ENFAutomatonGenerator implements AutomatonGenerator {
         alphabetBuilder.addSymbol(symbol);
     }
 
-    /*
-     * Used when a prefixed symbol is foumd in the regular expression to get the real representation of the symbol.
-     */
-    private char unprefixedSymbol(final char symbol) {
-        switch (symbol) {
-            case 't':
-                return '\t';
-            case 'n':
-                return '\n';
-            case '_':
-                return ' ';
-            default:
-                return symbol;
-        }
-    }
-
     /*
      * Used when reading from a text definition to get unescaped symbols for transitions and alphabet.
      */
@@ -3,13 +3,14 @@ package hr.fer.zemris.ppj.finite.automaton.generator.interfaces;
 import java.util.List;
 
 import hr.fer.zemris.ppj.finite.automaton.interfaces.Automaton;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpression;
 
 /**
  * <code>AutomatonGenerator</code> offers set of functions to generate automatons.
  *
  * @author Jan Kelemen
  *
- * @version 1.0
+ * @version 1.2
  */
 public interface AutomatonGenerator {
 
@@ -23,6 +24,16 @@ public interface AutomatonGenerator {
      */
     Automaton fromRegularExpression(String regularExpression);
 
+    /**
+     * Generates a automaton from the syntax tree of a regular expression.
+     *
+     * @param regularExpression
+     *            the syntax tree.
+     * @return generated automaton.
+     * @since 1.2
+     */
+    Automaton fromRegularExpression(RegularExpression regularExpression);
+
     /**
      * Generates a automaton from textual definition.
      *
@@ -11,7 +11,7 @@ import java.util.Set;
  * transfer function and the set of accept states.
  *
  * @author Domagoj Polancec
- * @version 1.0
+ * @version 1.1
  * @see Input
  * @see State
  * @see Transition
@@ -27,6 +27,15 @@ public interface Automaton {
      */
     void apply(Input input);
 
+    /**
+     * Receives the character input and updates the automaton's current state(s). Automatons which can map the
+     * character to their inputs directly implement this without creating a input object.
+     *
+     * @param codePoint
+     *            the character to receive
+     */
+    void apply(int codePoint);
+
     /**
      * Gets the last received input. This is null if and only if no inputs have been received by the automaton.
      *
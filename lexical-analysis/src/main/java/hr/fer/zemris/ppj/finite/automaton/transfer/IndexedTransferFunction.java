@@ -0,0 +1,359 @@
+package hr.fer.zemris.ppj.finite.automaton.transfer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Transition;
+
+/**
+ * <code>IndexedTransferFunction</code> is a finite automaton transfer function which indexes the transitions by the
+ * old state and the input. States and inputs are numbered, targets of the transitions are kept in adjacency arrays,
+ * where the targets of each (state, input) cell are stored consecutively, and the e-closure of each state is
+ * calculated once, when the function is created. Sets of states can be represented with a <code>BitSet</code> of
+ * state indexes, which allows applying the inputs without creating new sets of states. Characters are mapped to the
+ * indexes of single character inputs with a lookup table.
+ *
+ * @author Jan Kelemen
+ *
+ * @see hr.fer.zemris.ppj.finite.automaton.interfaces.TransferFunction
+ * @version 1.1
+ */
+public class IndexedTransferFunction extends FAutomatonTransferFunction {
+
+    /**
+     * Index of the states and the inputs which aren't known to the transfer function.
+     */
+    public static final int UNKNOWN = -1;
+
+    private final List<State> states = new ArrayList<>();
+    private final Map<State, Integer> stateIndexes = new HashMap<>();
+    private final List<Input> inputs = new ArrayList<>();
+    private final Map<Input, Integer> inputIndexes = new HashMap<>();
+    private final int[] characterInputs;
+
+    private final Map<State, Set<Transition>> oldStateTransitions = new HashMap<>();
+    private final int[] cellStarts;
+    private final int[] targets;
+    private final BitSet[] eClosures;
+
+    /**
+     * Class constructor, specifies the transitions of the transfer function.
+     *
+     * @param transitions
+     *            the transitions.
+     * @since 1.0
+     */
+    public IndexedTransferFunction(final Set<FAutomatonTransition> transitions) {
+        super(transitions);
+
+        final Set<Input> alphabet = new HashSet<>();
+        for (final FAutomatonTransition transition : transitions) {
+            indexState(transition.getOldState());
+            indexState(transition.getNewState());
+            if (!transition.isEpsilonTransition()) {
+                alphabet.add(transition.getInput());
+            }
+
+            Set<Transition> stateTransitions = oldStateTransitions.get(transition.getOldState());
+            if (stateTransitions == null) {
+                stateTransitions = new HashSet<>();
+                oldStateTransitions.put(transition.getOldState(), stateTransitions);
+            }
+            stateTransitions.add(transition);
+        }
+
+        final List<Input> orderedInputs = new ArrayList<>(alphabet);
+        Collections.sort(orderedInputs);
+        for (final Input input : orderedInputs) {
+            inputIndexes.put(input, inputs.size());
+            inputs.add(input);
+        }
+
+        characterInputs = indexCharacters();
+
+        final int stateCount = states.size();
+        final int inputCount = inputs.size();
+        cellStarts = new int[(stateCount * (inputCount + 1)) + 1];
+        for (final FAutomatonTransition transition : transitions) {
+            cellStarts[cell(transition) + 1]++;
+        }
+        for (int i = 1; i < cellStarts.length; i++) {
+            cellStarts[i] += cellStarts[i - 1];
+        }
+
+        targets = new int[transitions.size()];
+        final int[] cellSizes = new int[cellStarts.length - 1];
+        for (final FAutomatonTransition transition : transitions) {
+            final int cell = cell(transition);
+            targets[cellStarts[cell] + cellSizes[cell]++] = stateIndexes.get(transition.getNewState());
+        }
+
+        eClosures = new BitSet[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            eClosures[state] = calculateEClosure(state);
+        }
+    }
+
+    @Override
+    public Set<Transition> getTransitions(final State oldState, final State newState, final Input input) {
+        if (oldState == null) {
+            return super.getTransitions(oldState, newState, input);
+        }
+
+        final Set<Transition> found = new HashSet<>();
+        final Set<Transition> stateTransitions = oldStateTransitions.get(oldState);
+        if (stateTransitions == null) {
+            return found;
+        }
+
+        for (final Transition transition : stateTransitions) {
+            final boolean inputBool = (input != null) && !input.equals(transition.getInput());
+            final boolean newBool = (newState != null) && !newState.equals(transition.getNewState());
+            if (!inputBool && !newBool) {
+                found.add(transition);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Set<State> getNewStates(final Set<State> currentStates, final Input input) {
+        final BitSet current = new BitSet(states.size());
+        final Set<State> unknownStates = new HashSet<>();
+        for (final State state : currentStates) {
+            final int index = getStateIndex(state);
+            if (index == UNKNOWN) {
+                unknownStates.add(state);
+            }
+            else {
+                current.set(index);
+            }
+        }
+
+        final BitSet result = new BitSet(states.size());
+        if (input == null) {
+            result.or(current);
+            applyEpsilonTransitions(result);
+        }
+        else {
+            applyTransitions(current, getInputIndex(input), result);
+        }
+
+        final Set<State> newStates = new HashSet<>();
+        for (int state = result.nextSetBit(0); state >= 0; state = result.nextSetBit(state + 1)) {
+            newStates.add(states.get(state));
+        }
+
+        // States without transitions only keep themselves in the e-closure.
+        if (input == null) {
+            newStates.addAll(unknownStates);
+        }
+        return newStates;
+    }
+
+    /**
+     * Calculates the states reachable from the current states for the given input, including the e-closure of the
+     * reached states. States with indexes outside of the function are ignored.
+     *
+     * @param currentStates
+     *            indexes of the current states.
+     * @param input
+     *            index of the input.
+     * @param result
+     *            set which is cleared and filled with indexes of the new states, mustn't be the same set as the
+     *            current states.
+     * @since 1.0
+     */
+    public void applyTransitions(final BitSet currentStates, final int input, final BitSet result) {
+        result.clear();
+        if (input == UNKNOWN) {
+            return;
+        }
+
+        final int stride = inputs.size() + 1;
+        for (int state = currentStates.nextSetBit(0); (state >= 0) && (state < states.size()); state =
+                currentStates.nextSetBit(state + 1)) {
+            final int cell = (state * stride) + input;
+            for (int target = cellStarts[cell]; target < cellStarts[cell + 1]; target++) {
+                result.or(eClosures[targets[target]]);
+            }
+        }
+    }
+
+    /**
+     * Extends the states with their e-closure. States with indexes outside of the function are kept unchanged.
+     *
+     * @param currentStates
+     *            indexes of the states.
+     * @since 1.0
+     */
+    public void applyEpsilonTransitions(final BitSet currentStates) {
+        final int stateCount = states.size();
+        for (int state = currentStates.nextSetBit(0); (state >= 0) && (state < stateCount); state =
+                currentStates.nextSetBit(state + 1)) {
+            currentStates.or(eClosures[state]);
+        }
+    }
+
+    /**
+     * Returns the e-closure of the state.
+     *
+     * @param state
+     *            index of the state.
+     * @return indexes of the states in the e-closure, the set mustn't be modified.
+     * @since 1.0
+     */
+    public BitSet getEClosure(final int state) {
+        return eClosures[state];
+    }
+
+    /**
+     * Returns index of the state.
+     *
+     * @param state
+     *            the state.
+     * @return index of the state, or {@link #UNKNOWN} if the state doesn't have transitions.
+     * @since 1.0
+     */
+    public int getStateIndex(final State state) {
+        final Integer index = stateIndexes.get(state);
+        return index == null ? UNKNOWN : index;
+    }
+
+    /**
+     * Returns the state with the index.
+     *
+     * @param state
+     *            index of the state.
+     * @return the state.
+     * @since 1.0
+     */
+    public State getState(final int state) {
+        return states.get(state);
+    }
+
+    /**
+     * Returns index of the input.
+     *
+     * @param input
+     *            the input.
+     * @return index of the input, or {@link #UNKNOWN} if there are no transitions for the input.
+     * @since 1.0
+     */
+    public int getInputIndex(final Input input) {
+        final Integer index = inputIndexes.get(input);
+        return index == null ? UNKNOWN : index;
+    }
+
+    /**
+     * Returns index of the single character input.
+     *
+     * @param codePoint
+     *            the character.
+     * @return index of the input, or {@link #UNKNOWN} if there are no transitions for the character.
+     * @since 1.1
+     */
+    public int getInputIndex(final int codePoint) {
+        return (codePoint >= 0) && (codePoint < characterInputs.length) ? characterInputs[codePoint] : UNKNOWN;
+    }
+
+    /**
+     * Returns the input with the index.
+     *
+     * @param input
+     *            index of the input.
+     * @return the input.
+     * @since 1.0
+     */
+    public Input getInput(final int input) {
+        return inputs.get(input);
+    }
+
+    /**
+     * Returns the number of indexed states.
+     *
+     * @return the number of states.
+     * @since 1.0
+     */
+    public int getStateCount() {
+        return states.size();
+    }
+
+    /**
+     * Returns the number of indexed inputs, e-moves aren't counted.
+     *
+     * @return the number of inputs.
+     * @since 1.0
+     */
+    public int getInputCount() {
+        return inputs.size();
+    }
+
+    /*
+     * Maps the characters to the indexes of the inputs which are single characters.
+     */
+    private int[] indexCharacters() {
+        int maxChar = -1;
+        for (final Input input : inputs) {
+            if (input.toString().length() == 1) {
+                maxChar = Math.max(maxChar, input.toString().charAt(0));
+            }
+        }
+
+        final int[] characters = new int[maxChar + 1];
+        Arrays.fill(characters, UNKNOWN);
+        for (int i = 0; i < inputs.size(); i++) {
+            if (inputs.get(i).toString().length() == 1) {
+                characters[inputs.get(i).toString().charAt(0)] = i;
+            }
+        }
+        return characters;
+    }
+
+    private void indexState(final State state) {
+        if (!stateIndexes.containsKey(state)) {
+            stateIndexes.put(state, states.size());
+            states.add(state);
+        }
+    }
+
+    /*
+     * Returns the index of the (old state, input) cell of the transition, e-moves use the cell after the last input.
+     */
+    private int cell(final FAutomatonTransition transition) {
+        final int stride = inputs.size() + 1;
+        final int input = transition.isEpsilonTransition() ? inputs.size() : inputIndexes.get(transition.getInput());
+        return (stateIndexes.get(transition.getOldState()) * stride) + input;
+    }
+
+    private BitSet calculateEClosure(final int state) {
+        final int epsilon = inputs.size();
+        final BitSet closure = new BitSet(states.size());
+        final int[] stack = new int[states.size()];
+        int top = 0;
+
+        closure.set(state);
+        stack[top++] = state;
+        while (top > 0) {
+            final int current = stack[--top];
+            final int cell = (current * (epsilon + 1)) + epsilon;
+            for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+                final int target = targets[i];
+                if (!closure.get(target)) {
+                    closure.set(target);
+                    stack[top++] = target;
+                }
+            }
+        }
+        return closure;
+    }
+}
@@ -1,8 +1,12 @@
 package hr.fer.zemris.ppj.finite.automaton.transforms;
 
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.TreeSet;
 
 import hr.fer.zemris.ppj.finite.automaton.BasicState;
 import hr.fer.zemris.ppj.finite.automaton.DFAutomaton;
@@ -10,123 +14,104 @@ import hr.fer.zemris.ppj.finite.automaton.ENFAutomaton;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.AutomatonTransform;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
-import hr.fer.zemris.ppj.finite.automaton.interfaces.TransferFunction;
 import hr.fer.zemris.ppj.finite.automaton.transfer.DFAutomatonTransferFunction;
 import hr.fer.zemris.ppj.finite.automaton.transfer.DeterministicTransition;
+import hr.fer.zemris.ppj.finite.automaton.transfer.ENFAutomatonTransferFunction;
 
 /**
- * <code>DFAConverter</code> is a automaton transformer which converts a nondeterminist
+ * <code>DFAConverter</code> is a automaton transformer which converts a nondeterministic finite automaton with e-moves
+ * to a deterministic finite automaton. Sets of states of the source automaton are represented with bit sets of the
+ * state indexes of its transfer function, unprocessed sets are kept in a queue and each set is processed once. <br>
+ * States of the result are named with the order in which they are found, missing transitions lead to the error state
+ * <code>ERR</code>. <br>
+ * Important: create a new converter for each transformation.
  *
  * @author Matea Sabolic
  * @author Jan Kelemen
  *
- * @version beta
+ * @version 1.0
  */
 public class DFAConverter implements AutomatonTransform<ENFAutomaton, DFAutomaton> {
 
-    Set<State> states = new HashSet<>();
-    Set<State> acceptStates = new HashSet<>();
-    Set<DeterministicTransition> newTransitions = new HashSet<>();
+    private final Map<BitSet, State> newStates = new HashMap<>();
+    private final Set<State> acceptStates = new HashSet<>();
+    private final Set<DeterministicTransition> transitions = new HashSet<>();
 
-    private State errorState;
+    private final State errorState = new BasicState("ERR");
 
     @Override
     public DFAutomaton transform(final ENFAutomaton source) {
-
+        final ENFAutomatonTransferFunction function = source.getTransferFunction();
         final Set<Input> inputs = source.getAlphabet();
 
-        final Set<State> newState = getNewStartState(source);
-        final State DFAStartState = getNewDFAStateName(newState);
-        states.add(DFAStartState);
-        if (isAcceptStateDFA(newState, source)) {
-            acceptStates.add(DFAStartState);
+        final BitSet acceptIndexes = new BitSet(function.getStateCount());
+        for (final State state : source.getAcceptStates()) {
+            final int index = function.getStateIndex(state);
+            if (index != ENFAutomatonTransferFunction.UNKNOWN) {
+                acceptIndexes.set(index);
+            }
         }
 
-        constructErrorState(inputs);
-        newStateTransitions(newState, source);
-
-        final DFAutomatonTransferFunction function = new DFAutomatonTransferFunction(newTransitions);
-
-        return new DFAutomaton(states, acceptStates, inputs, function, DFAStartState);
-    }
-
-    private Set<State> getNewStates(final Set<State> currentStates, final TransferFunction transferfunction,
-            final Input input) {
-        return transferfunction.getNewStates(currentStates, input);
-    }
-
-    private Set<State> getEpsilonClosure(final Set<State> currentStates, final TransferFunction transferFunction) {
-        Set<State> epsilonClosure = new HashSet<>();
-        epsilonClosure = transferFunction.getNewStates(currentStates, null);
-        return epsilonClosure;
-    }
-
-    private Set<State> getNewStartState(final ENFAutomaton source) {
-        final Set<State> newStateName = new TreeSet<State>();
-        Set<State> newState = new HashSet<>();
-        newState.add(source.getStartState());
-        newState = getEpsilonClosure(newState, source.getTransferFunction());
-        newStateName.addAll(newState);
-        return newState;
-    }
-
-    private State getNewDFAStateName(final Set<State> newStateName) {
-        String Name = "";
-        for (final State state : newStateName) {
-            Name = Name + state.getId();
+        final BitSet startClosure = new BitSet(function.getStateCount());
+        final int start = function.getStateIndex(source.getStartState());
+        if (start != ENFAutomatonTransferFunction.UNKNOWN) {
+            startClosure.set(start);
+            function.applyEpsilonTransitions(startClosure);
         }
-        final State newName = new BasicState(Name);
-        return newName;
-    }
 
-    private Set<State> getNewDFAState(final ENFAutomaton source, final Set<State> current) {
-        final Set<State> newStateName = new TreeSet<State>();
-        Set<State> newState = new HashSet<>();
-        newState = getEpsilonClosure(current, source.getTransferFunction());
-        newStateName.addAll(newState);
-        return newStateName;
-    }
-
-    private void constructErrorState(final Set<Input> inputs) {
-        errorState = new BasicState("ERR");
-        for (final Input input : inputs) {
-            newTransitions.add(new DeterministicTransition(errorState, errorState, input));
+        final State startState = getState(startClosure);
+        if (source.isAcceptState(source.getStartState()) || startClosure.intersects(acceptIndexes)) {
+            acceptStates.add(startState);
         }
-    }
 
-    private boolean isAcceptStateDFA(final Set<State> states, final ENFAutomaton source) {
-        final Set<State> uncheckedStates = new HashSet<>(states);
-        uncheckedStates.retainAll(source.getAcceptStates());
-        return !uncheckedStates.isEmpty();
-    }
+        final Queue<BitSet> unprocessed = new ArrayDeque<>();
+        unprocessed.add(startClosure);
 
-    private void newStateTransitions(final Set<State> oldState, final ENFAutomaton source) {
-        final Set<Input> inputs = source.getAlphabet();
-        Set<State> newState = new HashSet<>();
-        boolean isNew = true;
+        BitSet next = new BitSet(function.getStateCount());
+        boolean errorReached = false;
+        while (!unprocessed.isEmpty()) {
+            final BitSet current = unprocessed.poll();
+            final State currentState = newStates.get(current);
 
-        while (isNew) {
-            isNew = false;
             for (final Input input : inputs) {
-                newState = getNewStates(oldState, source.getTransferFunction(), input);
-                newState = getEpsilonClosure(newState, source.getTransferFunction());
-                newState = getNewDFAState(source, newState);
-                final State stateName = newState.isEmpty() ? errorState : getNewDFAStateName(newState);
-                if (!states.contains(stateName)) {
-                    isNew = true;
-                    states.add(stateName);
-                    if (isAcceptStateDFA(newState, source)) {
-                        acceptStates.add(stateName);
+                function.applyTransitions(current, function.getInputIndex(input), next);
+                if (next.isEmpty()) {
+                    transitions.add(new DeterministicTransition(currentState, errorState, input));
+                    errorReached = true;
+                    continue;
+                }
+
+                State nextState = newStates.get(next);
+                if (nextState == null) {
+                    nextState = getState(next);
+                    if (next.intersects(acceptIndexes)) {
+                        acceptStates.add(nextState);
                     }
-                    final State oldStateName = getNewDFAStateName(oldState);
-                    final DeterministicTransition transition =
-                            new DeterministicTransition(oldStateName, stateName, input);
-                    newTransitions.add(transition);
-                    newStateTransitions(newState, source);
+                    unprocessed.add(next);
+                    next = new BitSet(function.getStateCount());
                 }
+                transitions.add(new DeterministicTransition(currentState, nextState, input));
             }
         }
 
+        final Set<State> states = new HashSet<>(newStates.values());
+        if (errorReached) {
+            states.add(errorState);
+            for (final Input input : inputs) {
+                transitions.add(new DeterministicTransition(errorState, errorState, input));
+            }
+        }
+
+        return new DFAutomaton(states, acceptStates, inputs, new DFAutomatonTransferFunction(transitions),
+                startState);
     }
 
+    private State getState(final BitSet states) {
+        State state = newStates.get(states);
+        if (state == null) {
+            state = new BasicState(String.valueOf(newStates.size()));
+            newStates.put(states, state);
+        }
+        return state;
+    }
 }
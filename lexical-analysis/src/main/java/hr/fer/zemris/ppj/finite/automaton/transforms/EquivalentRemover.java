@@ -1,6 +1,7 @@
 package hr.fer.zemris.ppj.finite.automaton.transforms;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -10,6 +11,7 @@ import java.util.Set;
 import java.util.TreeSet;
 
 import hr.fer.zemris.ppj.finite.automaton.DFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.DFAutomatonTable;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.AutomatonTransform;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
@@ -23,7 +25,7 @@ import hr.fer.zemris.ppj.finite.automaton.transfer.DeterministicTransition;
  *
  * @author Domagoj Polancec
  *
- * @version 1.0
+ * @version 1.1
  */
 public class EquivalentRemover implements AutomatonTransform<DFAutomaton, DFAutomaton> {
 
@@ -120,7 +122,7 @@ public class EquivalentRemover implements AutomatonTransform<DFAutomaton, DFAuto
         }
     }
 
-    private final Set<StatePair> pairs = new HashSet<>();
+    private final Map<StatePair, StatePair> pairs = new HashMap<>();
 
     @Override
     public DFAutomaton transform(final DFAutomaton source) {
@@ -234,6 +236,12 @@ public class EquivalentRemover implements AutomatonTransform<DFAutomaton, DFAuto
     private void populateIndexes(final DFAutomaton source) {
         final Set<Transition> transitions = source.getTransferFunction().getTransitions();
 
+        // States without transitions, like the accept states of the combined automatons, have empty lists.
+        for (final State state : source.getStates()) {
+            oldStateTransitionsIndex.put(state, new ArrayList<Transition>());
+            newStateTransitionsIndex.put(state, new ArrayList<Transition>());
+        }
+
         for (final Transition transition : transitions) {
             final State oldState = transition.getOldState();
             final State newState = transition.getNewState();
@@ -252,7 +260,7 @@ public class EquivalentRemover implements AutomatonTransform<DFAutomaton, DFAuto
             newStateTransitionsIndex.get(newState).add(transition);
         }
 
-        for (final StatePair pair : pairs) {
+        for (final StatePair pair : pairs.values()) {
             if (pair.first.equals(pair.second)) {
                 continue;
             }
@@ -271,48 +279,49 @@ public class EquivalentRemover implements AutomatonTransform<DFAutomaton, DFAuto
     }
 
     private StatePair findPair(final StatePair pair) {
-        if (!pairs.contains(pair)) {
-            return null;
-        }
-
-        for (final StatePair anotherPair : pairs) {
-            if (anotherPair.equals(pair)) {
-                return anotherPair;
-            }
-        }
-
-        return null;
+        return pairs.get(pair);
     }
 
+    /*
+     * Missing transitions lead to the implicit dead state. A state is distinguished from the dead state only if a
+     * accept state is reachable from it.
+     */
     private void markPairs(final DFAutomaton automaton) {
+        final DFAutomatonTable table = automaton.getTable();
+        final BitSet live = liveStates(table);
 
-        final Set<Input> inputs = automaton.getAlphabet();
-
-        for (final Input input : inputs) {
-            for (final StatePair pair : pairs) {
-                State firstNext = automaton.getTransition(pair.first, input).getNewState();
-                State secondNext = automaton.getTransition(pair.second, input).getNewState();
-
-                if ((firstNext == null) || (secondNext == null)) {
+        for (int input = 0; input < table.getInputCount(); input++) {
+            for (final StatePair pair : pairs.values()) {
+                if (pair.marked) {
                     continue;
                 }
 
-                StatePair nextPair = findPair(new StatePair(firstNext, secondNext));
+                final int first = table.getStateIndex(pair.first);
+                final int second = table.getStateIndex(pair.second);
+                final int firstNext = table.step(first, input);
+                final int secondNext = table.step(second, input);
 
-                if (nextPair == null) {
+                if ((firstNext == DFAutomatonTable.DEAD_STATE) || (secondNext == DFAutomatonTable.DEAD_STATE)) {
+                    if ((firstNext != secondNext) && (isLive(live, firstNext) || isLive(live, secondNext))) {
+                        pair.mark();
+                    }
                     continue;
                 }
 
+                StatePair nextPair = findPair(new StatePair(table.getState(firstNext), table.getState(secondNext)));
+
                 if (nextPair.marked) {
                     pair.mark();
                 }
                 else {
-                    for (final Input anotherInput : inputs) {
-                        firstNext = automaton.getTransition(pair.first, anotherInput).getNewState();
-                        secondNext = automaton.getTransition(pair.second, anotherInput).getNewState();
-
-                        if (!firstNext.equals(secondNext)) {
-                            nextPair = findPair(new StatePair(firstNext, secondNext));
+                    for (int anotherInput = 0; anotherInput < table.getInputCount(); anotherInput++) {
+                        final int firstAnother = table.step(first, anotherInput);
+                        final int secondAnother = table.step(second, anotherInput);
+
+                        if ((firstAnother != secondAnother) && (firstAnother != DFAutomatonTable.DEAD_STATE)
+                                && (secondAnother != DFAutomatonTable.DEAD_STATE)) {
+                            nextPair = findPair(new StatePair(table.getState(firstAnother),
+                                    table.getState(secondAnother)));
                             nextPair.addLinkedPair(pair);
                         }
                     }
@@ -321,6 +330,38 @@ public class EquivalentRemover implements AutomatonTransform<DFAutomaton, DFAuto
         }
     }
 
+    /*
+     * Returns the states from which a accept state is reachable.
+     */
+    private static BitSet liveStates(final DFAutomatonTable table) {
+        final BitSet live = new BitSet(table.getStateCount());
+        for (int state = 0; state < table.getStateCount(); state++) {
+            if (table.isAcceptState(state)) {
+                live.set(state);
+            }
+        }
+
+        final int stateCount = table.getStateCount();
+        boolean change;
+        do {
+            change = false;
+            for (int state = live.nextClearBit(0); state < stateCount; state = live.nextClearBit(state + 1)) {
+                for (int input = 0; input < table.getInputCount(); input++) {
+                    if (isLive(live, table.step(state, input))) {
+                        live.set(state);
+                        change = true;
+                        break;
+                    }
+                }
+            }
+        } while (change);
+        return live;
+    }
+
+    private static boolean isLive(final BitSet live, final int state) {
+        return (state != DFAutomatonTable.DEAD_STATE) && live.get(state);
+    }
+
     private void fillPairs(final DFAutomaton automaton) {
         final Set<State> machineStates = automaton.getStates();
 
@@ -328,11 +369,11 @@ public class EquivalentRemover implements AutomatonTransform<DFAutomaton, DFAuto
             for (final State anotherState : machineStates) {
                 final StatePair pair = new StatePair(currentState, anotherState);
 
-                if (!pairs.contains(pair)) {
+                if (!pairs.containsKey(pair)) {
                     final boolean firstIsAcceptable = automaton.isAcceptState(pair.getFirst());
                     final boolean secondIsAcceptable = automaton.isAcceptState(pair.getSecond());
 
-                    pairs.add(pair);
+                    pairs.put(pair, pair);
 
                     if (firstIsAcceptable ^ secondIsAcceptable) {
                         pair.mark();
@@ -0,0 +1,284 @@
+package hr.fer.zemris.ppj.finite.automaton.transforms;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+
+import hr.fer.zemris.ppj.finite.automaton.DFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.DFAutomatonTable;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.AutomatonTransform;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
+import hr.fer.zemris.ppj.finite.automaton.transfer.DFAutomatonTransferFunction;
+import hr.fer.zemris.ppj.finite.automaton.transfer.DeterministicTransition;
+
+/**
+ * <code>HopcroftMinimizer</code> is a automaton transformer which removes equivalent states from the deterministic
+ * finite automaton with the Hopcroft's partition refinement algorithm. The algorithm works on the compiled
+ * automaton, a block of states is split by the predecessors of a splitter block and only the smaller half of each
+ * split is used as a new splitter, so the time complexity is <code>O(n * k * log n)</code>. <br>
+ * Missing transitions are treated as transitions to a implicit dead state. Each block of equivalent states is
+ * replaced with its first state, other states of the automaton are kept.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+public class HopcroftMinimizer implements AutomatonTransform<DFAutomaton, DFAutomaton> {
+
+    @Override
+    public DFAutomaton transform(final DFAutomaton source) {
+        final DFAutomatonTable table = source.getTable();
+        final int stateCount = table.getStateCount();
+
+        final int[] initialBlocks = new int[stateCount + 1];
+        for (int i = 0; i < stateCount; i++) {
+            initialBlocks[i] = table.isAcceptState(i) ? 1 : 0;
+        }
+        final int[] blocks = partition(table, initialBlocks);
+
+        final State[] representatives = new State[stateCount + 1];
+        for (int i = 0; i < stateCount; i++) {
+            if (representatives[blocks[i]] == null) {
+                representatives[blocks[i]] = table.getState(i);
+            }
+        }
+
+        final Set<State> states = new HashSet<>();
+        final Set<State> acceptStates = new HashSet<>();
+        final Set<DeterministicTransition> transitions = new HashSet<>();
+        for (int i = 0; i < stateCount; i++) {
+            final State state = table.getState(i);
+            if (representatives[blocks[i]] != state) {
+                continue;
+            }
+
+            states.add(state);
+            if (table.isAcceptState(i)) {
+                acceptStates.add(state);
+            }
+
+            for (int input = 0; input < table.getInputCount(); input++) {
+                final int target = table.step(i, input);
+                final State newState = representatives[target == DFAutomatonTable.DEAD_STATE ? blocks[stateCount]
+                        : blocks[target]];
+                if (newState != null) {
+                    transitions.add(new DeterministicTransition(state, newState, table.getInput(input)));
+                }
+            }
+        }
+
+        final int start = table.getStartState();
+        final State startState = start == DFAutomatonTable.DEAD_STATE ? source.getStartState()
+                : representatives[blocks[start]];
+        return new DFAutomaton(states, acceptStates, source.getAlphabet(), new DFAutomatonTransferFunction(transitions),
+                startState);
+    }
+
+    /**
+     * Splits the states of the compiled automaton to blocks of equivalent states. The dead state has the index equal to
+     * the number of states of the automaton.
+     *
+     * @param table
+     *            the compiled automaton.
+     * @param initialBlocks
+     *            the initial partition, only states in the same initial block can be equivalent. Has a element for
+     *            each state and for the dead state.
+     * @return blocks of the states, numbered from <code>0</code>, with the block of the dead state as the last
+     *         element.
+     * @since 1.0
+     */
+    public static int[] partition(final DFAutomatonTable table, final int[] initialBlocks) {
+        final int stateCount = table.getStateCount() + 1;
+        final int inputCount = table.getInputCount();
+        final int dead = stateCount - 1;
+
+        // Predecessors of each (state, input) pair, stored consecutively.
+        final int[] predecessorStarts = new int[(stateCount * inputCount) + 1];
+        for (int state = 0; state < dead; state++) {
+            for (int input = 0; input < inputCount; input++) {
+                predecessorStarts[cell(table, state, input, dead) + 1]++;
+            }
+        }
+        for (int input = 0; input < inputCount; input++) {
+            predecessorStarts[(dead * inputCount) + input + 1]++;
+        }
+        for (int i = 1; i < predecessorStarts.length; i++) {
+            predecessorStarts[i] += predecessorStarts[i - 1];
+        }
+
+        final int[] predecessors = new int[stateCount * inputCount];
+        final int[] cellSizes = new int[stateCount * inputCount];
+        for (int state = 0; state < stateCount; state++) {
+            for (int input = 0; input < inputCount; input++) {
+                final int cell = state == dead ? (dead * inputCount) + input : cell(table, state, input, dead);
+                predecessors[predecessorStarts[cell] + cellSizes[cell]++] = state;
+            }
+        }
+
+        final Partition partition = new Partition(initialBlocks);
+        final Queue<Integer> splitters = new ArrayDeque<>();
+        final boolean[] waiting = new boolean[stateCount];
+        for (int block = 0; block < partition.blockCount; block++) {
+            splitters.add(block);
+            waiting[block] = true;
+        }
+
+        final int[] splitter = new int[stateCount];
+        while (!splitters.isEmpty()) {
+            final int block = splitters.poll();
+            waiting[block] = false;
+
+            // The splitter can be split while it is used, so its states are copied first.
+            final int splitterSize = partition.ends[block] - partition.starts[block];
+            System.arraycopy(partition.elements, partition.starts[block], splitter, 0, splitterSize);
+
+            for (int input = 0; input < inputCount; input++) {
+                for (int i = 0; i < splitterSize; i++) {
+                    final int cell = (splitter[i] * inputCount) + input;
+                    for (int j = predecessorStarts[cell]; j < predecessorStarts[cell + 1]; j++) {
+                        partition.mark(predecessors[j]);
+                    }
+                }
+
+                for (int touched = 0; touched < partition.touchedCount; touched++) {
+                    final int split = partition.touched[touched];
+                    final int created = partition.split(split);
+                    if (created < 0) {
+                        continue;
+                    }
+
+                    if (waiting[split] || (partition.size(created) <= partition.size(split))) {
+                        splitters.add(created);
+                        waiting[created] = true;
+                    }
+                    else {
+                        splitters.add(split);
+                        waiting[split] = true;
+                    }
+                }
+                partition.touchedCount = 0;
+            }
+        }
+
+        return partition.blocks;
+    }
+
+    /*
+     * Returns the (target, input) cell of the transition from the state, missing transitions lead to the dead state.
+     */
+    private static int cell(final DFAutomatonTable table, final int state, final int input, final int dead) {
+        final int target = table.step(state, input);
+        return ((target == DFAutomatonTable.DEAD_STATE ? dead : target) * table.getInputCount()) + input;
+    }
+
+    /*
+     * Refinable partition of the states. States of each block are stored consecutively, marked states of a block are
+     * moved to the beginning of the block.
+     */
+    private static class Partition {
+
+        private final int[] elements;
+        private final int[] locations;
+        private final int[] blocks;
+
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] marked;
+        private int blockCount;
+
+        private final int[] touched;
+        private int touchedCount;
+
+        public Partition(final int[] initialBlocks) {
+            final int size = initialBlocks.length;
+            elements = new int[size];
+            locations = new int[size];
+            blocks = new int[size];
+            starts = new int[size];
+            ends = new int[size];
+            marked = new int[size];
+            touched = new int[size];
+
+            // Initial blocks are renumbered from 0, in the order of their first state.
+            final int maxBlock = size == 0 ? -1 : max(initialBlocks);
+            final int[] renumbered = new int[maxBlock + 1];
+            Arrays.fill(renumbered, -1);
+            for (int i = 0; i < size; i++) {
+                if (renumbered[initialBlocks[i]] < 0) {
+                    renumbered[initialBlocks[i]] = blockCount++;
+                }
+                blocks[i] = renumbered[initialBlocks[i]];
+                ends[blocks[i]]++;
+            }
+
+            for (int block = 1; block < blockCount; block++) {
+                ends[block] += ends[block - 1];
+            }
+            for (int block = 0; block < blockCount; block++) {
+                starts[block] = block == 0 ? 0 : ends[block - 1];
+                marked[block] = starts[block];
+            }
+
+            final int[] filled = Arrays.copyOf(starts, blockCount);
+            for (int i = 0; i < size; i++) {
+                locations[i] = filled[blocks[i]]++;
+                elements[locations[i]] = i;
+            }
+        }
+
+        public void mark(final int element) {
+            final int block = blocks[element];
+            final int location = locations[element];
+            final int first = marked[block];
+            if (location < first) {
+                return;
+            }
+
+            elements[location] = elements[first];
+            locations[elements[location]] = location;
+            elements[first] = element;
+            locations[element] = first;
+
+            if (marked[block]++ == starts[block]) {
+                touched[touchedCount++] = block;
+            }
+        }
+
+        /*
+         * Moves the marked states of the block to a new block, returns the new block or -1 if all states of the block
+         * are marked.
+         */
+        public int split(final int block) {
+            final int middle = marked[block];
+            marked[block] = starts[block];
+            if (middle == ends[block]) {
+                return -1;
+            }
+
+            final int created = blockCount++;
+            starts[created] = starts[block];
+            ends[created] = middle;
+            marked[created] = starts[created];
+            starts[block] = middle;
+            marked[block] = middle;
+            for (int i = starts[created]; i < ends[created]; i++) {
+                blocks[elements[i]] = created;
+            }
+            return created;
+        }
+
+        public int size(final int block) {
+            return ends[block] - starts[block];
+        }
+
+        private static int max(final int[] values) {
+            int max = values[0];
+            for (final int value : values) {
+                max = Math.max(max, value);
+            }
+            return max;
+        }
+    }
+}
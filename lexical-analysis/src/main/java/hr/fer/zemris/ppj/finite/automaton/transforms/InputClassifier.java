@@ -0,0 +1,50 @@
+package hr.fer.zemris.ppj.finite.automaton.transforms;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import hr.fer.zemris.ppj.finite.automaton.InputClasses;
+import hr.fer.zemris.ppj.finite.automaton.TaggedDFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.AutomatonTransform;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Transition;
+import hr.fer.zemris.ppj.finite.automaton.transfer.DFAutomatonTransferFunction;
+import hr.fer.zemris.ppj.finite.automaton.transfer.DeterministicTransition;
+
+/**
+ * <code>InputClassifier</code> is a automaton transformer which merges the characters with the same transitions in
+ * every state of the tagged deterministic finite automaton to input classes. The result has a single transition for
+ * each class, which is labeled with the input of the class. Should be applied to a minimal automaton, in other
+ * automatons equivalent characters often lead to different, but equivalent, states.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+public class InputClassifier implements AutomatonTransform<TaggedDFAutomaton, TaggedDFAutomaton> {
+
+    @Override
+    public TaggedDFAutomaton transform(final TaggedDFAutomaton source) {
+        final Set<Transition> transitions = source.getTransferFunction().getTransitions();
+        final InputClasses inputClasses = InputClasses.fromTransitions(transitions);
+        if ((inputClasses == null) || (source.getInputClasses() != null)) {
+            return source;
+        }
+
+        final Set<DeterministicTransition> classTransitions = new HashSet<>();
+        for (final Transition transition : transitions) {
+            final Input input = inputClasses.getClassInput(inputClasses.getClass(transition.getInput()));
+            classTransitions
+                    .add(new DeterministicTransition(transition.getOldState(), transition.getNewState(), input));
+        }
+
+        final Set<Input> alphabet = new HashSet<>();
+        for (int i = 0; i < inputClasses.getClassCount(); i++) {
+            alphabet.add(inputClasses.getClassInput(i));
+        }
+
+        return new TaggedDFAutomaton(source.getStates(), source.getAcceptStates(), alphabet,
+                new DFAutomatonTransferFunction(classTransitions), source.getStartState(), source.getTags(),
+                inputClasses);
+    }
+}
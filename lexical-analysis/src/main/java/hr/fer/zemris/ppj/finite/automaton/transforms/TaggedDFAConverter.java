@@ -0,0 +1,170 @@
+package hr.fer.zemris.ppj.finite.automaton.transforms;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import hr.fer.zemris.ppj.finite.automaton.BasicState;
+import hr.fer.zemris.ppj.finite.automaton.TaggedDFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Automaton;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Transition;
+import hr.fer.zemris.ppj.finite.automaton.transfer.DFAutomatonTransferFunction;
+import hr.fer.zemris.ppj.finite.automaton.transfer.DeterministicTransition;
+import hr.fer.zemris.ppj.finite.automaton.transfer.ENFAutomatonTransferFunction;
+import hr.fer.zemris.ppj.finite.automaton.transfer.EpsilonTransition;
+import hr.fer.zemris.ppj.finite.automaton.transfer.FAutomatonTransition;
+import hr.fer.zemris.ppj.finite.automaton.transfer.NormalTransition;
+
+/**
+ * <code>TaggedDFAConverter</code> combines a list of automatons to a single deterministic finite automaton which
+ * accepts the union of their languages. Each accept state of the result is tagged with the index of the first
+ * automaton in the list which accepts in that state. Sets of states of the source automatons are represented with bit
+ * sets of the state indexes of a indexed transfer function. <br>
+ * Important: create a new converter for each transformation.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+public class TaggedDFAConverter {
+
+    private final Set<FAutomatonTransition> oldTransitions = new HashSet<>();
+    private final Map<State, Integer> sourceIndexes = new HashMap<>();
+    private ENFAutomatonTransferFunction function;
+    private int[] tags;
+
+    private final Map<BitSet, State> newStates = new HashMap<>();
+
+    /**
+     * Combines the automatons.
+     *
+     * @param sources
+     *            the automatons, order of the automatons defines their priority.
+     * @return the combined automaton.
+     * @since 1.0
+     */
+    public TaggedDFAutomaton transform(final List<? extends Automaton> sources) {
+        final Set<Input> alphabet = new HashSet<>();
+        final Set<State> startStates = new HashSet<>();
+
+        for (int i = 0; i < sources.size(); i++) {
+            final Automaton source = sources.get(i);
+            alphabet.addAll(source.getAlphabet());
+            renameTransitions(source, i);
+            startStates.add(renamed(source.getStartState(), i));
+        }
+        function = new ENFAutomatonTransferFunction(oldTransitions);
+        calculateTags();
+
+        final Set<State> acceptStates = new HashSet<>();
+        final Map<State, Integer> newTags = new HashMap<>();
+        final Set<DeterministicTransition> transitions = new HashSet<>();
+
+        final Queue<BitSet> unprocessed = new ArrayDeque<>();
+        final BitSet startClosure = new BitSet(function.getStateCount());
+        for (final State state : startStates) {
+            final int index = function.getStateIndex(state);
+            if (index != ENFAutomatonTransferFunction.UNKNOWN) {
+                startClosure.set(index);
+            }
+        }
+        function.applyEpsilonTransitions(startClosure);
+        final State startState = getState(startClosure);
+        unprocessed.add(startClosure);
+
+        BitSet next = new BitSet(function.getStateCount());
+        while (!unprocessed.isEmpty()) {
+            final BitSet current = unprocessed.poll();
+            final State currentState = getState(current);
+
+            final int tag = tag(current);
+            if (tag != TaggedDFAutomaton.NO_TAG) {
+                acceptStates.add(currentState);
+                newTags.put(currentState, tag);
+            }
+
+            for (int input = 0; input < function.getInputCount(); input++) {
+                function.applyTransitions(current, input, next);
+                if (next.isEmpty()) {
+                    continue;
+                }
+
+                State nextState = newStates.get(next);
+                if (nextState == null) {
+                    nextState = getState(next);
+                    unprocessed.add(next);
+                    next = new BitSet(function.getStateCount());
+                }
+                transitions.add(new DeterministicTransition(currentState, nextState, function.getInput(input)));
+            }
+        }
+
+        return new TaggedDFAutomaton(new HashSet<>(newStates.values()), acceptStates, alphabet,
+                new DFAutomatonTransferFunction(transitions), startState, newTags);
+    }
+
+    /*
+     * Copies the transitions of the automaton with renamed states.
+     */
+    private void renameTransitions(final Automaton source, final int index) {
+        for (final Transition transition : source.getTransferFunction().getTransitions()) {
+            final State oldState = renamed(transition.getOldState(), index);
+            final State newState = renamed(transition.getNewState(), index);
+            if (transition.getInput() == null) {
+                oldTransitions.add(new EpsilonTransition(oldState, newState));
+            }
+            else {
+                oldTransitions.add(new NormalTransition(oldState, newState, transition.getInput()));
+            }
+        }
+
+        for (final State state : source.getAcceptStates()) {
+            sourceIndexes.put(renamed(state, index), index);
+        }
+    }
+
+    private void calculateTags() {
+        tags = new int[function.getStateCount()];
+        for (int i = 0; i < tags.length; i++) {
+            final Integer index = sourceIndexes.get(function.getState(i));
+            tags[i] = index == null ? TaggedDFAutomaton.NO_TAG : index;
+        }
+    }
+
+    /*
+     * Returns the lowest index of the automaton which accepts in one of the states.
+     */
+    private int tag(final BitSet states) {
+        int tag = TaggedDFAutomaton.NO_TAG;
+        for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+            final int index = tags[state];
+            if ((index != TaggedDFAutomaton.NO_TAG) && ((tag == TaggedDFAutomaton.NO_TAG) || (index < tag))) {
+                tag = index;
+            }
+        }
+        return tag;
+    }
+
+    private State getState(final BitSet states) {
+        State state = newStates.get(states);
+        if (state == null) {
+            state = new BasicState(String.valueOf(newStates.size()));
+            newStates.put(states, state);
+        }
+        return state;
+    }
+
+    /*
+     * States of different automatons can have the same id, so they're prefixed with the index of the automaton.
+     */
+    private static State renamed(final State state, final int index) {
+        return new BasicState(index + "_" + state.getId());
+    }
+}
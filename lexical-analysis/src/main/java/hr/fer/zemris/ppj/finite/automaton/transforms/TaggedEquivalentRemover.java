@@ -0,0 +1,109 @@
+package hr.fer.zemris.ppj.finite.automaton.transforms;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import hr.fer.zemris.ppj.finite.automaton.BasicState;
+import hr.fer.zemris.ppj.finite.automaton.DFAutomatonTable;
+import hr.fer.zemris.ppj.finite.automaton.TaggedDFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.AutomatonTransform;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
+import hr.fer.zemris.ppj.finite.automaton.transfer.DFAutomatonTransferFunction;
+import hr.fer.zemris.ppj.finite.automaton.transfer.DeterministicTransition;
+
+/**
+ * <code>TaggedEquivalentRemover</code> is a automaton transformer which removes equivalent states from the tagged
+ * deterministic finite automaton. Two states are equivalent only if they have the same tag, so the tags of the accept
+ * states are kept. Missing transitions are treated as transitions to a implicit error state. Blocks of equivalent
+ * states are found with the {@link HopcroftMinimizer}.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.1
+ */
+public class TaggedEquivalentRemover implements AutomatonTransform<TaggedDFAutomaton, TaggedDFAutomaton> {
+
+    @Override
+    public TaggedDFAutomaton transform(final TaggedDFAutomaton source) {
+        final DFAutomatonTable table = source.getTable();
+        return build(source, table, refine(table));
+    }
+
+    /*
+     * Splits the states to blocks of equivalent states, starting with the blocks of states with the same tag. The dead
+     * state starts in the block of the untagged states.
+     */
+    private int[] refine(final DFAutomatonTable table) {
+        final int[] blocks = new int[table.getStateCount() + 1];
+        final Map<Integer, Integer> tagBlocks = new HashMap<>();
+        tagBlocks.put(TaggedDFAutomaton.NO_TAG, 0);
+        for (int i = 0; i < table.getStateCount(); i++) {
+            final int tag = table.getTag(i);
+            Integer block = tagBlocks.get(tag);
+            if (block == null) {
+                block = tagBlocks.size();
+                tagBlocks.put(tag, block);
+            }
+            blocks[i] = block;
+        }
+        return HopcroftMinimizer.partition(table, blocks);
+    }
+
+    /*
+     * Builds the automaton with a state for each block, states are numbered in the breadth first order from the start
+     * state. States equivalent to the dead state are removed.
+     */
+    private TaggedDFAutomaton build(final TaggedDFAutomaton source, final DFAutomatonTable table, final int[] blocks) {
+        final Map<Integer, Integer> representatives = new HashMap<>();
+        for (int i = 0; i < table.getStateCount(); i++) {
+            if (!representatives.containsKey(blocks[i])) {
+                representatives.put(blocks[i], i);
+            }
+        }
+
+        final int start = table.getStartState();
+        final int deadBlock = blocks[table.getStateCount()];
+        final Map<Integer, State> newStates = new HashMap<>();
+        final Queue<Integer> unprocessed = new ArrayDeque<>();
+        newStates.put(blocks[start], new BasicState("0"));
+        unprocessed.add(blocks[start]);
+
+        final Set<State> acceptStates = new HashSet<>();
+        final Map<State, Integer> tags = new HashMap<>();
+        final Set<DeterministicTransition> transitions = new HashSet<>();
+        while (!unprocessed.isEmpty()) {
+            final int block = unprocessed.poll();
+            final int representative = representatives.get(block);
+            final State state = newStates.get(block);
+
+            final int tag = table.getTag(representative);
+            if (tag != TaggedDFAutomaton.NO_TAG) {
+                acceptStates.add(state);
+                tags.put(state, tag);
+            }
+
+            for (int i = 0; i < table.getInputCount(); i++) {
+                final int target = table.step(representative, i);
+                if ((target == DFAutomatonTable.DEAD_STATE) || (blocks[target] == deadBlock)) {
+                    continue;
+                }
+
+                State newState = newStates.get(blocks[target]);
+                if (newState == null) {
+                    newState = new BasicState(String.valueOf(newStates.size()));
+                    newStates.put(blocks[target], newState);
+                    unprocessed.add(blocks[target]);
+                }
+                transitions.add(new DeterministicTransition(state, newState, table.getInput(i)));
+            }
+        }
+
+        return new TaggedDFAutomaton(new HashSet<>(newStates.values()), acceptStates, source.getAlphabet(),
+                new DFAutomatonTransferFunction(transitions), newStates.get(blocks[start]), tags,
+                source.getInputClasses());
+    }
+}
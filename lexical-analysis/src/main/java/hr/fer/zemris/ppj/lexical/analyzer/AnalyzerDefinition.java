@@ -1,21 +1,49 @@
 package hr.fer.zemris.ppj.lexical.analyzer;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+import hr.fer.zemris.ppj.finite.automaton.DFAutomatonTable;
+import hr.fer.zemris.ppj.lexical.analyzer.actions.ActionFactory;
+import hr.fer.zemris.ppj.lexical.analyzer.actions.LexerAction;
 
 /**
- * <code>AnalyzerDefinition</code> contains a definition of the analyzer.
+ * <code>AnalyzerDefinition</code> contains a definition of the analyzer. The definition is written in a versioned
+ * binary form which contains the compiled automatons of the lexer states, the keywords and the actions of the rules,
+ * and is read without rebuilding the automatons. The automatons of the rules aren't written, so the rules of a read
+ * definition only have their actions.
  *
  * @author Jan Kelemen
  *
- * @version 1.0
+ * @version 1.4
  */
 public class AnalyzerDefinition {
 
+    /**
+     * Magic number at the start of the binary definition.
+     */
+    public static final int BINARY_MAGIC = 0x50504A4C;
+
+    /**
+     * Version of the binary definition format.
+     */
+    public static final int BINARY_VERSION = 2;
+
     private final List<String> analyzerStates;
     private final List<String> lexemeNames;
-    private final List<LexerRule> rules;
+    private final List<LexerState> lexerStates;
 
     /**
      * Class constructor, creates a analyzer definition from the specified structure.
@@ -24,15 +52,141 @@ public class AnalyzerDefinition {
      *            analyzer states.
      * @param lexemeNames
      *            lexeme names
-     * @param rules
-     *            analyzer rules
-     * @since 1.0
+     * @param lexerStates
+     *            compiled lexer states with their rules
+     * @since 1.1
      */
     public AnalyzerDefinition(final List<String> analyzerStates, final List<String> lexemeNames,
-            final List<LexerRule> rules) {
+            final List<LexerState> lexerStates) {
         this.analyzerStates = new ArrayList<String>(analyzerStates);
         this.lexemeNames = new ArrayList<String>(lexemeNames);
-        this.rules = new ArrayList<LexerRule>(rules);
+        this.lexerStates = new ArrayList<LexerState>(lexerStates);
+    }
+
+    /**
+     * Reads the binary definition from the memory mapped file.
+     *
+     * @param path
+     *            path to the file.
+     * @return the definition.
+     * @throws IOException
+     *             if the file can't be mapped.
+     * @throws IllegalArgumentException
+     *             if the file isn't a binary definition of a supported version.
+     * @since 1.2
+     */
+    public static AnalyzerDefinition fromFile(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads the binary definition written by the {@link #write(OutputStream)}.
+     *
+     * @param buffer
+     *            the buffer, positioned at the start of the definition.
+     * @return the definition.
+     * @throws IllegalArgumentException
+     *             if the buffer doesn't contain a binary definition of a supported version.
+     * @since 1.2
+     */
+    public static AnalyzerDefinition read(final ByteBuffer buffer) {
+        if (buffer.getInt() != BINARY_MAGIC) {
+            throw new IllegalArgumentException("Unsupported analyzer definition format.");
+        }
+        if (buffer.getInt() != BINARY_VERSION) {
+            throw new IllegalArgumentException("Unsupported analyzer definition format.");
+        }
+
+        final List<String> analyzerStates = readStrings(buffer);
+        final List<String> lexemeNames = readStrings(buffer);
+
+        final int lexerStateCount = buffer.getInt();
+        final List<LexerState> lexerStates = new ArrayList<>(lexerStateCount);
+        for (int i = 0; i < lexerStateCount; i++) {
+            final LexerState lexerState = new LexerState(readString(buffer));
+            final int ruleCount = buffer.getInt();
+            lexerState.setTable(DFAutomatonTable.read(buffer));
+            lexerState.setKeywords(readKeywords(buffer));
+
+            for (int j = 0; j < ruleCount; j++) {
+                final List<LexerAction> actions = new ArrayList<>();
+                for (final String action : readStrings(buffer)) {
+                    actions.add(ActionFactory.fromString(action));
+                }
+                lexerState.addRule(new LexerRule(lexerState.getName(), actions));
+            }
+            lexerStates.add(lexerState);
+        }
+
+        return new AnalyzerDefinition(analyzerStates, lexemeNames, lexerStates);
+    }
+
+    /**
+     * Writes the definition in the binary form: magic number and version, analyzer states, lexeme names and for each
+     * lexer state its name, number of rules, compiled automaton, keywords and the actions of the rules.
+     *
+     * @param output
+     *            the output.
+     * @throws IOException
+     *             if the definition can't be written.
+     * @see DFAutomatonTable#write(java.io.DataOutput)
+     * @since 1.2
+     */
+    public void write(final OutputStream output) throws IOException {
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+        data.writeInt(BINARY_MAGIC);
+        data.writeInt(BINARY_VERSION);
+        writeStrings(data, analyzerStates);
+        writeStrings(data, lexemeNames);
+
+        data.writeInt(lexerStates.size());
+        for (final LexerState lexerState : lexerStates) {
+            writeString(data, lexerState.getName());
+            data.writeInt(lexerState.getRules().size());
+            lexerState.getTable().write(data);
+            writeKeywords(data, lexerState.getKeywords());
+
+            for (final LexerRule rule : lexerState.getRules()) {
+                final List<String> actions = new ArrayList<>();
+                for (final LexerAction action : rule.getActions()) {
+                    actions.add(action.toString());
+                }
+                writeStrings(data, actions);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Returns the analyzer states, the first state is the initial state.
+     *
+     * @return the analyzer states.
+     * @since 1.2
+     */
+    public List<String> getAnalyzerStates() {
+        return analyzerStates;
+    }
+
+    /**
+     * Returns the lexeme names.
+     *
+     * @return the lexeme names.
+     * @since 1.2
+     */
+    public List<String> getLexemeNames() {
+        return lexemeNames;
+    }
+
+    /**
+     * Returns the compiled lexer states which have rules.
+     *
+     * @return the lexer states.
+     * @since 1.2
+     */
+    public List<LexerState> getLexerStates() {
+        return lexerStates;
     }
 
     /**
@@ -42,25 +196,90 @@ public class AnalyzerDefinition {
      * <br>
      * list of lexeme names. <br>
      * <br>
-     * list of rule definitions... <br>
+     * for each lexer state its name, number of rules, number of states and input classes of the compiled automaton
+     * and number of keywords, followed by the actions of each rule in a line, delimited with a empty line... <br>
      *
-     * All lists are space delimited.
+     * All lists are space delimited. Only the parts which are written to the binary form are described, so the
+     * description is the same for a compiled and a read definition.
      *
-     * @see hr.fer.zemris.ppj.lexical.analyzer.LexerRule#toString()
      * @see java.lang.Object#toString()
      * @since 1.0
      */
     @Override
     public String toString() {
-        String result = "";
-        result += collectionToString(analyzerStates) + "\n";
-        result += "\n";
-        result += collectionToString(lexemeNames) + "\n";
-        result += "\n";
-        for (final LexerRule definition : rules) {
-            result += definition.toString() + "\n\n";
+        final StringBuilder result = new StringBuilder();
+        result.append(collectionToString(analyzerStates)).append("\n\n");
+        result.append(collectionToString(lexemeNames)).append("\n\n");
+        for (final LexerState lexerState : lexerStates) {
+            final DFAutomatonTable table = lexerState.getTable();
+            final KeywordTrie keywords = lexerState.getKeywords();
+            result.append(lexerState.getName()).append(' ').append(lexerState.getRules().size()).append(' ')
+                    .append(table.getStateCount()).append(' ').append(table.getInputCount()).append(' ')
+                    .append(keywords == null ? 0 : keywords.getKeywords().size()).append('\n');
+            for (final LexerRule rule : lexerState.getRules()) {
+                result.append(collectionToString(rule.getActions())).append('\n');
+            }
+            result.append('\n');
+        }
+        return result.append("END").toString();
+    }
+
+    /*
+     * Keywords are written as their count and (keyword, rule index) pairs, a state without a keyword trie has none.
+     */
+    private static KeywordTrie readKeywords(final ByteBuffer buffer) {
+        final int count = buffer.getInt();
+        if (count == 0) {
+            return null;
         }
-        return result.substring(0, result.length() - 1) + "END";
+
+        final Map<String, Integer> keywords = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            final String keyword = readString(buffer);
+            keywords.put(keyword, buffer.getInt());
+        }
+        return new KeywordTrie(keywords);
+    }
+
+    private static void writeKeywords(final DataOutputStream data, final KeywordTrie keywords) throws IOException {
+        if (keywords == null) {
+            data.writeInt(0);
+            return;
+        }
+
+        data.writeInt(keywords.getKeywords().size());
+        for (final Map.Entry<String, Integer> keyword : keywords.getKeywords().entrySet()) {
+            writeString(data, keyword.getKey());
+            data.writeInt(keyword.getValue());
+        }
+    }
+
+    private static List<String> readStrings(final ByteBuffer buffer) {
+        final int count = buffer.getInt();
+        final List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(readString(buffer));
+        }
+        return strings;
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(final DataOutputStream data, final List<String> strings) throws IOException {
+        data.writeInt(strings.size());
+        for (final String string : strings) {
+            writeString(data, string);
+        }
+    }
+
+    private static void writeString(final DataOutputStream data, final String string) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
     }
 
     private String collectionToString(final Collection<?> list) {
@@ -68,6 +287,6 @@ public class AnalyzerDefinition {
         for (final Object item : list) {
             result += item + " ";
         }
-        return result.substring(0, result.length() - 1);
+        return result.isEmpty() ? result : result.substring(0, result.length() - 1);
     }
 }
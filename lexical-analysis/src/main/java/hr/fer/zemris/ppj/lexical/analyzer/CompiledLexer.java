@@ -0,0 +1,148 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import hr.fer.zemris.ppj.lexical.analyzer.actions.LexerAction;
+import hr.fer.zemris.ppj.lexical.analyzer.actions.TokenizeAction;
+
+/**
+ * <code>CompiledLexer</code> is the immutable part of the lexical analyzer: the lexer states with their compiled
+ * automatons and the actions of their rules, and the token types. The ids of the token types are fixed when the lexer
+ * is created, so they are the same in all sessions. <br>
+ * The positions, the current state and the line counter of a analysis are kept in a {@link LexerSession}, so one
+ * compiled lexer can be used by any number of sessions running in different threads. The lexer states are frozen
+ * when the lexer is created, so they can't be modified later, see {@link LexerState#isFrozen()}. The tables of the
+ * states publish the objects they create on request safely, so all their methods can be called from any thread.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+public final class CompiledLexer {
+
+    private final Map<String, LexerState> states;
+    private final LexerState initialState;
+
+    private final List<String> tokenTypes;
+    private final Map<String, Integer> tokenTypeIds = new HashMap<>();
+
+    /**
+     * Class constructor, specifies the states, the initial state and the token types of the lexer. Token types of the
+     * rules which aren't in the list are added to its end, in the order of the rules. The states are frozen.
+     *
+     * @param states
+     *            the lexer states, mapped by their names.
+     * @param initialState
+     *            the initial lexer state.
+     * @param tokenTypes
+     *            names of the token types, ids of the types are their indexes.
+     * @since 1.0
+     */
+    public CompiledLexer(final Map<String, LexerState> states, final LexerState initialState,
+            final List<String> tokenTypes) {
+        this.states = Collections.unmodifiableMap(new HashMap<>(states));
+        this.initialState = initialState;
+        for (final LexerState state : this.states.values()) {
+            state.freeze();
+        }
+        if (initialState != null) {
+            initialState.freeze();
+        }
+
+        final List<String> types = new ArrayList<>();
+        for (final String tokenType : tokenTypes) {
+            addTokenType(tokenType, types);
+        }
+        for (final LexerState state : states.values()) {
+            for (final LexerRule rule : state.getRules()) {
+                for (final LexerAction action : rule.getActions()) {
+                    if (action instanceof TokenizeAction) {
+                        addTokenType(((TokenizeAction) action).getToken(), types);
+                    }
+                }
+            }
+        }
+        this.tokenTypes = Collections.unmodifiableList(types);
+    }
+
+    /**
+     * Creates a new session of the lexer, starting in the initial state.
+     *
+     * @return the session.
+     * @since 1.0
+     */
+    public LexerSession newSession() {
+        return new LexerSession(this);
+    }
+
+    /**
+     * Returns the states of the lexer.
+     *
+     * @return the states, mapped by their names.
+     * @since 1.0
+     */
+    public Map<String, LexerState> getStates() {
+        return states;
+    }
+
+    /**
+     * Returns the state with the name.
+     *
+     * @param name
+     *            name of the state.
+     * @return the state, or <code>null</code> if there is no such state.
+     * @since 1.0
+     */
+    public LexerState getState(final String name) {
+        return states.get(name);
+    }
+
+    /**
+     * Returns the initial state of the lexer.
+     *
+     * @return the initial state.
+     * @since 1.0
+     */
+    public LexerState getInitialState() {
+        return initialState;
+    }
+
+    /**
+     * Returns the names of the token types, indexed by the id of the type.
+     *
+     * @return the token types.
+     * @since 1.0
+     */
+    public List<String> getTokenTypes() {
+        return tokenTypes;
+    }
+
+    /**
+     * Returns the id of the token type.
+     *
+     * @param name
+     *            name of the token type.
+     * @return id of the token type.
+     * @throws IllegalArgumentException
+     *             if the lexer doesn't have the token type.
+     * @since 1.0
+     */
+    public int getTokenType(final String name) {
+        final Integer id = tokenTypeIds.get(name);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown token type " + name + ".");
+        }
+        return id;
+    }
+
+    private void addTokenType(final String name, final List<String> types) {
+        if (!tokenTypeIds.containsKey(name)) {
+            tokenTypeIds.put(name, types.size());
+            types.add(name);
+        }
+    }
+}
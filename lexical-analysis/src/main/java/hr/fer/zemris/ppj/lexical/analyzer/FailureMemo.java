@@ -0,0 +1,158 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+import java.util.Arrays;
+
+/**
+ * <code>FailureMemo</code> is a set of failed (position, automaton state) pairs of a lexer state. A pair is failed if
+ * the automaton of the lexer state, being in the state before reading the character at the position, can't reach a
+ * accepting state on the rest of the source. A scan which reaches a failed pair can stop, the longest match was found
+ * before it. <br>
+ * Pairs are kept in a open addressing hash table of <code>long</code> keys, so the memo doesn't allocate per pair.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+public class FailureMemo {
+
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private int size;
+    private int maxPosition = -1;
+
+    /**
+     * Class constructor, creates a empty memo.
+     *
+     * @since 1.0
+     */
+    public FailureMemo() {
+        keys = newTable(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Marks the pair as failed.
+     *
+     * @param position
+     *            index of the character in the source.
+     * @param state
+     *            index of the automaton state.
+     * @since 1.0
+     */
+    public void add(final int position, final int state) {
+        if ((2 * (size + 1)) > keys.length) {
+            rehash(keys.length * 2);
+        }
+        if (insert(keys, key(position, state))) {
+            size++;
+            maxPosition = Math.max(maxPosition, position);
+        }
+    }
+
+    /**
+     * Checks if the pair is failed.
+     *
+     * @param position
+     *            index of the character in the source.
+     * @param state
+     *            index of the automaton state.
+     * @return <code>true</code> if the pair is failed, <code>false</code> otherwise.
+     * @since 1.0
+     */
+    public boolean contains(final int position, final int state) {
+        if ((size == 0) || (position > maxPosition)) {
+            return false;
+        }
+
+        final long key = key(position, state);
+        final int mask = keys.length - 1;
+        for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return true;
+            }
+            if (keys[i] == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Removes all pairs if none of them is at or after the position. Scans never go back before their start, so this
+     * keeps the memo small without losing pairs which can still be reached.
+     *
+     * @param position
+     *            index of the first character which can still be scanned.
+     * @since 1.0
+     */
+    public void release(final int position) {
+        if ((size > 0) && (position > maxPosition)) {
+            clear();
+        }
+    }
+
+    /**
+     * Removes all pairs.
+     *
+     * @since 1.0
+     */
+    public void clear() {
+        if (keys.length > DEFAULT_CAPACITY) {
+            keys = newTable(DEFAULT_CAPACITY);
+        }
+        else {
+            Arrays.fill(keys, EMPTY);
+        }
+        size = 0;
+        maxPosition = -1;
+    }
+
+    /**
+     * @return the number of failed pairs.
+     * @since 1.0
+     */
+    public int size() {
+        return size;
+    }
+
+    private void rehash(final int capacity) {
+        final long[] table = newTable(capacity);
+        for (final long key : keys) {
+            if (key != EMPTY) {
+                insert(table, key);
+            }
+        }
+        keys = table;
+    }
+
+    /*
+     * Inserts the key to the table, returns false if the key is already in it.
+     */
+    private static boolean insert(final long[] table, final long key) {
+        final int mask = table.length - 1;
+        for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+            if (table[i] == key) {
+                return false;
+            }
+            if (table[i] == EMPTY) {
+                table[i] = key;
+                return true;
+            }
+        }
+    }
+
+    private static long[] newTable(final int capacity) {
+        final long[] table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private static long key(final int position, final int state) {
+        return ((long) position << 32) | state;
+    }
+
+    private static int hash(final long key) {
+        final long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 32);
+    }
+}
@@ -0,0 +1,145 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * <code>KeywordTrie</code> maps keywords, rules whose regular expression is a plain literal, to the indexes of their
+ * rules. The trie is kept in flat arrays: children of a node are stored consecutively, sorted by their characters, so a
+ * lookup is a binary search per character of the lexeme and doesn't allocate.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+public class KeywordTrie {
+
+    /*
+     * Node of the trie while it's built.
+     */
+    private static class Node {
+
+        public final Map<Character, Node> children = new TreeMap<>();
+        public int value = NOT_FOUND;
+    }
+
+    /**
+     * Returned by the lookup if the lexeme isn't a keyword.
+     */
+    public static final int NOT_FOUND = -1;
+
+    private final Map<String, Integer> keywords;
+
+    private final int minLength;
+    private final int maxLength;
+
+    // Edges to the children of the node i are firstChild[i] to firstChild[i + 1] - 1, edge e leads to the node e + 1.
+    private final int[] firstChild;
+    private final char[] labels;
+    private final int[] values;
+
+    /**
+     * Class constructor, specifies the keywords.
+     *
+     * @param keywords
+     *            the keywords, mapped to the indexes of their rules.
+     * @since 1.0
+     */
+    public KeywordTrie(final Map<String, Integer> keywords) {
+        this.keywords = Collections.unmodifiableMap(new LinkedHashMap<>(keywords));
+
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (final String keyword : keywords.keySet()) {
+            min = Math.min(min, keyword.length());
+            max = Math.max(max, keyword.length());
+        }
+        minLength = min;
+        maxLength = max;
+
+        final Node root = new Node();
+        for (final Map.Entry<String, Integer> keyword : keywords.entrySet()) {
+            Node node = root;
+            for (final char symbol : keyword.getKey().toCharArray()) {
+                Node child = node.children.get(symbol);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(symbol, child);
+                }
+                node = child;
+            }
+            node.value = keyword.getValue();
+        }
+
+        // Nodes are numbered in the breadth first order, so the children of each node are numbered consecutively and
+        // the edge to the node i is the edge i - 1.
+        final List<Node> nodes = new ArrayList<>();
+        final Queue<Node> queue = new ArrayDeque<>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            final Node node = queue.poll();
+            nodes.add(node);
+            queue.addAll(node.children.values());
+        }
+
+        firstChild = new int[nodes.size() + 1];
+        labels = new char[nodes.size() - 1];
+        values = new int[nodes.size()];
+
+        int edge = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            firstChild[i] = edge;
+            values[i] = nodes.get(i).value;
+            for (final char symbol : nodes.get(i).children.keySet()) {
+                labels[edge++] = symbol;
+            }
+        }
+        firstChild[nodes.size()] = edge;
+    }
+
+    /**
+     * Looks up the lexeme in the trie.
+     *
+     * @param source
+     *            the source.
+     * @param begin
+     *            index of the first character of the lexeme.
+     * @param end
+     *            index of the last character of the lexeme.
+     * @return index of the rule of the keyword, or {@link #NOT_FOUND} if the lexeme isn't a keyword.
+     * @since 1.0
+     */
+    public int find(final SourceBuffer source, final int begin, final int end) {
+        final int length = (end - begin) + 1;
+        if ((length < minLength) || (length > maxLength)) {
+            return NOT_FOUND;
+        }
+
+        int node = 0;
+        for (int i = begin; i <= end; i++) {
+            final int child = Arrays.binarySearch(labels, firstChild[node], firstChild[node + 1], source.charAt(i));
+            if (child < 0) {
+                return NOT_FOUND;
+            }
+            node = child + 1;
+        }
+        return values[node];
+    }
+
+    /**
+     * Returns the keywords of the trie.
+     *
+     * @return the keywords, mapped to the indexes of their rules.
+     * @since 1.0
+     */
+    public Map<String, Integer> getKeywords() {
+        return keywords;
+    }
+}
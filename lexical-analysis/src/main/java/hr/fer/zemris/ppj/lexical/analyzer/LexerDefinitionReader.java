@@ -0,0 +1,213 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Automaton;
+import hr.fer.zemris.ppj.lexical.analyzer.actions.ActionFactory;
+import hr.fer.zemris.ppj.lexical.analyzer.actions.LexerAction;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpression;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpressionManipulator;
+
+/**
+ * <code>LexerDefinitionReader</code> reads the text definition of a lexical analyzer, the input of the generator. The
+ * definition is read in the order of its sections: the regular definitions, the analyzer states after
+ * <code>%X</code>, the lexeme names after <code>%L</code>, and the rules, each one a line with the lexer state and the
+ * expression followed by its actions in braces. <br>
+ * The regular definitions in the expressions of the rules are replaced when the definition is read, the automatons
+ * of the rules are generated when the lexer states are compiled, see {@link #compileStates(Function)}.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+public class LexerDefinitionReader {
+
+    /**
+     * <code>RuleDefinition</code> is a rule of the definition, before its automaton is generated.
+     *
+     * @author Jan Kelemen
+     *
+     * @version 1.0
+     */
+    public static class RuleDefinition {
+
+        private final String lexerState;
+        private final RegularExpression expression;
+        private final List<LexerAction> actions;
+
+        /**
+         * Class constructor, specifies the lexer state, the expression and the actions of the rule.
+         *
+         * @param lexerState
+         *            name of the lexer state.
+         * @param expression
+         *            the expression, with the regular definitions replaced.
+         * @param actions
+         *            the actions.
+         * @since 1.0
+         */
+        public RuleDefinition(final String lexerState, final RegularExpression expression,
+                final List<LexerAction> actions) {
+            this.lexerState = lexerState;
+            this.expression = expression;
+            this.actions = actions;
+        }
+
+        /**
+         * @return name of the lexer state of the rule.
+         * @since 1.0
+         */
+        public String getLexerState() {
+            return lexerState;
+        }
+
+        /**
+         * @return the expression, with the regular definitions replaced and the prefixes not factored.
+         * @since 1.0
+         */
+        public RegularExpression getExpression() {
+            return expression;
+        }
+
+        /**
+         * @return the actions of the rule.
+         * @since 1.0
+         */
+        public List<LexerAction> getActions() {
+            return actions;
+        }
+    }
+
+    private final List<RegularExpression> regularDefinitions = new ArrayList<>();
+    private final List<String> analyzerStates = new ArrayList<>();
+    private final List<String> lexemeNames = new ArrayList<>();
+    private final List<RuleDefinition> rules = new ArrayList<>();
+
+    /**
+     * Class constructor, reads the definition. The rules end at the end of the input or at the first empty line.
+     *
+     * @param reader
+     *            reader of the definition.
+     * @throws IOException
+     *             if the definition can't be read.
+     * @since 1.0
+     */
+    public LexerDefinitionReader(final BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+
+        final List<String> definitions = new ArrayList<>();
+        while ((line != null) && line.startsWith("{")) {
+            definitions.add(line);
+            line = reader.readLine();
+        }
+
+        if ((line != null) && line.startsWith("%X")) {
+            for (final String state : line.substring(3).split(" ")) {
+                analyzerStates.add(state);
+            }
+            line = reader.readLine();
+        }
+
+        if ((line != null) && line.startsWith("%L")) {
+            for (final String name : line.substring(3).split(" ")) {
+                lexemeNames.add(name);
+            }
+            line = reader.readLine();
+        }
+
+        final RegularExpressionManipulator manipulator = new RegularExpressionManipulator(definitions);
+        for (final String definition : definitions) {
+            regularDefinitions.add(RegularExpressionManipulator
+                    .parse(manipulator.getRegularDefinition(definition.substring(1, definition.indexOf('}')))));
+        }
+
+        while ((line != null) && !line.isEmpty()) {
+            final String lexerState = line.substring(1, line.indexOf('>'));
+            final String regularExpression =
+                    manipulator.removeRegularDefinitions(line.substring(line.indexOf('>') + 1));
+            final List<LexerAction> actions = new ArrayList<>();
+            line = reader.readLine(); // Ignore opening bracket
+            line = reader.readLine();
+            while (!line.startsWith("}") && !line.isEmpty()) {
+                actions.add(ActionFactory.fromString(line));
+                line = reader.readLine();
+            }
+            line = reader.readLine();
+
+            rules.add(new RuleDefinition(lexerState, RegularExpressionManipulator.parse(regularExpression), actions));
+        }
+    }
+
+    /**
+     * Returns the expressions of the regular definitions, with the other regular definitions in them replaced.
+     *
+     * @return the expressions, in the order of the definition.
+     * @since 1.0
+     */
+    public List<RegularExpression> getRegularDefinitions() {
+        return regularDefinitions;
+    }
+
+    /**
+     * @return names of the analyzer states, the first one is the start state.
+     * @since 1.0
+     */
+    public List<String> getAnalyzerStates() {
+        return analyzerStates;
+    }
+
+    /**
+     * @return names of the lexemes.
+     * @since 1.0
+     */
+    public List<String> getLexemeNames() {
+        return lexemeNames;
+    }
+
+    /**
+     * @return the rules, in the order of the definition, which is their priority.
+     * @since 1.0
+     */
+    public List<RuleDefinition> getRules() {
+        return rules;
+    }
+
+    /**
+     * Generates the automatons of the rules and groups the rules by the lexer states, the automatons of each state are
+     * combined. Rules keep the order from the definition, which defines their priority. Rules whose expression is a
+     * plain literal are marked, so keywords can be matched with a trie, see {@link LexerState#compile()}.
+     *
+     * @param generator
+     *            generates the automaton of a expression, the common prefixes of its alternations are factored.
+     * @return the compiled lexer states which have rules, in the order of the analyzer states.
+     * @since 1.0
+     */
+    public List<LexerState> compileStates(final Function<RegularExpression, Automaton> generator) {
+        final List<LexerRule> lexerRules = new ArrayList<>();
+        for (final RuleDefinition rule : rules) {
+            final RegularExpression expression = rule.getExpression();
+            lexerRules.add(new LexerRule(rule.getLexerState(), generator.apply(expression.factorPrefixes()),
+                    expression.getLiteral(), rule.getActions()));
+        }
+
+        final List<LexerState> lexerStates = new ArrayList<>();
+        for (final String analyzerState : analyzerStates) {
+            final LexerState lexerState = new LexerState(analyzerState);
+            for (final LexerRule rule : lexerRules) {
+                if (rule.getLexerState().equals(analyzerState)) {
+                    lexerState.addRule(rule);
+                }
+            }
+
+            if (!lexerState.getRules().isEmpty()) {
+                lexerState.compile();
+                lexerStates.add(lexerState);
+            }
+        }
+        return lexerStates;
+    }
+}
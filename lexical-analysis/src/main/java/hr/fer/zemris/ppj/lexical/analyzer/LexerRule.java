@@ -4,22 +4,23 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-import hr.fer.zemris.ppj.finite.automaton.Automatons;
 import hr.fer.zemris.ppj.finite.automaton.generator.ENFAutomatonGenerator;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.Automaton;
 import hr.fer.zemris.ppj.lexical.analyzer.actions.LexerAction;
 
 /**
- * <code>LexerRule</code> is a rule of the lexical analyzer.
+ * <code>LexerRule</code> is a rule of the lexical analyzer. The automaton of the rule is only used to build the
+ * combined automaton of its lexer state, so the rule isn't modified during the analysis.
  *
  * @author Filip Gulan
  *
- * @version 1.0
+ * @version 1.4
  */
 public class LexerRule {
 
     private final String lexerState;
     private final Automaton automaton;
+    private final String literal;
     private final List<LexerAction> actions;
 
     /**
@@ -37,6 +38,7 @@ public class LexerRule {
         super();
         this.lexerState = lexerState;
         automaton = new ENFAutomatonGenerator().fromRegularExpression(regularExpression);
+        literal = null;
         this.actions = actions;
     }
 
@@ -52,85 +54,88 @@ public class LexerRule {
      * @since 1.0
      */
     public LexerRule(final String lexerState, final Automaton automaton, final List<LexerAction> actions) {
-        super();
-        this.lexerState = lexerState;
-        this.automaton = automaton;
-        this.actions = new ArrayList<LexerAction>(actions);
-        Collections.sort(this.actions);
+        this(lexerState, automaton, null, actions);
     }
 
     /**
-     * Applies a input to the automaton of the rule.
+     * Class constructor, specifies the lexer state, the automaton, the literal and the actions of the rule. A rule with
+     * a literal matches only the literal, so it can be matched by a {@link KeywordTrie} instead of the automaton.
      *
-     * @param input
-     *            the input
-     * @since 1.0
+     * @param lexerState
+     *            the lexer state.
+     * @param automaton
+     *            the automaton.
+     * @param literal
+     *            the literal matched by the rule, or <code>null</code> if the rule isn't a literal.
+     * @param actions
+     *            the actions.
+     * @since 1.4
      */
-    public void apply(final char input) {
-        Automatons.apply(automaton, input);
+    public LexerRule(final String lexerState, final Automaton automaton, final String literal,
+            final List<LexerAction> actions) {
+        super();
+        this.lexerState = lexerState;
+        this.automaton = automaton;
+        this.literal = literal;
+        this.actions = new ArrayList<LexerAction>(actions);
+        Collections.sort(this.actions);
     }
 
     /**
-     * Applies a input to the automaton of the rule.
+     * Class constructor, specifies the lexer state and the actions of the rule. Used when the rule is matched by the
+     * combined automaton of the lexer state, so the rule doesn't have a automaton of its own.
      *
-     * @param input
-     *            the input
-     * @since 1.0
+     * @param lexerState
+     *            the lexer state.
+     * @param actions
+     *            the actions.
+     * @since 1.1
      */
-    public void apply(final String input) {
-        Automatons.apply(automaton, input);
+    public LexerRule(final String lexerState, final List<LexerAction> actions) {
+        this(lexerState, (Automaton) null, actions);
     }
 
     /**
-     * Executes the actions on the lexical analyzer.
+     * Executes the actions on the session of the lexical analyzer.
      *
      * @param lexer
-     *            the lexical analyzer.
+     *            the session of the lexical analyzer.
      * @since 1.0
      */
-    public void execute(final LexicalAnalyzer lexer) {
+    public void execute(final LexerSession lexer) {
         for (final LexerAction action : actions) {
             action.execute(lexer);
         }
     }
 
     /**
-     * Resets the automaton of the rule.
-     *
-     * @since 1.0
-     */
-    public void resetAutomaton() {
-        automaton.reset();
-    }
-
-    /**
-     * Checks if the automaton of the rule is in a accepting state.
+     * Returns the automaton of the rule.
      *
-     * @return <code>true</code> if the automaton is in a accepting state, <code>false</code> otherwise.
+     * @return the automaton.
      * @since 1.0
      */
-    public boolean isAccepting() {
-        return automaton.isAccepting();
+    public Automaton getAutomaton() {
+        return automaton;
     }
 
     /**
-     * Checks if the automaton can accept more input.
+     * Returns the literal matched by the rule.
      *
-     * @return <code>true</code> if the automaton accepts more input, <code>false</code> otherwise.
-     * @since
+     * @return the literal, or <code>null</code> if the rule isn't a literal.
+     * @since 1.4
      */
-    public boolean isAlive() {
-        return automaton.getCurrentStates().size() != 0;
+    public String getLiteral() {
+        return literal;
     }
 
     /**
-     * Returns the automaton of the rule.
+     * Returns the lexer state of the rule.
      *
-     * @return the automaton.
-     * @since 1.0
+     * @return the lexer state.
+     * @since 1.1
      */
-    public Automaton getAutomaton() {
-        return automaton;
+    public String getLexerState() {
+        return lexerState;
     }
 
     /**
@@ -143,11 +148,18 @@ public class LexerRule {
         return actions;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Format: actions of the rule enclosed in curly brackets, each action in its own line. The automaton of the rule is
+     * a part of the combined automaton of the lexer state.
+     *
+     * @see hr.fer.zemris.ppj.lexical.analyzer.LexerState#toString()
+     * @since 1.1
+     */
     @Override
     public String toString() {
         String result = "";
-        result += automaton.toString() + "\n\n";
-        result += lexerState + "\n";
         result += "{\n";
         for (final LexerAction action : actions) {
             result += action + "\n";
@@ -0,0 +1,529 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import hr.fer.zemris.ppj.finite.automaton.DFAutomatonTable;
+import hr.fer.zemris.ppj.finite.automaton.TaggedDFAutomaton;
+
+/**
+ * <code>LexerSession</code> is a single analysis with a {@link CompiledLexer}. The session keeps the positions in the
+ * source, the current lexer state, the state of its combined automaton and the line counter, the compiled lexer isn't
+ * modified, so it can be shared between sessions running in different threads. A session is used by one thread. <br>
+ * The source code is read through a {@link SourceBuffer}, so only the pending lexeme has to be kept in memory. Found
+ * lexemes are passed to a {@link TokenSink} as soon as they are found, token types are identified by their index in
+ * the list of token types of the compiled lexer. <br>
+ * In the memoizing mode, the session remembers the (position, automaton state) pairs from which no rule could be
+ * matched, and stops each scan when it reaches such a pair. Rescanning after a failed or a shorter match then can't
+ * repeat work, so the analysis takes <code>O(n)</code> steps of the automatons even on inputs where the plain longest
+ * match takes <code>O(n^2)</code> steps. <br>
+ * Large sources which are kept in memory can be analyzed in parallel, see
+ * {@link #analyzeParallel(String, TokenSink, ForkJoinPool, int)}. <br>
+ * The activity of the rules and the lexer states can be counted by {@link LexerStatistics}, each finished scan is
+ * reported to them. Without statistics the scan loop is unchanged.
+ *
+ * @author Filip Gulan
+ * @author Jan Kelemen
+ *
+ * @version 1.1
+ */
+public class LexerSession {
+
+    // Shorter failed scans aren't memoized, they add at most a constant number of steps to each scan.
+    private static final int MEMO_THRESHOLD = 8;
+
+    private final CompiledLexer lexer;
+    private LexerState currentState;
+
+    private boolean memoizing;
+    private final Map<LexerState, FailureMemo> memos = new IdentityHashMap<>();
+    private LexerState memoState;
+    private FailureMemo stateMemo;
+
+    private ScanListener scanListener;
+    private LexerStatistics statistics;
+
+    private PrintStream printStream;
+    private TokenSink tokenSink;
+    private SourceBuffer source;
+
+    private int lineCounter = 1;
+    private int startIndex = 0;
+    private int lastIndex = -1;
+    private int finishIndex = -1;
+
+    /**
+     * Class constructor, specifies the compiled lexer, the session starts in its initial state.
+     *
+     * @param lexer
+     *            the compiled lexer.
+     * @since 1.0
+     */
+    public LexerSession(final CompiledLexer lexer) {
+        super();
+        this.lexer = lexer;
+        currentState = lexer.getInitialState();
+    }
+
+    /**
+     * Analyzes the source and outputs the found lexemes to the specified output stream.
+     *
+     * @param source
+     *            the source.
+     * @param printStream
+     *            the output stream.
+     * @since 1.0
+     */
+    public void analyze(final String source, final PrintStream printStream) {
+        analyze(new SourceBuffer(source), printStream);
+    }
+
+    /**
+     * Analyzes the source read from the reader and outputs the found lexemes to the specified output stream.
+     *
+     * @param reader
+     *            the reader of the source.
+     * @param printStream
+     *            the output stream.
+     * @throws java.io.UncheckedIOException
+     *             if the source can't be read.
+     * @since 1.0
+     */
+    public void analyze(final Reader reader, final PrintStream printStream) {
+        analyze(new SourceBuffer(reader), printStream);
+    }
+
+    /**
+     * Analyzes the source from the buffer and outputs the found lexemes to the specified output stream.
+     *
+     * @param source
+     *            the source.
+     * @param printStream
+     *            the output stream.
+     * @throws java.io.UncheckedIOException
+     *             if the source can't be read.
+     * @since 1.0
+     */
+    public void analyze(final SourceBuffer source, final PrintStream printStream) {
+        this.printStream = printStream;
+        analyze(source, new TextTokenSink(new OutputStreamWriter(printStream), getTokenTypes()));
+    }
+
+    /**
+     * Analyzes the source from the buffer and passes the found lexemes to the token sink.
+     *
+     * @param source
+     *            the source.
+     * @param tokenSink
+     *            the token sink.
+     * @throws java.io.UncheckedIOException
+     *             if the source can't be read.
+     * @since 1.0
+     */
+    public void analyze(final SourceBuffer source, final TokenSink tokenSink) {
+        this.source = source;
+        this.tokenSink = tokenSink;
+
+        memos.clear();
+        memoState = null;
+
+        final LexerStatistics statistics = this.statistics;
+        if (statistics != null) {
+            statistics.start();
+        }
+
+        int activeTag = TaggedDFAutomaton.NO_TAG;
+        while (source.isBeforeEnd(finishIndex)) {
+            if ((scanListener != null) && !scanListener.scanStarting(this)) {
+                break;
+            }
+
+            final FailureMemo memo = memoizing ? getMemo(currentState) : null;
+            final FailureMemo failures = (memo != null) && (memo.size() > 0) ? memo : null;
+            final int scanStart = finishIndex + 1;
+            int matchEnd = finishIndex;
+            boolean failed = false;
+            int automatonState = currentState.getStartAutomatonState();
+            while (automatonState != DFAutomatonTable.DEAD_STATE) {
+                finishIndex++;
+                if ((failures != null) && failures.contains(finishIndex, automatonState)) {
+                    failed = true;
+                    break;
+                }
+
+                final int tag = currentState.getTag(automatonState);
+                if (tag != TaggedDFAutomaton.NO_TAG) {
+                    lastIndex = finishIndex - 1;
+                    activeTag = tag;
+                    matchEnd = finishIndex;
+                }
+
+                if (source.isBeforeEnd(finishIndex)) {
+                    automatonState = currentState.step(automatonState, source.charAt(finishIndex));
+                }
+                else {
+                    break;
+                }
+            }
+
+            if (memo != null) {
+                final int scanEnd = (failed || (finishIndex < scanStart)) ? finishIndex - 1 : finishIndex;
+                if ((scanEnd - matchEnd) >= MEMO_THRESHOLD) {
+                    memoize(memo, scanStart, matchEnd, scanEnd);
+                }
+            }
+
+            if (statistics != null) {
+                statistics.scanned(currentState, source, scanStart, lastRead(finishIndex, automatonState));
+            }
+            if (activeTag != TaggedDFAutomaton.NO_TAG) {
+                final LexerRule rule = currentState.getMatchedRule(activeTag, source, scanStart, lastIndex);
+                if (statistics != null) {
+                    final int lastRead = lastRead(finishIndex, automatonState);
+                    statistics.matched(currentState, rule, (lastRead - scanStart) + 1, lastRead - lastIndex);
+                }
+                finishIndex = lastIndex;
+                rule.execute(this);
+                activeTag = TaggedDFAutomaton.NO_TAG;
+            }
+            else {
+                if (statistics != null) {
+                    statistics.failed(currentState, (lastRead(finishIndex, automatonState) - scanStart) + 1);
+                }
+                finishIndex = startIndex++;
+            }
+            source.release(startIndex);
+            if (memo != null) {
+                memo.release(startIndex);
+            }
+        }
+        memos.clear();
+        memoState = null;
+        stateMemo = null;
+        tokenSink.finish();
+    }
+
+    /**
+     * Analyzes the source in parallel and passes the found lexemes to the token sink. The source is split into chunks,
+     * each chunk is analyzed on the pool from each lexer state, as the state in which the chunk is entered
+     * isn't known in advance. The runs are stitched together in order, the analysis of the previous chunk continues
+     * into the next chunk until it reaches a point where a run of that chunk was in the same state, from there on the
+     * runs are the same. The lines of the tokens are fixed up while stitching, so the result is the same as the
+     * result of the sequential analysis. A chunk without such a point is analyzed again sequentially. <br>
+     * The session is used as a template and its own indexes aren't changed, the runs share its compiled lexer.
+     *
+     * @param source
+     *            the source.
+     * @param tokenSink
+     *            the token sink.
+     * @param pool
+     *            the pool on which the chunks are analyzed.
+     * @param chunkSize
+     *            the number of characters in a chunk.
+     * @since 1.0
+     */
+    public void analyzeParallel(final String source, final TokenSink tokenSink, final ForkJoinPool pool,
+            final int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        if (source.length() <= chunkSize) {
+            analyze(new SourceBuffer(source), tokenSink);
+            return;
+        }
+
+        new SpeculativeAnalysis(this, new SourceBuffer(source), chunkSize).run(pool, tokenSink);
+    }
+
+    /**
+     * Checks if the session memoizes the failed scans.
+     *
+     * @return <code>true</code> if the session is in the memoizing mode, <code>false</code> otherwise.
+     * @since 1.0
+     */
+    public boolean isMemoizing() {
+        return memoizing;
+    }
+
+    /**
+     * Sets the memoizing mode, in which the analysis takes linear time. The found lexemes are the same in both modes.
+     *
+     * @param memoizing
+     *            <code>true</code> to memoize the failed scans.
+     * @since 1.0
+     */
+    public void setMemoizing(final boolean memoizing) {
+        this.memoizing = memoizing;
+    }
+
+    /**
+     * Returns the listener which is called before each scan.
+     *
+     * @return the listener, or <code>null</code> if there is no listener.
+     * @since 1.0
+     */
+    public ScanListener getScanListener() {
+        return scanListener;
+    }
+
+    /**
+     * Sets the listener which is called before each scan.
+     *
+     * @param scanListener
+     *            the listener, or <code>null</code> to remove the listener.
+     * @since 1.0
+     */
+    public void setScanListener(final ScanListener scanListener) {
+        this.scanListener = scanListener;
+    }
+
+    /**
+     * Returns the statistics to which the scans are reported.
+     *
+     * @return the statistics, or <code>null</code> if the scans aren't counted.
+     * @since 1.1
+     */
+    public LexerStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Sets the statistics to which the scans are reported, the statistics can't be shared with other sessions.
+     *
+     * @param statistics
+     *            the statistics, or <code>null</code> to stop counting the scans.
+     * @since 1.1
+     */
+    public void setStatistics(final LexerStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns the states of the session.
+     *
+     * @return the states, mapped by their names.
+     * @since 1.0
+     */
+    public Map<String, LexerState> getStates() {
+        return lexer.getStates();
+    }
+
+    /**
+     * Passes the currently matched phrase to the token sink.
+     *
+     * @param tokenType
+     *            id of the token type.
+     * @since 1.0
+     */
+    public void emitToken(final int tokenType) {
+        tokenSink.accept(tokenType, lineCounter, source, startIndex, finishIndex + 1);
+    }
+
+    /**
+     * Returns the id of the token type.
+     *
+     * @param name
+     *            name of the token type.
+     * @return id of the token type.
+     * @throws IllegalArgumentException
+     *             if the compiled lexer doesn't have the token type.
+     * @since 1.0
+     */
+    public int getTokenType(final String name) {
+        return lexer.getTokenType(name);
+    }
+
+    /**
+     * Returns the names of the token types, indexed by the id of the type.
+     *
+     * @return the token types.
+     * @since 1.0
+     */
+    public List<String> getTokenTypes() {
+        return lexer.getTokenTypes();
+    }
+
+    /**
+     * Returns the compiled lexer of the session.
+     *
+     * @return the compiled lexer.
+     * @since 1.0
+     */
+    public CompiledLexer getLexer() {
+        return lexer;
+    }
+
+    /**
+     * Returns the current state of the session.
+     *
+     * @return the current state.
+     * @since 1.0
+     */
+    public LexerState getCurrentState() {
+        return currentState;
+    }
+
+    /**
+     * Sets the current state of the session.
+     *
+     * @param currentState
+     *            the current state.
+     * @since 1.0
+     */
+    public void setCurrentState(final LexerState currentState) {
+        this.currentState = currentState;
+    }
+
+    /**
+     * Sets the current state of the session.
+     *
+     * @param stateName
+     *            the current state.
+     * @since 1.0
+     */
+    public void setCurrentStateFromName(final String stateName) {
+        currentState = lexer.getState(stateName);
+    }
+
+    /**
+     * Returns the number of lines found currently.
+     *
+     * @return the number of lines.
+     * @since 1.0
+     */
+    public int getLineCounter() {
+        return lineCounter;
+    }
+
+    /**
+     * Increments the line counter.
+     *
+     * @since 1.0
+     */
+    public void incrementLineCounter() {
+        lineCounter++;
+    }
+
+    /**
+     * @return the start index.
+     * @since 1.0
+     */
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+    /**
+     * Sets the start index.
+     *
+     * @param startIndex
+     *            new start index.
+     * @since 1.0
+     */
+    public void setStartIndex(final int startIndex) {
+        this.startIndex = startIndex;
+    }
+
+    /**
+     * Returns the point to which a source code has been processed.
+     *
+     * @return the point.
+     * @since 1.0
+     */
+    public int getLastIndex() {
+        return lastIndex;
+    }
+
+    /**
+     * Sets the point to which a source code has been processed.
+     *
+     * @param lastIndex
+     *            the point.
+     * @since 1.0
+     */
+    public void setLastIndex(final int lastIndex) {
+        this.lastIndex = lastIndex;
+    }
+
+    /**
+     * Returns the point at which a current lexeme ends.
+     *
+     * @return the point.
+     * @since 1.0
+     */
+    public int getFinishIndex() {
+        return finishIndex;
+    }
+
+    /**
+     * Sets the point at which a current lexeme ends.
+     *
+     * @param finishIndex
+     *            the point.
+     * @since 1.0
+     */
+    public void setFinishIndex(final int finishIndex) {
+        this.finishIndex = finishIndex;
+    }
+
+    /**
+     * @return returns the output stream, or <code>null</code> if the lexemes are passed to a token sink.
+     * @since 1.0
+     */
+    public PrintStream getOutput() {
+        return printStream;
+    }
+
+    /**
+     * @return returns the currently matched phrase.
+     * @since 1.0
+     */
+    public String getCurrentPhrase() {
+        return source.substring(startIndex, finishIndex + 1);
+    }
+
+    /*
+     * Returns the index of the last character read by the scan, the scan reads the character at the finish index only
+     * if it stopped in the dead state.
+     */
+    private static int lastRead(final int finishIndex, final int automatonState) {
+        return automatonState == DFAutomatonTable.DEAD_STATE ? finishIndex : finishIndex - 1;
+    }
+
+    /*
+     * Marks the (position, automaton state) pairs of the scan after the end of its longest match as failed. The states
+     * aren't recorded during the scan, the automaton of the current lexer state is replayed over the scanned
+     * characters instead, which costs at most as much as the scan itself.
+     */
+    private void memoize(final FailureMemo memo, final int scanStart, final int matchEnd, final int scanEnd) {
+        int state = currentState.getStartAutomatonState();
+        for (int position = scanStart; position <= scanEnd; position++) {
+            if (position > matchEnd) {
+                memo.add(position, state);
+            }
+            if (position < scanEnd) {
+                state = currentState.step(state, source.charAt(position));
+            }
+        }
+    }
+
+    /*
+     * Returns the memo of the failed scans of the lexer state, the memo is created on the first use. The memo of the
+     * last state is cached, the state rarely changes between scans.
+     */
+    private FailureMemo getMemo(final LexerState state) {
+        if (state != memoState) {
+            memoState = state;
+            stateMemo = memos.get(state);
+            if (stateMemo == null) {
+                stateMemo = new FailureMemo();
+                memos.put(state, stateMemo);
+            }
+        }
+        return stateMemo;
+    }
+}
@@ -1,19 +1,48 @@
 package hr.fer.zemris.ppj.lexical.analyzer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+import hr.fer.zemris.ppj.finite.automaton.Automatons;
+import hr.fer.zemris.ppj.finite.automaton.DFAutomatonTable;
+import hr.fer.zemris.ppj.finite.automaton.TaggedDFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Automaton;
 
 /**
- * <code>LexerState</code> represents a state of the lexical analyzer.
+ * <code>LexerState</code> represents a state of the lexical analyzer. The rules of the state are matched with a single
+ * combined automaton whose accept states are tagged with the index of the rule with the highest priority. The
+ * automaton is stepped through its compiled table, so applying a input doesn't allocate. <br>
+ * The state of the combined automaton is kept by the caller, with {@link #getStartAutomatonState()},
+ * {@link #step(int, int)} and {@link #getRule(int)}. These methods don't modify the lexer state, so a compiled lexer
+ * state can be shared between sessions running in different threads. Once the state is given to a
+ * {@link CompiledLexer} it's frozen, its rules can't be changed and the methods which modify it throw a
+ * {@link IllegalStateException}. <br>
+ * Literal rules whose literal is also matched by another rule of the state, like keywords which are also identifiers,
+ * are left out of the combined automaton and kept in a {@link KeywordTrie}. The trie is checked once the automaton has
+ * found the longest match, see {@link #getMatchedRule(int, SourceBuffer, int, int)}. <br>
+ * The rules which are still live in each state of the combined automaton, see {@link #getLiveRules(int)}, are only
+ * read by the {@link LexerStatistics}, so they are found on the first read instead of when the table is set.
  *
  * @author Filip Gulan
  *
- * @version 1.0
+ * @version 1.9
  */
 public class LexerState {
 
     private final String name;
-    private final List<LexerRule> rules;
+    private List<LexerRule> rules;
+    private TaggedDFAutomaton automaton;
+    private DFAutomatonTable table;
+    private volatile int[][] liveRules;
+    private KeywordTrie keywords;
+    // Index of the first keyword rule, only rules after it can be replaced with a keyword.
+    private int firstKeywordRule;
+    private boolean frozen;
 
     /**
      * Class constructor, specifies the name of the state and a empty set of rules.
@@ -49,6 +78,7 @@ public class LexerState {
      * @since 1.0
      */
     public void addRule(final LexerRule rule) {
+        checkModifiable();
         if (rule == null) {
             throw new RuntimeException("Rule cannot be null|");
         }
@@ -56,59 +86,166 @@ public class LexerState {
     }
 
     /**
-     * Applies the input to all rules in the state.
+     * Combines the automatons of the rules to the automaton of the state. Rules are prioritized in the order they were
+     * added. Literal rules whose literal is accepted by another rule are moved to the keyword trie, their places in the
+     * combined automaton are taken by empty automatons, so the tags of the automaton are still the indexes of the
+     * rules. The other rule keeps the literal in the language of the combined automaton, so the longest match doesn't
+     * change.
      *
-     * @param input
-     *            the input.
-     * @since 1.0
+     * @since 1.1
      */
-    public void apply(final char input) {
-        for (final LexerRule rule : rules) {
-            rule.apply(input);
+    public void compile() {
+        checkModifiable();
+        final Map<String, Integer> literals = new LinkedHashMap<>();
+        for (int i = 0; i < rules.size(); i++) {
+            final String literal = rules.get(i).getLiteral();
+            if ((literal != null) && !literal.isEmpty() && !literals.containsKey(literal)) {
+                literals.put(literal, i);
+            }
+        }
+
+        final List<Automaton> automatons = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            automatons.add(rules.get(i).getAutomaton());
+        }
+        final DFAutomatonTable[] tables = new DFAutomatonTable[rules.size()];
+        final Iterator<Map.Entry<String, Integer>> iterator = literals.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, Integer> literal = iterator.next();
+            if (isMatchedByOtherRule(literal.getKey(), literal.getValue(), tables)) {
+                automatons.set(literal.getValue(), Automatons.empty());
+            }
+            else {
+                iterator.remove();
+            }
         }
+
+        setAutomaton(Automatons.combine(automatons));
+        setKeywords(literals.isEmpty() ? null : new KeywordTrie(literals));
     }
 
     /**
-     * Applies the input to all rules in the state.
+     * Returns the start state of the combined automaton.
      *
-     * @param input
-     *            the input.
-     * @since 1.0
+     * @return index of the start state, or {@link DFAutomatonTable#DEAD_STATE} if the lexer state isn't compiled.
+     * @since 1.5
      */
-    public void apply(final String input) {
-        for (final LexerRule rule : rules) {
-            rule.apply(input);
+    public int getStartAutomatonState() {
+        return table == null ? DFAutomatonTable.DEAD_STATE : table.getStartState();
+    }
+
+    /**
+     * Returns the state of the combined automaton after applying the character, doesn't modify the lexer state.
+     *
+     * @param automatonState
+     *            index of the state of the combined automaton.
+     * @param codePoint
+     *            the character.
+     * @return index of the next state.
+     * @since 1.5
+     */
+    public int step(final int automatonState, final int codePoint) {
+        return table.step(automatonState, table.getInputClass(codePoint));
+    }
+
+    /**
+     * Returns the rule with the highest priority which is accepted in the state of the combined automaton.
+     *
+     * @param automatonState
+     *            index of the state of the combined automaton.
+     * @return the rule, or <code>null</code> if no rules are accepted in the state.
+     * @since 1.5
+     */
+    public LexerRule getRule(final int automatonState) {
+        final int tag = table.getTag(automatonState);
+        return tag == TaggedDFAutomaton.NO_TAG ? null : rules.get(tag);
+    }
+
+    /**
+     * Returns the tag of the state of the combined automaton.
+     *
+     * @param automatonState
+     *            index of the state of the combined automaton.
+     * @return index of the rule with the highest priority which is accepted in the state, or
+     *         {@link TaggedDFAutomaton#NO_TAG} if no rules are accepted in it.
+     * @since 1.7
+     */
+    public int getTag(final int automatonState) {
+        return table.getTag(automatonState);
+    }
+
+    /**
+     * Returns the rules which are live in the state of the combined automaton, a rule is live if a state tagged with
+     * it is reachable from the state. While a scan is in a state in which the rule is live, the scan can still end
+     * with the match of the rule. Rules in the keyword trie aren't tags of the combined automaton, so they aren't
+     * included. The live rules of all states are found on the first call.
+     *
+     * @param automatonState
+     *            index of the state of the combined automaton.
+     * @return indexes of the live rules, in ascending order.
+     * @since 1.8
+     */
+    public int[] getLiveRules(final int automatonState) {
+        int[][] live = liveRules;
+        if (live == null) {
+            // Sessions can race here, each finds the same rules and the field is volatile.
+            live = findLiveRules(table);
+            liveRules = live;
         }
+        return live[automatonState];
     }
 
     /**
-     * Returns the first active rule of the state.
+     * Returns the rule of the longest match. The rule of the tag is replaced with the keyword rule of the lexeme, if
+     * the lexeme is a keyword with a higher priority.
      *
-     * @return active rule of the state or <code>null</code> if no rules are active.
-     * @since 1.0
+     * @param tag
+     *            tag of the state of the combined automaton at the end of the longest match.
+     * @param source
+     *            the source.
+     * @param begin
+     *            index of the first character of the lexeme.
+     * @param end
+     *            index of the last character of the lexeme.
+     * @return the rule.
+     * @since 1.7
      */
-    public LexerRule getActiveRule() {
-        for (final LexerRule rule : rules) {
-            if (rule.isAccepting()) {
-                return rule;
+    public LexerRule getMatchedRule(final int tag, final SourceBuffer source, final int begin, final int end) {
+        if ((keywords != null) && (tag > firstKeywordRule)) {
+            final int keyword = keywords.find(source, begin, end);
+            if ((keyword != KeywordTrie.NOT_FOUND) && (keyword < tag)) {
+                return rules.get(keyword);
             }
         }
-        return null;
+        return rules.get(tag);
     }
 
     /**
-     * Checks if the state contains live rules.
+     * Returns the keyword trie of the state.
      *
-     * @return <code>true</code> if there are active rules, <code>false</code>otherwise.
-     * @since 1.0
+     * @return the keyword trie, or <code>null</code> if all rules are in the combined automaton.
+     * @since 1.7
      */
-    public boolean isAlive() {
-        for (final LexerRule rule : rules) {
-            if (rule.isAlive()) {
-                return true;
+    public KeywordTrie getKeywords() {
+        return keywords;
+    }
+
+    /**
+     * Sets the keyword trie of the state, values of the trie are indexes of the rules of the state.
+     *
+     * @param keywords
+     *            the keyword trie, or <code>null</code> if all rules are in the combined automaton.
+     * @since 1.7
+     */
+    public void setKeywords(final KeywordTrie keywords) {
+        checkModifiable();
+        this.keywords = keywords;
+        firstKeywordRule = Integer.MAX_VALUE;
+        if (keywords != null) {
+            for (final int rule : keywords.getKeywords().values()) {
+                firstKeywordRule = Math.min(firstKeywordRule, rule);
             }
         }
-        return false;
     }
 
     /**
@@ -132,14 +269,225 @@ public class LexerState {
     }
 
     /**
-     * Resets the automatons of the associated rules.
+     * Returns the combined automaton of the state.
      *
-     * @since 1.0
+     * @return the automaton, or <code>null</code> if the state isn't compiled.
+     * @since 1.1
+     */
+    public TaggedDFAutomaton getAutomaton() {
+        return automaton;
+    }
+
+    /**
+     * Sets the combined automaton of the state, tags of the automaton are indexes of the rules of the state.
+     *
+     * @param automaton
+     *            the automaton.
+     * @since 1.1
      */
-    public void resetAutomatons() {
+    public void setAutomaton(final TaggedDFAutomaton automaton) {
+        checkModifiable();
+        this.automaton = automaton;
+        setTable(automaton.getTable());
+    }
+
+    /**
+     * Returns the compiled combined automaton of the state.
+     *
+     * @return the compiled automaton, or <code>null</code> if the state isn't compiled.
+     * @since 1.3
+     */
+    public DFAutomatonTable getTable() {
+        return table;
+    }
+
+    /**
+     * Sets the compiled combined automaton of the state, without the automaton it was compiled from. Tags of the
+     * table are indexes of the rules of the state.
+     *
+     * @param table
+     *            the compiled automaton.
+     * @since 1.3
+     */
+    public void setTable(final DFAutomatonTable table) {
+        checkModifiable();
+        this.table = table;
+        liveRules = null;
+    }
+
+    /**
+     * Checks if the state is frozen, a frozen state can't be modified.
+     *
+     * @return <code>true</code> if the state is used by a {@link CompiledLexer}, <code>false</code> otherwise.
+     * @since 1.9
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /*
+     * Freezes the state when it's given to a compiled lexer. The rules are copied to a unmodifiable list, so the list
+     * given to the constructor can't change them, and the methods which modify the state throw a exception.
+     */
+    void freeze() {
+        if (!frozen) {
+            rules = Collections.unmodifiableList(new ArrayList<>(rules));
+            frozen = true;
+        }
+    }
+
+    /*
+     * Throws a exception if the state is frozen.
+     */
+    private void checkModifiable() {
+        if (frozen) {
+            throw new IllegalStateException("Lexer state " + name + " is used by a compiled lexer.");
+        }
+    }
+
+    /*
+     * Finds the live rules of each state of the table, by walking the transitions backwards from the states tagged
+     * with each rule. The predecessors and the tagged states are kept in int arrays, the entries of a state are
+     * between its offset and the offset of the next state. The walks are done twice, first to count the live rules of
+     * each state and then to fill them.
+     */
+    private static int[][] findLiveRules(final DFAutomatonTable table) {
+        final int stateCount = table.getStateCount();
+        final int inputCount = table.getInputCount();
+
+        final int[] predecessorOffsets = new int[stateCount + 1];
+        int tagCount = 0;
+        for (int state = 0; state < stateCount; state++) {
+            for (int input = 0; input < inputCount; input++) {
+                final int next = table.step(state, input);
+                if (next != DFAutomatonTable.DEAD_STATE) {
+                    predecessorOffsets[next + 1]++;
+                }
+            }
+            tagCount = Math.max(tagCount, table.getTag(state) + 1);
+        }
+        final int[] tagOffsets = new int[tagCount + 1];
+        for (int state = 0; state < stateCount; state++) {
+            if (table.getTag(state) != TaggedDFAutomaton.NO_TAG) {
+                tagOffsets[table.getTag(state) + 1]++;
+            }
+        }
+        for (int state = 0; state < stateCount; state++) {
+            predecessorOffsets[state + 1] += predecessorOffsets[state];
+        }
+        for (int tag = 0; tag < tagCount; tag++) {
+            tagOffsets[tag + 1] += tagOffsets[tag];
+        }
+
+        final int[] predecessors = new int[predecessorOffsets[stateCount]];
+        final int[] tagged = new int[tagOffsets[tagCount]];
+        final int[] filled = Arrays.copyOf(predecessorOffsets, stateCount);
+        final int[] filledTags = Arrays.copyOf(tagOffsets, tagCount);
+        for (int state = 0; state < stateCount; state++) {
+            for (int input = 0; input < inputCount; input++) {
+                final int next = table.step(state, input);
+                if (next != DFAutomatonTable.DEAD_STATE) {
+                    predecessors[filled[next]++] = state;
+                }
+            }
+            if (table.getTag(state) != TaggedDFAutomaton.NO_TAG) {
+                tagged[filledTags[table.getTag(state)]++] = state;
+            }
+        }
+
+        final int[][] result = new int[stateCount][];
+        final int[] counts = new int[stateCount];
+        final int[] visited = new int[stateCount];
+        final int[] stack = new int[stateCount];
+        for (int pass = 0; pass < 2; pass++) {
+            Arrays.fill(visited, TaggedDFAutomaton.NO_TAG);
+            for (int tag = 0; tag < tagCount; tag++) {
+                int depth = 0;
+                for (int i = tagOffsets[tag]; i < tagOffsets[tag + 1]; i++) {
+                    visited[tagged[i]] = tag;
+                    stack[depth++] = tagged[i];
+                }
+                while (depth > 0) {
+                    final int state = stack[--depth];
+                    if (pass == 0) {
+                        counts[state]++;
+                    }
+                    else {
+                        result[state][counts[state]++] = tag;
+                    }
+                    for (int i = predecessorOffsets[state]; i < predecessorOffsets[state + 1]; i++) {
+                        if (visited[predecessors[i]] != tag) {
+                            visited[predecessors[i]] = tag;
+                            stack[depth++] = predecessors[i];
+                        }
+                    }
+                }
+            }
+
+            if (pass == 0) {
+                for (int state = 0; state < stateCount; state++) {
+                    result[state] = new int[counts[state]];
+                    counts[state] = 0;
+                }
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Checks if the literal is accepted by a rule which stays in the combined automaton. Such a rule isn't one of the
+     * literal rules which are moved to the keyword trie, except a later rule with the same literal. The automatons of
+     * the rules can be shared between rules by the automaton cache, so the literal is run through compiled tables of
+     * the rules, which are created once per compile.
+     */
+    private boolean isMatchedByOtherRule(final String literal, final int index, final DFAutomatonTable[] tables) {
+        for (int i = 0; i < rules.size(); i++) {
+            final LexerRule rule = rules.get(i);
+            if ((i == index) || (rule.getAutomaton() == null)) {
+                continue;
+            }
+            if ((rule.getLiteral() != null) && !rule.getLiteral().isEmpty()) {
+                if (rule.getLiteral().equals(literal)) {
+                    return true;
+                }
+                continue;
+            }
+
+            if (tables[i] == null) {
+                tables[i] = new DFAutomatonTable(Automatons.convertToDFA(rule.getAutomaton()));
+            }
+            int state = tables[i].getStartState();
+            for (int j = 0; (j < literal.length()) && (state != DFAutomatonTable.DEAD_STATE); j++) {
+                state = tables[i].step(state, tables[i].getInputClass(literal.charAt(j)));
+            }
+            if ((state != DFAutomatonTable.DEAD_STATE) && tables[i].isAcceptState(state)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Format: name of the state and the number of rules. <br>
+     * combined automaton of the state. <br>
+     * <br>
+     * list of rule definitions... <br>
+     *
+     * @see hr.fer.zemris.ppj.finite.automaton.TaggedDFAutomaton#toString()
+     * @see hr.fer.zemris.ppj.lexical.analyzer.LexerRule#toString()
+     * @since 1.1
+     */
+    @Override
+    public String toString() {
+        String result = name + " " + rules.size() + "\n";
+        result += automaton + "\n";
+        result += "\n";
         for (final LexerRule rule : rules) {
-            rule.resetAutomaton();
+            result += rule + "\n";
         }
+        return result.substring(0, result.length() - 1);
     }
 
     @Override
@@ -0,0 +1,257 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import hr.fer.zemris.ppj.finite.automaton.DFAutomatonTable;
+import hr.fer.zemris.ppj.lexical.analyzer.actions.LexerAction;
+import hr.fer.zemris.ppj.lexical.analyzer.actions.RejectAction;
+
+/**
+ * <code>LexerStatistics</code> collects the activity of the sessions of the lexical analyzer, it is given to a session
+ * with {@link LexerSession#setStatistics(LexerStatistics)}. The session reports each scan for the longest match once
+ * it's finished, so nothing is counted per character and a session without statistics only checks that it has none.
+ * <br>
+ * For each rule the statistics count the steps of the scans which ended with the match of the rule, the live steps,
+ * the matches, the matches rejected by a {@link RejectAction} and the backtrack distance, the number of characters read
+ * after the end of the match. A live step of a rule is a step of any scan after which the rule could still match, the
+ * scans are replayed over the live rules of the lexer state, see {@link LexerState#getLiveRules(int)}, and a keyword
+ * rule is live while the scanned characters are a prefix of its keyword. For each lexer state they count the scans, the
+ * scans in which no rule matched and the time spent in the state. Statistics aren't thread safe, each session needs
+ * its own, they can be merged afterwards.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.1
+ */
+public class LexerStatistics {
+
+    /*
+     * Counters of a rule.
+     */
+    private static class RuleCounters {
+
+        public final boolean rejecting;
+        public long steps;
+        public long liveSteps;
+        public long matches;
+        public long backtrack;
+
+        public RuleCounters(final LexerRule rule) {
+            boolean rejecting = false;
+            for (final LexerAction action : rule.getActions()) {
+                rejecting |= action instanceof RejectAction;
+            }
+            this.rejecting = rejecting;
+        }
+    }
+
+    /*
+     * Counters of a lexer state and its rules.
+     */
+    private static class StateCounters {
+
+        public final Map<LexerRule, RuleCounters> rules = new IdentityHashMap<>();
+        public long nanos;
+        public long scans;
+        public long errorSteps;
+        public long errors;
+
+        public RuleCounters getRule(final LexerRule rule) {
+            RuleCounters counters = rules.get(rule);
+            if (counters == null) {
+                counters = new RuleCounters(rule);
+                rules.put(rule, counters);
+            }
+            return counters;
+        }
+    }
+
+    // States are kept in the order in which they were entered.
+    private final Map<LexerState, StateCounters> states = new LinkedHashMap<>();
+
+    private LexerState activeState;
+    private StateCounters activeCounters;
+    private long lastScan;
+
+    /**
+     * Records the live steps of a scan, called for each scan before it's recorded as matched or failed. The scan is
+     * replayed over the characters it read.
+     *
+     * @param state
+     *            the lexer state in which the scan was done.
+     * @param source
+     *            the source.
+     * @param begin
+     *            index of the first character read by the scan.
+     * @param end
+     *            index of the last character read by the scan.
+     * @since 1.1
+     */
+    public void scanned(final LexerState state, final SourceBuffer source, final int begin, final int end) {
+        final StateCounters counters = getState(state);
+        final List<LexerRule> rules = state.getRules();
+
+        int automatonState = state.getStartAutomatonState();
+        for (int i = begin; (i <= end) && (automatonState != DFAutomatonTable.DEAD_STATE); i++) {
+            automatonState = state.step(automatonState, source.charAt(i));
+            if (automatonState != DFAutomatonTable.DEAD_STATE) {
+                for (final int rule : state.getLiveRules(automatonState)) {
+                    counters.getRule(rules.get(rule)).liveSteps++;
+                }
+            }
+        }
+
+        if (state.getKeywords() != null) {
+            for (final Map.Entry<String, Integer> keyword : state.getKeywords().getKeywords().entrySet()) {
+                final String literal = keyword.getKey();
+                int prefix = 0;
+                while ((prefix < literal.length()) && ((begin + prefix) <= end)
+                        && (literal.charAt(prefix) == source.charAt(begin + prefix))) {
+                    prefix++;
+                }
+                counters.getRule(rules.get(keyword.getValue())).liveSteps += prefix;
+            }
+        }
+    }
+
+    /**
+     * Records a scan which ended with the match of the rule.
+     *
+     * @param state
+     *            the lexer state in which the scan was done.
+     * @param rule
+     *            the matched rule.
+     * @param steps
+     *            number of the characters read by the scan.
+     * @param backtrack
+     *            number of the characters read after the end of the match.
+     * @since 1.0
+     */
+    public void matched(final LexerState state, final LexerRule rule, final int steps, final int backtrack) {
+        final RuleCounters counters = enter(state).getRule(rule);
+        activeCounters.scans++;
+        counters.steps += steps;
+        counters.matches++;
+        counters.backtrack += backtrack;
+    }
+
+    /**
+     * Records a scan in which no rule matched, after which the first character is skipped.
+     *
+     * @param state
+     *            the lexer state in which the scan was done.
+     * @param steps
+     *            number of the characters read by the scan.
+     * @since 1.0
+     */
+    public void failed(final LexerState state, final int steps) {
+        enter(state);
+        activeCounters.scans++;
+        activeCounters.errorSteps += steps;
+        activeCounters.errors++;
+    }
+
+    /**
+     * Starts measuring the time, called when the analysis starts. The time between two scans is added to the lexer
+     * state of the latter scan.
+     *
+     * @since 1.0
+     */
+    public void start() {
+        lastScan = System.nanoTime();
+    }
+
+    /**
+     * Adds the counters of the other statistics to these statistics.
+     *
+     * @param other
+     *            the other statistics, of a finished analysis.
+     * @since 1.0
+     */
+    public void merge(final LexerStatistics other) {
+        for (final Map.Entry<LexerState, StateCounters> entry : other.states.entrySet()) {
+            final StateCounters counters = getState(entry.getKey());
+            final StateCounters added = entry.getValue();
+            counters.nanos += added.nanos;
+            counters.scans += added.scans;
+            counters.errorSteps += added.errorSteps;
+            counters.errors += added.errors;
+            for (final Map.Entry<LexerRule, RuleCounters> rule : added.rules.entrySet()) {
+                final RuleCounters ruleCounters = counters.getRule(rule.getKey());
+                ruleCounters.steps += rule.getValue().steps;
+                ruleCounters.liveSteps += rule.getValue().liveSteps;
+                ruleCounters.matches += rule.getValue().matches;
+                ruleCounters.backtrack += rule.getValue().backtrack;
+            }
+        }
+    }
+
+    /**
+     * Creates a snapshot of the current counters. Rules are identified by their index in the lexer state, rules which
+     * never matched are included with zero counters.
+     *
+     * @return the snapshot.
+     * @since 1.0
+     */
+    public StatisticsSnapshot snapshot() {
+        final List<StatisticsSnapshot.StateEntry> entries = new ArrayList<>();
+        for (final Map.Entry<LexerState, StateCounters> state : states.entrySet()) {
+            final StateCounters counters = state.getValue();
+            final List<StatisticsSnapshot.RuleEntry> rules = new ArrayList<>();
+            final List<LexerRule> stateRules = state.getKey().getRules();
+            for (int i = 0; i < stateRules.size(); i++) {
+                final RuleCounters rule = counters.rules.get(stateRules.get(i));
+                if (rule == null) {
+                    rules.add(new StatisticsSnapshot.RuleEntry(i, actionsToString(stateRules.get(i)), 0, 0, 0, 0, 0));
+                }
+                else {
+                    rules.add(new StatisticsSnapshot.RuleEntry(i, actionsToString(stateRules.get(i)), rule.steps,
+                            rule.liveSteps, rule.matches, rule.rejecting ? rule.matches : 0, rule.backtrack));
+                }
+            }
+
+            entries.add(new StatisticsSnapshot.StateEntry(state.getKey().getName(), counters.nanos, counters.scans,
+                    counters.errorSteps, counters.errors, rules));
+        }
+        return new StatisticsSnapshot(entries);
+    }
+
+    /*
+     * Returns the counters of the state and adds the time since the previous scan to it, the last state is cached.
+     */
+    private StateCounters enter(final LexerState state) {
+        if (state != activeState) {
+            activeCounters = getState(state);
+            activeState = state;
+        }
+
+        final long now = System.nanoTime();
+        activeCounters.nanos += now - lastScan;
+        lastScan = now;
+        return activeCounters;
+    }
+
+    private StateCounters getState(final LexerState state) {
+        StateCounters counters = states.get(state);
+        if (counters == null) {
+            counters = new StateCounters();
+            states.put(state, counters);
+        }
+        return counters;
+    }
+
+    private static String actionsToString(final LexerRule rule) {
+        final StringBuilder builder = new StringBuilder();
+        for (final LexerAction action : rule.getActions()) {
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(action);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,23 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+/**
+ * <code>ScanListener</code> is a interface for observers of the sessions of the lexical analyzer. The listener is
+ * called before each scan for the longest match, when the indexes, the state and the line counter of the session fully
+ * determine the rest of the analysis.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.1
+ */
+public interface ScanListener {
+
+    /**
+     * Called before the session starts a scan at the character after its finish index.
+     *
+     * @param lexer
+     *            the session of the lexical analyzer.
+     * @return <code>true</code> to continue the analysis, <code>false</code> to stop it before the scan.
+     * @since 1.0
+     */
+    boolean scanStarting(LexerSession lexer);
+}
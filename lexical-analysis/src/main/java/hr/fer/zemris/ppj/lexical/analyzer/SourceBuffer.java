@@ -0,0 +1,245 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * <code>SourceBuffer</code> is a sliding window over the source code of the lexical analyzer. Characters are addressed
+ * with their index in the whole source, but only the characters from the first unreleased index to the last read
+ * character are kept in memory. The window is refilled from a reader or from a buffer of encoded bytes when a
+ * character after its end is requested, and grows only when a pending lexeme doesn't fit in it. <br>
+ * A buffer which has read the whole source isn't modified anymore, so it can be read from multiple threads.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.1
+ */
+public class SourceBuffer {
+
+    private static final int DEFAULT_CAPACITY = 8192;
+
+    private final Reader reader;
+    private final ByteBuffer bytes;
+    private final CharsetDecoder decoder;
+
+    private char[] buffer;
+    private int offset;
+    private int length;
+    private int released;
+    private boolean flushing;
+    private boolean finished;
+
+    /**
+     * Class constructor, specifies the whole source code.
+     *
+     * @param source
+     *            the source code.
+     * @since 1.0
+     */
+    public SourceBuffer(final String source) {
+        reader = null;
+        bytes = null;
+        decoder = null;
+        buffer = source.toCharArray();
+        length = buffer.length;
+        finished = true;
+    }
+
+    /**
+     * Class constructor, specifies the reader from which the source code is read.
+     *
+     * @param reader
+     *            the reader.
+     * @since 1.0
+     */
+    public SourceBuffer(final Reader reader) {
+        this.reader = reader;
+        bytes = null;
+        decoder = null;
+        buffer = new char[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Class constructor, specifies the encoded source code. Malformed input is replaced with the replacement character.
+     *
+     * @param bytes
+     *            the encoded source code, decoded from its current position to its limit.
+     * @param charset
+     *            the encoding of the source code.
+     * @since 1.0
+     */
+    public SourceBuffer(final ByteBuffer bytes, final Charset charset) {
+        reader = null;
+        this.bytes = bytes;
+        decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        buffer = new char[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Creates a buffer over the memory mapped file, the file can't be larger than <code>2GB</code>.
+     *
+     * @param path
+     *            path to the file.
+     * @param charset
+     *            the encoding of the file.
+     * @return the buffer.
+     * @throws IOException
+     *             if the file can't be mapped.
+     * @since 1.0
+     */
+    public static SourceBuffer fromFile(final Path path, final Charset charset) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new SourceBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), charset);
+        }
+    }
+
+    /**
+     * Checks if the index is before the end of the source code, reads the source code up to the index if needed.
+     *
+     * @param index
+     *            the index.
+     * @return <code>true</code> if the index is before the end of the source, <code>false</code> otherwise.
+     * @throws UncheckedIOException
+     *             if the source code can't be read.
+     * @since 1.0
+     */
+    public boolean isBeforeEnd(final int index) {
+        while (!finished && (index >= (offset + length))) {
+            fill();
+        }
+        return index < (offset + length);
+    }
+
+    /**
+     * Returns the character at the index, the index must be before the end of the source code and mustn't be
+     * released.
+     *
+     * @param index
+     *            the index.
+     * @return the character.
+     * @throws UncheckedIOException
+     *             if the source code can't be read.
+     * @since 1.0
+     */
+    public char charAt(final int index) {
+        if (!isBeforeEnd(index) || (index < offset)) {
+            throw new IndexOutOfBoundsException("Index " + index + " isn't in the buffer.");
+        }
+        return buffer[index - offset];
+    }
+
+    /**
+     * Returns the part of the source code between the indexes, the characters mustn't be released.
+     *
+     * @param beginIndex
+     *            index of the first character, inclusive.
+     * @param endIndex
+     *            index of the last character, exclusive.
+     * @return the part of the source code.
+     * @since 1.0
+     */
+    public String substring(final int beginIndex, final int endIndex) {
+        if ((beginIndex < offset) || (endIndex > (offset + length)) || (beginIndex > endIndex)) {
+            throw new IndexOutOfBoundsException("Range " + beginIndex + "-" + endIndex + " isn't in the buffer.");
+        }
+        return new String(buffer, beginIndex - offset, endIndex - beginIndex);
+    }
+
+    /**
+     * Writes the part of the source code between the indexes to the writer, the characters mustn't be released.
+     *
+     * @param writer
+     *            the writer.
+     * @param beginIndex
+     *            index of the first character, inclusive.
+     * @param endIndex
+     *            index of the last character, exclusive.
+     * @throws IOException
+     *             if the characters can't be written.
+     * @since 1.1
+     */
+    public void write(final Writer writer, final int beginIndex, final int endIndex) throws IOException {
+        if ((beginIndex < offset) || (endIndex > (offset + length)) || (beginIndex > endIndex)) {
+            throw new IndexOutOfBoundsException("Range " + beginIndex + "-" + endIndex + " isn't in the buffer.");
+        }
+        writer.write(buffer, beginIndex - offset, endIndex - beginIndex);
+    }
+
+    /**
+     * Releases the characters before the index, they're removed from the memory on the next refill of the buffer.
+     *
+     * @param index
+     *            index of the first character which is still needed.
+     * @since 1.0
+     */
+    public void release(final int index) {
+        if (!finished) {
+            released = Math.max(released, index);
+        }
+    }
+
+    /*
+     * Reads the next part of the source code. Released characters are discarded first, the buffer is enlarged if it's
+     * still full.
+     */
+    private void fill() {
+        final int discarded = Math.min(released, offset + length) - offset;
+        if (discarded > 0) {
+            System.arraycopy(buffer, discarded, buffer, 0, length - discarded);
+            offset += discarded;
+            length -= discarded;
+        }
+        if (length == buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(DEFAULT_CAPACITY, buffer.length * 2));
+        }
+
+        try {
+            if (reader != null) {
+                final int read = reader.read(buffer, length, buffer.length - length);
+                if (read < 0) {
+                    finished = true;
+                }
+                else {
+                    length += read;
+                }
+            }
+            else {
+                decode();
+            }
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void decode() throws CharacterCodingException {
+        final CharBuffer chars = CharBuffer.wrap(buffer, length, buffer.length - length);
+        CoderResult result = CoderResult.UNDERFLOW;
+        if (!flushing) {
+            result = decoder.decode(bytes, chars, true);
+            flushing = result.isUnderflow() && !bytes.hasRemaining();
+        }
+        if (flushing) {
+            result = decoder.flush(chars);
+            finished = result.isUnderflow();
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+        length = chars.position();
+    }
+}
@@ -0,0 +1,309 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * <code>SpeculativeAnalysis</code> is a parallel analysis of a source which is kept in memory. The source is split into
+ * chunks, and each chunk is analyzed from each state of the analyzer, since the state in which the analysis enters the
+ * chunk isn't known until the previous chunks are analyzed. <br>
+ * The indexes, the state and the line counter of the analyzer are logged before each scan. Once a run reaches a point
+ * which is in the log of a earlier run of the same chunk, the rest of the run would be the same, so it is stopped and
+ * merged into the earlier run. Runs are stitched together by looking up the point where the analysis of the previous
+ * chunk left off in the logs of the next chunk.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+class SpeculativeAnalysis {
+
+    private final LexerSession template;
+    private final SourceBuffer source;
+    private final int[] chunkStarts;
+
+    /**
+     * Class constructor, specifies the analyzer used as a template, the source and the size of the chunks.
+     *
+     * @param template
+     *            the session whose compiled lexer and current state are used.
+     * @param source
+     *            the source, must be fully read.
+     * @param chunkSize
+     *            the number of characters in a chunk.
+     * @since 1.0
+     */
+    public SpeculativeAnalysis(final LexerSession template, final SourceBuffer source, final int chunkSize) {
+        this.template = template;
+        this.source = source;
+
+        int length = 0;
+        while (source.isBeforeEnd(length)) {
+            length += chunkSize;
+        }
+        chunkStarts = new int[(length / chunkSize) + 1];
+        for (int i = 0; i < chunkStarts.length; i++) {
+            chunkStarts[i] = i * chunkSize;
+        }
+        chunkStarts[chunkStarts.length - 1] = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Analyzes the chunks on the pool and passes the stitched tokens to the token sink.
+     *
+     * @param pool
+     *            the pool.
+     * @param tokenSink
+     *            the token sink.
+     * @since 1.0
+     */
+    public void run(final ForkJoinPool pool, final TokenSink tokenSink) {
+        final List<ForkJoinTask<List<Run>>> chunks = new ArrayList<>();
+        for (int chunk = 0; chunk < (chunkStarts.length - 1); chunk++) {
+            final int index = chunk;
+            chunks.add(pool.submit(() -> analyzeChunk(index)));
+        }
+
+        final Stitcher stitcher = new Stitcher(tokenSink);
+        Run run = chunks.get(0).join().get(0);
+        stitcher.emit(run, 0, 0);
+        for (int chunk = 1; chunk < chunks.size(); chunk++) {
+            run = stitcher.continueWith(chunks.get(chunk).join(), run, chunk);
+        }
+        tokenSink.finish();
+    }
+
+    /*
+     * Analyzes the chunk from each state, the first chunk is analyzed only from the current state of the template.
+     */
+    private List<Run> analyzeChunk(final int chunk) {
+        final List<Run> runs = new ArrayList<>();
+
+        final String initialState = template.getCurrentState().getName();
+        final int start = chunkStarts[chunk];
+        runs.add(analyze(initialState, start, start - 1, chunkStarts[chunk + 1], runs));
+        if (chunk > 0) {
+            for (final String state : template.getStates().keySet()) {
+                if (!state.equals(initialState)) {
+                    runs.add(analyze(state, start, start - 1, chunkStarts[chunk + 1], runs));
+                }
+            }
+        }
+        return runs;
+    }
+
+    /*
+     * Analyzes the source from the point until the first scan at or after the end of the chunk, or until the run
+     * merges into one of the previous runs.
+     */
+    private Run analyze(final String state, final int start, final int finish, final int end,
+            final List<Run> previous) {
+        final LexerSession lexer = template.getLexer().newSession();
+        lexer.setCurrentStateFromName(state);
+        lexer.setMemoizing(template.isMemoizing());
+        lexer.setStartIndex(start);
+        lexer.setFinishIndex(finish);
+
+        final Run run = new Run(lexer, end, previous);
+        lexer.setScanListener(run);
+        lexer.analyze(source, run.tokens);
+        run.close();
+        return run;
+    }
+
+    /*
+     * Run of the analyzer over a chunk. Points before the scans are logged in the order of their start indexes, start
+     * indexes of the analyzer never decrease.
+     */
+    private static class Run implements ScanListener {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final LexerSession lexer;
+        private final int end;
+        private final List<Run> previous;
+        private final int[] cursors;
+
+        private final TokenArray tokens = new TokenArray(INITIAL_CAPACITY);
+
+        private int size;
+        private int[] starts = new int[INITIAL_CAPACITY];
+        private int[] finishes = new int[INITIAL_CAPACITY];
+        private String[] states = new String[INITIAL_CAPACITY];
+        private int[] lines = new int[INITIAL_CAPACITY];
+        private int[] tokenCounts = new int[INITIAL_CAPACITY];
+
+        // The last point, the run either ended at the end of the chunk or merged into the target run at it.
+        private boolean stopped;
+        private Run target;
+        private int targetPoint;
+
+        public Run(final LexerSession lexer, final int end, final List<Run> previous) {
+            this.lexer = lexer;
+            this.end = end;
+            this.previous = new ArrayList<>(previous);
+            cursors = new int[previous.size()];
+        }
+
+        @Override
+        public boolean scanStarting(final LexerSession lexer) {
+            log();
+            if ((lexer.getFinishIndex() + 1) >= end) {
+                stopped = true;
+                return false;
+            }
+
+            for (int i = 0; i < previous.size(); i++) {
+                final Run run = previous.get(i);
+                cursors[i] = run.find(lexer, cursors[i]);
+                final int point = run.indexOf(lexer, cursors[i]);
+                if (point >= 0) {
+                    stopped = true;
+                    target = run;
+                    targetPoint = point;
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /*
+         * Logs the end of the source as the last point if the run wasn't stopped.
+         */
+        public void close() {
+            if (!stopped) {
+                log();
+            }
+        }
+
+        /*
+         * Returns the first point at or after the cursor whose start index isn't before the start index of the
+         * analyzer.
+         */
+        public int find(final LexerSession lexer, final int cursor) {
+            int point = cursor;
+            while ((point < size) && (starts[point] < lexer.getStartIndex())) {
+                point++;
+            }
+            return point;
+        }
+
+        /*
+         * Returns the logged point equal to the current point of the analyzer, starting the search at the first point
+         * with the same start index, or -1 if there is no such point.
+         */
+        public int indexOf(final LexerSession lexer, final int first) {
+            return indexOf(lexer.getStartIndex(), lexer.getFinishIndex(), lexer.getCurrentState().getName(), first);
+        }
+
+        public int indexOf(final int start, final int finish, final String state, final int first) {
+            for (int point = first; (point < size) && (starts[point] == start); point++) {
+                if ((finishes[point] == finish) && states[point].equals(state)) {
+                    return point;
+                }
+            }
+            return -1;
+        }
+
+        /*
+         * Returns the logged point equal to the specified point, or -1 if there is no such point.
+         */
+        public int search(final int start, final int finish, final String state) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (starts[middle] < start) {
+                    low = middle + 1;
+                }
+                else {
+                    high = middle;
+                }
+            }
+            return indexOf(start, finish, state, low);
+        }
+
+        private void log() {
+            if (size == starts.length) {
+                final int capacity = size * 2;
+                starts = Arrays.copyOf(starts, capacity);
+                finishes = Arrays.copyOf(finishes, capacity);
+                states = Arrays.copyOf(states, capacity);
+                lines = Arrays.copyOf(lines, capacity);
+                tokenCounts = Arrays.copyOf(tokenCounts, capacity);
+            }
+
+            starts[size] = lexer.getStartIndex();
+            finishes[size] = lexer.getFinishIndex();
+            states[size] = lexer.getCurrentState().getName();
+            lines[size] = lexer.getLineCounter();
+            tokenCounts[size] = tokens.size();
+            size++;
+        }
+    }
+
+    /*
+     * Passes the tokens of the runs to the token sink in the order of the sequential analysis.
+     */
+    private class Stitcher {
+
+        private final TokenSink tokenSink;
+
+        // Line of the analysis at the last point of the last emitted run.
+        private int line;
+
+        public Stitcher(final TokenSink tokenSink) {
+            this.tokenSink = tokenSink;
+        }
+
+        /*
+         * Continues the analysis from the last point of the run with the runs of the next chunk.
+         */
+        public Run continueWith(final List<Run> runs, final Run last, final int chunk) {
+            final int point = last.size - 1;
+            final int start = last.starts[point];
+            final int finish = last.finishes[point];
+            final String state = last.states[point];
+
+            for (final Run run : runs) {
+                final int found = run.search(start, finish, state);
+                if (found >= 0) {
+                    return emit(run, found, line - run.lines[found]);
+                }
+            }
+
+            // No run of the chunk reached the point, the chunk is analyzed again from it.
+            final Run run = analyze(state, start, finish, chunkStarts[chunk + 1], new ArrayList<Run>());
+            return emit(run, 0, line - 1);
+        }
+
+        /*
+         * Emits the tokens of the run from the point, following the merges of the run. Returns the run which reached
+         * the end of the chunk.
+         */
+        public Run emit(final Run first, final int point, final int firstOffset) {
+            Run run = first;
+            int from = run.tokenCounts[point];
+            int offset = firstOffset;
+            while (true) {
+                final int last = run.size - 1;
+                for (int i = from; i < run.tokenCounts[last]; i++) {
+                    tokenSink.accept(run.tokens.getType(i), run.tokens.getLine(i) + offset, source,
+                            run.tokens.getStart(i), run.tokens.getEnd(i));
+                }
+
+                if (run.target == null) {
+                    line = run.lines[last] + offset;
+                    return run;
+                }
+
+                offset += run.lines[last] - run.target.lines[run.targetPoint];
+                from = run.target.tokenCounts[run.targetPoint];
+                run = run.target;
+            }
+        }
+    }
+}
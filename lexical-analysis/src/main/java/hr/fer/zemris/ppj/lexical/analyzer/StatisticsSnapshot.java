@@ -0,0 +1,301 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <code>StatisticsSnapshot</code> is a immutable copy of the counters of the {@link LexerStatistics}, created with
+ * {@link LexerStatistics#snapshot()}. It can be written as JSON: a object with the array <code>states</code>, each
+ * state with its name, counters and the array <code>rules</code> of the counters of its rules.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.1
+ */
+public final class StatisticsSnapshot {
+
+    /**
+     * <code>RuleEntry</code> contains the counters of a rule.
+     *
+     * @author Jan Kelemen
+     *
+     * @version 1.1
+     */
+    public static final class RuleEntry {
+
+        private final int index;
+        private final String actions;
+        private final long steps;
+        private final long liveSteps;
+        private final long matches;
+        private final long rejected;
+        private final long backtrack;
+
+        /**
+         * Class constructor, specifies the rule and its counters.
+         *
+         * @param index
+         *            index of the rule in its lexer state.
+         * @param actions
+         *            the actions of the rule, delimited by spaces.
+         * @param steps
+         *            number of the characters read by the scans which ended with the match of the rule.
+         * @param liveSteps
+         *            number of the steps of all scans after which the rule could still match.
+         * @param matches
+         *            number of the matches.
+         * @param rejected
+         *            number of the matches rejected by the rule.
+         * @param backtrack
+         *            number of the characters read after the ends of the matches.
+         * @since 1.1
+         */
+        public RuleEntry(final int index, final String actions, final long steps, final long liveSteps,
+                final long matches, final long rejected, final long backtrack) {
+            this.index = index;
+            this.actions = actions;
+            this.steps = steps;
+            this.liveSteps = liveSteps;
+            this.matches = matches;
+            this.rejected = rejected;
+            this.backtrack = backtrack;
+        }
+
+        /**
+         * @return index of the rule in its lexer state.
+         * @since 1.0
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the actions of the rule, delimited by spaces.
+         * @since 1.0
+         */
+        public String getActions() {
+            return actions;
+        }
+
+        /**
+         * @return number of the characters read by the scans which ended with the match of the rule.
+         * @since 1.0
+         */
+        public long getSteps() {
+            return steps;
+        }
+
+        /**
+         * @return number of the steps of all scans after which the rule could still match.
+         * @since 1.1
+         */
+        public long getLiveSteps() {
+            return liveSteps;
+        }
+
+        /**
+         * @return number of the matches.
+         * @since 1.0
+         */
+        public long getMatches() {
+            return matches;
+        }
+
+        /**
+         * @return number of the matches rejected by the rule.
+         * @since 1.0
+         */
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * @return number of the characters read after the ends of the matches.
+         * @since 1.0
+         */
+        public long getBacktrack() {
+            return backtrack;
+        }
+
+        private void appendJson(final StringBuilder builder) {
+            builder.append("{\"index\": ").append(index);
+            builder.append(", \"actions\": ");
+            appendString(builder, actions);
+            builder.append(", \"steps\": ").append(steps);
+            builder.append(", \"liveSteps\": ").append(liveSteps);
+            builder.append(", \"matches\": ").append(matches);
+            builder.append(", \"rejected\": ").append(rejected);
+            builder.append(", \"backtrack\": ").append(backtrack).append('}');
+        }
+    }
+
+    /**
+     * <code>StateEntry</code> contains the counters of a lexer state and its rules.
+     *
+     * @author Jan Kelemen
+     *
+     * @version 1.0
+     */
+    public static final class StateEntry {
+
+        private final String name;
+        private final long nanos;
+        private final long scans;
+        private final long errorSteps;
+        private final long errors;
+        private final List<RuleEntry> rules;
+
+        /**
+         * Class constructor, specifies the lexer state and its counters.
+         *
+         * @param name
+         *            name of the lexer state.
+         * @param nanos
+         *            time spent in the state, in nanoseconds.
+         * @param scans
+         *            number of the scans.
+         * @param errorSteps
+         *            number of the characters read by the scans in which no rule matched.
+         * @param errors
+         *            number of the scans in which no rule matched.
+         * @param rules
+         *            counters of the rules, in the order of the rules.
+         * @since 1.0
+         */
+        public StateEntry(final String name, final long nanos, final long scans, final long errorSteps,
+                final long errors, final List<RuleEntry> rules) {
+            this.name = name;
+            this.nanos = nanos;
+            this.scans = scans;
+            this.errorSteps = errorSteps;
+            this.errors = errors;
+            this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        }
+
+        /**
+         * @return name of the lexer state.
+         * @since 1.0
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return time spent in the state, in nanoseconds.
+         * @since 1.0
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return number of the scans.
+         * @since 1.0
+         */
+        public long getScans() {
+            return scans;
+        }
+
+        /**
+         * @return number of the characters read by the scans in which no rule matched.
+         * @since 1.0
+         */
+        public long getErrorSteps() {
+            return errorSteps;
+        }
+
+        /**
+         * @return number of the scans in which no rule matched, each skipped a character.
+         * @since 1.0
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return counters of the rules, in the order of the rules.
+         * @since 1.0
+         */
+        public List<RuleEntry> getRules() {
+            return rules;
+        }
+
+        private void appendJson(final StringBuilder builder) {
+            builder.append("    {\"name\": ");
+            appendString(builder, name);
+            builder.append(", \"nanos\": ").append(nanos);
+            builder.append(", \"scans\": ").append(scans);
+            builder.append(", \"errorSteps\": ").append(errorSteps);
+            builder.append(", \"errors\": ").append(errors);
+            builder.append(", \"rules\": [");
+            for (int i = 0; i < rules.size(); i++) {
+                builder.append(i > 0 ? ",\n      " : "\n      ");
+                rules.get(i).appendJson(builder);
+            }
+            builder.append(rules.isEmpty() ? "]}" : "\n    ]}");
+        }
+    }
+
+    private final List<StateEntry> states;
+
+    /**
+     * Class constructor, specifies the counters of the lexer states.
+     *
+     * @param states
+     *            counters of the lexer states, in the order in which they were entered.
+     * @since 1.0
+     */
+    public StatisticsSnapshot(final List<StateEntry> states) {
+        this.states = Collections.unmodifiableList(new ArrayList<>(states));
+    }
+
+    /**
+     * @return counters of the lexer states, in the order in which they were entered.
+     * @since 1.0
+     */
+    public List<StateEntry> getStates() {
+        return states;
+    }
+
+    /**
+     * Returns the snapshot as JSON.
+     *
+     * @return the JSON text.
+     * @since 1.0
+     */
+    public String toJson() {
+        final StringBuilder builder = new StringBuilder("{\"states\": [");
+        for (int i = 0; i < states.size(); i++) {
+            builder.append(i > 0 ? ",\n" : "\n");
+            states.get(i).appendJson(builder);
+        }
+        builder.append(states.isEmpty() ? "]}\n" : "\n]}\n");
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    /*
+     * Appends the string as a JSON string literal, the quotes, the backslashes and the control characters are escaped.
+     */
+    private static void appendString(final StringBuilder builder, final String string) {
+        builder.append('"');
+        for (int i = 0; i < string.length(); i++) {
+            final char c = string.charAt(i);
+            if ((c == '"') || (c == '\\')) {
+                builder.append('\\').append(c);
+            }
+            else if (c < ' ') {
+                builder.append(String.format("\\u%04x", (int) c));
+            }
+            else {
+                builder.append(c);
+            }
+        }
+        builder.append('"');
+    }
+}
@@ -0,0 +1,61 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * <code>TextTokenSink</code> is a token sink which writes the tokens in the text format of the lexical analyzer, a
+ * line with the name of the token type, the line number and the text of the token for each token. The text is written
+ * directly from the source buffer to a buffered writer, the writer is flushed when the analysis is finished.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+public class TextTokenSink implements TokenSink {
+
+    private final BufferedWriter writer;
+    private final List<String> tokenTypes;
+
+    /**
+     * Class constructor, specifies the writer and the names of the token types.
+     *
+     * @param writer
+     *            the writer.
+     * @param tokenTypes
+     *            names of the token types, indexed by the id of the type.
+     * @since 1.0
+     */
+    public TextTokenSink(final Writer writer, final List<String> tokenTypes) {
+        this.writer = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer);
+        this.tokenTypes = tokenTypes;
+    }
+
+    @Override
+    public void accept(final int type, final int line, final SourceBuffer source, final int start, final int end) {
+        try {
+            writer.write(tokenTypes.get(type));
+            writer.write(' ');
+            writer.write(Integer.toString(line));
+            writer.write(' ');
+            source.write(writer, start, end);
+            writer.newLine();
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void finish() {
+        try {
+            writer.flush();
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
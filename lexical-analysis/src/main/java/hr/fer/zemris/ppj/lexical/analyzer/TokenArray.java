@@ -0,0 +1,126 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+import java.util.Arrays;
+
+/**
+ * <code>TokenArray</code> is a token sink which keeps the tokens in memory as primitive arrays. Each token is stored
+ * as its type, line and offsets in the source, so the tokens can be passed to the next phase of the translation without
+ * creating a object for each token. The text of a token can be read from the source if the whole source is kept.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.1
+ */
+public class TokenArray implements TokenSink {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private int[] types;
+    private int[] lines;
+    private int[] starts;
+    private int[] ends;
+    private int size;
+
+    /**
+     * Class constructor, creates a empty array with the default capacity.
+     *
+     * @since 1.0
+     */
+    public TokenArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Class constructor, creates a empty array with the specified capacity.
+     *
+     * @param capacity
+     *            the initial number of tokens which fit in the array.
+     * @since 1.1
+     */
+    public TokenArray(final int capacity) {
+        types = new int[Math.max(1, capacity)];
+        lines = new int[types.length];
+        starts = new int[types.length];
+        ends = new int[types.length];
+    }
+
+    @Override
+    public void accept(final int type, final int line, final SourceBuffer source, final int start, final int end) {
+        if (size == types.length) {
+            final int capacity = types.length * 2;
+            types = Arrays.copyOf(types, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+
+        types[size] = type;
+        lines[size] = line;
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    @Override
+    public void finish() {
+        // Tokens are already stored.
+    }
+
+    /**
+     * Returns the number of tokens.
+     *
+     * @return the number of tokens.
+     * @since 1.0
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the type of the token.
+     *
+     * @param index
+     *            index of the token.
+     * @return id of the token type.
+     * @since 1.0
+     */
+    public int getType(final int index) {
+        return types[index];
+    }
+
+    /**
+     * Returns the line of the token.
+     *
+     * @param index
+     *            index of the token.
+     * @return the line.
+     * @since 1.0
+     */
+    public int getLine(final int index) {
+        return lines[index];
+    }
+
+    /**
+     * Returns the offset of the first character of the token.
+     *
+     * @param index
+     *            index of the token.
+     * @return the offset, inclusive.
+     * @since 1.0
+     */
+    public int getStart(final int index) {
+        return starts[index];
+    }
+
+    /**
+     * Returns the offset after the last character of the token.
+     *
+     * @param index
+     *            index of the token.
+     * @return the offset, exclusive.
+     * @since 1.0
+     */
+    public int getEnd(final int index) {
+        return ends[index];
+    }
+}
@@ -0,0 +1,36 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+/**
+ * <code>TokenSink</code> is a interface for the consumers of the tokens found by the lexical analyzer. Tokens are
+ * passed as primitive values, the text of the token is in the source buffer between the start and the end offset.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+public interface TokenSink {
+
+    /**
+     * Accepts the token found by the lexical analyzer.
+     *
+     * @param type
+     *            id of the token type.
+     * @param line
+     *            the line in which the token was found.
+     * @param source
+     *            the source which contains the token, the text of the token is available only during this call.
+     * @param start
+     *            offset of the first character of the token, inclusive.
+     * @param end
+     *            offset of the last character of the token, exclusive.
+     * @since 1.0
+     */
+    void accept(int type, int line, SourceBuffer source, int start, int end);
+
+    /**
+     * Called after the whole source is analyzed.
+     *
+     * @since 1.0
+     */
+    void finish();
+}
@@ -1,6 +1,6 @@
 package hr.fer.zemris.ppj.lexical.analyzer.actions;
 
-import hr.fer.zemris.ppj.lexical.analyzer.LexicalAnalyzer;
+import hr.fer.zemris.ppj.lexical.analyzer.LexerSession;
 
 /**
  * <code>EnterStateAction</code> is a lexical analyzer action which changes the current state of the lexical analyzer.
@@ -8,7 +8,7 @@ import hr.fer.zemris.ppj.lexical.analyzer.LexicalAnalyzer;
  * @author Filip Gulan
  * @author Jan Kelemen
  *
- * @version 1.0
+ * @version 1.1
  */
 public class EnterStateAction implements LexerAction {
 
@@ -34,7 +34,7 @@ public class EnterStateAction implements LexerAction {
     }
 
     @Override
-    public void execute(final LexicalAnalyzer lexer) {
+    public void execute(final LexerSession lexer) {
         lexer.setCurrentStateFromName(newState);
     }
 
@@ -1,6 +1,6 @@
 package hr.fer.zemris.ppj.lexical.analyzer.actions;
 
-import hr.fer.zemris.ppj.lexical.analyzer.LexicalAnalyzer;
+import hr.fer.zemris.ppj.lexical.analyzer.LexerSession;
 
 /**
  * <code>LexerAction</code> is a interface for lexical analyzer actions.
@@ -8,18 +8,18 @@ import hr.fer.zemris.ppj.lexical.analyzer.LexicalAnalyzer;
  * @author Filip Gulan
  * @author Jan Kelemen
  *
- * @version 1.0
+ * @version 1.1
  */
 public interface LexerAction extends Comparable<LexerAction> {
 
     /**
-     * Executes the action on the given lexical analyzer.
+     * Executes the action on the given session of the lexical analyzer.
      *
      * @param lexer
-     *            the lexical analyzer.
+     *            the session of the lexical analyzer.
      * @since 1.0
      */
-    void execute(LexicalAnalyzer lexer);
+    void execute(LexerSession lexer);
 
     /**
      * Returns the priority of the action.
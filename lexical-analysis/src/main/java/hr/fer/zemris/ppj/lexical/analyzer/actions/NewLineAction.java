@@ -1,6 +1,6 @@
 package hr.fer.zemris.ppj.lexical.analyzer.actions;
 
-import hr.fer.zemris.ppj.lexical.analyzer.LexicalAnalyzer;
+import hr.fer.zemris.ppj.lexical.analyzer.LexerSession;
 
 /**
  * <code>NewLineAction</code> is a lexical analyzer action which changes the current line count of the lexical analyzer.
@@ -8,7 +8,7 @@ import hr.fer.zemris.ppj.lexical.analyzer.LexicalAnalyzer;
  * @author Filip Gulan
  * @author Jan Kelemen
  *
- * @version 1.0
+ * @version 1.1
  */
 public class NewLineAction implements LexerAction {
 
@@ -20,7 +20,7 @@ public class NewLineAction implements LexerAction {
     private final int PRIORITY = 2;
 
     @Override
-    public void execute(final LexicalAnalyzer lexer) {
+    public void execute(final LexerSession lexer) {
         lexer.incrementLineCounter();
     }
 
@@ -1,6 +1,6 @@
 package hr.fer.zemris.ppj.lexical.analyzer.actions;
 
-import hr.fer.zemris.ppj.lexical.analyzer.LexicalAnalyzer;
+import hr.fer.zemris.ppj.lexical.analyzer.LexerSession;
 
 /**
  * <code>RejectAction</code> is a lexical analyzer action which rejects the matched lexeme.
@@ -8,7 +8,7 @@ import hr.fer.zemris.ppj.lexical.analyzer.LexicalAnalyzer;
  * @author Filip Gulan
  * @author Jan Kelemen
  *
- * @version 1.0
+ * @version 1.1
  */
 public class RejectAction implements LexerAction {
 
@@ -20,7 +20,7 @@ public class RejectAction implements LexerAction {
     private final int PRIORITY = 1;
 
     @Override
-    public void execute(final LexicalAnalyzer lexer) {
+    public void execute(final LexerSession lexer) {
         lexer.setStartIndex(lexer.getFinishIndex() + 1);
     }
 
@@ -1,6 +1,6 @@
 package hr.fer.zemris.ppj.lexical.analyzer.actions;
 
-import hr.fer.zemris.ppj.lexical.analyzer.LexicalAnalyzer;
+import hr.fer.zemris.ppj.lexical.analyzer.LexerSession;
 
 /**
  * <code>ReturnAction</code> is a lexical analyzer action which changes the point at which the matched lexeme ends.
@@ -8,7 +8,7 @@ import hr.fer.zemris.ppj.lexical.analyzer.LexicalAnalyzer;
  * @author Filip Gulan
  * @author Jan Kelemen
  *
- * @version 1.0
+ * @version 1.1
  */
 public class ReturnAction implements LexerAction {
 
@@ -33,7 +33,7 @@ public class ReturnAction implements LexerAction {
     }
 
     @Override
-    public void execute(final LexicalAnalyzer lexer) {
+    public void execute(final LexerSession lexer) {
         final int startOffset = (lexer.getStartIndex() + offset) - 1;
         lexer.setFinishIndex(startOffset);
         lexer.setLastIndex(startOffset);
@@ -1,6 +1,6 @@
 package hr.fer.zemris.ppj.lexical.analyzer.actions;
 
-import hr.fer.zemris.ppj.lexical.analyzer.LexicalAnalyzer;
+import hr.fer.zemris.ppj.lexical.analyzer.LexerSession;
 
 /**
  * <code>TokenizeAction</code> is a lexical analyzer action accepts the matched token as the lexeme.
@@ -8,7 +8,7 @@ import hr.fer.zemris.ppj.lexical.analyzer.LexicalAnalyzer;
  * @author Filip Gulan
  * @author Jan Kelemen
  *
- * @version 1.0
+ * @version 1.1
  */
 public class TokenizeAction implements LexerAction {
 
@@ -28,9 +28,19 @@ public class TokenizeAction implements LexerAction {
         this.token = token;
     }
 
+    /**
+     * Returns the name of the lexeme.
+     *
+     * @return the name.
+     * @since 1.1
+     */
+    public String getToken() {
+        return token;
+    }
+
     @Override
-    public void execute(final LexicalAnalyzer lexer) {
-        lexer.getOutput().println(token + " " + lexer.getLineCounter() + " " + lexer.getCurrentPhrase());
+    public void execute(final LexerSession lexer) {
+        lexer.emitToken(lexer.getTokenType(token));
         lexer.setStartIndex(lexer.getFinishIndex() + 1);
     }
 
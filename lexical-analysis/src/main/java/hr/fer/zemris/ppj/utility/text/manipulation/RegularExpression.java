@@ -0,0 +1,380 @@
+package hr.fer.zemris.ppj.utility.text.manipulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <code>RegularExpression</code> is a immutable syntax tree of a regular expression, created by
+ * {@link RegularExpressionManipulator#parse(String)}. A node is a symbol, the empty sequence, a Kleene star of a
+ * expression, or a concatenation or alternation of at least two expressions. <br>
+ * The text of a expression is its canonical form: brackets are written only where they are needed and the special
+ * symbols are escaped, so expressions which differ only in redundant brackets have the same text.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.1
+ */
+public final class RegularExpression {
+
+    /**
+     * <code>Type</code> is the type of a node of the syntax tree.
+     *
+     * @author Jan Kelemen
+     *
+     * @version 1.0
+     */
+    public enum Type {
+        /**
+         * A single symbol.
+         */
+        SYMBOL,
+        /**
+         * The empty sequence, written as <code>$</code>.
+         */
+        EMPTY_SEQUENCE,
+        /**
+         * Kleene star of the only child.
+         */
+        KLEENE_STAR,
+        /**
+         * Concatenation of the children.
+         */
+        CONCATENATION,
+        /**
+         * Alternation of the children.
+         */
+        ALTERNATION
+    }
+
+    private static final RegularExpression EMPTY_SEQUENCE =
+            new RegularExpression(Type.EMPTY_SEQUENCE, '\0', Collections.<RegularExpression> emptyList());
+
+    private static final String SPECIAL_SYMBOLS = "\\()|*${}";
+
+    private final Type type;
+    private final char symbol;
+    private final List<RegularExpression> children;
+
+    // The text is built on the first request, the tree can't change after that.
+    private String text;
+
+    private RegularExpression(final Type type, final char symbol, final List<RegularExpression> children) {
+        this.type = type;
+        this.symbol = symbol;
+        this.children = children;
+    }
+
+    /**
+     * Creates a expression which matches the symbol.
+     *
+     * @param symbol
+     *            the symbol.
+     * @return the expression.
+     * @since 1.0
+     */
+    public static RegularExpression symbol(final char symbol) {
+        return new RegularExpression(Type.SYMBOL, symbol, Collections.<RegularExpression> emptyList());
+    }
+
+    /**
+     * @return expression which matches the empty sequence.
+     * @since 1.0
+     */
+    public static RegularExpression emptySequence() {
+        return EMPTY_SEQUENCE;
+    }
+
+    /**
+     * Creates the Kleene star of the expression.
+     *
+     * @param expression
+     *            the expression.
+     * @return the Kleene star.
+     * @since 1.0
+     */
+    public static RegularExpression kleeneStar(final RegularExpression expression) {
+        return new RegularExpression(Type.KLEENE_STAR, '\0', Collections.singletonList(expression));
+    }
+
+    /**
+     * Creates the concatenation of the expressions.
+     *
+     * @param expressions
+     *            the expressions.
+     * @return the concatenation, the empty sequence if there are no expressions, or the expression if there is only
+     *         one.
+     * @since 1.0
+     */
+    public static RegularExpression concatenation(final List<RegularExpression> expressions) {
+        return composite(Type.CONCATENATION, expressions);
+    }
+
+    /**
+     * Creates the alternation of the expressions.
+     *
+     * @param expressions
+     *            the expressions.
+     * @return the alternation, the empty sequence if there are no expressions, or the expression if there is only
+     *         one.
+     * @since 1.0
+     */
+    public static RegularExpression alternation(final List<RegularExpression> expressions) {
+        return composite(Type.ALTERNATION, expressions);
+    }
+
+    /**
+     * @return type of the node.
+     * @since 1.0
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the symbol, if the node is a symbol.
+     * @since 1.0
+     */
+    public char getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * @return the children of the node, in the order of the expression.
+     * @since 1.0
+     */
+    public List<RegularExpression> getChildren() {
+        return children;
+    }
+
+    /**
+     * Returns the literal matched by the expression, if the expression is a symbol or a concatenation of symbols.
+     *
+     * @return the literal, or <code>null</code> if the expression matches more than one sequence.
+     * @since 1.1
+     */
+    public String getLiteral() {
+        if (type == Type.SYMBOL) {
+            return String.valueOf(symbol);
+        }
+        if (type != Type.CONCATENATION) {
+            return null;
+        }
+
+        final StringBuilder literal = new StringBuilder();
+        for (final RegularExpression child : children) {
+            if (child.type != Type.SYMBOL) {
+                return null;
+            }
+            literal.append(child.symbol);
+        }
+        return literal.toString();
+    }
+
+    /**
+     * Factors the common prefixes out of the alternations, so alternatives which start with the same symbol share it:
+     * <code>if|int|inline</code> becomes <code>i(f|n(t|line))</code>. The language of the expression doesn't change,
+     * but automatons generated from it have fewer states.
+     *
+     * @return the factored expression, or this expression if nothing can be factored.
+     * @since 1.0
+     */
+    public RegularExpression factorPrefixes() {
+        switch (type) {
+            case KLEENE_STAR: {
+                final RegularExpression child = children.get(0).factorPrefixes();
+                return child == children.get(0) ? this : kleeneStar(child);
+            }
+            case CONCATENATION: {
+                final List<RegularExpression> factored = new ArrayList<>();
+                boolean changed = false;
+                for (final RegularExpression child : children) {
+                    factored.add(child.factorPrefixes());
+                    changed |= factored.get(factored.size() - 1) != child;
+                }
+                return changed ? concatenation(factored) : this;
+            }
+            case ALTERNATION:
+                return factorAlternatives();
+            default:
+                return this;
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (text == null) {
+            final StringBuilder builder = new StringBuilder();
+            append(builder);
+            text = builder.toString();
+        }
+        return text;
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof RegularExpression)) {
+            return false;
+        }
+        return toString().equals(obj.toString());
+    }
+
+    private static RegularExpression composite(final Type type, final List<RegularExpression> expressions) {
+        if (expressions.isEmpty()) {
+            return EMPTY_SEQUENCE;
+        }
+        if (expressions.size() == 1) {
+            return expressions.get(0);
+        }
+        return new RegularExpression(type, '\0', Collections.unmodifiableList(new ArrayList<>(expressions)));
+    }
+
+    /*
+     * Groups the alternatives by the first symbol, alternatives of a group are replaced with the first symbol
+     * followed by the factored alternation of their rests. Groups keep the order of their first alternatives, and
+     * repeated alternatives are removed.
+     */
+    private RegularExpression factorAlternatives() {
+        final Map<Object, List<RegularExpression>> groups = new LinkedHashMap<>();
+        for (final RegularExpression child : children) {
+            final RegularExpression factored = child.factorPrefixes();
+            final Object key = factored.firstSymbol() == null ? new Object() : factored.firstSymbol();
+            List<RegularExpression> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(key, group);
+            }
+            if (!group.contains(factored)) {
+                group.add(factored);
+            }
+        }
+
+        final List<RegularExpression> alternatives = new ArrayList<>();
+        for (final List<RegularExpression> group : groups.values()) {
+            if (group.size() == 1) {
+                alternatives.add(group.get(0));
+                continue;
+            }
+
+            final List<RegularExpression> rests = new ArrayList<>();
+            for (final RegularExpression alternative : group) {
+                rests.add(alternative.withoutFirstSymbol());
+            }
+            final List<RegularExpression> prefixed = new ArrayList<>();
+            prefixed.add(group.get(0).firstSymbol());
+            final RegularExpression rest = alternation(rests).factorPrefixes();
+            if (rest.type == Type.CONCATENATION) {
+                prefixed.addAll(rest.children);
+            }
+            else {
+                prefixed.add(rest);
+            }
+            alternatives.add(concatenation(prefixed));
+        }
+
+        final RegularExpression factored = alternation(alternatives);
+        return factored.equals(this) ? this : factored;
+    }
+
+    /*
+     * Returns the symbol the expression starts with, or null if it doesn't start with a symbol.
+     */
+    private RegularExpression firstSymbol() {
+        if (type == Type.SYMBOL) {
+            return this;
+        }
+        if ((type == Type.CONCATENATION) && (children.get(0).type == Type.SYMBOL)) {
+            return children.get(0);
+        }
+        return null;
+    }
+
+    private RegularExpression withoutFirstSymbol() {
+        if (type == Type.SYMBOL) {
+            return EMPTY_SEQUENCE;
+        }
+        return concatenation(children.subList(1, children.size()));
+    }
+
+    private void append(final StringBuilder builder) {
+        switch (type) {
+            case SYMBOL:
+                appendSymbol(builder, symbol);
+                break;
+            case EMPTY_SEQUENCE:
+                builder.append('$');
+                break;
+            case KLEENE_STAR:
+                children.get(0).appendAtom(builder, true);
+                builder.append('*');
+                break;
+            case CONCATENATION:
+                for (final RegularExpression child : children) {
+                    child.appendAtom(builder, false);
+                }
+                break;
+            case ALTERNATION:
+                for (int i = 0; i < children.size(); i++) {
+                    if (i > 0) {
+                        builder.append('|');
+                    }
+                    final RegularExpression child = children.get(i);
+                    if (child.type == Type.ALTERNATION) {
+                        child.appendBracketed(builder);
+                    }
+                    else {
+                        child.append(builder);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /*
+     * Appends the expression as a operand of a concatenation or a Kleene star, composite expressions are bracketed.
+     */
+    private void appendAtom(final StringBuilder builder, final boolean starred) {
+        if ((type == Type.CONCATENATION) || (type == Type.ALTERNATION) || (starred && (type == Type.KLEENE_STAR))) {
+            appendBracketed(builder);
+        }
+        else {
+            append(builder);
+        }
+    }
+
+    private void appendBracketed(final StringBuilder builder) {
+        builder.append('(').append(toString()).append(')');
+    }
+
+    private static void appendSymbol(final StringBuilder builder, final char symbol) {
+        switch (symbol) {
+            case '\t':
+                builder.append("\\t");
+                break;
+            case '\n':
+                builder.append("\\n");
+                break;
+            case ' ':
+                builder.append("\\_");
+                break;
+            default:
+                if (SPECIAL_SYMBOLS.indexOf(symbol) >= 0) {
+                    builder.append('\\');
+                }
+                builder.append(symbol);
+                break;
+        }
+    }
+}
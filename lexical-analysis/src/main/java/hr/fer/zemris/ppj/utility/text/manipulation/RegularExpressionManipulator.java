@@ -10,7 +10,7 @@ import java.util.Map;
  *
  * @author Jan Kelemen
  *
- * @version 1.0.1
+ * @version 1.2.0
  */
 public class RegularExpressionManipulator {
 
@@ -32,6 +32,18 @@ public class RegularExpressionManipulator {
         }
     }
 
+    /**
+     * Parses the regular expression to a syntax tree in a single pass.
+     *
+     * @param expression
+     *            the regular expression, without regular definitions.
+     * @return the syntax tree.
+     * @since 1.2.0
+     */
+    public static RegularExpression parse(final String expression) {
+        return new RegularExpressionParser(expression).parse();
+    }
+
     /**
      * Finds a matching closing bracket for the opening bracket at specified index <code>index</code>.
      *
@@ -152,7 +164,7 @@ public class RegularExpressionManipulator {
      * @since 1.0.0
      */
     public String removeRegularDefinitions(final String expression) {
-        String newExpression = "";
+        final StringBuilder newExpression = new StringBuilder(expression.length());
         for (int i = 0; i < expression.length(); i++) {
             if ((expression.charAt(i) == '{') && !isEscaped(expression, i)) {
                 final int closingBracketIndex = findClosingBracket(expression, i, '{', '}');
@@ -167,15 +179,27 @@ public class RegularExpressionManipulator {
                             "Expression: " + expression + ", contains a unknown regular definition.");
                 }
 
-                newExpression += "(" + regularDefinitions.get(regularDefinitionName) + ")";
+                newExpression.append('(').append(regularDefinitions.get(regularDefinitionName)).append(')');
 
                 i = closingBracketIndex;
             }
             else {
-                newExpression += expression.charAt(i);
+                newExpression.append(expression.charAt(i));
             }
         }
-        return newExpression;
+        return newExpression.toString();
+    }
+
+    /**
+     * Returns the regular expression of the regular definition, without the regular definitions it uses.
+     *
+     * @param name
+     *            name of the regular definition.
+     * @return the regular expression, or <code>null</code> if the regular definition is unknown.
+     * @since 1.1.0
+     */
+    public String getRegularDefinition(final String name) {
+        return regularDefinitions.get(name);
     }
 
     /**
@@ -0,0 +1,115 @@
+package hr.fer.zemris.ppj.utility.text.manipulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <code>RegularExpressionParser</code> is a recursive descent parser of regular expressions. The expression is read
+ * once from the start to the end, so escapes and brackets are resolved as they're read instead of being searched for.
+ * <br>
+ * Grammar: <br>
+ * alternation := concatenation ('|' concatenation)* <br>
+ * concatenation := (atom '*'?)* <br>
+ * atom := '\' symbol | '(' alternation ')' | '$' | symbol <br>
+ * Escaped <code>t</code>, <code>n</code> and <code>_</code> are the tab, the new line and the space. A unmatched
+ * closing bracket is skipped.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+class RegularExpressionParser {
+
+    private final String expression;
+    private int index;
+
+    /**
+     * Class constructor, specifies the expression.
+     *
+     * @param expression
+     *            the expression.
+     * @since 1.0
+     */
+    public RegularExpressionParser(final String expression) {
+        this.expression = expression;
+    }
+
+    /**
+     * Parses the expression.
+     *
+     * @return the syntax tree of the expression.
+     * @since 1.0
+     */
+    public RegularExpression parse() {
+        final List<RegularExpression> parts = new ArrayList<>();
+        parts.add(alternation());
+        while (index < expression.length()) {
+            index++; // Unmatched closing bracket
+            parts.add(alternation());
+        }
+        return RegularExpression.concatenation(parts);
+    }
+
+    private RegularExpression alternation() {
+        final List<RegularExpression> alternatives = new ArrayList<>();
+        alternatives.add(concatenation());
+        while ((index < expression.length()) && (expression.charAt(index) == '|')) {
+            index++;
+            alternatives.add(concatenation());
+        }
+        return RegularExpression.alternation(alternatives);
+    }
+
+    private RegularExpression concatenation() {
+        final List<RegularExpression> operands = new ArrayList<>();
+        while ((index < expression.length()) && (expression.charAt(index) != '|')
+                && (expression.charAt(index) != ')')) {
+            RegularExpression operand = atom();
+            if ((index < expression.length()) && (expression.charAt(index) == '*')) {
+                index++;
+                operand = RegularExpression.kleeneStar(operand);
+            }
+            if (operand.getType() != RegularExpression.Type.EMPTY_SEQUENCE) {
+                operands.add(operand);
+            }
+        }
+        return RegularExpression.concatenation(operands);
+    }
+
+    private RegularExpression atom() {
+        final char symbol = expression.charAt(index++);
+        switch (symbol) {
+            case '\\':
+                if (index == expression.length()) {
+                    return RegularExpression.emptySequence();
+                }
+                return RegularExpression.symbol(unprefixedSymbol(expression.charAt(index++)));
+            case '(':
+                final RegularExpression group = alternation();
+                if (index < expression.length()) {
+                    index++; // Closing bracket
+                }
+                return group;
+            case '$':
+                return RegularExpression.emptySequence();
+            default:
+                return RegularExpression.symbol(symbol);
+        }
+    }
+
+    /*
+     * Used when a prefixed symbol is found in the regular expression to get the real representation of the symbol.
+     */
+    private static char unprefixedSymbol(final char symbol) {
+        switch (symbol) {
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case '_':
+                return ' ';
+            default:
+                return symbol;
+        }
+    }
+}
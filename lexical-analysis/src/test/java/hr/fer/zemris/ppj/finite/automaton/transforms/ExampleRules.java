@@ -0,0 +1,78 @@
+package hr.fer.zemris.ppj.finite.automaton.transforms;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import hr.fer.zemris.ppj.finite.automaton.DFAutomatonTable;
+import hr.fer.zemris.ppj.lexical.analyzer.LexerDefinitionReader;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpression;
+
+/*
+ * Reads the rule expressions of the system test examples with the reader of the GLA, and compares compiled automatons.
+ */
+@SuppressWarnings("javadoc")
+final class ExampleRules {
+
+    // The examples use only characters from this range.
+    static final int CHARACTERS = 256;
+
+    private ExampleRules() {
+    }
+
+    /*
+     * Returns the expressions of the rules of the example grouped by the lexer states, in the order of the input.
+     */
+    static Map<String, List<RegularExpression>> read(final String example) throws IOException {
+        final LexerDefinitionReader definition;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get("system-test", "examples", example, "test.lan"),
+                StandardCharsets.UTF_8)) {
+            definition = new LexerDefinitionReader(reader);
+        }
+
+        final Map<String, List<RegularExpression>> rules = new LinkedHashMap<>();
+        for (final LexerDefinitionReader.RuleDefinition rule : definition.getRules()) {
+            if (!rules.containsKey(rule.getLexerState())) {
+                rules.put(rule.getLexerState(), new ArrayList<RegularExpression>());
+            }
+            rules.get(rule.getLexerState()).add(rule.getExpression().factorPrefixes());
+        }
+        return rules;
+    }
+
+    /*
+     * Checks if the automatons accept the same language, by a breadth first walk of the pairs of their states.
+     */
+    static boolean sameLanguage(final DFAutomatonTable first, final DFAutomatonTable second) {
+        final Map<List<Integer>, Boolean> visited = new HashMap<>();
+        final Queue<List<Integer>> queue = new ArrayDeque<>();
+        final List<Integer> start = Arrays.asList(first.getStartState(), second.getStartState());
+        visited.put(start, true);
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            final List<Integer> pair = queue.remove();
+            if (first.isAcceptState(pair.get(0)) != second.isAcceptState(pair.get(1))) {
+                return false;
+            }
+
+            for (int c = 0; c < CHARACTERS; c++) {
+                final List<Integer> next = Arrays.asList(first.step(pair.get(0), first.getInputClass(c)),
+                        second.step(pair.get(1), second.getInputClass(c)));
+                if (visited.put(next, true) == null) {
+                    queue.add(next);
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,61 @@
+package hr.fer.zemris.ppj.finite.automaton.transforms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import hr.fer.zemris.ppj.finite.automaton.Automatons;
+import hr.fer.zemris.ppj.finite.automaton.DFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.generator.ENFAutomatonGenerator;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Automaton;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpression;
+
+@SuppressWarnings("javadoc")
+public class HopcroftMinimizerTest {
+
+    // The equivalent remover is too slow for the rules of the larger languages.
+    private static final String[] EXAMPLES = { "minusLang_laksi", "nadji_x_retci", "poredak", "regex_escapes",
+            "regex_laksi", "regex_tezi", "state_hopper", "svaki_treci_x", "vrati_se_prioritet" };
+
+    @Test
+    public void testSameAsEquivalentRemover() throws IOException {
+        for (final String example : EXAMPLES) {
+            for (final List<RegularExpression> expressions : ExampleRules.read(example).values()) {
+                for (final RegularExpression expression : expressions) {
+                    final Automaton source = new ENFAutomatonGenerator().fromRegularExpression(expression);
+                    final DFAutomaton hopcroft = Automatons.minimize(source, true);
+                    final DFAutomaton equivalent = Automatons.minimize(source, false);
+
+                    final String message = example + ": " + expression;
+                    assertEquals(message, equivalent.getStates().size(), hopcroft.getStates().size());
+                    assertTrue(message, ExampleRules.sameLanguage(hopcroft.getTable(), equivalent.getTable()));
+                    assertTrue(message, ExampleRules.sameLanguage(hopcroft.getTable(),
+                            Automatons.convertToDFA(source).getTable()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCombinedStatesSameAsEquivalentRemover() throws IOException {
+        for (final String example : EXAMPLES) {
+            for (final List<RegularExpression> expressions : ExampleRules.read(example).values()) {
+                final List<Automaton> sources = new ArrayList<>();
+                for (final RegularExpression expression : expressions) {
+                    sources.add(new ENFAutomatonGenerator().fromRegularExpression(expression));
+                }
+                final Automaton union = new TaggedDFAConverter().transform(sources);
+
+                final DFAutomaton hopcroft = Automatons.minimize(union, true);
+                final DFAutomaton equivalent = Automatons.minimize(union, false);
+                assertEquals(example, equivalent.getStates().size(), hopcroft.getStates().size());
+                assertTrue(example, ExampleRules.sameLanguage(hopcroft.getTable(), equivalent.getTable()));
+            }
+        }
+    }
+}
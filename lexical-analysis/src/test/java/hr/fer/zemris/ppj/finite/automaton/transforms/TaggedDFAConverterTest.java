@@ -0,0 +1,105 @@
+package hr.fer.zemris.ppj.finite.automaton.transforms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+import org.junit.Test;
+
+import hr.fer.zemris.ppj.finite.automaton.Automatons;
+import hr.fer.zemris.ppj.finite.automaton.DFAutomatonTable;
+import hr.fer.zemris.ppj.finite.automaton.TaggedDFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.generator.ENFAutomatonGenerator;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Automaton;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpression;
+
+@SuppressWarnings("javadoc")
+public class TaggedDFAConverterTest {
+
+    // Keywords of the ppjLang overlap with the identifiers.
+    private static final String[] EXAMPLES = { "poredak", "ppjLang_tezi", "regex_tezi", "state_hopper",
+            "vrati_se_prioritet" };
+
+    @Test
+    public void testLowestRuleTagged() throws IOException {
+        for (final String example : EXAMPLES) {
+            for (final List<RegularExpression> expressions : ExampleRules.read(example).values()) {
+                final List<Automaton> sources = new ArrayList<>();
+                final List<DFAutomatonTable> rules = new ArrayList<>();
+                for (final RegularExpression expression : expressions) {
+                    final Automaton source = new ENFAutomatonGenerator().fromRegularExpression(expression);
+                    sources.add(source);
+                    rules.add(Automatons.minimize(source).getTable());
+                }
+
+                assertLowestRuleTagged(example, new TaggedDFAConverter().transform(sources), rules);
+                assertLowestRuleTagged(example, Automatons.combine(sources), rules);
+            }
+        }
+    }
+
+    @Test
+    public void testOverlappingRules() throws IOException {
+        // Both rules of each pair accept the same words, the second rule of a pair is never matched.
+        final List<Automaton> sources = new ArrayList<>();
+        for (final RegularExpression expression : ExampleRules.read("poredak").get("S_p")) {
+            sources.add(new ENFAutomatonGenerator().fromRegularExpression(expression));
+        }
+        final TaggedDFAutomaton combined = Automatons.combine(sources);
+
+        final Set<Integer> tags = new HashSet<>(combined.getTags().values());
+        assertTrue(tags.contains(0));
+        assertTrue(tags.contains(2));
+        assertTrue(!tags.contains(1) && !tags.contains(3));
+    }
+
+    /*
+     * Walks the combined automaton together with the automatons of the rules, the tag of each reachable state must be
+     * the index of the first rule which accepts in it.
+     */
+    private static void assertLowestRuleTagged(final String example, final TaggedDFAutomaton combined,
+            final List<DFAutomatonTable> rules) {
+        final DFAutomatonTable table = combined.getTable();
+        final Set<List<Integer>> visited = new HashSet<>();
+        final Queue<List<Integer>> queue = new ArrayDeque<>();
+        final List<Integer> start = new ArrayList<>();
+        start.add(table.getStartState());
+        for (final DFAutomatonTable rule : rules) {
+            start.add(rule.getStartState());
+        }
+        visited.add(start);
+        queue.add(start);
+
+        while (!queue.isEmpty()) {
+            final List<Integer> states = queue.remove();
+            int expected = TaggedDFAutomaton.NO_TAG;
+            for (int i = 0; (i < rules.size()) && (expected == TaggedDFAutomaton.NO_TAG); i++) {
+                if (rules.get(i).isAcceptState(states.get(i + 1))) {
+                    expected = i;
+                }
+            }
+            final int state = states.get(0);
+            assertEquals(example, expected,
+                    state == DFAutomatonTable.DEAD_STATE ? TaggedDFAutomaton.NO_TAG : table.getTag(state));
+            assertEquals(example, expected != TaggedDFAutomaton.NO_TAG, table.isAcceptState(state));
+
+            for (int c = 0; c < ExampleRules.CHARACTERS; c++) {
+                final List<Integer> next = new ArrayList<>();
+                next.add(table.step(state, table.getInputClass(c)));
+                for (int i = 0; i < rules.size(); i++) {
+                    next.add(rules.get(i).step(states.get(i + 1), rules.get(i).getInputClass(c)));
+                }
+                if (visited.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class AnalyzerDefinitionTest {
+
+    private static final String[] EXAMPLES = { "ppjLang_tezi", "state_hopper", "vrati_se" };
+
+    @Test
+    public void testReadDescribedLikeCompiled() throws IOException {
+        for (final String example : EXAMPLES) {
+            final AnalyzerDefinition compiled = ExampleLexer.definition(example);
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            compiled.write(output);
+            final AnalyzerDefinition read = AnalyzerDefinition.read(ByteBuffer.wrap(output.toByteArray()));
+
+            assertEquals(example, compiled.toString(), read.toString());
+            assertFalse(example, read.toString().contains("null"));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import hr.fer.zemris.ppj.finite.automaton.generator.ENFAutomatonGenerator;
+
+/*
+ * Compiles the lexer of a system test example with the reader of the GLA, and creates it like the LA does.
+ */
+@SuppressWarnings("javadoc")
+final class ExampleLexer {
+
+    private ExampleLexer() {
+    }
+
+    static Path directory(final String example) {
+        return Paths.get("system-test", "examples", example);
+    }
+
+    static String source(final String example) throws IOException {
+        return new String(Files.readAllBytes(directory(example).resolve(Paths.get("analizator", "test.in"))),
+                StandardCharsets.UTF_8).replace("\r\n", "\n");
+    }
+
+    static AnalyzerDefinition definition(final String example) throws IOException {
+        final LexerDefinitionReader definition;
+        try (BufferedReader reader =
+                Files.newBufferedReader(directory(example).resolve("test.lan"), StandardCharsets.UTF_8)) {
+            definition = new LexerDefinitionReader(reader);
+        }
+        return new AnalyzerDefinition(definition.getAnalyzerStates(), definition.getLexemeNames(), definition
+                .compileStates(expression -> new ENFAutomatonGenerator().fromRegularExpression(expression)));
+    }
+
+    static CompiledLexer compile(final String example) throws IOException {
+        return newLexer(definition(example));
+    }
+
+    /*
+     * Creates the lexer from the definition like the LA does, states without rules are created empty.
+     */
+    static CompiledLexer newLexer(final AnalyzerDefinition definition) {
+        final Map<String, LexerState> states = new HashMap<>();
+        for (final String name : definition.getAnalyzerStates()) {
+            states.put(name, new LexerState(name));
+        }
+        for (final LexerState state : definition.getLexerStates()) {
+            states.put(state.getName(), state);
+        }
+        return new CompiledLexer(states, states.get(definition.getAnalyzerStates().get(0)),
+                definition.getLexemeNames());
+    }
+}
@@ -0,0 +1,135 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import hr.fer.zemris.ppj.finite.automaton.DFAutomatonTable;
+
+@SuppressWarnings("javadoc")
+public class LexerSessionTest {
+
+    // Examples which switch the lexer states and return characters to the source.
+    private static final String[] EXAMPLES = { "nadji_x_retci", "state_hopper", "vrati_se", "vrati_se_prioritet" };
+
+    private static final String CONCURRENT_EXAMPLE = "ppjLang_tezi";
+
+    private static final int SESSIONS = 2;
+
+    private static final int ROUNDS = 20;
+
+    private static final int[] CHUNK_SIZES = { 1, 2, 3, 4, 5, 7, 8, 16, 64 };
+
+    // Repetitions of the source, so the chunks also end in the middle of the later copies.
+    private static final int REPETITIONS = 3;
+
+    private static ForkJoinPool pool;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testParallelSameAsSequential() throws IOException {
+        for (final String example : EXAMPLES) {
+            final CompiledLexer lexer = ExampleLexer.compile(example);
+            final StringBuilder source = new StringBuilder();
+            for (int i = 0; i < REPETITIONS; i++) {
+                source.append(ExampleLexer.source(example));
+            }
+
+            for (final boolean memoizing : new boolean[] { false, true }) {
+                final TokenArray expected = new TokenArray();
+                final LexerSession sequential = lexer.newSession();
+                sequential.setMemoizing(memoizing);
+                sequential.analyze(new SourceBuffer(source.toString()), expected);
+
+                for (final int chunkSize : CHUNK_SIZES) {
+                    final TokenArray actual = new TokenArray();
+                    final LexerSession parallel = lexer.newSession();
+                    parallel.setMemoizing(memoizing);
+                    parallel.analyzeParallel(source.toString(), actual, pool, chunkSize);
+
+                    assertSameTokens(example + ", chunk size " + chunkSize + ", memoizing " + memoizing, expected,
+                            actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentSessions() throws Exception {
+        // The lexer is read from the binary definition, like in the LA, so its tables create their objects on request.
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ExampleLexer.definition(CONCURRENT_EXAMPLE).write(output);
+        final CompiledLexer lexer =
+                ExampleLexer.newLexer(AnalyzerDefinition.read(ByteBuffer.wrap(output.toByteArray())));
+        final String source = ExampleLexer.source(CONCURRENT_EXAMPLE);
+
+        final TokenArray expected = new TokenArray();
+        lexer.newSession().analyze(new SourceBuffer(source), expected);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<TokenArray>> results = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                TokenArray tokens = null;
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (final LexerState state : lexer.getStates().values()) {
+                        if (state.getTable() != null) {
+                            final DFAutomatonTable table = state.getTable();
+                            table.getStateIndex(table.getState(table.getStartState()));
+                            table.getInputClass(table.getInput(0));
+                        }
+                    }
+
+                    tokens = new TokenArray();
+                    lexer.newSession().analyze(new SourceBuffer(source), tokens);
+                }
+                return tokens;
+            }));
+        }
+        start.countDown();
+
+        for (final Future<TokenArray> result : results) {
+            assertSameTokens(CONCURRENT_EXAMPLE, expected, result.get());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStatesAreFrozen() throws IOException {
+        final CompiledLexer lexer = ExampleLexer.compile(CONCURRENT_EXAMPLE);
+        final LexerState state = lexer.getInitialState();
+        assertTrue(state.isFrozen());
+        state.addRule(state.getRules().get(0));
+    }
+
+    private static void assertSameTokens(final String message, final TokenArray expected, final TokenArray actual) {
+        assertEquals(message, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(message, expected.getType(i), actual.getType(i));
+            assertEquals(message, expected.getLine(i), actual.getLine(i));
+            assertEquals(message, expected.getStart(i), actual.getStart(i));
+            assertEquals(message, expected.getEnd(i), actual.getEnd(i));
+        }
+    }
+}
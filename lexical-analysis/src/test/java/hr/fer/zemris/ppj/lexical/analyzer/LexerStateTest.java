@@ -0,0 +1,160 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import hr.fer.zemris.ppj.finite.automaton.Automatons;
+import hr.fer.zemris.ppj.finite.automaton.DFAutomatonTable;
+import hr.fer.zemris.ppj.finite.automaton.TaggedDFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.generator.ENFAutomatonGenerator;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Automaton;
+import hr.fer.zemris.ppj.lexical.analyzer.actions.LexerAction;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpression;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpressionManipulator;
+
+@SuppressWarnings("javadoc")
+public class LexerStateTest {
+
+    private static final String IDN = "(f|i|n|t)(f|i|n|t)*";
+
+    private static final String[] WORDS = { "i", "if", "iff", "in", "int", "inti", "f", "t", "fi" };
+
+    @Test
+    public void testKeywordBeforeIdentifier() {
+        final LexerState state = compile("if", "int", IDN);
+        assertNotNull(state.getKeywords());
+        assertEquals(0, matchedRule(state, "if"));
+        assertEquals(1, matchedRule(state, "int"));
+        assertEquals(2, matchedRule(state, "iff"));
+        assertEquals(2, matchedRule(state, "in"));
+        assertSameAsFirstAcceptingRule(state);
+    }
+
+    @Test
+    public void testKeywordAfterIdentifier() {
+        final LexerState state = compile(IDN, "if", "int");
+        assertEquals(0, matchedRule(state, "if"));
+        assertEquals(0, matchedRule(state, "int"));
+        assertSameAsFirstAcceptingRule(state);
+    }
+
+    @Test
+    public void testKeywordsAroundIdentifier() {
+        final LexerState state = compile("if", IDN, "int");
+        assertEquals(0, matchedRule(state, "if"));
+        assertEquals(1, matchedRule(state, "int"));
+        assertSameAsFirstAcceptingRule(state);
+    }
+
+    @Test
+    public void testDuplicateLiterals() {
+        final LexerState state = compile("if", "if", IDN, "if");
+        assertEquals(0, matchedRule(state, "if"));
+        assertSameAsFirstAcceptingRule(state);
+
+        final LexerState withoutIdentifier = compile("if", "if");
+        assertEquals(0, matchedRule(withoutIdentifier, "if"));
+        assertSameAsFirstAcceptingRule(withoutIdentifier);
+    }
+
+    @Test
+    public void testLiteralPrefixOfLongerMatch() {
+        final LexerState state = compile("if", IDN);
+        assertEquals(0, matchedRule(state, "if"));
+        assertEquals(1, matchedRule(state, "iff"));
+        assertSameAsFirstAcceptingRule(state);
+
+        // Neither literal is matched by another rule, both stay in the combined automaton.
+        final LexerState literals = compile("if", "iff");
+        assertNull(literals.getKeywords());
+        assertEquals(0, matchedRule(literals, "if"));
+        assertEquals(1, matchedRule(literals, "iff"));
+        assertSameAsFirstAcceptingRule(literals);
+    }
+
+    @Test
+    public void testSharedAutomatons() {
+        // The automaton cache gives the same automaton to rules with the same expression.
+        final Automaton identifier = automaton(parse(IDN));
+        final List<LexerRule> rules = new ArrayList<>();
+        rules.add(new LexerRule("S", identifier, null, new ArrayList<LexerAction>()));
+        rules.add(rule(parse("if")));
+        rules.add(new LexerRule("S", identifier, null, new ArrayList<LexerAction>()));
+        final LexerState state = new LexerState("S", rules);
+        state.compile();
+
+        assertEquals(0, matchedRule(state, "if"));
+        assertSameAsFirstAcceptingRule(state);
+
+        final LexerState again = new LexerState("S", rules);
+        again.compile();
+        for (final String word : WORDS) {
+            assertEquals(word, matchedRule(state, word), matchedRule(again, word));
+        }
+    }
+
+    private static LexerState compile(final String... expressions) {
+        final LexerState state = new LexerState("S");
+        for (final String expression : expressions) {
+            state.addRule(rule(parse(expression)));
+        }
+        state.compile();
+        return state;
+    }
+
+    private static RegularExpression parse(final String expression) {
+        return RegularExpressionManipulator.parse(expression);
+    }
+
+    private static Automaton automaton(final RegularExpression expression) {
+        return new ENFAutomatonGenerator().fromRegularExpression(expression.factorPrefixes());
+    }
+
+    private static LexerRule rule(final RegularExpression expression) {
+        return new LexerRule("S", automaton(expression), expression.getLiteral(), new ArrayList<LexerAction>());
+    }
+
+    /*
+     * Returns the index of the rule matched by the whole word, or NO_TAG if no rule accepts it.
+     */
+    private static int matchedRule(final LexerState state, final String word) {
+        int automatonState = state.getStartAutomatonState();
+        for (int i = 0; (i < word.length()) && (automatonState != DFAutomatonTable.DEAD_STATE); i++) {
+            automatonState = state.step(automatonState, word.charAt(i));
+        }
+        if ((automatonState == DFAutomatonTable.DEAD_STATE)
+                || (state.getTag(automatonState) == TaggedDFAutomaton.NO_TAG)) {
+            return TaggedDFAutomaton.NO_TAG;
+        }
+
+        final LexerRule rule = state.getMatchedRule(state.getTag(automatonState), new SourceBuffer(word), 0,
+                word.length() - 1);
+        return state.getRules().indexOf(rule);
+    }
+
+    /*
+     * The matched rule of each word must be the first rule whose automaton accepts the word.
+     */
+    private static void assertSameAsFirstAcceptingRule(final LexerState state) {
+        for (final String word : WORDS) {
+            int expected = TaggedDFAutomaton.NO_TAG;
+            for (int i = 0; (i < state.getRules().size()) && (expected == TaggedDFAutomaton.NO_TAG); i++) {
+                final DFAutomatonTable table = Automatons.minimize(state.getRules().get(i).getAutomaton()).getTable();
+                int automatonState = table.getStartState();
+                for (int j = 0; (j < word.length()) && (automatonState != DFAutomatonTable.DEAD_STATE); j++) {
+                    automatonState = table.step(automatonState, table.getInputClass(word.charAt(j)));
+                }
+                if ((automatonState != DFAutomatonTable.DEAD_STATE) && table.isAcceptState(automatonState)) {
+                    expected = i;
+                }
+            }
+            assertEquals(word, expected, matchedRule(state, word));
+        }
+    }
+}
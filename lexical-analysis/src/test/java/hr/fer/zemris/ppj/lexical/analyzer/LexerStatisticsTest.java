@@ -0,0 +1,71 @@
+package hr.fer.zemris.ppj.lexical.analyzer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import hr.fer.zemris.ppj.finite.automaton.generator.ENFAutomatonGenerator;
+import hr.fer.zemris.ppj.lexical.analyzer.actions.ActionFactory;
+import hr.fer.zemris.ppj.lexical.analyzer.actions.LexerAction;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpression;
+import hr.fer.zemris.ppj.utility.text.manipulation.RegularExpressionManipulator;
+
+@SuppressWarnings("javadoc")
+public class LexerStatisticsTest {
+
+    @Test
+    public void testLiveRules() {
+        final LexerState state = compile("ab", "a(c)*");
+        final int afterA = state.step(state.getStartAutomatonState(), 'a');
+        assertArrayEquals(new int[] { 0, 1 }, state.getLiveRules(state.getStartAutomatonState()));
+        assertArrayEquals(new int[] { 0, 1 }, state.getLiveRules(afterA));
+        assertArrayEquals(new int[] { 0 }, state.getLiveRules(state.step(afterA, 'b')));
+        assertArrayEquals(new int[] { 1 }, state.getLiveRules(state.step(afterA, 'c')));
+    }
+
+    @Test
+    public void testLiveSteps() {
+        // The keyword is moved to the keyword trie, it's live while the scanned characters are its prefix.
+        final LexerState state = compile("if", "(f|i|n|t)(f|i|n|t)*", "\\_");
+        final Map<String, LexerState> states = new HashMap<>();
+        states.put(state.getName(), state);
+        final LexerSession session = new CompiledLexer(states, state, new ArrayList<String>()).newSession();
+        final LexerStatistics statistics = new LexerStatistics();
+        session.setStatistics(statistics);
+
+        // Scans: "if " stops in the dead state, " i" stops in the dead state, "iff" stops at the end.
+        session.analyze(new SourceBuffer("if iff"), new TokenArray());
+
+        final List<StatisticsSnapshot.RuleEntry> rules = statistics.snapshot().getStates().get(0).getRules();
+        assertEquals(4, rules.get(0).getLiveSteps());
+        assertEquals(5, rules.get(1).getLiveSteps());
+        assertEquals(1, rules.get(2).getLiveSteps());
+        assertEquals(1, rules.get(0).getMatches());
+        assertEquals(1, rules.get(1).getMatches());
+        assertEquals(1, rules.get(2).getMatches());
+
+        final LexerStatistics merged = new LexerStatistics();
+        merged.merge(statistics);
+        merged.merge(statistics);
+        assertEquals(10, merged.snapshot().getStates().get(0).getRules().get(1).getLiveSteps());
+    }
+
+    private static LexerState compile(final String... expressions) {
+        final List<LexerAction> actions = Arrays.asList(ActionFactory.fromString("-"));
+        final LexerState state = new LexerState("S");
+        for (final String expression : expressions) {
+            final RegularExpression parsed = RegularExpressionManipulator.parse(expression);
+            state.addRule(new LexerRule("S", new ENFAutomatonGenerator().fromRegularExpression(parsed.factorPrefixes()),
+                    parsed.getLiteral(), actions));
+        }
+        state.compile();
+        return state;
+    }
+}
@@ -65,4 +65,17 @@ public class RegularExpressionManipulatorTest {
         assertEquals("[a, b, (c|d), e, (a|(b|c))]",
                 RegularExpressionManipulator.splitOnOperator("a|b|(c|d)|e|(a|(b|c))", '|').toString());
     }
+
+    @Test
+    public void testParse() {
+        assertEquals("(a|b)c*\\_\\(", RegularExpressionManipulator.parse("((a|b))c*$\\_\\(").toString());
+        assertEquals("(ab)*|ab", RegularExpressionManipulator.parse("(ab)*|a(b)").toString());
+    }
+
+    @Test
+    public void testFactorPrefixes() {
+        assertEquals("i(f|n(t|line))", RegularExpressionManipulator.parse("if|int|inline").factorPrefixes().toString());
+        assertEquals("break|c(har|on(st|tinue))",
+                RegularExpressionManipulator.parse("break|char|const|continue").factorPrefixes().toString());
+    }
 }
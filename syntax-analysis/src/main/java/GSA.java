@@ -8,17 +8,19 @@ import java.util.ArrayList;
 import java.util.List;
 
 import hr.fer.zemris.ppj.finite.automaton.DFAutomaton;
-import hr.fer.zemris.ppj.finite.automaton.ENFAutomaton;
-import hr.fer.zemris.ppj.finite.automaton.generator.ENFAutomatonGenerator;
-import hr.fer.zemris.ppj.finite.automaton.transforms.DFAConverter;
 import hr.fer.zemris.ppj.grammar.Grammar;
 import hr.fer.zemris.ppj.grammar.GrammarBuilder;
 import hr.fer.zemris.ppj.grammar.ProductionParser;
+import hr.fer.zemris.ppj.lr1.parser.LR1CollectionBuilder;
 import hr.fer.zemris.ppj.lr1.parser.LR1ParserTable;
 import hr.fer.zemris.ppj.lr1.parser.LR1ParserTableFactory;
 
 /**
  * <code>GSA</code> class is required by the evaluator, to contain a entry point for the syntax analyzer generator.
+ * <br>
+ * Usage: <code>GSA [-lalr | -minimal]</code>, by default the parser table is built from the canonical LR(1)
+ * collection, with <code>-lalr</code> from the LALR(1) collection and with <code>-minimal</code> from the minimal LR(1)
+ * collection, see {@link LR1CollectionBuilder.Mode}.
  *
  * @author Jan Kelemen
  *
@@ -35,10 +37,20 @@ public class GSA {
      * Entry point for the syntax analyzer generator.
      *
      * @param args
-     *            command line arguments aren't used
+     *            options of the generator, see the class description.
      * @since alpha
      */
     public static void main(String[] args) {
+        LR1CollectionBuilder.Mode mode = LR1CollectionBuilder.Mode.CANONICAL;
+        for (final String arg : args) {
+            if (arg.equals("-lalr")) {
+                mode = LR1CollectionBuilder.Mode.LALR;
+            }
+            else if (arg.equals("-minimal")) {
+                mode = LR1CollectionBuilder.Mode.MINIMAL;
+            }
+        }
+
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
             readInputData(reader);
         }
@@ -47,8 +59,7 @@ public class GSA {
         }
 
         try (OutputStreamWriter writer = new FileWriter(new File("analizator/definition.txt"))) {
-            final ENFAutomaton enfa = new ENFAutomatonGenerator().fromLR1Grammar(grammar);
-            final DFAutomaton automaton = new DFAConverter().transform(enfa);
+            final DFAutomaton automaton = new LR1CollectionBuilder(grammar, mode).build();
             final LR1ParserTable parserTable =
                     LR1ParserTableFactory.fromDFA(automaton, ProductionParser.parseSymbol("<%>"));
             writeParserTable(parserTable, writer);
@@ -78,14 +89,15 @@ public class GSA {
         }
 
         final GrammarBuilder builder = new GrammarBuilder(nonterminalSymbols, terminalSymbols, "<%>");
-        builder.addProduction(ProductionParser.fromText("<%> " + originalStartSymbol));
+        final ProductionParser parser = builder.getProductionParser();
+        builder.addProduction(parser.production("<%> " + originalStartSymbol));
         String line = reader.readLine();
         do {
             final String leftSide = line;
             do {
                 final String rightSide = line = reader.readLine();
                 if ((line != null) && rightSide.startsWith(" ")) {
-                    builder.addProduction(ProductionParser.fromText(leftSide, rightSide.trim()));
+                    builder.addProduction(parser.production(leftSide, rightSide.trim()));
                 }
             } while ((line != null) && !line.startsWith("<"));
         } while (line != null);
@@ -9,7 +9,9 @@ import java.util.List;
 
 import hr.fer.zemris.ppj.Lexeme;
 import hr.fer.zemris.ppj.grammar.ProductionParser;
+import hr.fer.zemris.ppj.grammar.SymbolTable;
 import hr.fer.zemris.ppj.grammar.interfaces.Symbol;
+import hr.fer.zemris.ppj.grammar.symbols.TerminalSymbol;
 import hr.fer.zemris.ppj.lr1.parser.LR1Parser;
 import hr.fer.zemris.ppj.lr1.parser.LR1ParserTable;
 import hr.fer.zemris.ppj.lr1.parser.LR1ParserTableBuilder;
@@ -41,14 +43,6 @@ public class SA {
      * @since alpha
      */
     public static void main(String[] args) {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
-            readUniformSymbols(reader);
-        }
-        catch (final IOException e) {
-            System.err.println("io on reading lexemes");
-            System.exit(0);
-        }
-
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream("definition.txt")))) {
             for (final String symbol : reader.readLine().split(" ")) {
                 nonterminalSymbols.add(ProductionParser.parseSymbol(symbol));
@@ -74,22 +68,33 @@ public class SA {
             System.exit(0);
         }
 
+        // Lexemes are read after the parser table, their types are looked up in its symbol table.
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
+            readUniformSymbols(reader);
+        }
+        catch (final IOException e) {
+            System.err.println("io on reading lexemes");
+            System.exit(0);
+        }
+
         final LR1Parser parser = new LR1Parser(parserTable, syncSymbols);
         final Node tree = parser.analyze(lexemes, new PrintStream(System.err));
         System.out.print(tree.print(0));
     }
 
     /*
-     * Reads uniform symbols and parses them to lexemes.
+     * Reads uniform symbols and parses them to lexemes. The types are looked up in the symbol table of the parser
+     * table, the values are only text so they aren't symbols of the table.
      */
     private static void readUniformSymbols(final BufferedReader reader) throws IOException {
+        final SymbolTable symbols = parserTable.getSymbolTable();
         String uniformSymbol = reader.readLine();
         do {
             final String[] split = uniformSymbol.split(" ", 3);
-            lexemes.add(new Lexeme(split[0], Integer.valueOf(split[1]), ProductionParser.parseSymbol(split[2])));
+            lexemes.add(new Lexeme(split[0], Integer.valueOf(split[1]), new TerminalSymbol(split[2]), symbols));
             uniformSymbol = reader.readLine();
         } while (uniformSymbol != null);
-        lexemes.add(new Lexeme("#", -1, ProductionParser.parseSymbol("#")));
+        lexemes.add(new Lexeme("#", -1, ProductionParser.parseSymbol("#"), symbols));
     }
 
     /*
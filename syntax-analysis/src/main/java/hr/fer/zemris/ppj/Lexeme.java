@@ -1,17 +1,21 @@
 package hr.fer.zemris.ppj;
 
+import hr.fer.zemris.ppj.grammar.ProductionParser;
+import hr.fer.zemris.ppj.grammar.SymbolTable;
 import hr.fer.zemris.ppj.grammar.interfaces.Symbol;
 
 /**
- * <code>Lexeme</code> represents a lexical unit.
+ * <code>Lexeme</code> represents a lexical unit. A lexeme created with the symbol table of the parser table has the
+ * symbol of its type from that table, so the parser reads the id of the symbol instead of looking up the name.
  *
  * @author Jan Kelemen
  *
- * @version 1.0
+ * @version 1.2
  */
 public class Lexeme {
 
     private final String type;
+    private final Symbol typeSymbol;
     private final int lineNumber;
     private final Symbol value;
 
@@ -28,6 +32,28 @@ public class Lexeme {
      */
     public Lexeme(final String type, final int lineNumber, final Symbol value) {
         this.type = type;
+        typeSymbol = ProductionParser.parseSymbol(type);
+        this.lineNumber = lineNumber;
+        this.value = value;
+    }
+
+    /**
+     * Class constructor, specifies the lexeme and the table in which its type is looked up. The table isn't modified.
+     *
+     * @param type
+     *            the type of the lexeme.
+     * @param lineNumber
+     *            the line number at which a lexeme appears in the source code.
+     * @param value
+     *            the value of the lexeme.
+     * @param symbols
+     *            the symbol table, usually of the parser table.
+     * @since 1.2
+     */
+    public Lexeme(final String type, final int lineNumber, final Symbol value, final SymbolTable symbols) {
+        this.type = type;
+        final int id = symbols.id(type);
+        typeSymbol = id == SymbolTable.NONE ? ProductionParser.parseSymbol(type) : symbols.symbol(id);
         this.lineNumber = lineNumber;
         this.value = value;
     }
@@ -40,6 +66,14 @@ public class Lexeme {
         return type;
     }
 
+    /**
+     * @return the type of the lexeme, interned if the lexeme was created with a symbol table.
+     * @since 1.1
+     */
+    public Symbol typeSymbol() {
+        return typeSymbol;
+    }
+
     /**
      * @return line number at which the lexeme was found in the source code.
      * @since 1.0
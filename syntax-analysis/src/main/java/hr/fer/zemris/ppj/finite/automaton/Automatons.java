@@ -8,6 +8,7 @@ import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.Transition;
 import hr.fer.zemris.ppj.finite.automaton.transforms.DFAConverter;
 import hr.fer.zemris.ppj.finite.automaton.transforms.EquivalentRemover;
+import hr.fer.zemris.ppj.finite.automaton.transforms.HopcroftMinimizer;
 import hr.fer.zemris.ppj.finite.automaton.transforms.UnreachableRemover;
 
 /**
@@ -15,7 +16,7 @@ import hr.fer.zemris.ppj.finite.automaton.transforms.UnreachableRemover;
  *
  * @author Domagoj Polancec
  *
- * @version 1.0
+ * @version 1.1
  */
 public class Automatons {
 
@@ -105,7 +106,7 @@ public class Automatons {
     }
 
     /**
-     * Minimizes the automaton to a minimal DFA.
+     * Minimizes the automaton to a minimal DFA with the {@link HopcroftMinimizer}.
      *
      * @param source
      *            the automaton.
@@ -113,9 +114,26 @@ public class Automatons {
      * @since 1.0
      */
     public static DFAutomaton minimize(final Automaton source) {
-        final DFAutomaton converted = convertToDFA(source);
-        final DFAutomaton minimized = new EquivalentRemover().transform(new UnreachableRemover().transform(converted));
-        return minimized;
+        return minimize(source, true);
+    }
+
+    /**
+     * Minimizes the automaton to a minimal DFA.
+     *
+     * @param source
+     *            the automaton.
+     * @param hopcroft
+     *            flag which marks if the {@link HopcroftMinimizer} is used, the {@link EquivalentRemover} is used
+     *            otherwise.
+     * @return minimized automaton.
+     * @since 1.1
+     */
+    public static DFAutomaton minimize(final Automaton source, final boolean hopcroft) {
+        final DFAutomaton reachable = new UnreachableRemover().transform(convertToDFA(source));
+        if (hopcroft) {
+            return new HopcroftMinimizer().transform(reachable);
+        }
+        return new EquivalentRemover().transform(reachable);
     }
 
 }
@@ -6,16 +6,19 @@ import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.Transition;
 import hr.fer.zemris.ppj.finite.automaton.transfer.DFAutomatonTransferFunction;
+import hr.fer.zemris.ppj.finite.automaton.transfer.DeterministicTransition;
 
 /**
  * <code>DFAutomaton</code> is a deterministic finite automaton.
  *
  * @author Domagoj Polancec
  *
- * @version 1.0
+ * @version 1.1
  */
 public class DFAutomaton extends AbstractAutomaton {
 
+    private DFAutomatonTable table;
+
     /**
      * Class constructor, specifies formal definition of automaton.
      *
@@ -63,12 +66,36 @@ public class DFAutomaton extends AbstractAutomaton {
      * @since 1.0
      */
     public Transition getTransition(final State state, final Input input) {
-        final Set<Transition> transitions = getTransferFunction().getTransitions(state, null, input);
-        if (transitions.isEmpty()) {
+        final DFAutomatonTable table = getTable();
+        final int newState = table.step(table.getStateIndex(state), table.getInputClass(input));
+        if (newState == DFAutomatonTable.DEAD_STATE) {
             return null;
         }
         else {
-            return transitions.iterator().next();
+            return new DeterministicTransition(state, table.getState(newState), input);
+        }
+    }
+
+    /**
+     * Returns the compiled form of the automaton, the automaton is compiled on the first call.
+     *
+     * @return the compiled automaton.
+     * @since 1.1
+     */
+    public DFAutomatonTable getTable() {
+        if (table == null) {
+            table = createTable();
         }
+        return table;
+    }
+
+    /**
+     * Compiles the automaton.
+     *
+     * @return the compiled automaton.
+     * @since 1.1
+     */
+    protected DFAutomatonTable createTable() {
+        return new DFAutomatonTable(this);
     }
 }
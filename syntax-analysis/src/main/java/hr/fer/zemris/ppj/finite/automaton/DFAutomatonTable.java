@@ -0,0 +1,220 @@
+package hr.fer.zemris.ppj.finite.automaton;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Transition;
+
+/**
+ * <code>DFAutomatonTable</code> is a compiled form of the deterministic finite automaton. States are numbered from
+ * <code>0</code> to <code>n - 1</code>, inputs are mapped to input classes from <code>0</code> to <code>k - 1</code>
+ * and the transitions are stored in a flat next state table, so a step of the automaton is a single array lookup. <br>
+ * Missing transitions lead to the {@link #DEAD_STATE}.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+public class DFAutomatonTable {
+
+    /**
+     * Index of the state which can't accept any input.
+     */
+    public static final int DEAD_STATE = -1;
+
+    /**
+     * Input class of the inputs which aren't in the alphabet of the automaton.
+     */
+    public static final int UNKNOWN_INPUT = -1;
+
+    private final State[] states;
+    private final Input[] inputs;
+    private final Map<State, Integer> stateIndexes = new HashMap<>();
+    private final Map<Input, Integer> inputClasses = new HashMap<>();
+    private final int[] charClasses;
+
+    private final int[] next;
+    private final BitSet acceptStates = new BitSet();
+    private final int startState;
+
+    /**
+     * Class constructor, compiles the automaton.
+     *
+     * @param source
+     *            the automaton.
+     * @since 1.0
+     */
+    public DFAutomatonTable(final DFAutomaton source) {
+        final List<State> orderedStates = new ArrayList<>(source.getStates());
+        Collections.sort(orderedStates);
+        states = orderedStates.toArray(new State[orderedStates.size()]);
+
+        final List<Input> orderedInputs = new ArrayList<>(source.getAlphabet());
+        Collections.sort(orderedInputs);
+        inputs = orderedInputs.toArray(new Input[orderedInputs.size()]);
+
+        for (int i = 0; i < states.length; i++) {
+            stateIndexes.put(states[i], i);
+            if (source.isAcceptState(states[i])) {
+                acceptStates.set(i);
+            }
+        }
+
+        int maxChar = -1;
+        for (int i = 0; i < inputs.length; i++) {
+            inputClasses.put(inputs[i], i);
+            if (inputs[i].toString().length() == 1) {
+                maxChar = Math.max(maxChar, inputs[i].toString().charAt(0));
+            }
+        }
+
+        charClasses = new int[maxChar + 1];
+        Arrays.fill(charClasses, UNKNOWN_INPUT);
+        for (int i = 0; i < inputs.length; i++) {
+            if (inputs[i].toString().length() == 1) {
+                charClasses[inputs[i].toString().charAt(0)] = i;
+            }
+        }
+
+        next = new int[states.length * inputs.length];
+        Arrays.fill(next, DEAD_STATE);
+        for (final Transition transition : source.getTransferFunction().getTransitions()) {
+            final Integer oldState = stateIndexes.get(transition.getOldState());
+            final Integer input = inputClasses.get(transition.getInput());
+            if ((oldState != null) && (input != null)) {
+                next[(oldState * inputs.length) + input] = stateIndexes.get(transition.getNewState());
+            }
+        }
+
+        final Integer start = stateIndexes.get(source.getStartState());
+        startState = start == null ? DEAD_STATE : start;
+    }
+
+    /**
+     * Returns the state in which the automaton is after the input is applied in the specified state.
+     *
+     * @param state
+     *            index of the state.
+     * @param inputClass
+     *            class of the input.
+     * @return index of the next state, or {@link #DEAD_STATE} if there is no transition.
+     * @since 1.0
+     */
+    public int step(final int state, final int inputClass) {
+        if ((state == DEAD_STATE) || (inputClass == UNKNOWN_INPUT)) {
+            return DEAD_STATE;
+        }
+        return next[(state * inputs.length) + inputClass];
+    }
+
+    /**
+     * Returns the class of the input.
+     *
+     * @param input
+     *            the input.
+     * @return class of the input, or {@link #UNKNOWN_INPUT} if the input isn't in the alphabet.
+     * @since 1.0
+     */
+    public int getInputClass(final Input input) {
+        final Integer inputClass = inputClasses.get(input);
+        return inputClass == null ? UNKNOWN_INPUT : inputClass;
+    }
+
+    /**
+     * Returns the class of the character input.
+     *
+     * @param input
+     *            the input.
+     * @return class of the input, or {@link #UNKNOWN_INPUT} if the input isn't in the alphabet.
+     * @since 1.0
+     */
+    public int getInputClass(final char input) {
+        return input < charClasses.length ? charClasses[input] : UNKNOWN_INPUT;
+    }
+
+    /**
+     * Checks if the state is a accept state.
+     *
+     * @param state
+     *            index of the state.
+     * @return <code>true</code> if the state is a accept state, <code>false</code> otherwise.
+     * @since 1.0
+     */
+    public boolean isAcceptState(final int state) {
+        return (state != DEAD_STATE) && acceptStates.get(state);
+    }
+
+    /**
+     * Returns index of the start state.
+     *
+     * @return the start state.
+     * @since 1.0
+     */
+    public int getStartState() {
+        return startState;
+    }
+
+    /**
+     * Returns index of the state.
+     *
+     * @param state
+     *            the state.
+     * @return index of the state, or {@link #DEAD_STATE} if the state isn't a state of the automaton.
+     * @since 1.0
+     */
+    public int getStateIndex(final State state) {
+        final Integer index = stateIndexes.get(state);
+        return index == null ? DEAD_STATE : index;
+    }
+
+    /**
+     * Returns the state with the index.
+     *
+     * @param state
+     *            index of the state.
+     * @return the state, or <code>null</code> for the {@link #DEAD_STATE}.
+     * @since 1.0
+     */
+    public State getState(final int state) {
+        return state == DEAD_STATE ? null : states[state];
+    }
+
+    /**
+     * Returns the input of the input class.
+     *
+     * @param inputClass
+     *            the input class.
+     * @return the input.
+     * @since 1.0
+     */
+    public Input getInput(final int inputClass) {
+        return inputs[inputClass];
+    }
+
+    /**
+     * Returns the number of states.
+     *
+     * @return the number of states.
+     * @since 1.0
+     */
+    public int getStateCount() {
+        return states.length;
+    }
+
+    /**
+     * Returns the number of input classes.
+     *
+     * @return the number of input classes.
+     * @since 1.0
+     */
+    public int getInputCount() {
+        return inputs.length;
+    }
+}
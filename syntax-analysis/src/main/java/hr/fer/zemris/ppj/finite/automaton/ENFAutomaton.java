@@ -1,5 +1,9 @@
 package hr.fer.zemris.ppj.finite.automaton;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
@@ -7,14 +11,24 @@ import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
 import hr.fer.zemris.ppj.finite.automaton.transfer.ENFAutomatonTransferFunction;
 
 /**
- * <code>ENFAutomaton</code> is a nondeterministic finite automaton with e-moves.
+ * <code>ENFAutomaton</code> is a nondeterministic finite automaton with e-moves. Current states of the automaton are
+ * kept in a bit set of state indexes of the transfer function, which is reused between the inputs.
  *
  * @author Domagoj Polancec
  *
- * @version 1.0
+ * @version 1.1
  */
 public class ENFAutomaton extends AbstractAutomaton {
 
+    private final ENFAutomatonTransferFunction function;
+    private final List<State> unindexedStates = new ArrayList<>();
+    private final BitSet acceptIndexes = new BitSet();
+    private final int startIndex;
+
+    private BitSet currentIndexes = new BitSet();
+    private BitSet nextIndexes = new BitSet();
+    private Input lastInput;
+
     /**
      * Class constructor, specifies formal definition of automaton.
      *
@@ -33,6 +47,95 @@ public class ENFAutomaton extends AbstractAutomaton {
     public ENFAutomaton(final Set<State> states, final Set<State> acceptStates, final Set<Input> alphabet,
             final ENFAutomatonTransferFunction transferFunction, final State startState) {
         super(states, acceptStates, alphabet, transferFunction, startState);
+        function = transferFunction;
+
+        for (final State state : states) {
+            if (function.getStateIndex(state) == ENFAutomatonTransferFunction.UNKNOWN) {
+                unindexedStates.add(state);
+            }
+        }
+        for (final State state : acceptStates) {
+            acceptIndexes.set(indexOf(state));
+        }
+        startIndex = indexOf(startState);
+
+        reset();
+    }
+
+    @Override
+    public void apply(final Input input) {
+        function.applyTransitions(currentIndexes, function.getInputIndex(input), nextIndexes);
+
+        final BitSet swap = currentIndexes;
+        currentIndexes = nextIndexes;
+        nextIndexes = swap;
+        lastInput = input;
+    }
+
+    @Override
+    public void reset() {
+        currentIndexes.clear();
+        currentIndexes.set(startIndex);
+        function.applyEpsilonTransitions(currentIndexes);
+        lastInput = null;
+    }
+
+    @Override
+    public Set<State> getCurrentStates() {
+        final Set<State> currentStates = new HashSet<>();
+        for (int state = currentIndexes.nextSetBit(0); state >= 0; state = currentIndexes.nextSetBit(state + 1)) {
+            currentStates.add(stateOf(state));
+        }
+        return currentStates;
+    }
+
+    @Override
+    public boolean isCurrentState(final State state) {
+        return hasState(state) && currentIndexes.get(indexOf(state));
+    }
+
+    @Override
+    public boolean isAccepting() {
+        return currentIndexes.intersects(acceptIndexes);
+    }
+
+    @Override
+    public Input getLastInput() {
+        return lastInput;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 1.1
+     */
+    @Override
+    public ENFAutomatonTransferFunction getTransferFunction() {
+        return function;
+    }
+
+    /*
+     * States without transitions aren't indexed by the transfer function, so they're numbered after the indexed ones.
+     */
+    private int indexOf(final State state) {
+        final int index = function.getStateIndex(state);
+        if (index != ENFAutomatonTransferFunction.UNKNOWN) {
+            return index;
+        }
+
+        int unindexed = unindexedStates.indexOf(state);
+        if (unindexed < 0) {
+            unindexed = unindexedStates.size();
+            unindexedStates.add(state);
+        }
+        return function.getStateCount() + unindexed;
+    }
+
+    private State stateOf(final int index) {
+        if (index < function.getStateCount()) {
+            return function.getState(index);
+        }
+        return unindexedStates.get(index - function.getStateCount());
     }
 
 }
@@ -23,6 +23,7 @@ import hr.fer.zemris.ppj.finite.automaton.transfer.FAutomatonTransition;
 import hr.fer.zemris.ppj.finite.automaton.transfer.NormalTransition;
 import hr.fer.zemris.ppj.grammar.Grammar;
 import hr.fer.zemris.ppj.grammar.Production;
+import hr.fer.zemris.ppj.grammar.ProductionParser;
 import hr.fer.zemris.ppj.grammar.interfaces.Symbol;
 import hr.fer.zemris.ppj.grammar.symbols.TerminalSymbol;
 import hr.fer.zemris.ppj.lr1.parser.LRItem;
@@ -59,7 +60,7 @@ public class ENFAutomatonGenerator implements AutomatonGenerator {
         public State accepting;
     }
 
-    private final static TerminalSymbol END_SYMBOL = new TerminalSymbol("#");
+    private final static TerminalSymbol END_SYMBOL = (TerminalSymbol) ProductionParser.parseSymbol("#");
 
     private static final String EMPTY_SEQUENCE = "null";
 
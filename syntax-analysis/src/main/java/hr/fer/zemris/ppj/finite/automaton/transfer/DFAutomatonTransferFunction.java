@@ -9,9 +9,9 @@ import java.util.Set;
  * @author Jan Kelemen
  *
  * @see hr.fer.zemris.ppj.finite.automaton.interfaces.TransferFunction
- * @version 1.0
+ * @version 1.1
  */
-public class DFAutomatonTransferFunction extends FAutomatonTransferFunction {
+public class DFAutomatonTransferFunction extends IndexedTransferFunction {
 
     /**
      * Class constructor, specifies the transitions of the transfer function.
@@ -2,186 +2,126 @@ package hr.fer.zemris.ppj.finite.automaton.transforms;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
-import java.util.Stack;
 
 import hr.fer.zemris.ppj.finite.automaton.DFAutomaton;
 import hr.fer.zemris.ppj.finite.automaton.ENFAutomaton;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.AutomatonTransform;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
-import hr.fer.zemris.ppj.finite.automaton.interfaces.TransferFunction;
-import hr.fer.zemris.ppj.finite.automaton.interfaces.Transition;
 import hr.fer.zemris.ppj.finite.automaton.transfer.DFAutomatonTransferFunction;
 import hr.fer.zemris.ppj.finite.automaton.transfer.DeterministicTransition;
+import hr.fer.zemris.ppj.finite.automaton.transfer.ENFAutomatonTransferFunction;
 
 /**
- * <code>DFAConverter</code> is a automaton transformer which converts a nondeterminist
+ * <code>DFAConverter</code> is a automaton transformer which converts a nondeterministic finite automaton with e-moves
+ * to a deterministic finite automaton. Sets of states of the source automaton are represented with bit sets of the
+ * state indexes of its transfer function, unprocessed sets are kept in a queue and each set is processed once. <br>
+ * States of the result are created by combining the states of the set, and are numbered with the order in which
+ * they are found.
  *
  * @author Matea Sabolic
  * @author Jan Kelemen
  *
- * @version beta
+ * @version 1.0
  */
 public class DFAConverter implements AutomatonTransform<ENFAutomaton, DFAutomaton> {
 
-    private final Map<Set<State>, State> newStates = new HashMap<>();
+    private final Map<BitSet, State> newStates = new HashMap<>();
 
     private State stateExample; // Used for creating new instances of the states.
-    private final Map<State, Map<Input, Set<State>>> oldTransitions = new HashMap<>();
-    // private Map<State, Set<State>> eClosures = new HashMap<>();
-    private List<Set<State>> eClosures;
+    private ENFAutomatonTransferFunction function;
 
     // Used to build the automaton after transformation
-    private Set<State> states;
     private final Set<State> acceptStates = new HashSet<>();
-    private Set<Input> alphabet;
     private final Set<DeterministicTransition> transitions = new HashSet<>();
-    private State startState;
 
     @Override
     public DFAutomaton transform(final ENFAutomaton source) {
-        // System.out.println(source.getStates().size());
         stateExample = source.getStartState();
-        alphabet = source.getAlphabet();
+        function = source.getTransferFunction();
 
-        final List<Input> tempAlphabet = new ArrayList<>(alphabet);
-        // tempAlphabet.sort(null);
-
-        final TransferFunction function = source.getTransferFunction();
-
-        unrollTransitions(source.getStates(), function);
-        eClosures = calculateEClosures(source.getStates());
-
-        final Queue<Set<State>> unprocessed = new ArrayDeque<>(); // Queue is used instead of the stack to get state
-                                                                  // numbers
-        // that are easier to check by hand
-
-        final Set<State> closure = eClosure(source.getStartState());
-        startState = getState(closure);
-        newStates.put(closure, startState);
-        unprocessed.add(closure);
-
-        while (!unprocessed.isEmpty()) {
-            final Set<State> current = unprocessed.poll();
-            // System.out.println(newStates.size() + " " + System.currentTimeMillis());
-
-            final State newState = getState(current);
+        final List<Input> alphabet = new ArrayList<>(source.getAlphabet());
+        final int[] inputIndexes = new int[alphabet.size()];
+        for (int i = 0; i < inputIndexes.length; i++) {
+            inputIndexes[i] = function.getInputIndex(alphabet.get(i));
+        }
 
-            if (acceptingDFAState(current, source)) {
-                acceptStates.add(newState);
+        final BitSet acceptIndexes = new BitSet(function.getStateCount());
+        for (final State state : source.getAcceptStates()) {
+            final int index = function.getStateIndex(state);
+            if (index != ENFAutomatonTransferFunction.UNKNOWN) {
+                acceptIndexes.set(index);
             }
+        }
 
-            for (final Input symbol : tempAlphabet) {
-                final Set<State> newClosure = transition(current, symbol);
-                if (!newClosure.isEmpty()) {
-                    if (!newStates.containsKey(newClosure) && !unprocessed.contains(newClosure)) {
-                        unprocessed.add(newClosure);
-                    }
-                    final State transitionState = getState(newClosure);
-                    transitions.add(new DeterministicTransition(newState, transitionState, symbol));
-                    newStates.put(newClosure, transitionState);
-                }
+        final Queue<BitSet> unprocessed = new ArrayDeque<>(); // Queue is used instead of the stack to get state
+                                                              // numbers that are easier to check by hand
+
+        final BitSet closure = new BitSet(function.getStateCount());
+        final int start = function.getStateIndex(source.getStartState());
+        final State startState;
+        if (start == ENFAutomatonTransferFunction.UNKNOWN) {
+            final Set<State> startStates = new HashSet<>();
+            startStates.add(source.getStartState());
+            startState = stateExample.newInstance("0").combine(startStates);
+            newStates.put(closure, startState);
+            if (source.isAcceptState(source.getStartState())) {
+                acceptStates.add(startState);
             }
         }
+        else {
+            closure.set(start);
+            function.applyEpsilonTransitions(closure);
+            startState = addState(closure, acceptIndexes);
+            unprocessed.add(closure);
+        }
 
-        states = new HashSet<>(newStates.values());
-
-        return new DFAutomaton(states, acceptStates, alphabet, new DFAutomatonTransferFunction(transitions),
-                startState);
-    }
+        BitSet next = new BitSet(function.getStateCount());
+        while (!unprocessed.isEmpty()) {
+            final BitSet current = unprocessed.poll();
+            final State currentState = newStates.get(current);
 
-    private void unrollTransitions(final Set<State> states, final TransferFunction function) {
-        for (final State state : states) {
-            final Map<Input, Set<State>> stateTransitions = new HashMap<>();
-            for (final Transition transition : function.getTransitionsFromState(state)) {
-                Set<State> nextStates = stateTransitions.get(transition.getInput());
-                if (nextStates == null) {
-                    nextStates = new HashSet<>();
+            for (int i = 0; i < inputIndexes.length; i++) {
+                function.applyTransitions(current, inputIndexes[i], next);
+                if (next.isEmpty()) {
+                    continue;
                 }
-                nextStates.add(transition.getNewState());
-                stateTransitions.put(transition.getInput(), nextStates);
-            }
-            oldTransitions.put(state, stateTransitions);
-        }
-    }
-
-    private List<Set<State>> calculateEClosures(final Set<State> states) {
-        final List<Set<State>> closureList = new ArrayList<>(states.size());
-        for (int i = 0; i < states.size(); i++) { // Who thought this was a good idea?
-            closureList.add(null);
-        }
 
-        for (final State state : states) {
-            final Set<State> closure = new HashSet<>();
-            final Stack<State> stack = new Stack<>();
-
-            closure.add(state);
-            stack.push(state);
-            while (!stack.isEmpty()) {
-                final State top = stack.pop();
-                final Map<Input, Set<State>> stateTransitions = oldTransitions.get(top);
-                if (stateTransitions != null) {
-                    final Set<State> epsilonStates = stateTransitions.get(null);
-                    if (epsilonStates != null) {
-                        for (final State eState : epsilonStates) {
-                            if (!closure.contains(eState)) {
-                                closure.add(eState);
-                                stack.push(eState);
-                            }
-                        }
-                    }
+                State nextState = newStates.get(next);
+                if (nextState == null) {
+                    nextState = addState(next, acceptIndexes);
+                    unprocessed.add(next);
+                    next = new BitSet(function.getStateCount());
                 }
+                transitions.add(new DeterministicTransition(currentState, nextState, alphabet.get(i)));
             }
-            closureList.set(Integer.valueOf(state.getId()), closure);
-        }
-        return closureList;
-    }
-
-    private State getState(final Set<State> states) {
-        State state = newStates.get(states);
-        if (state == null) {
-            state = stateExample.newInstance(String.valueOf(newStates.size())).combine(states);
         }
-        return state;
-    }
 
-    private Set<State> eClosure(final State state) {
-        return eClosures.get(Integer.valueOf(state.getId()));
+        return new DFAutomaton(new HashSet<>(newStates.values()), acceptStates, source.getAlphabet(),
+                new DFAutomatonTransferFunction(transitions), startState);
     }
 
-    private Set<State> eClosure(final Set<State> states) {
-        final Set<State> closure = new HashSet<>();
-        for (final State state : states) {
-            closure.addAll(eClosure(state));
+    /*
+     * Creates the state for the set of states, the set mustn't be modified afterwards.
+     */
+    private State addState(final BitSet states, final BitSet acceptIndexes) {
+        final Set<State> members = new HashSet<>();
+        for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+            members.add(function.getState(state));
         }
-        return closure;
-    }
-
-    private Set<State> transition(final Set<State> states, final Input symbol) {
-        final Set<State> closure = new HashSet<>();
-        for (final State state : states) {
-            if (oldTransitions.containsKey(state)) {
-                final Map<Input, Set<State>> stateTransitions = oldTransitions.get(state);
-                if (stateTransitions.containsKey(symbol)) {
-                    closure.addAll(stateTransitions.get(symbol));
-                }
-            }
-        }
-        return eClosure(closure);
-    }
 
-    private boolean acceptingDFAState(final Set<State> states, final ENFAutomaton source) {
-        for (final State accept : source.getAcceptStates()) {
-            if (states.contains(accept)) {
-                return true;
-            }
+        final State state = stateExample.newInstance(String.valueOf(newStates.size())).combine(members);
+        newStates.put(states, state);
+        if (states.intersects(acceptIndexes)) {
+            acceptStates.add(state);
         }
-        return false;
+        return state;
     }
 }
@@ -10,6 +10,7 @@ import java.util.Set;
 import java.util.TreeSet;
 
 import hr.fer.zemris.ppj.finite.automaton.DFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.DFAutomatonTable;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.AutomatonTransform;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
@@ -23,7 +24,7 @@ import hr.fer.zemris.ppj.finite.automaton.transfer.DeterministicTransition;
  *
  * @author Domagoj Polancec
  *
- * @version 1.0
+ * @version 1.1
  */
 public class EquivalentRemover implements AutomatonTransform<DFAutomaton, DFAutomaton> {
 
@@ -285,13 +286,15 @@ public class EquivalentRemover implements AutomatonTransform<DFAutomaton, DFAuto
     }
 
     private void markPairs(final DFAutomaton automaton) {
+        final DFAutomatonTable table = automaton.getTable();
 
-        final Set<Input> inputs = automaton.getAlphabet();
-
-        for (final Input input : inputs) {
+        for (int input = 0; input < table.getInputCount(); input++) {
             for (final StatePair pair : pairs) {
-                State firstNext = automaton.getTransition(pair.first, input).getNewState();
-                State secondNext = automaton.getTransition(pair.second, input).getNewState();
+                final int first = table.getStateIndex(pair.first);
+                final int second = table.getStateIndex(pair.second);
+
+                final State firstNext = table.getState(table.step(first, input));
+                final State secondNext = table.getState(table.step(second, input));
 
                 if ((firstNext == null) || (secondNext == null)) {
                     continue;
@@ -307,12 +310,14 @@ public class EquivalentRemover implements AutomatonTransform<DFAutomaton, DFAuto
                     pair.mark();
                 }
                 else {
-                    for (final Input anotherInput : inputs) {
-                        firstNext = automaton.getTransition(pair.first, anotherInput).getNewState();
-                        secondNext = automaton.getTransition(pair.second, anotherInput).getNewState();
-
-                        if (!firstNext.equals(secondNext)) {
-                            nextPair = findPair(new StatePair(firstNext, secondNext));
+                    for (int anotherInput = 0; anotherInput < table.getInputCount(); anotherInput++) {
+                        final int firstAnother = table.step(first, anotherInput);
+                        final int secondAnother = table.step(second, anotherInput);
+
+                        if ((firstAnother != secondAnother) && (firstAnother != DFAutomatonTable.DEAD_STATE)
+                                && (secondAnother != DFAutomatonTable.DEAD_STATE)) {
+                            nextPair = findPair(new StatePair(table.getState(firstAnother),
+                                    table.getState(secondAnother)));
                             nextPair.addLinkedPair(pair);
                         }
                     }
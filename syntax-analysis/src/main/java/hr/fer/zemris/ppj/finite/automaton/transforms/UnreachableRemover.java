@@ -1,80 +1,73 @@
 package hr.fer.zemris.ppj.finite.automaton.transforms;
 
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
 
 import hr.fer.zemris.ppj.finite.automaton.DFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.DFAutomatonTable;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.AutomatonTransform;
-import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
-import hr.fer.zemris.ppj.finite.automaton.interfaces.Transition;
 import hr.fer.zemris.ppj.finite.automaton.transfer.DFAutomatonTransferFunction;
 import hr.fer.zemris.ppj.finite.automaton.transfer.DeterministicTransition;
 
 /**
  * <code>UnreachableRemover</code> is a automaton transformer which removes unreachable states from the deterministic
- * finite automaton.
+ * finite automaton. Reachable states are found with a depth first search over the compiled automaton.
  *
  * @author Domagoj Polancec
  *
- * @version 1.0
+ * @version 1.1
  */
 public class UnreachableRemover implements AutomatonTransform<DFAutomaton, DFAutomaton> {
 
     @Override
     public DFAutomaton transform(final DFAutomaton source) {
+        final DFAutomatonTable table = source.getTable();
+        final int start = table.getStartState();
 
         final Set<State> reachable = new HashSet<>();
+        final Set<State> reachAccept = new HashSet<>();
+        final Set<DeterministicTransition> usefulTransitions = new HashSet<>();
         reachable.add(source.getStartState());
-        final Set<Input> inputs = source.getAlphabet();
-        final Set<Transition> transitions = source.getTransferFunction().getTransitions();
-
-        while (true) {
-            final int oldReachableCount = reachable.size();
-
-            for (final Input input : inputs) {
-
-                final Set<State> moreStates = new HashSet<>();
+        if (source.isAcceptState(source.getStartState())) {
+            reachAccept.add(source.getStartState());
+        }
 
-                for (final Transition transition : transitions) {
-                    for (final State currentState : reachable) {
-                        if (currentState.equals(transition.getOldState()) && input.equals(transition.getInput())) {
-                            moreStates.add(transition.getNewState());
-                        }
-                    }
+        if (start != DFAutomatonTable.DEAD_STATE) {
+            final BitSet visited = new BitSet(table.getStateCount());
+            final int[] stack = new int[table.getStateCount()];
+            int top = 0;
+
+            visited.set(start);
+            stack[top++] = start;
+            while (top > 0) {
+                final int current = stack[--top];
+                final State currentState = table.getState(current);
+                reachable.add(currentState);
+                if (table.isAcceptState(current)) {
+                    reachAccept.add(currentState);
                 }
 
-                reachable.addAll(moreStates);
-            }
-
-            final int newReachableCount = reachable.size();
-
-            if (newReachableCount == oldReachableCount) {
-                break;
-            }
-        }
-
-        final Set<DeterministicTransition> usefulTransitions = new HashSet<>();
-        final Set<State> reachAccept = new HashSet<>();
+                for (int input = 0; input < table.getInputCount(); input++) {
+                    final int next = table.step(current, input);
+                    if (next == DFAutomatonTable.DEAD_STATE) {
+                        continue;
+                    }
 
-        for (final State currentState : reachable) {
-            for (final Input input : inputs) {
-                for (final Transition transition : transitions) {
-                    if (currentState.equals(transition.getOldState()) && input.equals(transition.getInput())
-                            && reachable.contains(transition.getNewState())) {
-                        usefulTransitions.add((DeterministicTransition) transition);
+                    usefulTransitions.add(new DeterministicTransition(currentState, table.getState(next),
+                            table.getInput(input)));
+                    if (!visited.get(next)) {
+                        visited.set(next);
+                        stack[top++] = next;
                     }
                 }
             }
-
-            if (source.isAcceptState(currentState)) {
-                reachAccept.add(currentState);
-            }
         }
 
         final DFAutomatonTransferFunction usefulFunction = new DFAutomatonTransferFunction(usefulTransitions);
 
-        return new DFAutomaton(reachable, reachAccept, inputs, usefulFunction, source.getStartState());
+        return new DFAutomaton(reachable, reachAccept, source.getAlphabet(), usefulFunction, source.getStartState());
     }
 
 }
@@ -1,7 +1,7 @@
 package hr.fer.zemris.ppj.grammar;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -11,24 +11,45 @@ import java.util.Set;
 import hr.fer.zemris.ppj.grammar.interfaces.Symbol;
 
 /**
- * <code>Grammar</code> represents a context free grammar
+ * <code>Grammar</code> represents a context free grammar. <br>
+ * The symbols of the grammar are indexed, the terminal symbols first, so the sets of terminal symbols are bit sets,
+ * {@link TerminalSet}s. The empty symbols and the FIRST sets are computed once, the FIRST sets with the transitive
+ * closure of the relation of the nonterminal symbols which start with each other, a row of bits at a time. The FIRST
+ * set and the emptiness of each suffix of each production are cached, so {@link #first(Production, int)} and
+ * {@link #isEmptySuffix(Production, int)} don't create any objects. <br>
+ * The grammar owns the {@link SymbolTable} of its symbols, the symbols interned in it are indexed by their ids. The
+ * table isn't modified once the grammar is created, so a grammar can be read from multiple threads.
  *
  * @author Jan Kelemen
  *
- * @version 1.0
+ * @version 1.2
  */
 public class Grammar {
 
+    private static final int NONE = -1;
+
     private final Map<String, Symbol> nonterminalSymbols = new HashMap<>();
     private final Map<String, Symbol> terminalSymbols = new HashMap<>();
     private final Map<Symbol, List<Production>> productions = new HashMap<>();
     private final Symbol startSymbol;
-
-    private final Set<Symbol> emptySymbols = new HashSet<>();
-    private final Map<Symbol, Set<Symbol>> startsWith = new HashMap<>();
+    private final SymbolTable symbolTable;
 
     private final Set<Production> productionSet = new HashSet<>();
 
+    // Indexed symbols, the terminal symbols are before the nonterminal symbols.
+    private final List<Symbol> indexedSymbols = new ArrayList<>();
+    private final Map<Symbol, Integer> indexBySymbol = new HashMap<>();
+    private int[] indexById;
+    private int terminalCount;
+
+    private boolean[] emptySymbols;
+    private TerminalSet[] startsWith;
+
+    // Suffixes of a production start at its offset, the suffix at the length of the right side is empty.
+    private final Map<Production, Integer> suffixOffsets = new HashMap<>();
+    private TerminalSet[] suffixStartsWith;
+    private boolean[] emptySuffixes;
+
     /**
      * Class constructor, specifies the formal definition of the grammar.
      *
@@ -44,6 +65,28 @@ public class Grammar {
      */
     public Grammar(final Set<Symbol> nonterminalSymbols, final Set<Symbol> terminalSymbols,
             final Set<Production> productions, final Symbol startSymbol) {
+        this(nonterminalSymbols, terminalSymbols, productions, startSymbol, new SymbolTable());
+    }
+
+    /**
+     * Class constructor, specifies the formal definition of the grammar and the table in which its symbols are
+     * interned. The symbols of the grammar which aren't in the table are interned in it.
+     *
+     * @param nonterminalSymbols
+     *            the nonterminal symbols.
+     * @param terminalSymbols
+     *            the terminal symbols.
+     * @param productions
+     *            the productions.
+     * @param startSymbol
+     *            the start symbol.
+     * @param symbolTable
+     *            the symbol table.
+     * @since 1.2
+     */
+    public Grammar(final Set<Symbol> nonterminalSymbols, final Set<Symbol> terminalSymbols,
+            final Set<Production> productions, final Symbol startSymbol, final SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
 
         for (final Symbol symbol : nonterminalSymbols) {
             this.nonterminalSymbols.put(symbol.toString(), symbol);
@@ -68,100 +111,215 @@ public class Grammar {
 
         this.startSymbol = startSymbol;
 
+        indexSymbols();
+
         calculateEmptySymbols();
 
         calculateStartsWith();
+
+        calculateSuffixes();
     }
 
+    /*
+     * Indexes the declared symbols and the symbols of the productions, the terminal symbols first, each kind sorted by
+     * the names.
+     */
+    private void indexSymbols() {
+        final Set<Symbol> symbols = new HashSet<>();
+        symbols.addAll(nonterminalSymbols.values());
+        symbols.addAll(terminalSymbols.values());
+        for (final Production production : productionSet) {
+            symbols.add(production.leftSide());
+            symbols.addAll(production.rightSide());
+        }
+
+        indexedSymbols.addAll(symbols);
+        for (final Symbol symbol : symbols) {
+            symbolTable.intern(symbol.name());
+        }
+        indexedSymbols.sort((first, second) -> {
+            if (first.isTerminal() != second.isTerminal()) {
+                return first.isTerminal() ? -1 : 1;
+            }
+            return first.name().compareTo(second.name());
+        });
+
+        int maximumId = NONE;
+        for (int i = 0; i < indexedSymbols.size(); i++) {
+            final Symbol symbol = indexedSymbols.get(i);
+            indexBySymbol.put(symbol, i);
+            maximumId = Math.max(maximumId, symbol.id());
+            if (symbol.isTerminal()) {
+                terminalCount++;
+            }
+        }
+
+        indexById = new int[maximumId + 1];
+        Arrays.fill(indexById, NONE);
+        for (int i = 0; i < indexedSymbols.size(); i++) {
+            if (indexedSymbols.get(i).id() != SymbolTable.NONE) {
+                indexById[indexedSymbols.get(i).id()] = i;
+            }
+        }
+    }
+
+    /*
+     * Returns the symbol with the name, the symbol of the table if the name is interned.
+     */
+    private Symbol symbol(final String name) {
+        final int id = symbolTable.id(name);
+        return id == SymbolTable.NONE ? ProductionParser.parseSymbol(name) : symbolTable.symbol(id);
+    }
+
+    /*
+     * Returns the index of the symbol, the interned symbols are found by their ids.
+     */
+    private int index(final Symbol symbol) {
+        final int id = symbol.id();
+        if ((id >= 0) && (id < indexById.length) && (indexById[id] != NONE)
+                && (indexedSymbols.get(indexById[id]) == symbol)) {
+            return indexById[id];
+        }
+
+        final Integer index = indexBySymbol.get(symbol);
+        return index == null ? NONE : index;
+    }
+
+    /*
+     * A nonterminal symbol is empty if all symbols of one of its productions are empty, repeated until nothing changes.
+     */
     private void calculateEmptySymbols() {
-        boolean change = false;
+        emptySymbols = new boolean[indexedSymbols.size()];
+        boolean change;
         do {
             change = false;
-            for (final Symbol symbol : nonterminalSymbols.values()) {
-                if (!emptySymbols.contains(symbol)) {
-                    for (final Production production : productions.get(symbol)) {
-                        boolean allEmpty = true;
-                        if (!production.isEpsilonProduction()) {
-                            for (final Symbol productionSymbol : production.rightSide()) {
-                                if (!productionSymbol.isTerminal() || !emptySymbols.contains(productionSymbol)) {
-                                    allEmpty = false;
-                                    break;
-                                }
-                            }
-                        }
-                        if (allEmpty) {
-                            change = true;
-                            emptySymbols.add(symbol);
-                            break;
-                        }
+            for (final Production production : productionSet) {
+                final int leftSide = index(production.leftSide());
+                if (emptySymbols[leftSide]) {
+                    continue;
+                }
+
+                boolean allEmpty = true;
+                for (final Symbol symbol : production.rightSide()) {
+                    if (!emptySymbols[index(symbol)]) {
+                        allEmpty = false;
+                        break;
                     }
                 }
+                if (allEmpty) {
+                    emptySymbols[leftSide] = true;
+                    change = true;
+                }
             }
         } while (change);
-
-        emptySymbols.add(ProductionParser.parseSymbol("$"));
     }
 
+    /*
+     * A nonterminal symbol directly starts with the symbols which are preceded only by empty symbols in its
+     * productions. The relation of the nonterminal symbols is closed by the Warshall's algorithm, which adds whole
+     * rows of bits, and the FIRST set of a nonterminal symbol is the union of the directly started terminal symbols of
+     * the nonterminal symbols it starts with.
+     */
     private void calculateStartsWith() {
-        final List<Symbol> orderedSymbols = new ArrayList<>();
-        orderedSymbols.addAll(nonterminalSymbols.values());
-        orderedSymbols.addAll(terminalSymbols.values());
-        Collections.sort(orderedSymbols);
-
-        final boolean[][] table = new boolean[orderedSymbols.size()][];
-        for (int i = 0; i < table.length; i++) {
-            table[i] = new boolean[orderedSymbols.size()];
+        final int nonterminalCount = indexedSymbols.size() - terminalCount;
+        final long[][] direct = new long[nonterminalCount][words(terminalCount)];
+        final long[][] closure = new long[nonterminalCount][words(nonterminalCount)];
+        for (int i = 0; i < nonterminalCount; i++) {
+            set(closure[i], i);
         }
 
-        // ZapocinjeIzravnoZnakom
-        for (int i = 0; i < table.length; i++) {
-            final Symbol symbol = orderedSymbols.get(i);
-            if (productions.containsKey(symbol)) {
-                for (final Production production : productions.get(symbol)) {
-                    if (!production.isEpsilonProduction()) {
-                        for (final Symbol productionSymbol : production.rightSide()) {
-                            table[i][orderedSymbols.indexOf(productionSymbol)] = true;
-                            if (!emptySymbols.contains(productionSymbol)) {
-                                break;
-                            }
-                        }
-                    }
+        for (final Production production : productionSet) {
+            final int leftSide = index(production.leftSide()) - terminalCount;
+            for (final Symbol symbol : production.rightSide()) {
+                final int index = index(symbol);
+                if (index < terminalCount) {
+                    set(direct[leftSide], index);
+                    break;
+                }
 
+                set(closure[leftSide], index - terminalCount);
+                if (!emptySymbols[index]) {
+                    break;
                 }
             }
         }
 
-        // ZapocinjeZnakom
-        for (int i = 0; i < table.length; i++) {
-            table[i][i] = true;
+        for (int k = 0; k < nonterminalCount; k++) {
+            for (int i = 0; i < nonterminalCount; i++) {
+                if (get(closure[i], k)) {
+                    or(closure[i], closure[k]);
+                }
+            }
         }
 
-        for (int n = 0; n < table.length; n++) {
-            for (int i = 0; i < table.length; i++) {
-                for (int j = 0; j < table[i].length; j++) {
-                    if (table[i][j]) {
-                        for (int k = 0; k < table[j].length; k++) {
-                            if (table[j][k]) {
-                                table[i][k] = true;
-                            }
-                        }
-                    }
-
+        startsWith = new TerminalSet[indexedSymbols.size()];
+        for (int i = 0; i < terminalCount; i++) {
+            final long[] words = new long[words(terminalCount)];
+            set(words, i);
+            startsWith[i] = new TerminalSet(words);
+        }
+        for (int i = 0; i < nonterminalCount; i++) {
+            final long[] words = new long[words(terminalCount)];
+            for (int j = 0; j < nonterminalCount; j++) {
+                if (get(closure[i], j)) {
+                    or(words, direct[j]);
                 }
             }
+            startsWith[terminalCount + i] = new TerminalSet(words);
+        }
+    }
+
+    /*
+     * Caches the FIRST sets and the emptiness of the suffixes of the productions, from the last symbol to the first.
+     * Suffixes which start with a symbol that isn't empty share the FIRST set of the symbol.
+     */
+    private void calculateSuffixes() {
+        int count = 0;
+        for (final Production production : productionSet) {
+            suffixOffsets.put(production, count);
+            count += production.rightSide().size() + 1;
         }
 
-        // Read from table
-        for (int i = 0; i < table.length; i++) {
-            final Set<Symbol> starts = new HashSet<>();
-            for (int j = 0; j < table[i].length; j++) {
-                if (table[i][j] && orderedSymbols.get(j).isTerminal()) {
-                    starts.add(orderedSymbols.get(j));
+        suffixStartsWith = new TerminalSet[count];
+        emptySuffixes = new boolean[count];
+        final TerminalSet empty = new TerminalSet(new long[words(terminalCount)]);
+        for (final Production production : productionSet) {
+            final List<Symbol> rightSide = production.rightSide();
+            final int offset = suffixOffsets.get(production);
+            suffixStartsWith[offset + rightSide.size()] = empty;
+            emptySuffixes[offset + rightSide.size()] = true;
+            for (int i = rightSide.size() - 1; i >= 0; i--) {
+                final int index = index(rightSide.get(i));
+                final int suffix = offset + i;
+                emptySuffixes[suffix] = emptySymbols[index] && emptySuffixes[suffix + 1];
+                if (!emptySymbols[index] || suffixStartsWith[suffix + 1].isEmpty()) {
+                    suffixStartsWith[suffix] = startsWith[index];
+                }
+                else {
+                    final long[] words = startsWith[index].words();
+                    or(words, suffixStartsWith[suffix + 1].words());
+                    suffixStartsWith[suffix] = new TerminalSet(words);
                 }
             }
-            startsWith.put(orderedSymbols.get(i), starts);
         }
+    }
+
+    private static int words(final int bits) {
+        return (bits + Long.SIZE - 1) / Long.SIZE;
+    }
 
+    private static void set(final long[] words, final int bit) {
+        words[bit / Long.SIZE] |= 1L << bit;
+    }
+
+    private static boolean get(final long[] words, final int bit) {
+        return (words[bit / Long.SIZE] & (1L << bit)) != 0;
+    }
+
+    private static void or(final long[] target, final long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] |= source[i];
+        }
     }
 
     /**
@@ -177,7 +335,8 @@ public class Grammar {
             return true;
         }
 
-        return emptySymbols.contains(symbol);
+        final int index = index(symbol);
+        return (index != NONE) && emptySymbols[index];
     }
 
     /**
@@ -190,7 +349,7 @@ public class Grammar {
      */
     public boolean isEmptySequence(final List<Symbol> sequence) {
         for (final Symbol symbol : sequence) {
-            if (!emptySymbols.contains(symbol)) {
+            if (!isEmptySymbol(symbol)) {
                 return false;
             }
         }
@@ -214,12 +373,26 @@ public class Grammar {
         }
 
         for (final String name : sequence.split(" ")) {
-            newSequence.add(ProductionParser.parseSymbol(name));
+            newSequence.add(symbol(name));
         }
 
         return isEmptySequence(newSequence);
     }
 
+    /**
+     * Checks if a suffix of the right side of the production can generate a empty sequence.
+     *
+     * @param production
+     *            the production of the grammar.
+     * @param position
+     *            index of the first symbol of the suffix, the length of the right side for the empty suffix.
+     * @return <code>true</code> if the empty sequence can be generated, <code>false</code> otherwise.
+     * @since 1.1
+     */
+    public boolean isEmptySuffix(final Production production, final int position) {
+        return emptySuffixes[suffixOffsets.get(production) + position];
+    }
+
     /**
      * Calculates the set of terminal symbols that can appear instead of the specified symbol.
      *
@@ -231,11 +404,11 @@ public class Grammar {
     public Set<Symbol> startsWith(final Symbol symbol) {
         final Set<Symbol> result = new HashSet<>();
 
-        if (symbol == null) {
+        if ((symbol == null) || (index(symbol) == NONE)) {
             return result;
         }
 
-        result.addAll(startsWith.get(symbol));
+        addSymbols(startsWith[index(symbol)], result);
 
         return result;
     }
@@ -252,17 +425,13 @@ public class Grammar {
         final Set<Symbol> result = new HashSet<>();
 
         for (final Symbol symbol : sequence) {
-            if (symbol.isTerminal()) {
-                result.add(symbol);
-                break;
+            if ((symbol != null) && (index(symbol) != NONE)) {
+                addSymbols(startsWith[index(symbol)], result);
             }
 
             if (!isEmptySymbol(symbol)) {
-                result.addAll(startsWith.get(symbol));
                 break;
             }
-
-            result.addAll(startsWith.get(symbol));
         }
 
         return result;
@@ -281,13 +450,75 @@ public class Grammar {
 
         if (!sequence.equals("$")) {
             for (final String name : sequence.split(" ")) {
-                newSequence.add(ProductionParser.parseSymbol(name));
+                newSequence.add(symbol(name));
             }
         }
 
         return startsWith(newSequence);
     }
 
+    /**
+     * Returns the FIRST set of the symbol of the grammar, the set of a terminal symbol contains only the symbol.
+     *
+     * @param symbol
+     *            the symbol.
+     * @return terminal symbols that are possible instead of the symbol.
+     * @since 1.1
+     */
+    public TerminalSet first(final Symbol symbol) {
+        return startsWith[index(symbol)];
+    }
+
+    /**
+     * Returns the FIRST set of a suffix of the right side of the production.
+     *
+     * @param production
+     *            the production of the grammar.
+     * @param position
+     *            index of the first symbol of the suffix, the length of the right side for the empty suffix.
+     * @return terminal symbols that are possible instead of the suffix.
+     * @since 1.1
+     */
+    public TerminalSet first(final Production production, final int position) {
+        return suffixStartsWith[suffixOffsets.get(production) + position];
+    }
+
+    /**
+     * Returns the number of the indexed terminal symbols, the declared terminal symbols and the terminal symbols of the
+     * productions.
+     *
+     * @return -
+     * @since 1.1
+     */
+    public int terminalCount() {
+        return terminalCount;
+    }
+
+    /**
+     * Returns the terminal symbol with the index.
+     *
+     * @param index
+     *            the index, smaller than {@link #terminalCount()}.
+     * @return the symbol.
+     * @since 1.1
+     */
+    public Symbol terminal(final int index) {
+        return indexedSymbols.get(index);
+    }
+
+    /**
+     * Returns the index of the terminal symbol, its bit in the {@link TerminalSet}s.
+     *
+     * @param symbol
+     *            the symbol.
+     * @return the index, <code>-1</code> if the symbol isn't a terminal symbol of the grammar.
+     * @since 1.1
+     */
+    public int terminalIndex(final Symbol symbol) {
+        final int index = index(symbol);
+        return index < terminalCount ? index : NONE;
+    }
+
     /**
      * Returns all productions of the grammar.
      *
@@ -341,4 +572,20 @@ public class Grammar {
     public Production getStartProduction() {
         return productions.get(startSymbol).get(0);
     }
+
+    /**
+     * Returns the table in which the symbols of the grammar are interned.
+     *
+     * @return the symbol table.
+     * @since 1.2
+     */
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    private void addSymbols(final TerminalSet set, final Set<Symbol> symbols) {
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            symbols.add(indexedSymbols.get(i));
+        }
+    }
 }
@@ -7,11 +7,13 @@ import java.util.Set;
 import hr.fer.zemris.ppj.grammar.interfaces.Symbol;
 
 /**
- * <code>GrammarBuilder</code> is a builder for context free grammars.
+ * <code>GrammarBuilder</code> is a builder for context free grammars. The builder creates the {@link SymbolTable} of
+ * the grammar, the declared symbols are interned in it and the productions can be parsed into it with
+ * {@link #getProductionParser()}.
  *
  * @author Jan Kelemen
  *
- * @version alpha
+ * @version 1.0
  */
 public class GrammarBuilder {
 
@@ -20,6 +22,8 @@ public class GrammarBuilder {
     private final Set<Production> productions = new HashSet<>();
     private Symbol startSymbol;
 
+    private final ProductionParser productionParser = new ProductionParser(new SymbolTable());
+
     /**
      * Class constructor, specifies the nonterminal and terminal symbols and start symbol of the grammar.
      *
@@ -35,17 +39,17 @@ public class GrammarBuilder {
             final String startSymbol) {
 
         for (final String name : nonterminalSymbols) {
-            final Symbol symbol = ProductionParser.parseSymbol(name);
+            final Symbol symbol = productionParser.symbol(name);
 
             if (name.equals(startSymbol)) {
                 this.startSymbol = symbol;
             }
 
-            this.nonterminalSymbols.add(ProductionParser.parseSymbol(name));
+            this.nonterminalSymbols.add(symbol);
         }
 
         for (final String name : terminalSymbols) {
-            this.terminalSymbols.add(ProductionParser.parseSymbol(name));
+            this.terminalSymbols.add(productionParser.symbol(name));
         }
 
     }
@@ -57,7 +61,18 @@ public class GrammarBuilder {
      * @since alpha
      */
     public Grammar build() {
-        return new Grammar(nonterminalSymbols, terminalSymbols, productions, startSymbol);
+        return new Grammar(nonterminalSymbols, terminalSymbols, productions, startSymbol,
+                productionParser.getSymbolTable());
+    }
+
+    /**
+     * Returns the parser which interns the symbols of the productions in the symbol table of the grammar.
+     *
+     * @return the production parser.
+     * @since 1.0
+     */
+    public ProductionParser getProductionParser() {
+        return productionParser;
     }
 
     /**
@@ -8,16 +8,92 @@ import hr.fer.zemris.ppj.grammar.symbols.NonterminalSymbol;
 import hr.fer.zemris.ppj.grammar.symbols.TerminalSymbol;
 
 /**
- * <code>ProductionParser</code> is a utility class which parses context free grammar productions.
+ * <code>ProductionParser</code> is a utility class which parses context free grammar productions. <br>
+ * The static methods create new symbols which aren't interned. A instance of the parser interns the symbols in the
+ * {@link SymbolTable} it is given, so each symbol is parsed into the same instance; the table belongs to a grammar,
+ * see {@link GrammarBuilder#getProductionParser()}.
  *
  * @author Jan Kelemen
  *
- * @version 1.0
+ * @version 1.2
  */
 public class ProductionParser {
 
     private static int productionCounter = 0;
 
+    private final SymbolTable symbolTable;
+    private int productionIndex;
+
+    /**
+     * Class constructor, specifies the table in which the parsed symbols are interned.
+     *
+     * @param symbolTable
+     *            the symbol table.
+     * @since 1.2
+     */
+    public ProductionParser(final SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
+
+    /**
+     * Parses a production from the string definition, the symbols are interned.
+     *
+     * @param production
+     *            the production.
+     * @return parsed production.
+     * @since 1.2
+     */
+    public Production production(final String production) {
+        final String[] symbols = production.split(" ");
+
+        final Symbol leftSide = symbol(symbols[0]);
+        final List<Symbol> rightSide = new ArrayList<>();
+        for (int i = 1; i < symbols.length; i++) {
+            final Symbol symbol = symbol(symbols[i]);
+            if (symbol != null) {
+                rightSide.add(symbol);
+            }
+        }
+
+        return new Production(leftSide, rightSide, productionIndex++);
+    }
+
+    /**
+     * Parses a production from the string definition, the symbols are interned.
+     *
+     * @param leftSide
+     *            the left side of the production.
+     * @param rightSide
+     *            the right side of the production.
+     * @return parsed production.
+     * @since 1.2
+     */
+    public Production production(final String leftSide, final String rightSide) {
+        return production(leftSide + " " + rightSide);
+    }
+
+    /**
+     * Parses a symbol from the string, the symbol is interned.
+     *
+     * @param symbol
+     *            the string representation of the symbol.
+     * @return the parsed symbol, <code>null</code> for the empty sequence.
+     * @since 1.2
+     */
+    public Symbol symbol(final String symbol) {
+        return symbolTable.intern(symbol);
+    }
+
+    /**
+     * Returns the table in which the parsed symbols are interned.
+     *
+     * @return the symbol table.
+     * @since 1.2
+     */
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
     /**
      * Parses a production from the string definition.
      *
@@ -60,7 +136,7 @@ public class ProductionParser {
      *
      * @param symbol
      *            the string representation of the symbol.
-     * @return the parsed symbol.
+     * @return the parsed symbol, <code>null</code> for the empty sequence.
      * @since 1.0
      */
     public static Symbol parseSymbol(final String symbol) {
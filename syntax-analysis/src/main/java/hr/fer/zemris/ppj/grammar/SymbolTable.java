@@ -0,0 +1,89 @@
+package hr.fer.zemris.ppj.grammar;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import hr.fer.zemris.ppj.grammar.interfaces.Symbol;
+import hr.fer.zemris.ppj.grammar.symbols.NonterminalSymbol;
+import hr.fer.zemris.ppj.grammar.symbols.TerminalSymbol;
+
+/**
+ * <code>SymbolTable</code> interns the symbols of the grammar, each name gets one symbol with a dense integer id, in
+ * the order in which the names are interned. The names starting with <code>&lt;</code> are nonterminal symbols, other
+ * names are terminal symbols, <code>$</code> and <code>null</code> are the empty sequence and have no symbol. <br>
+ * A table has a owner which fills it: the {@link Grammar}, whose table is created by the {@link GrammarBuilder} and
+ * filled by its {@link ProductionParser}, or the parser table, which interns the symbols of its actions. The ids of
+ * the symbols can index arrays of the owner. The table isn't synchronized, it is only read once its owner is created.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+public class SymbolTable {
+
+    /**
+     * Id of the names which aren't interned, and of the symbols created outside of a table.
+     */
+    public static final int NONE = -1;
+
+    private final Map<String, Symbol> symbols = new HashMap<>();
+    private final List<Symbol> byId = new ArrayList<>();
+
+    /**
+     * Returns the symbol with the name, the symbol is created the first time the name is interned.
+     *
+     * @param name
+     *            name of the symbol.
+     * @return the symbol, <code>null</code> for the empty sequence.
+     * @since 1.0
+     */
+    public Symbol intern(final String name) {
+        if (name.equals("$") || name.equals("null")) {
+            return null;
+        }
+
+        Symbol symbol = symbols.get(name);
+        if (symbol == null) {
+            symbol = name.startsWith("<") ? new NonterminalSymbol(name, byId.size())
+                    : new TerminalSymbol(name, byId.size());
+            symbols.put(name, symbol);
+            byId.add(symbol);
+        }
+        return symbol;
+    }
+
+    /**
+     * Returns the id of the symbol with the name, without interning it.
+     *
+     * @param name
+     *            name of the symbol.
+     * @return the id, {@link #NONE} if the name isn't interned.
+     * @since 1.0
+     */
+    public int id(final String name) {
+        final Symbol symbol = symbols.get(name);
+        return symbol == null ? NONE : symbol.id();
+    }
+
+    /**
+     * Returns the symbol with the id.
+     *
+     * @param id
+     *            the id.
+     * @return the symbol.
+     * @since 1.0
+     */
+    public Symbol symbol(final int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * @return number of the interned symbols, the ids are smaller than it.
+     * @since 1.0
+     */
+    public int size() {
+        return byId.size();
+    }
+}
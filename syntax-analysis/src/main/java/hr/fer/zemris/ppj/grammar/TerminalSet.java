@@ -0,0 +1,141 @@
+package hr.fer.zemris.ppj.grammar;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * <code>TerminalSet</code> is a immutable set of terminal symbols of a {@link Grammar}, stored as bits indexed by
+ * {@link Grammar#terminalIndex(hr.fer.zemris.ppj.grammar.interfaces.Symbol)}. The sets are created by the grammar, so
+ * the queries of the FIRST sets can return them without copying.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.0
+ */
+public final class TerminalSet {
+
+    private static final int WORD_BITS = 6;
+
+    private final long[] words;
+
+    /*
+     * Creates the set from the words, which are owned by the set from now on.
+     */
+    TerminalSet(final long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Checks if the set contains the terminal symbol.
+     *
+     * @param index
+     *            index of the terminal symbol.
+     * @return <code>true</code> if the symbol is in the set, <code>false</code> otherwise.
+     * @since 1.0
+     */
+    public boolean contains(final int index) {
+        final int word = index >>> WORD_BITS;
+        return (index >= 0) && (word < words.length) && ((words[word] & (1L << index)) != 0);
+    }
+
+    /**
+     * Returns the index of the first terminal symbol in the set which isn't before the specified index.
+     *
+     * @param from
+     *            the index from which the symbols are searched.
+     * @return the index, <code>-1</code> if there is no such symbol.
+     * @since 1.0
+     */
+    public int nextSetBit(final int from) {
+        int word = from >>> WORD_BITS;
+        if (word >= words.length) {
+            return -1;
+        }
+
+        long bits = words[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return (word << WORD_BITS) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == words.length) {
+                return -1;
+            }
+            bits = words[word];
+        }
+    }
+
+    /**
+     * @return number of the terminal symbols in the set.
+     * @since 1.0
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (final long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        return cardinality;
+    }
+
+    /**
+     * @return <code>true</code> if the set is empty, <code>false</code> otherwise.
+     * @since 1.0
+     */
+    public boolean isEmpty() {
+        for (final long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the terminal symbols of the set to the bit set, without creating any objects if the bit set is large
+     * enough.
+     *
+     * @param target
+     *            the bit set.
+     * @since 1.0
+     */
+    public void addTo(final BitSet target) {
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            target.set(i);
+        }
+    }
+
+    /**
+     * @return a new bit set with the terminal symbols of the set.
+     * @since 1.0
+     */
+    public BitSet toBitSet() {
+        return BitSet.valueOf(words);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof TerminalSet)) {
+            return false;
+        }
+        return toBitSet().equals(((TerminalSet) obj).toBitSet());
+    }
+
+    @Override
+    public int hashCode() {
+        return toBitSet().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBitSet().toString();
+    }
+
+    /*
+     * Returns a copy of the words, used by the grammar to build the sets.
+     */
+    long[] words() {
+        return Arrays.copyOf(words, words.length);
+    }
+}
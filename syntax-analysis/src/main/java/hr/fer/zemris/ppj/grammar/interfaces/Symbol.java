@@ -5,7 +5,7 @@ package hr.fer.zemris.ppj.grammar.interfaces;
  *
  * @author Jan Kelemen
  *
- * @version alpha
+ * @version 1.0
  */
 public interface Symbol extends Comparable<Symbol> {
 
@@ -22,4 +22,12 @@ public interface Symbol extends Comparable<Symbol> {
      * @return the name.
      */
     String name();
+
+    /**
+     * Returns the id of the symbol in its {@link hr.fer.zemris.ppj.grammar.SymbolTable}.
+     *
+     * @return the id, {@link hr.fer.zemris.ppj.grammar.SymbolTable#NONE} if the symbol isn't interned.
+     * @since 1.0
+     */
+    int id();
 }
@@ -1,5 +1,6 @@
 package hr.fer.zemris.ppj.grammar.symbols;
 
+import hr.fer.zemris.ppj.grammar.SymbolTable;
 import hr.fer.zemris.ppj.grammar.interfaces.Symbol;
 
 /**
@@ -7,21 +8,36 @@ import hr.fer.zemris.ppj.grammar.interfaces.Symbol;
  *
  * @author Jan Kelemen
  *
- * @version alpha
+ * @version 1.0
  */
 public class TerminalSymbol implements Symbol {
 
     private final String name;
+    private final int id;
 
     /**
-     * Class constructor, specifies the name of the symbol.
+     * Class constructor, specifies the name of the symbol, which isn't interned.
      *
      * @param name
      *            the name.
      * @since alpha
      */
     public TerminalSymbol(final String name) {
+        this(name, SymbolTable.NONE);
+    }
+
+    /**
+     * Class constructor, specifies the name and the id of the symbol, used by the {@link SymbolTable}.
+     *
+     * @param name
+     *            the name.
+     * @param id
+     *            the id.
+     * @since 1.0
+     */
+    public TerminalSymbol(final String name, final int id) {
         this.name = name;
+        this.id = id;
     }
 
     /**
@@ -44,6 +60,16 @@ public class TerminalSymbol implements Symbol {
         return name;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @since 1.0
+     */
+    @Override
+    public int id() {
+        return id;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (o == null) {
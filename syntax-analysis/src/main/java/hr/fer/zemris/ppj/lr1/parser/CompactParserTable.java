@@ -0,0 +1,380 @@
+package hr.fer.zemris.ppj.lr1.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import hr.fer.zemris.ppj.grammar.Production;
+import hr.fer.zemris.ppj.grammar.SymbolTable;
+import hr.fer.zemris.ppj.grammar.interfaces.Symbol;
+import hr.fer.zemris.ppj.lr1.parser.LR1ParserTable.TablePair;
+import hr.fer.zemris.ppj.lr1.parser.actions.AcceptAction;
+import hr.fer.zemris.ppj.lr1.parser.actions.ParserAction;
+import hr.fer.zemris.ppj.lr1.parser.actions.PutAction;
+import hr.fer.zemris.ppj.lr1.parser.actions.ReduceAction;
+import hr.fer.zemris.ppj.lr1.parser.actions.ShiftAction;
+
+/**
+ * <code>CompactParserTable</code> is a table of actions for the LR(1) parser indexed by integers, created with
+ * {@link LR1ParserTable#compact()}. States and productions are numbered densely, the start state has the index
+ * <code>0</code>. Symbols are indexed by their ids in the {@link SymbolTable} of the {@link LR1ParserTable}. <br>
+ * A action is packed in a <code>int</code>, its kind in the lowest two bits and its argument in the others: the target
+ * state of a shift or of a put, which is the shift on a nonterminal symbol, or the index of the production of a reduce.
+ * The error action is <code>0</code>. <br>
+ * The rows of the table are compressed by the row displacement: all rows are laid into one array, each at its own
+ * offset, so that their defined actions don't overlap. A second array contains the state of each defined action, so
+ * the lookup of a action is two array reads and a comparison.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.1
+ */
+public class CompactParserTable {
+
+    /**
+     * Kind of the error action, which is the only action with this kind.
+     */
+    public static final int ERROR = 0;
+
+    /**
+     * Kind of the shift and the put actions, the argument is the target state.
+     */
+    public static final int SHIFT = 1;
+
+    /**
+     * Kind of the reduce action, the argument is the index of the production.
+     */
+    public static final int REDUCE = 2;
+
+    /**
+     * Kind of the accept action.
+     */
+    public static final int ACCEPT = 3;
+
+    private static final int KIND_BITS = 2;
+    private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+
+    private final SymbolTable symbols;
+    private final int symbolCount;
+    private final Map<String, Integer> stateIds = new HashMap<>();
+
+    private final String[] leftSideNames;
+    private final int[] leftSides;
+    private final int[] lengths;
+
+    private final int[] base;
+    private final int[] check;
+    private final int[] value;
+
+    /**
+     * Class constructor, specifies the actions of the table and the table in which their symbols are interned.
+     *
+     * @param actions
+     *            the actions mapped by the states and the symbols.
+     * @param symbols
+     *            the symbol table, contains the symbols of the actions and the left sides of the reduced productions.
+     * @since 1.1
+     */
+    public CompactParserTable(final Map<TablePair, ParserAction> actions, final SymbolTable symbols) {
+        this.symbols = symbols;
+        final Map<String, Integer> productionIds = new HashMap<>();
+        final List<Production> productions = new ArrayList<>();
+        stateIds.put("0", 0);
+
+        int maximum = SymbolTable.NONE;
+        for (final TablePair pair : actions.keySet()) {
+            maximum = Math.max(maximum, id(pair.getSymbol()));
+            index(pair.getState(), stateIds);
+        }
+        symbolCount = maximum + 1;
+
+        final List<List<int[]>> rows = new ArrayList<>();
+        for (final Map.Entry<TablePair, ParserAction> entry : actions.entrySet()) {
+            final int state = index(entry.getKey().getState(), stateIds);
+            final int symbol = id(entry.getKey().getSymbol());
+            final ParserAction action = entry.getValue();
+
+            final int packed;
+            if (action instanceof ShiftAction) {
+                packed = pack(SHIFT, index(((ShiftAction) action).stateID(), stateIds));
+            }
+            else if (action instanceof PutAction) {
+                packed = pack(SHIFT, index(((PutAction) action).stateID(), stateIds));
+            }
+            else if (action instanceof ReduceAction) {
+                final Production production = ((ReduceAction) action).production();
+                Integer index = productionIds.get(production.toString());
+                if (index == null) {
+                    index = productions.size();
+                    productionIds.put(production.toString(), index);
+                    productions.add(production);
+                }
+                packed = pack(REDUCE, index);
+            }
+            else if (action instanceof AcceptAction) {
+                packed = pack(ACCEPT, 0);
+            }
+            else {
+                continue;
+            }
+
+            while (rows.size() <= state) {
+                rows.add(new ArrayList<int[]>());
+            }
+            rows.get(state).add(new int[] { symbol, packed });
+        }
+        while (rows.size() < stateIds.size()) {
+            rows.add(new ArrayList<int[]>());
+        }
+
+        leftSideNames = new String[productions.size()];
+        leftSides = new int[productions.size()];
+        lengths = new int[productions.size()];
+        for (int i = 0; i < productions.size(); i++) {
+            final Production production = productions.get(i);
+            leftSideNames[i] = production.leftSide().toString();
+            leftSides[i] = id(production.leftSide());
+            lengths[i] = production.rightSide().size();
+        }
+
+        base = new int[rows.size()];
+        final int[][] layout = displace(rows, symbolCount);
+        check = layout[0];
+        value = layout[1];
+    }
+
+    /*
+     * Lays the rows into one array, the densest rows first, each at the first offset at which its actions fall into
+     * free places. Returns the states and the actions of the places.
+     */
+    private int[][] displace(final List<List<int[]>> rows, final int symbolCount) {
+        final Integer[] order = new Integer[rows.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (first, second) -> Integer.compare(rows.get(second).size(), rows.get(first).size()));
+
+        int[] states = new int[symbolCount];
+        int[] actions = new int[symbolCount];
+        Arrays.fill(states, SymbolTable.NONE);
+        for (final int state : order) {
+            final List<int[]> row = rows.get(state);
+            int offset = 0;
+            while (!fits(row, offset, states)) {
+                offset++;
+            }
+
+            base[state] = offset;
+            if ((offset + symbolCount) > states.length) {
+                final int oldSize = states.length;
+                final int size = Math.max(oldSize * 2, offset + symbolCount);
+                states = Arrays.copyOf(states, size);
+                actions = Arrays.copyOf(actions, size);
+                Arrays.fill(states, oldSize, size, SymbolTable.NONE);
+            }
+            for (final int[] entry : row) {
+                states[offset + entry[0]] = state;
+                actions[offset + entry[0]] = entry[1];
+            }
+        }
+
+        // Every lookup of a known symbol stays in the arrays.
+        int size = 0;
+        for (final int offset : base) {
+            size = Math.max(size, offset + symbolCount);
+        }
+        return new int[][] { Arrays.copyOf(states, size), Arrays.copyOf(actions, size) };
+    }
+
+    private static boolean fits(final List<int[]> row, final int offset, final int[] check) {
+        for (final int[] entry : row) {
+            final int index = offset + entry[0];
+            if ((index < check.length) && (check[index] != SymbolTable.NONE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Returns the id of the symbol in the symbol table, the symbol can be interned in another table.
+     */
+    private int id(final Symbol symbol) {
+        return symbols.id(symbol.name());
+    }
+
+    private static int index(final String id, final Map<String, Integer> ids) {
+        Integer index = ids.get(id);
+        if (index == null) {
+            index = ids.size();
+            ids.put(id, index);
+        }
+        return index;
+    }
+
+    private static int pack(final int kind, final int argument) {
+        return (argument << KIND_BITS) | kind;
+    }
+
+    /**
+     * Returns the packed action for the state and the symbol.
+     *
+     * @param state
+     *            index of the state.
+     * @param symbol
+     *            id of the symbol, can be {@link SymbolTable#NONE}.
+     * @return the action, <code>0</code> if the action isn't defined.
+     * @since 1.0
+     */
+    public int action(final int state, final int symbol) {
+        if ((symbol < 0) || (symbol >= symbolCount)) {
+            return ERROR;
+        }
+
+        final int index = base[state] + symbol;
+        return check[index] == state ? value[index] : ERROR;
+    }
+
+    /**
+     * Returns the id of the symbol with the name.
+     *
+     * @param name
+     *            name of the symbol.
+     * @return the id, {@link SymbolTable#NONE} if there are no actions on the symbol.
+     * @since 1.1
+     */
+    public int symbol(final String name) {
+        return symbols.id(name);
+    }
+
+    /**
+     * Returns the index of the state with the id.
+     *
+     * @param id
+     *            id of the state in the {@link LR1ParserTable}.
+     * @return the index, <code>-1</code> if there are no actions from or to the state.
+     * @since 1.1
+     */
+    public int state(final String id) {
+        final Integer index = stateIds.get(id);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the table in which the symbols of the table are interned.
+     *
+     * @return the symbol table.
+     * @since 1.1
+     */
+    public SymbolTable getSymbolTable() {
+        return symbols;
+    }
+
+    /**
+     * Returns the kind of the packed action.
+     *
+     * @param action
+     *            the action.
+     * @return one of {@link #ERROR}, {@link #SHIFT}, {@link #REDUCE} and {@link #ACCEPT}.
+     * @since 1.0
+     */
+    public static int kind(final int action) {
+        return action & KIND_MASK;
+    }
+
+    /**
+     * Returns the argument of the packed action.
+     *
+     * @param action
+     *            the action.
+     * @return the target state or the index of the production.
+     * @since 1.0
+     */
+    public static int argument(final int action) {
+        return action >>> KIND_BITS;
+    }
+
+    /**
+     * @return number of the columns, the ids of the symbols in the table are smaller than it.
+     * @since 1.0
+     */
+    public int symbolCount() {
+        return symbolCount;
+    }
+
+    /**
+     * @return number of the states.
+     * @since 1.0
+     */
+    public int stateCount() {
+        return base.length;
+    }
+
+    /**
+     * @return number of the places in the compressed rows.
+     * @since 1.0
+     */
+    public int size() {
+        return value.length;
+    }
+
+    /**
+     * Returns the index of the left side of the production.
+     *
+     * @param production
+     *            index of the production.
+     * @return id of the symbol.
+     * @since 1.0
+     */
+    public int leftSide(final int production) {
+        return leftSides[production];
+    }
+
+    /**
+     * Returns the name of the left side of the production.
+     *
+     * @param production
+     *            index of the production.
+     * @return name of the symbol.
+     * @since 1.0
+     */
+    public String leftSideName(final int production) {
+        return leftSideNames[production];
+    }
+
+    /**
+     * Returns the length of the right side of the production.
+     *
+     * @param production
+     *            index of the production.
+     * @return number of the symbols, <code>0</code> for the epsilon production.
+     * @since 1.0
+     */
+    public int length(final int production) {
+        return lengths[production];
+    }
+
+    /**
+     * Returns a list of symbols for which a action is defined from the state.
+     *
+     * @param state
+     *            index of the state.
+     * @return list of symbols, <code>$</code> if there are none.
+     * @since 1.0
+     */
+    public List<String> expected(final int state) {
+        final List<String> list = new ArrayList<>();
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            if (action(state, symbol) != ERROR) {
+                list.add(symbols.symbol(symbol).toString());
+            }
+        }
+
+        if (list.isEmpty()) {
+            list.add("$");
+        }
+        return list;
+    }
+}
@@ -0,0 +1,674 @@
+package hr.fer.zemris.ppj.lr1.parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+
+import hr.fer.zemris.ppj.finite.automaton.BasicInput;
+import hr.fer.zemris.ppj.finite.automaton.DFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
+import hr.fer.zemris.ppj.finite.automaton.transfer.DFAutomatonTransferFunction;
+import hr.fer.zemris.ppj.finite.automaton.transfer.DeterministicTransition;
+import hr.fer.zemris.ppj.grammar.Grammar;
+import hr.fer.zemris.ppj.grammar.Production;
+import hr.fer.zemris.ppj.grammar.ProductionParser;
+import hr.fer.zemris.ppj.grammar.interfaces.Symbol;
+import hr.fer.zemris.ppj.grammar.symbols.TerminalSymbol;
+
+/**
+ * <code>LR1CollectionBuilder</code> builds the collection of LR(1) item sets of the grammar directly, with the closure
+ * and goto functions, without the automaton with e-moves of single items. <br>
+ * A item is a production and the position of the marker, numbered with a integer id, and its lookaheads are a bit set
+ * of terminal symbol ids. The FIRST set and the nullability of the rest of the production after the symbol behind the
+ * marker are computed once per item. A item set is identified by its kernel, the items with the marker after the first
+ * symbol and the start item, so each goto only computes the kernel of the next set to find out if it's new. <br>
+ * The collection is built in one of the {@link Mode}s: the canonical collection, the LALR(1) collection or the minimal
+ * LR(1) collection in which the sets with the same core are merged if they are compatible. Conflicts of the grammar are
+ * resolved when the table is filled, so a merged set can resolve them differently than its canonical sets would. A
+ * merged set can also reduce on a symbol on which one of its canonical sets reports a error, the error is then found
+ * before the next shift. <br>
+ * The result is a deterministic automaton of {@link LRState}s whose transitions are the goto function, the start state
+ * has the id <code>0</code>, other states are numbered in the breadth first order of the transitions.
+ *
+ * @author Jan Kelemen
+ *
+ * @version 1.1
+ */
+public class LR1CollectionBuilder {
+
+    /**
+     * <code>Mode</code> specifies which collection of item sets is built.
+     *
+     * @author Jan Kelemen
+     *
+     * @version 1.1
+     */
+    public enum Mode {
+        /**
+         * Canonical LR(1) collection, sets are equal if their kernels have equal items and lookaheads.
+         */
+        CANONICAL,
+        /**
+         * LALR(1) collection, the LR(0) collection with the lookaheads of the complete items computed with the
+         * relations of DeRemer and Pennello. Only the complete items have lookaheads.
+         */
+        LALR,
+        /**
+         * Minimal LR(1) collection, a new set is merged with a set of the same core if they are weakly compatible by
+         * Pager: merging two kernel items can't cause a conflict between them unless they already conflict in one of
+         * the sets. A set whose lookaheads grew by merging is processed again.
+         */
+        MINIMAL
+    }
+
+    /**
+     * The end of input symbol, the lookahead of the start item.
+     */
+    public static final TerminalSymbol END_SYMBOL = (TerminalSymbol) ProductionParser.parseSymbol("#");
+
+    private static final int NONE = -1;
+
+    /*
+     * Core of a item set, the items of its kernel sorted by their ids.
+     */
+    private static class Core {
+
+        public final int[] items;
+        private final int hash;
+
+        public Core(final int[] items) {
+            this.items = items;
+            hash = Arrays.hashCode(items);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Core)) {
+                return false;
+            }
+            final Core other = (Core) obj;
+            return (hash == other.hash) && Arrays.equals(items, other.items);
+        }
+    }
+
+    /*
+     * Item set, the lookaheads of its kernel are aligned with the items of the core. The closure and the transitions
+     * are computed when the set is processed.
+     */
+    private static class ItemSet {
+
+        public final Core core;
+        public final BitSet[] lookaheads;
+        public final List<Integer> items = new ArrayList<>();
+        public final List<BitSet> itemLookaheads = new ArrayList<>();
+        public final Map<Integer, Integer> transitions = new TreeMap<>();
+        public boolean queued;
+
+        public ItemSet(final Core core, final BitSet[] lookaheads) {
+            this.core = core;
+            this.lookaheads = lookaheads;
+        }
+    }
+
+    /*
+     * Stack of the digraph algorithm.
+     */
+    private static class IntStack {
+
+        private int[] elements = new int[16];
+        private int size;
+
+        public void push(final int element) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+            elements[size++] = element;
+        }
+
+        public int pop() {
+            return elements[--size];
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+
+    private final Grammar grammar;
+    private final Mode mode;
+
+    // Symbols, terminal symbols are numbered first so their ids are the bits of the lookaheads.
+    private final List<Symbol> symbols = new ArrayList<>();
+    private final Map<Symbol, Integer> symbolIds = new HashMap<>();
+    private int terminalCount;
+
+    private final List<Production> productions = new ArrayList<>();
+    private int[][] productionsOf;
+
+    // Items of the production p have the ids from firstItem[p] to firstItem[p] + length of the right side.
+    private int[] firstItem;
+    private int[] itemProduction;
+    private int[] itemDot;
+    private int[] nextSymbol;
+    private BitSet[] restFirst;
+    private boolean[] restNullable;
+
+    private final List<ItemSet> sets = new ArrayList<>();
+    private final Map<Core, List<Integer>> setsByCore = new HashMap<>();
+    private final Queue<Integer> unprocessed = new ArrayDeque<>();
+
+    /**
+     * Class constructor, specifies the grammar, the canonical collection is built.
+     *
+     * @param grammar
+     *            the grammar.
+     * @since 1.0
+     */
+    public LR1CollectionBuilder(final Grammar grammar) {
+        this(grammar, Mode.CANONICAL);
+    }
+
+    /**
+     * Class constructor, specifies the grammar and the collection which is built.
+     *
+     * @param grammar
+     *            the grammar.
+     * @param mode
+     *            the collection.
+     * @since 1.1
+     */
+    public LR1CollectionBuilder(final Grammar grammar, final Mode mode) {
+        this.grammar = grammar;
+        this.mode = mode;
+    }
+
+    /**
+     * Builds the collection of item sets.
+     *
+     * @return automaton of the item sets.
+     * @since 1.0
+     */
+    public DFAutomaton build() {
+        numberSymbols();
+        numberItems();
+
+        final BitSet end = new BitSet(terminalCount);
+        if (mode != Mode.LALR) {
+            end.set(symbolIds.get(END_SYMBOL));
+        }
+        findSet(new Core(new int[] { firstItem[productions.indexOf(grammar.getStartProduction())] }),
+                new BitSet[] { end });
+
+        final int[] closureIndex = new int[itemProduction.length];
+        Arrays.fill(closureIndex, NONE);
+        while (!unprocessed.isEmpty()) {
+            final ItemSet set = sets.get(unprocessed.poll());
+            set.queued = false;
+            closure(set, closureIndex);
+
+            set.transitions.clear();
+            for (final Map.Entry<Integer, List<Integer>> next : moved(set).entrySet()) {
+                final List<Integer> positions = next.getValue();
+                final int[] items = new int[positions.size()];
+                final BitSet[] lookaheads = new BitSet[positions.size()];
+                for (int i = 0; i < items.length; i++) {
+                    items[i] = set.items.get(positions.get(i)) + 1;
+                    lookaheads[i] = (BitSet) set.itemLookaheads.get(positions.get(i)).clone();
+                }
+                set.transitions.put(next.getKey(), findSet(new Core(items), lookaheads));
+            }
+        }
+
+        if (mode == Mode.LALR) {
+            computeLookaheads();
+        }
+        return toAutomaton();
+    }
+
+    /*
+     * Returns the index of the set with the kernel. If a compatible set with the same core exists the kernel is merged
+     * with it, and the set is processed again if its lookaheads grew, otherwise a new set is added.
+     */
+    private int findSet(final Core core, final BitSet[] lookaheads) {
+        List<Integer> candidates = setsByCore.get(core);
+        if (candidates == null) {
+            candidates = new ArrayList<>();
+            setsByCore.put(core, candidates);
+        }
+
+        for (final int index : candidates) {
+            final ItemSet set = sets.get(index);
+            if (isCompatible(set.lookaheads, lookaheads)) {
+                boolean grown = false;
+                for (int i = 0; i < lookaheads.length; i++) {
+                    final int size = set.lookaheads[i].cardinality();
+                    set.lookaheads[i].or(lookaheads[i]);
+                    grown |= set.lookaheads[i].cardinality() != size;
+                }
+                if (grown && !set.queued) {
+                    set.queued = true;
+                    unprocessed.add(index);
+                }
+                return index;
+            }
+        }
+
+        final ItemSet set = new ItemSet(core, lookaheads);
+        set.queued = true;
+        sets.add(set);
+        candidates.add(sets.size() - 1);
+        unprocessed.add(sets.size() - 1);
+        return sets.size() - 1;
+    }
+
+    private boolean isCompatible(final BitSet[] first, final BitSet[] second) {
+        switch (mode) {
+            case LALR:
+                return true;
+            case MINIMAL:
+                for (int i = 0; i < first.length; i++) {
+                    for (int j = i + 1; j < first.length; j++) {
+                        if ((first[i].intersects(second[j]) || second[i].intersects(first[j]))
+                                && !first[i].intersects(first[j]) && !second[i].intersects(second[j])) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            default:
+                return Arrays.equals(first, second);
+        }
+    }
+
+    /*
+     * Computes the closure of the kernel of the set. The lookaheads of the items behind a nonterminal symbol are
+     * propagated until nothing changes, a item is processed again only if its lookaheads grew. The lookaheads aren't
+     * propagated when the LALR(1) collection is built. The closure index maps the item ids to their positions in the
+     * closure and is cleared before returning.
+     */
+    private void closure(final ItemSet set, final int[] closureIndex) {
+        final List<Integer> items = set.items;
+        final List<BitSet> lookaheads = set.itemLookaheads;
+        items.clear();
+        lookaheads.clear();
+
+        final Queue<Integer> queue = new ArrayDeque<>();
+        final BitSet queued = new BitSet();
+        for (int i = 0; i < set.core.items.length; i++) {
+            closureIndex[set.core.items[i]] = i;
+            items.add(set.core.items[i]);
+            lookaheads.add((BitSet) set.lookaheads[i].clone());
+            queue.add(i);
+            queued.set(i);
+        }
+
+        while (!queue.isEmpty()) {
+            final int index = queue.poll();
+            queued.clear(index);
+
+            final int item = items.get(index);
+            final int symbol = nextSymbol[item];
+            if ((symbol == NONE) || (symbol < terminalCount)) {
+                continue;
+            }
+
+            final BitSet added = new BitSet(terminalCount);
+            if (mode != Mode.LALR) {
+                added.or(restFirst[item]);
+                if (restNullable[item]) {
+                    added.or(lookaheads.get(index));
+                }
+            }
+
+            for (final int production : productionsOf[symbol - terminalCount]) {
+                final int startItem = firstItem[production];
+                int position = closureIndex[startItem];
+                if (position == NONE) {
+                    position = items.size();
+                    closureIndex[startItem] = position;
+                    items.add(startItem);
+                    lookaheads.add((BitSet) added.clone());
+                }
+                else {
+                    final BitSet existing = lookaheads.get(position);
+                    final int size = existing.cardinality();
+                    existing.or(added);
+                    if (existing.cardinality() == size) {
+                        continue;
+                    }
+                }
+
+                if (!queued.get(position)) {
+                    queued.set(position);
+                    queue.add(position);
+                }
+            }
+        }
+
+        for (final int item : items) {
+            closureIndex[item] = NONE;
+        }
+    }
+
+    /*
+     * Groups the positions of the closure items by the symbols behind their markers. Items with the marker before the
+     * same symbol move to distinct items, sorting them by their ids sorts the next kernel.
+     */
+    private Map<Integer, List<Integer>> moved(final ItemSet set) {
+        final Map<Integer, List<Integer>> moved = new HashMap<>();
+        for (int i = 0; i < set.items.size(); i++) {
+            final int symbol = nextSymbol[set.items.get(i)];
+            if (symbol != NONE) {
+                List<Integer> positions = moved.get(symbol);
+                if (positions == null) {
+                    positions = new ArrayList<>();
+                    moved.put(symbol, positions);
+                }
+                positions.add(i);
+            }
+        }
+
+        for (final List<Integer> positions : moved.values()) {
+            Collections.sort(positions,
+                    (first, second) -> Integer.compare(set.items.get(first), set.items.get(second)));
+        }
+        return moved;
+    }
+
+    /*
+     * Computes the lookaheads of the complete items of the LR(0) collection with the relations of DeRemer and Pennello
+     * over its nonterminal transitions. The start set gets a transition on the start symbol which reads the end symbol,
+     * so the lookahead of the start production is computed as any other.
+     */
+    private void computeLookaheads() {
+        final List<Integer> from = new ArrayList<>();
+        final List<Integer> on = new ArrayList<>();
+        final Map<Long, Integer> transitions = new HashMap<>();
+        addTransition(0, symbolIds.get(grammar.getStartProduction().leftSide()), from, on, transitions);
+        for (int i = 0; i < sets.size(); i++) {
+            for (final int symbol : sets.get(i).transitions.keySet()) {
+                if (symbol >= terminalCount) {
+                    addTransition(i, symbol, from, on, transitions);
+                }
+            }
+        }
+
+        // The sets start as the directly read symbols, become the read symbols and then the follow symbols.
+        final int count = from.size();
+        final BitSet[] follow = new BitSet[count];
+        final List<List<Integer>> reads = new ArrayList<>();
+        final List<List<Integer>> includes = new ArrayList<>();
+        for (int x = 0; x < count; x++) {
+            follow[x] = new BitSet(terminalCount);
+            reads.add(new ArrayList<Integer>());
+            includes.add(new ArrayList<Integer>());
+        }
+
+        follow[0].set(symbolIds.get(END_SYMBOL));
+        for (int x = 1; x < count; x++) {
+            final int target = sets.get(from.get(x)).transitions.get(on.get(x));
+            for (final int symbol : sets.get(target).transitions.keySet()) {
+                if (symbol < terminalCount) {
+                    follow[x].set(symbol);
+                }
+                else if (grammar.isEmptySymbol(symbols.get(symbol))) {
+                    reads.get(x).add(transitions.get(key(target, symbol)));
+                }
+            }
+        }
+        digraph(follow, reads);
+
+        // Walks the right sides of the productions from each transition, the transitions are the lookback of the
+        // complete items at the ends of the walks.
+        final Map<Long, List<Integer>> lookback = new HashMap<>();
+        for (int x = 0; x < count; x++) {
+            for (final int production : productionsOf[on.get(x) - terminalCount]) {
+                int state = from.get(x);
+                int item = firstItem[production];
+                for (; nextSymbol[item] != NONE; item++) {
+                    final int symbol = nextSymbol[item];
+                    if ((symbol >= terminalCount) && restNullable[item]) {
+                        includes.get(transitions.get(key(state, symbol))).add(x);
+                    }
+                    state = sets.get(state).transitions.get(symbol);
+                }
+
+                List<Integer> lookbackOf = lookback.get(key(state, item));
+                if (lookbackOf == null) {
+                    lookbackOf = new ArrayList<>();
+                    lookback.put(key(state, item), lookbackOf);
+                }
+                lookbackOf.add(x);
+            }
+        }
+        digraph(follow, includes);
+
+        for (int i = 0; i < sets.size(); i++) {
+            final ItemSet set = sets.get(i);
+            for (int j = 0; j < set.items.size(); j++) {
+                final List<Integer> lookbackOf = lookback.get(key(i, set.items.get(j)));
+                if (lookbackOf != null) {
+                    for (final int x : lookbackOf) {
+                        set.itemLookaheads.get(j).or(follow[x]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addTransition(final int state, final int symbol, final List<Integer> from,
+            final List<Integer> on, final Map<Long, Integer> transitions) {
+        transitions.put(key(state, symbol), from.size());
+        from.add(state);
+        on.add(symbol);
+    }
+
+    private static long key(final int first, final int second) {
+        return ((long) first << 32) | second;
+    }
+
+    /*
+     * Digraph algorithm of DeRemer and Pennello, each set becomes the union of the sets reachable by the relation. The
+     * members of a strongly connected component get copies of the same set.
+     */
+    private static void digraph(final BitSet[] sets, final List<List<Integer>> relation) {
+        final int[] depth = new int[sets.length];
+        final IntStack stack = new IntStack();
+        for (int x = 0; x < sets.length; x++) {
+            if (depth[x] == 0) {
+                traverse(x, sets, relation, depth, stack);
+            }
+        }
+    }
+
+    private static void traverse(final int x, final BitSet[] sets, final List<List<Integer>> relation,
+            final int[] depth, final IntStack stack) {
+        stack.push(x);
+        final int d = stack.size();
+        depth[x] = d;
+        for (final int y : relation.get(x)) {
+            if (depth[y] == 0) {
+                traverse(y, sets, relation, depth, stack);
+            }
+            depth[x] = Math.min(depth[x], depth[y]);
+            sets[x].or(sets[y]);
+        }
+
+        if (depth[x] == d) {
+            int top;
+            do {
+                top = stack.pop();
+                depth[top] = Integer.MAX_VALUE;
+                if (top != x) {
+                    sets[top] = (BitSet) sets[x].clone();
+                }
+            } while (top != x);
+        }
+    }
+
+    /*
+     * Creates the states of the sets reachable from the start set, numbered in the breadth first order.
+     */
+    private DFAutomaton toAutomaton() {
+        final int[] ids = new int[sets.size()];
+        Arrays.fill(ids, NONE);
+        final List<Integer> order = new ArrayList<>();
+        ids[0] = 0;
+        order.add(0);
+        for (int i = 0; i < order.size(); i++) {
+            for (final int target : sets.get(order.get(i)).transitions.values()) {
+                if (ids[target] == NONE) {
+                    ids[target] = order.size();
+                    order.add(target);
+                }
+            }
+        }
+
+        final List<LRState> states = new ArrayList<>();
+        for (final int index : order) {
+            final ItemSet set = sets.get(index);
+            final List<LRItem> items = new ArrayList<>();
+            for (int i = 0; i < set.items.size(); i++) {
+                final int item = set.items.get(i);
+                items.add(new LRItem(productions.get(itemProduction[item]), itemDot[item],
+                        toSymbols(set.itemLookaheads.get(i))));
+            }
+            states.add(new LRState(items, states.size()));
+        }
+
+        final Map<Integer, Input> inputs = new HashMap<>();
+        final Set<DeterministicTransition> transitions = new HashSet<>();
+        for (final int index : order) {
+            for (final Map.Entry<Integer, Integer> transition : sets.get(index).transitions.entrySet()) {
+                Input input = inputs.get(transition.getKey());
+                if (input == null) {
+                    input = new BasicInput(symbols.get(transition.getKey()));
+                    inputs.put(transition.getKey(), input);
+                }
+                transitions.add(new DeterministicTransition(states.get(ids[index]),
+                        states.get(ids[transition.getValue()]), input));
+            }
+        }
+
+        final Set<State> automatonStates = new HashSet<State>(states);
+        return new DFAutomaton(automatonStates, automatonStates, new HashSet<>(inputs.values()),
+                new DFAutomatonTransferFunction(transitions), states.get(0));
+    }
+
+    private Set<Symbol> toSymbols(final BitSet lookaheads) {
+        final Set<Symbol> result = new HashSet<>();
+        for (int i = lookaheads.nextSetBit(0); i >= 0; i = lookaheads.nextSetBit(i + 1)) {
+            result.add(symbols.get(i));
+        }
+        return result;
+    }
+
+    /*
+     * Numbers the terminal symbols in the order of their indexes in the grammar, so the FIRST sets of the grammar are
+     * valid sets of the numbered symbols, and the end symbol, then the nonterminal symbols. Symbols of the productions
+     * which aren't declared are numbered too.
+     */
+    private void numberSymbols() {
+        productions.addAll(grammar.productions());
+        Collections.sort(productions);
+
+        final List<Symbol> terminals = new ArrayList<>();
+        for (int i = 0; i < grammar.terminalCount(); i++) {
+            terminals.add(grammar.terminal(i));
+        }
+        terminals.add(END_SYMBOL);
+        final List<Symbol> nonterminals = new ArrayList<>(grammar.nonterminalSymbols());
+        for (final Production production : productions) {
+            nonterminals.add(production.leftSide());
+            for (final Symbol symbol : production.rightSide()) {
+                if (!symbol.isTerminal()) {
+                    nonterminals.add(symbol);
+                }
+            }
+        }
+
+        for (final Symbol symbol : terminals) {
+            addSymbol(symbol);
+        }
+        terminalCount = symbols.size();
+        for (final Symbol symbol : nonterminals) {
+            addSymbol(symbol);
+        }
+
+        final List<List<Integer>> byLeftSide = new ArrayList<>();
+        for (int i = terminalCount; i < symbols.size(); i++) {
+            byLeftSide.add(new ArrayList<Integer>());
+        }
+        for (int i = 0; i < productions.size(); i++) {
+            byLeftSide.get(symbolIds.get(productions.get(i).leftSide()) - terminalCount).add(i);
+        }
+
+        productionsOf = new int[byLeftSide.size()][];
+        for (int i = 0; i < productionsOf.length; i++) {
+            productionsOf[i] = new int[byLeftSide.get(i).size()];
+            for (int j = 0; j < productionsOf[i].length; j++) {
+                productionsOf[i][j] = byLeftSide.get(i).get(j);
+            }
+        }
+    }
+
+    private void addSymbol(final Symbol symbol) {
+        if (!symbolIds.containsKey(symbol)) {
+            symbolIds.put(symbol, symbols.size());
+            symbols.add(symbol);
+        }
+    }
+
+    /*
+     * Numbers the items and computes the FIRST set and the nullability of the rest of each production after the
+     * symbol behind the marker.
+     */
+    private void numberItems() {
+        firstItem = new int[productions.size()];
+        int itemCount = 0;
+        for (int i = 0; i < productions.size(); i++) {
+            firstItem[i] = itemCount;
+            itemCount += productions.get(i).rightSide().size() + 1;
+        }
+
+        itemProduction = new int[itemCount];
+        itemDot = new int[itemCount];
+        nextSymbol = new int[itemCount];
+        restFirst = new BitSet[itemCount];
+        restNullable = new boolean[itemCount];
+        for (int i = 0; i < productions.size(); i++) {
+            final List<Symbol> rightSide = productions.get(i).rightSide();
+            for (int dot = 0; dot <= rightSide.size(); dot++) {
+                final int item = firstItem[i] + dot;
+                itemProduction[item] = i;
+                itemDot[item] = dot;
+                if (dot == rightSide.size()) {
+                    nextSymbol[item] = NONE;
+                    continue;
+                }
+
+                nextSymbol[item] = symbolIds.get(rightSide.get(dot));
+                restNullable[item] = grammar.isEmptySuffix(productions.get(i), dot + 1);
+                restFirst[item] = grammar.first(productions.get(i), dot + 1).toBitSet();
+            }
+        }
+    }
+}
@@ -3,31 +3,35 @@ package hr.fer.zemris.ppj.lr1.parser;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EmptyStackException;
 import java.util.List;
-import java.util.Stack;
 
 import hr.fer.zemris.ppj.Lexeme;
-import hr.fer.zemris.ppj.grammar.Production;
-import hr.fer.zemris.ppj.grammar.ProductionParser;
+import hr.fer.zemris.ppj.grammar.SymbolTable;
 import hr.fer.zemris.ppj.grammar.interfaces.Symbol;
-import hr.fer.zemris.ppj.lr1.parser.actions.AcceptAction;
-import hr.fer.zemris.ppj.lr1.parser.actions.ParserAction;
-import hr.fer.zemris.ppj.lr1.parser.actions.PutAction;
-import hr.fer.zemris.ppj.lr1.parser.actions.ReduceAction;
-import hr.fer.zemris.ppj.lr1.parser.actions.RejectAction;
-import hr.fer.zemris.ppj.lr1.parser.actions.ShiftAction;
 
 /**
- * <code>LR1Parser</code> represents a canonical LR(1) parser.
+ * <code>LR1Parser</code> represents a canonical LR(1) parser. It runs on the {@link CompactParserTable} of its table,
+ * with the states and the subtrees in arrays, so the lookups of the actions and the stack don't allocate anything; only
+ * the nodes of the generative tree are created while parsing. Lexemes created with the symbol table of the parser
+ * table are looked up by the ids of their types, other lexemes by the names of their types.
  *
  * @author Matea Sabolic
  *
- * @version alpha
+ * @version 1.0
  */
 public class LR1Parser {
 
-    private final LR1ParserTable table;
-    private final List<Symbol> syncSymbols;
+    private static final int INITIAL_DEPTH = 64;
+
+    private final CompactParserTable table;
+    private final SymbolTable symbols;
+    private final BitSet syncSymbols = new BitSet();
+
+    private int[] states;
+    private Node[] trees;
+    private int depth;
 
     /**
      * Class constructor, specifies the actions of the parser.
@@ -39,8 +43,13 @@ public class LR1Parser {
      * @since alpha
      */
     public LR1Parser(final LR1ParserTable table, final List<Symbol> syncSymbols) {
-        this.table = table;
-        this.syncSymbols = syncSymbols;
+        this.table = table.compact();
+        symbols = this.table.getSymbolTable();
+        for (final Symbol symbol : syncSymbols) {
+            if ((symbol != null) && (symbols.id(symbol.name()) != SymbolTable.NONE)) {
+                this.syncSymbols.set(symbols.id(symbol.name()));
+            }
+        }
     }
 
     /**
@@ -54,90 +63,115 @@ public class LR1Parser {
      * @since alpha
      */
     public Node analyze(final List<Lexeme> lexemes, final PrintStream errorStream) {
-        final Stack<String> stack = new Stack<>();
-        stack.push("0");
+        states = new int[INITIAL_DEPTH];
+        trees = new Node[INITIAL_DEPTH];
+        depth = 1;
 
-        final Stack<Node> tree = new Stack<>();
         for (int i = 0; i < lexemes.size();) { // Increment expression is left out on purpose
             final Lexeme lexeme = lexemes.get(i);
-            final String state = stack.peek();
-            final String symbol = lexeme.type();
-
-            final ParserAction action = table.getAction(state, symbol);
-            errorStream.println(state + " " + symbol + " " + action.toString());
-            if (action instanceof ShiftAction) {
-                // Shift the matched terminal t onto the parse stack and scan the next input symbol into the lookahead
-                // buffer.
-                // Push next state n onto the parse stack as the new current state.
-                final ShiftAction shift = (ShiftAction) action;
-                stack.push(symbol);
-                tree.push(new Node(lexeme.toString()));
-                stack.push(shift.stateID());
-                i++;
-            }
-            else if (action instanceof ReduceAction) {
-                // Apply grammar rule rm: Lhs -> S1 S2 ... SL
-                // Remove the matched topmost L symbols (and parse trees and associated state numbers) from the parse
-                // stack.
-                // This exposes a prior state p that was expecting an instance of the Lhs symbol.
-                // Join the L parse trees together as one parse tree with new root symbol Lhs.
-                // Lookup the next state n from row p and column Lhs of the LHS Goto table.
-                // Push the symbol and tree for Lhs onto the parse stack.
-                // Push next state n onto the parse stack as the new current state.
-                // The lookahead and input stream remain unchanged.
-                final ReduceAction reduce = (ReduceAction) action;
-                final Production production = reduce.production();
-
-                if (production.isEpsilonProduction()) {
-                    tree.push(new Node(production.leftSide().toString(), Arrays.asList(new Node("$"))));
-                }
-                else {
-                    final List<Node> children = new ArrayList<>();
-                    for (int j = 0; j < (production.rightSide().size() * 2); j++) {
-                        stack.pop();
-                        if ((j % 2) == 0) {
-                            children.add(0, tree.pop());
+            final int state = states[depth - 1];
+            final int symbol = id(lexeme);
+
+            final int action = table.action(state, symbol);
+            switch (CompactParserTable.kind(action)) {
+                case CompactParserTable.SHIFT:
+                    // Shift the matched terminal t onto the parse stack and scan the next input symbol into the
+                    // lookahead buffer.
+                    // Push next state n onto the parse stack as the new current state.
+                    push(CompactParserTable.argument(action), new Node(lexeme.toString()));
+                    i++;
+                    break;
+                case CompactParserTable.REDUCE:
+                    // Apply grammar rule rm: Lhs -> S1 S2 ... SL
+                    // Remove the matched topmost L symbols (and parse trees and associated state numbers) from the
+                    // parse stack.
+                    // This exposes a prior state p that was expecting an instance of the Lhs symbol.
+                    // Join the L parse trees together as one parse tree with new root symbol Lhs.
+                    // Lookup the next state n from row p and column Lhs of the LHS Goto table.
+                    // Push the symbol and tree for Lhs onto the parse stack.
+                    // Push next state n onto the parse stack as the new current state.
+                    // The lookahead and input stream remain unchanged.
+                    final int production = CompactParserTable.argument(action);
+                    final int length = table.length(production);
+                    final Node node;
+                    if (length == 0) {
+                        node = new Node(table.leftSideName(production), Arrays.asList(new Node("$")));
+                    }
+                    else {
+                        final List<Node> children = new ArrayList<>(length);
+                        for (int j = depth - length; j < depth; j++) {
+                            children.add(trees[j]);
+                            trees[j] = null;
                         }
+                        depth -= length;
+                        node = new Node(table.leftSideName(production), children);
                     }
-                    tree.push(new Node(production.leftSide().toString(), children));
-                }
 
-                final PutAction put = (PutAction) table.getAction(stack.peek(), production.leftSide().toString());
-                stack.push(production.leftSide().toString());
-                stack.push(put.stateID());
-            }
-            else if (action instanceof AcceptAction) {
-                // Lookahead t is the eof marker. End of parsing. If the state stack contains just the start state
-                // report success. Otherwise, report a syntax error.
-                if ("#".equals(symbol)) {
-                    return tree.pop();
-                }
-                break; // Shouldn't happen.
-            }
-            else if (action instanceof RejectAction) {
-                // Report a syntax error. The parser ends, or attempts some recovery.
-                errorStream.println("Error on line: " + lexeme.lineNumber() + ", found: (" + lexeme + "), expected: "
-                        + table.symbolsWithActionsFromState(state));
-
-                // Find next sync symbol
-                while ((i < (lexemes.size() - 1))
-                        && !syncSymbols.contains(ProductionParser.parseSymbol(lexemes.get(i).type()))) {
-                    i++;
-                }
-
-                final String syncSymbol = lexemes.get(i).type().toString();
-                // Find first state with defined action for the sync symbol
-                while (table.getAction(stack.peek(), syncSymbol) instanceof RejectAction) {
-                    stack.pop();
-                    stack.pop();
-                    tree.pop();
-                }
-            }
-            else {
-                errorStream.println("Unimplemented action.");
+                    final int put = table.action(states[depth - 1], table.leftSide(production));
+                    push(CompactParserTable.argument(put), node);
+                    break;
+                case CompactParserTable.ACCEPT:
+                    // Lookahead t is the eof marker. End of parsing. If the state stack contains just the start state
+                    // report success. Otherwise, report a syntax error.
+                    if ("#".equals(lexeme.type())) {
+                        return trees[depth - 1];
+                    }
+                    return new Node("Error"); // Shouldn't happen.
+                default:
+                    // Report a syntax error. The parser ends, or attempts some recovery.
+                    errorStream.println("Error on line: " + lexeme.lineNumber() + ", found: (" + lexeme
+                            + "), expected: " + table.expected(state));
+
+                    // Find next sync symbol
+                    while ((i < (lexemes.size() - 1)) && !isSync(lexemes.get(i))) {
+                        i++;
+                    }
+
+                    final int syncSymbol = id(lexemes.get(i));
+                    // Find first state with defined action for the sync symbol
+                    while (table.action(states[depth - 1], syncSymbol) == CompactParserTable.ERROR) {
+                        if (depth == 1) {
+                            throw new EmptyStackException();
+                        }
+                        trees[--depth] = null;
+                    }
+                    break;
             }
         }
         return new Node("Error");
     }
 
+    /*
+     * Returns the id of the type of the lexeme, the id of the symbol is used only if the symbol is from the table of
+     * the parser.
+     */
+    private int id(final Lexeme lexeme) {
+        final Symbol type = lexeme.typeSymbol();
+        if (type == null) {
+            return SymbolTable.NONE;
+        }
+
+        final int id = type.id();
+        if ((id >= 0) && (id < symbols.size()) && (symbols.symbol(id) == type)) {
+            return id;
+        }
+        return symbols.id(type.name());
+    }
+
+    private boolean isSync(final Lexeme lexeme) {
+        final int id = id(lexeme);
+        return (id != SymbolTable.NONE) && syncSymbols.get(id);
+    }
+
+    /*
+     * Pushes the state and the subtree which leads to it, the arrays grow when they are full.
+     */
+    private void push(final int state, final Node tree) {
+        if (depth == states.length) {
+            states = Arrays.copyOf(states, depth * 2);
+            trees = Arrays.copyOf(trees, depth * 2);
+        }
+        states[depth] = state;
+        trees[depth++] = tree;
+    }
 }
@@ -5,18 +5,24 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
 
 import hr.fer.zemris.ppj.grammar.ProductionParser;
+import hr.fer.zemris.ppj.grammar.SymbolTable;
 import hr.fer.zemris.ppj.grammar.interfaces.Symbol;
 import hr.fer.zemris.ppj.lr1.parser.actions.ParserAction;
+import hr.fer.zemris.ppj.lr1.parser.actions.ReduceAction;
 import hr.fer.zemris.ppj.lr1.parser.actions.RejectAction;
 
 /**
- * <code>LR1ParserTable</code> is a table of actions for the LR(1) parser.
+ * <code>LR1ParserTable</code> is a table of actions for the LR(1) parser. The table owns the {@link SymbolTable} in
+ * which the symbols of its actions are interned, sorted by their names, the columns of its {@link #compact()} form are
+ * their ids.
  *
  * @author Domagoj Polancec
  *
- * @version 1.0
+ * @version 1.2
  */
 public class LR1ParserTable {
 
@@ -106,6 +112,7 @@ public class LR1ParserTable {
     }
 
     private final Map<TablePair, ParserAction> actionTable = new HashMap<>();
+    private final SymbolTable symbolTable = new SymbolTable();
 
     /**
      * Constructs a new LR(1) parser table from the given action table.
@@ -115,6 +122,17 @@ public class LR1ParserTable {
      */
     public LR1ParserTable(final Map<TablePair, ParserAction> actionTable) {
         this.actionTable.putAll(actionTable);
+
+        final Set<String> names = new TreeSet<>();
+        for (final Map.Entry<TablePair, ParserAction> entry : actionTable.entrySet()) {
+            names.add(entry.getKey().getSymbol().name());
+            if (entry.getValue() instanceof ReduceAction) {
+                names.add(((ReduceAction) entry.getValue()).production().leftSide().name());
+            }
+        }
+        for (final String name : names) {
+            symbolTable.intern(name);
+        }
     }
 
     /**
@@ -148,7 +166,7 @@ public class LR1ParserTable {
      */
     public ParserAction getAction(final TablePair pair) {
         final ParserAction action = actionTable.get(pair);
-        return action == null ? new RejectAction() : action;
+        return action == null ? RejectAction.INSTANCE : action;
     }
 
     /**
@@ -190,6 +208,27 @@ public class LR1ParserTable {
         return getAction(new TablePair(stateId, symbol));
     }
 
+    /**
+     * Creates the table of the same actions indexed by integers.
+     *
+     * @return the compact table.
+     * @since 1.1
+     */
+    public CompactParserTable compact() {
+        return new CompactParserTable(actionTable, symbolTable);
+    }
+
+    /**
+     * Returns the table in which the symbols of the actions are interned. Lexemes created with the table are looked
+     * up by their ids, see {@link hr.fer.zemris.ppj.Lexeme#Lexeme(String, int, Symbol, SymbolTable)}.
+     *
+     * @return the symbol table.
+     * @since 1.2
+     */
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
     @Override
     public String toString() {
         final Map<String, List<String>> stateList = new HashMap<>();
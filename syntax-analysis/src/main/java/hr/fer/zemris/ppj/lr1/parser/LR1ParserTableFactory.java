@@ -1,16 +1,13 @@
 package hr.fer.zemris.ppj.lr1.parser;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import hr.fer.zemris.ppj.finite.automaton.BasicInput;
 import hr.fer.zemris.ppj.finite.automaton.DFAutomaton;
-import hr.fer.zemris.ppj.finite.automaton.interfaces.Input;
+import hr.fer.zemris.ppj.finite.automaton.DFAutomatonTable;
 import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
-import hr.fer.zemris.ppj.finite.automaton.interfaces.Transition;
 import hr.fer.zemris.ppj.grammar.Production;
 import hr.fer.zemris.ppj.grammar.interfaces.Symbol;
 import hr.fer.zemris.ppj.lr1.parser.LR1ParserTable.TablePair;
@@ -39,6 +36,7 @@ public class LR1ParserTableFactory {
      */
     public static LR1ParserTable fromDFA(final DFAutomaton dfa, final Symbol startSymbol) {
         final LR1ParserTableBuilder builder = new LR1ParserTableBuilder();
+        final DFAutomatonTable table = dfa.getTable();
 
         final Set<State> states = dfa.getStates();
         for (final State state : states) {
@@ -50,10 +48,7 @@ public class LR1ParserTableFactory {
                 throw new IllegalArgumentException("Can't create LR parser table from this automaton!");
             }
 
-            final Map<Input, Transition> transitions = new HashMap<>();
-            for (final Transition transition : dfa.getTransferFunction().getTransitions(state, null, null)) {
-                transitions.put(transition.getInput(), transition);
-            }
+            final int stateIndex = table.getStateIndex(state);
             final List<LRItem> completeItems = new ArrayList<>();
             final List<LRItem> nonCompleteItems = new ArrayList<>();
             separate(lrState, completeItems, nonCompleteItems);
@@ -64,7 +59,7 @@ public class LR1ParserTableFactory {
             }
 
             for (final LRItem item : nonCompleteItems) {
-                fillTableShiftPut(state, dfa, builder, item, transitions);
+                fillTableShiftPut(state, stateIndex, table, builder, item);
             }
 
         }
@@ -72,15 +67,16 @@ public class LR1ParserTableFactory {
         return builder.build();
     }
 
-    private static void fillTableShiftPut(final State state, final DFAutomaton dfa, final LR1ParserTableBuilder builder,
-            final LRItem lrItem, final Map<Input, Transition> transitions) {
+    private static void fillTableShiftPut(final State state, final int stateIndex, final DFAutomatonTable table,
+            final LR1ParserTableBuilder builder, final LRItem lrItem) {
         final Symbol nextSymbol = lrItem.getProduction().rightSide().get(lrItem.getDotIndex());
-        final Transition transition = transitions.get(new BasicInput(nextSymbol.toString()));
-        if (transition != null) {
+        final State newState =
+                table.getState(table.step(stateIndex, table.getInputClass(new BasicInput(nextSymbol.toString()))));
+        if (newState != null) {
             final TablePair pair = new TablePair(state.getId(), nextSymbol);
             if (nextSymbol.isTerminal()) {
                 final ParserAction oldAction = builder.getAction(pair);
-                final ParserAction newAction = new ShiftAction(transition.getNewState().getId());
+                final ParserAction newAction = new ShiftAction(newState.getId());
                 if ((oldAction != null) && !oldAction.equals(newAction)) {
                     System.err.println("Resolved shift/reduce conflict for state: " + state.getId() + " symbol: "
                             + nextSymbol + ". Old action: " + oldAction + " New action:" + newAction);
@@ -88,7 +84,7 @@ public class LR1ParserTableFactory {
                 builder.addAction(pair, newAction);
             }
             else {
-                builder.addAction(pair, new PutAction(transition.getNewState().getId()));
+                builder.addAction(pair, new PutAction(newState.getId()));
             }
         }
 
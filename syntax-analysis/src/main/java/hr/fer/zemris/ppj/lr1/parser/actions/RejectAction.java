@@ -8,7 +8,7 @@ import hr.fer.zemris.ppj.lr1.parser.LR1Parser;
  * @author Jan Kelemen
  * @author Matea Sabolic
  *
- * @version alpha
+ * @version 1.0
  */
 public class RejectAction implements ParserAction {
 
@@ -17,6 +17,13 @@ public class RejectAction implements ParserAction {
      */
     public static final String ACTION_NAME = "REJECT";
 
+    /**
+     * Shared instance, rejects don't have any state.
+     *
+     * @since 1.0
+     */
+    public static final RejectAction INSTANCE = new RejectAction();
+
     /**
      * {@inheritDoc}
      *
@@ -0,0 +1,133 @@
+package hr.fer.zemris.ppj.grammar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EmptyStackException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import hr.fer.zemris.ppj.Lexeme;
+import hr.fer.zemris.ppj.finite.automaton.DFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
+import hr.fer.zemris.ppj.grammar.interfaces.Symbol;
+import hr.fer.zemris.ppj.grammar.symbols.TerminalSymbol;
+import hr.fer.zemris.ppj.lr1.parser.LR1CollectionBuilder;
+import hr.fer.zemris.ppj.lr1.parser.LR1CollectionBuilder.Mode;
+import hr.fer.zemris.ppj.lr1.parser.LR1Parser;
+import hr.fer.zemris.ppj.lr1.parser.LR1ParserTableFactory;
+import hr.fer.zemris.ppj.lr1.parser.LRItem;
+import hr.fer.zemris.ppj.lr1.parser.LRState;
+
+@SuppressWarnings("javadoc")
+public class CollectionModeTest {
+
+    private Grammar grammar;
+
+    /*
+     * LR(1) grammar which isn't LALR(1), the states reached by "a c" and "b c" have the same core.
+     */
+    @Before
+    public void setUp() {
+        final List<String> nonterminalSymbols = Arrays.asList("<%>", "<S>", "<A>", "<B>");
+        final List<String> terminalSymbols = Arrays.asList("a", "b", "c", "d", "e");
+
+        final GrammarBuilder builder = new GrammarBuilder(nonterminalSymbols, terminalSymbols, "<%>");
+        final ProductionParser parser = builder.getProductionParser();
+        builder.addProduction(parser.production("<%>", "<S>"));
+        builder.addProduction(parser.production("<S>", "a <A> d"));
+        builder.addProduction(parser.production("<S>", "b <B> d"));
+        builder.addProduction(parser.production("<S>", "a <B> e"));
+        builder.addProduction(parser.production("<S>", "b <A> e"));
+        builder.addProduction(parser.production("<A>", "c"));
+        builder.addProduction(parser.production("<B>", "c"));
+
+        grammar = builder.build();
+    }
+
+    @Test
+    public void testConflicts() {
+        assertEquals(0, reduceReduceConflicts(Mode.CANONICAL));
+        assertEquals(2, reduceReduceConflicts(Mode.LALR));
+        assertEquals(0, reduceReduceConflicts(Mode.MINIMAL));
+    }
+
+    @Test
+    public void testParse() {
+        for (final String input : Arrays.asList("a c e", "b c d", "a c d", "b c e")) {
+            final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+            final String expected = parse(Mode.CANONICAL, input, errors);
+            assertEquals(input, 0, errors.size());
+            assertEquals(input, expected, parse(Mode.MINIMAL, input, errors));
+            assertEquals(input, 0, errors.size());
+        }
+
+        // Without sync symbols the parser gives up after reporting the error.
+        final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        try {
+            parse(Mode.LALR, "a c e", errors);
+        }
+        catch (final EmptyStackException e) {
+            // Expected, the error is checked below.
+        }
+        assertTrue(errors.size() > 0);
+    }
+
+    @Test
+    public void testStateCount() {
+        final int canonical = new LR1CollectionBuilder(grammar, Mode.CANONICAL).build().getStates().size();
+        final int lalr = new LR1CollectionBuilder(grammar, Mode.LALR).build().getStates().size();
+        final int minimal = new LR1CollectionBuilder(grammar, Mode.MINIMAL).build().getStates().size();
+        assertTrue(lalr < minimal);
+        assertFalse(minimal > canonical);
+    }
+
+    /*
+     * Counts the pairs of a state and a lookahead for which the state has complete items of different productions.
+     */
+    private int reduceReduceConflicts(final Mode mode) {
+        final DFAutomaton automaton = new LR1CollectionBuilder(grammar, mode).build();
+        int conflicts = 0;
+        for (final State state : automaton.getStates()) {
+            final Set<String> lookaheads = new HashSet<>();
+            final Set<String> conflicting = new HashSet<>();
+            for (final LRItem item : ((LRState) state).getItems()) {
+                final Production production = item.getProduction();
+                if (production.isEpsilonProduction() || (item.getDotIndex() == production.rightSide().size())) {
+                    for (final Symbol lookahead : item.getTerminalSymbols()) {
+                        if (!lookaheads.add(lookahead.name())) {
+                            conflicting.add(lookahead.name());
+                        }
+                    }
+                }
+            }
+            conflicts += conflicting.size();
+        }
+        return conflicts;
+    }
+
+    /*
+     * Parses the terminals separated by spaces and returns the printed generative tree.
+     */
+    private String parse(final Mode mode, final String input, final ByteArrayOutputStream errors) {
+        final DFAutomaton automaton = new LR1CollectionBuilder(grammar, mode).build();
+        final LR1Parser parser = new LR1Parser(
+                LR1ParserTableFactory.fromDFA(automaton, ProductionParser.parseSymbol("<%>")), new ArrayList<Symbol>());
+
+        final List<Lexeme> lexemes = new ArrayList<>();
+        for (final String terminal : input.split(" ")) {
+            lexemes.add(new Lexeme(terminal, 1, new TerminalSymbol(terminal)));
+        }
+        lexemes.add(new Lexeme("#", -1, ProductionParser.parseSymbol("#")));
+        return parser.analyze(lexemes, new PrintStream(errors)).print(0);
+    }
+}
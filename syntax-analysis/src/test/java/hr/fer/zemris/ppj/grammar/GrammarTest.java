@@ -1,11 +1,20 @@
 package hr.fer.zemris.ppj.grammar;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import hr.fer.zemris.ppj.grammar.interfaces.Symbol;
+
 @SuppressWarnings("javadoc")
 public class GrammarTest {
 
@@ -61,4 +70,61 @@ public class GrammarTest {
         System.out.println(grammar.startsWith("e <A> f"));
         System.out.println(grammar.startsWith("c"));
     }
+
+    @Test
+    public void testIndirectlyEmptySymbols() {
+        // <A> and <S> are empty only through <B>.
+        final GrammarBuilder builder =
+                new GrammarBuilder(Arrays.asList("<S>", "<A>", "<B>"), Arrays.asList("b"), "<S>");
+        final ProductionParser parser = builder.getProductionParser();
+        final Production start = parser.production("<S>", "<A> b");
+        final Production chain = parser.production("<A>", "<B>");
+        final Production empty = parser.production("<B>", "$");
+        builder.addProduction(start);
+        builder.addProduction(chain);
+        builder.addProduction(empty);
+        final Grammar chainGrammar = builder.build();
+
+        assertTrue(chainGrammar.isEmptySymbol(parser.symbol("<A>")));
+        assertTrue(chainGrammar.isEmptySymbol(parser.symbol("<B>")));
+        assertFalse(chainGrammar.isEmptySymbol(parser.symbol("<S>")));
+        assertTrue(chainGrammar.isEmptySequence("<A> <B>"));
+
+        assertTrue(chainGrammar.startsWith(parser.symbol("<S>")).contains(parser.symbol("b")));
+        assertTrue(names(chainGrammar, chainGrammar.first(parser.symbol("<S>"))).contains("b"));
+
+        assertFalse(chainGrammar.isEmptySuffix(start, 0));
+        assertFalse(chainGrammar.isEmptySuffix(start, 1));
+        assertTrue(chainGrammar.isEmptySuffix(start, 2));
+        assertTrue(chainGrammar.isEmptySuffix(chain, 0));
+        assertTrue(chainGrammar.isEmptySuffix(chain, 1));
+        assertTrue(chainGrammar.isEmptySuffix(empty, 0));
+
+        for (final Production production : chainGrammar.productions()) {
+            final List<Symbol> rightSide = production.rightSide();
+            for (int i = 0; i <= rightSide.size(); i++) {
+                final List<Symbol> suffix = rightSide.subList(i, rightSide.size());
+                assertEquals(production + " " + i, names(chainGrammar.startsWith(suffix)),
+                        names(chainGrammar, chainGrammar.first(production, i)));
+                assertEquals(production + " " + i, chainGrammar.isEmptySequence(suffix),
+                        chainGrammar.isEmptySuffix(production, i));
+            }
+        }
+    }
+
+    private static Set<String> names(final Set<Symbol> symbols) {
+        final Set<String> names = new HashSet<>();
+        for (final Symbol symbol : symbols) {
+            names.add(symbol.name());
+        }
+        return names;
+    }
+
+    private static Set<String> names(final Grammar grammar, final TerminalSet set) {
+        final Set<String> names = new HashSet<>();
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            names.add(grammar.terminal(i).name());
+        }
+        return names;
+    }
 }
@@ -0,0 +1,110 @@
+package hr.fer.zemris.ppj.lr1.parser;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import hr.fer.zemris.ppj.finite.automaton.DFAutomaton;
+import hr.fer.zemris.ppj.finite.automaton.interfaces.State;
+import hr.fer.zemris.ppj.grammar.Grammar;
+import hr.fer.zemris.ppj.grammar.GrammarBuilder;
+import hr.fer.zemris.ppj.grammar.Production;
+import hr.fer.zemris.ppj.grammar.ProductionParser;
+import hr.fer.zemris.ppj.lr1.parser.LR1CollectionBuilder.Mode;
+import hr.fer.zemris.ppj.lr1.parser.actions.AcceptAction;
+import hr.fer.zemris.ppj.lr1.parser.actions.ParserAction;
+import hr.fer.zemris.ppj.lr1.parser.actions.PutAction;
+import hr.fer.zemris.ppj.lr1.parser.actions.ReduceAction;
+import hr.fer.zemris.ppj.lr1.parser.actions.RejectAction;
+import hr.fer.zemris.ppj.lr1.parser.actions.ShiftAction;
+
+@SuppressWarnings("javadoc")
+public class CompactParserTableTest {
+
+    /*
+     * Symbols of the grammar, the end symbol and a symbol without actions.
+     */
+    private static final List<String> SYMBOLS = Arrays.asList("<%>", "<S>", "<A>", "<B>", "a", "b", "#", "c");
+
+    private Grammar grammar;
+
+    /*
+     * See SS: PPJ - 148.
+     */
+    @Before
+    public void setUp() {
+        final List<String> nonterminalSymbols = Arrays.asList("<%>", "<S>", "<A>", "<B>");
+        final List<String> terminalSymbols = Arrays.asList("a", "b");
+
+        final GrammarBuilder builder = new GrammarBuilder(nonterminalSymbols, terminalSymbols, "<%>");
+        final ProductionParser parser = builder.getProductionParser();
+        builder.addProduction(parser.production("<%>", "<S>"));
+        builder.addProduction(parser.production("<S>", "<A>"));
+        builder.addProduction(parser.production("<A>", "<B> <A>"));
+        builder.addProduction(parser.production("<A>", "$"));
+        builder.addProduction(parser.production("<B>", "a <B>"));
+        builder.addProduction(parser.production("<B>", "b"));
+
+        grammar = builder.build();
+    }
+
+    @Test
+    public void testCanonical() {
+        assertSameActions(Mode.CANONICAL);
+    }
+
+    @Test
+    public void testLALR() {
+        assertSameActions(Mode.LALR);
+    }
+
+    /*
+     * Every cell of the compact table, defined or not, must have the action of the same cell of the parser table.
+     */
+    private void assertSameActions(final Mode mode) {
+        final DFAutomaton automaton = new LR1CollectionBuilder(grammar, mode).build();
+        final LR1ParserTable table = LR1ParserTableFactory.fromDFA(automaton, ProductionParser.parseSymbol("<%>"));
+        final CompactParserTable compact = table.compact();
+
+        final List<String> stateIds = new ArrayList<>();
+        for (final State state : automaton.getStates()) {
+            stateIds.add(state.getId());
+        }
+        assertEquals(0, compact.state("0"));
+
+        for (final String stateId : stateIds) {
+            for (final String symbol : SYMBOLS) {
+                final String cell = stateId + " " + symbol;
+                final ParserAction expected = table.getAction(stateId, symbol);
+                final int state = compact.state(stateId);
+                final int action = state < 0 ? CompactParserTable.ERROR : compact.action(state, compact.symbol(symbol));
+                final int argument = CompactParserTable.argument(action);
+
+                switch (CompactParserTable.kind(action)) {
+                    case CompactParserTable.SHIFT:
+                        final String target = expected instanceof ShiftAction ? ((ShiftAction) expected).stateID()
+                                : ((PutAction) expected).stateID();
+                        assertEquals(cell, compact.state(target), argument);
+                        break;
+                    case CompactParserTable.REDUCE:
+                        final Production production = ((ReduceAction) expected).production();
+                        assertEquals(cell, production.leftSide().toString(), compact.leftSideName(argument));
+                        assertEquals(cell, compact.symbol(production.leftSide().name()), compact.leftSide(argument));
+                        assertEquals(cell, production.rightSide().size(), compact.length(argument));
+                        break;
+                    case CompactParserTable.ACCEPT:
+                        assertEquals(cell, AcceptAction.class, expected.getClass());
+                        break;
+                    default:
+                        assertEquals(cell, RejectAction.INSTANCE, expected);
+                        break;
+                }
+            }
+        }
+    }
+}